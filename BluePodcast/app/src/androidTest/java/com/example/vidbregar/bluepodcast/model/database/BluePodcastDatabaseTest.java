@@ -0,0 +1,206 @@
+package com.example.vidbregar.bluepodcast.model.database;
+
+import android.arch.persistence.room.Room;
+import android.arch.persistence.room.RoomDatabase;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+
+import com.example.vidbregar.bluepodcast.model.database.catalog.ChannelEntity;
+import com.example.vidbregar.bluepodcast.model.database.episode.EpisodeEntity;
+import com.example.vidbregar.bluepodcast.model.database.favorites.FavoriteEntity;
+import com.example.vidbregar.bluepodcast.model.database.search.LocalSearchIndex;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class BluePodcastDatabaseTest {
+
+    private static final String DATABASE = "test-blue_podcast.db";
+    private static final String LEGACY_FAVORITES = "test-favorites.db";
+    private static final String LEGACY_EPISODE = "test-episode.db";
+    private static final String SPLIT_FAVORITES = "test-split-favorites.db";
+    private static final String SPLIT_EPISODE = "test-split-episode.db";
+    private static final int WRITES = 100;
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getTargetContext();
+        deleteDatabases();
+    }
+
+    @After
+    public void tearDown() {
+        deleteDatabases();
+    }
+
+    @Test
+    public void legacyDatabases_areImportedAndDeleted() {
+        SQLiteDatabase favorites = context.openOrCreateDatabase(LEGACY_FAVORITES, Context.MODE_PRIVATE, null);
+        favorites.execSQL("CREATE TABLE favorites_table (episode_title TEXT NOT NULL, thumbnail_url TEXT, publisher TEXT, audio_url TEXT, PRIMARY KEY(episode_title))");
+        favorites.execSQL("INSERT INTO favorites_table VALUES ('Episode', 'thumbnail', 'Publisher', 'audio')");
+        favorites.close();
+        SQLiteDatabase episode = context.openOrCreateDatabase(LEGACY_EPISODE, Context.MODE_PRIVATE, null);
+        episode.execSQL("CREATE TABLE episode_table (id INTEGER NOT NULL, thumbnail_url TEXT, episode_title TEXT, publisher TEXT, audio_url TEXT, PRIMARY KEY(id))");
+        episode.execSQL("INSERT INTO episode_table VALUES (1, 'thumbnail', 'Last played', 'Publisher', 'audio')");
+        episode.close();
+
+        BluePodcastDatabase database = build(DATABASE, RoomDatabase.JournalMode.WRITE_AHEAD_LOGGING,
+                new LegacyDatabaseImporter(context, LEGACY_FAVORITES, LEGACY_EPISODE));
+
+        assertNotNull(database.favoritesDao().getFavorite(FavoriteEntity.UNKNOWN_PODCAST_ID, "audio"));
+        assertEquals("Last played", database.episodeDao().getEpisode().getEpisodeTitle());
+        assertFalse(context.getDatabasePath(LEGACY_FAVORITES).exists());
+        assertFalse(context.getDatabasePath(LEGACY_EPISODE).exists());
+        database.close();
+    }
+
+    @Test
+    public void legacyFavoriteAlreadyStored_isKeptAndIndexedOnce() {
+        BluePodcastDatabase database = build(DATABASE, RoomDatabase.JournalMode.WRITE_AHEAD_LOGGING, null);
+        database.favoritesDao().insertFavorite(new FavoriteEntity(FavoriteEntity.UNKNOWN_PODCAST_ID,
+                "audio", "Episode", "thumbnail", "Publisher", "audio", 1));
+        database.close();
+        SQLiteDatabase favorites = context.openOrCreateDatabase(LEGACY_FAVORITES, Context.MODE_PRIVATE, null);
+        favorites.execSQL("CREATE TABLE favorites_table (episode_title TEXT NOT NULL, thumbnail_url TEXT, publisher TEXT, audio_url TEXT, PRIMARY KEY(episode_title))");
+        favorites.execSQL("INSERT INTO favorites_table VALUES ('Episode', 'thumbnail', 'Publisher', 'audio')");
+        favorites.close();
+
+        database = build(DATABASE, RoomDatabase.JournalMode.WRITE_AHEAD_LOGGING,
+                new LegacyDatabaseImporter(context, LEGACY_FAVORITES, LEGACY_EPISODE));
+        database.favoritesDao().removeFavorite(FavoriteEntity.UNKNOWN_PODCAST_ID, "audio");
+
+        // Nothing of the favorite is left in the index
+        try (Cursor cursor = database.query("SELECT COUNT(*) FROM search_fts", null)) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals(0, cursor.getInt(0));
+        }
+        database.close();
+    }
+
+    @Test
+    public void migrationFrom1_keepsRowsAndAddsCatalog() {
+        SQLiteDatabase version1 = context.openOrCreateDatabase(DATABASE, Context.MODE_PRIVATE, null);
+        version1.execSQL("CREATE TABLE IF NOT EXISTS `episode_table` (`id` INTEGER NOT NULL, `thumbnail_url` TEXT, `episode_title` TEXT, `publisher` TEXT, `audio_url` TEXT, PRIMARY KEY(`id`))");
+        version1.execSQL("CREATE TABLE IF NOT EXISTS `favorites_table` (`episode_title` TEXT NOT NULL, `thumbnail_url` TEXT, `publisher` TEXT, `audio_url` TEXT, PRIMARY KEY(`episode_title`))");
+        version1.execSQL("INSERT INTO favorites_table VALUES ('Episode', 'thumbnail', 'Publisher', 'audio')");
+        version1.setVersion(1);
+        version1.close();
+
+        // Room validates the migrated schema against the entities when it opens
+        BluePodcastDatabase database = build(DATABASE, RoomDatabase.JournalMode.WRITE_AHEAD_LOGGING, null);
+
+        assertNotNull(database.favoritesDao().getFavorite(FavoriteEntity.UNKNOWN_PODCAST_ID, "audio"));
+        database.catalogDao().upsertChannels(Collections.singletonList(
+                new ChannelEntity("channel", "", "", "", "", "Channel", "")));
+        database.close();
+    }
+
+    @Test
+    public void migrationFrom3_keysFavoritesAndKeepsThemSearchable() {
+        SQLiteDatabase version1 = context.openOrCreateDatabase(DATABASE, Context.MODE_PRIVATE, null);
+        version1.execSQL("CREATE TABLE IF NOT EXISTS `episode_table` (`id` INTEGER NOT NULL, `thumbnail_url` TEXT, `episode_title` TEXT, `publisher` TEXT, `audio_url` TEXT, PRIMARY KEY(`id`))");
+        version1.execSQL("CREATE TABLE IF NOT EXISTS `favorites_table` (`episode_title` TEXT NOT NULL, `thumbnail_url` TEXT, `publisher` TEXT, `audio_url` TEXT, PRIMARY KEY(`episode_title`))");
+        version1.execSQL("INSERT INTO favorites_table VALUES ('Older episode', 'thumbnail', 'Publisher', 'audio')");
+        version1.execSQL("INSERT INTO favorites_table VALUES ('Newer episode', 'thumbnail', 'Publisher', NULL)");
+        version1.setVersion(1);
+        version1.close();
+
+        // Runs every migration, the favorites are indexed by version 3 and rebuilt by version 4
+        BluePodcastDatabase database = build(DATABASE, RoomDatabase.JournalMode.WRITE_AHEAD_LOGGING, null);
+
+        FavoriteEntity older = database.favoritesDao().getFavorite(FavoriteEntity.UNKNOWN_PODCAST_ID, "audio");
+        FavoriteEntity newer = database.favoritesDao().getFavorite(FavoriteEntity.UNKNOWN_PODCAST_ID, "Newer episode");
+        assertNotNull(older);
+        assertNotNull(newer);
+        assertTrue(newer.getAddedAt() > older.getAddedAt());
+        assertEquals(2, new LocalSearchIndex(database).search("episode", 10).size());
+        database.favoritesDao().removeFavorite(FavoriteEntity.UNKNOWN_PODCAST_ID, "audio");
+        assertEquals(1, new LocalSearchIndex(database).search("episode", 10).size());
+        database.close();
+    }
+
+    @Test
+    public void missingLegacyDatabases_areSkipped() {
+        BluePodcastDatabase database = build(DATABASE, RoomDatabase.JournalMode.WRITE_AHEAD_LOGGING,
+                new LegacyDatabaseImporter(context, LEGACY_FAVORITES, LEGACY_EPISODE));
+
+        assertNull(database.episodeDao().getEpisode());
+        database.close();
+    }
+
+    // Compares the two files opened before with the single database, the numbers go to logcat
+    @Test
+    public void benchmark_coldOpenAndWrites() {
+        long start = System.nanoTime();
+        BluePodcastDatabase splitFavorites = build(SPLIT_FAVORITES, RoomDatabase.JournalMode.TRUNCATE, null);
+        BluePodcastDatabase splitEpisode = build(SPLIT_EPISODE, RoomDatabase.JournalMode.TRUNCATE, null);
+        long splitOpenMicros = (System.nanoTime() - start) / 1000;
+        long splitWriteMicros = timeWrites(splitFavorites, splitEpisode);
+        splitFavorites.close();
+        splitEpisode.close();
+
+        start = System.nanoTime();
+        BluePodcastDatabase database = build(DATABASE, RoomDatabase.JournalMode.WRITE_AHEAD_LOGGING, null);
+        long unifiedOpenMicros = (System.nanoTime() - start) / 1000;
+        long unifiedWriteMicros = timeWrites(database, database);
+        assertNotNull(database.favoritesDao().getFavorite("podcast", String.valueOf(WRITES - 1)));
+        database.close();
+
+        Log.i("DatabaseBenchmark", "cold open: split " + splitOpenMicros
+                + "us, unified " + unifiedOpenMicros + "us");
+        Log.i("DatabaseBenchmark", 2 * WRITES + " writes: split " + splitWriteMicros
+                + "us, unified " + unifiedWriteMicros + "us");
+    }
+
+    // One transaction per write, like the app's inserts and updates
+    private long timeWrites(BluePodcastDatabase favorites, BluePodcastDatabase episode) {
+        episode.episodeDao().insertEpisode(new EpisodeEntity(1, "", "", "", "", null, null));
+        long start = System.nanoTime();
+        for (int i = 0; i < WRITES; i++) {
+            favorites.favoritesDao().insertFavorite(
+                    new FavoriteEntity("podcast", String.valueOf(i), "Episode " + i, "", "", "", i));
+            episode.episodeDao().updateEpisode("", "Episode " + i, "", "", "podcast", String.valueOf(i));
+        }
+        return (System.nanoTime() - start) / 1000;
+    }
+
+    private BluePodcastDatabase build(String name, RoomDatabase.JournalMode journalMode,
+                                      LegacyDatabaseImporter importer) {
+        RoomDatabase.Builder<BluePodcastDatabase> builder =
+                Room.databaseBuilder(context, BluePodcastDatabase.class, name)
+                        .setJournalMode(journalMode)
+                        .addMigrations(DatabaseMigrations.ALL)
+                        .allowMainThreadQueries();
+        if (importer != null) {
+            builder.addCallback(importer);
+        }
+        BluePodcastDatabase database = builder.build();
+        // Room opens lazily, this is the cold open
+        database.getOpenHelper().getWritableDatabase();
+        return database;
+    }
+
+    private void deleteDatabases() {
+        for (String name : new String[]{DATABASE, LEGACY_FAVORITES, LEGACY_EPISODE,
+                SPLIT_FAVORITES, SPLIT_EPISODE}) {
+            context.deleteDatabase(name);
+        }
+    }
+}
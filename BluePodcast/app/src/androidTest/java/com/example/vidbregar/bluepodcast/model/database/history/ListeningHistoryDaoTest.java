@@ -0,0 +1,134 @@
+package com.example.vidbregar.bluepodcast.model.database.history;
+
+import android.arch.core.executor.testing.InstantTaskExecutorRule;
+import android.arch.lifecycle.LiveData;
+import android.arch.persistence.room.Room;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+
+import com.example.vidbregar.bluepodcast.model.database.BluePodcastDatabase;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(AndroidJUnit4.class)
+public class ListeningHistoryDaoTest {
+
+    private static final long DAY = 17000;
+    private static final long STARTED_AT = TimeUnit.DAYS.toMillis(DAY);
+
+    @Rule
+    public InstantTaskExecutorRule instantTaskExecutorRule = new InstantTaskExecutorRule();
+
+    private BluePodcastDatabase database;
+    private ListeningHistoryDao listeningHistoryDao;
+
+    @Before
+    public void setUp() {
+        database = Room.inMemoryDatabaseBuilder(InstrumentationRegistry.getTargetContext(),
+                BluePodcastDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+        listeningHistoryDao = database.listeningHistoryDao();
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    @Test
+    public void append_addsToTheDailyAndPodcastAggregates() {
+        listeningHistoryDao.append(Arrays.asList(
+                entry("podcast", STARTED_AT, 1000, DAY),
+                entry("podcast", STARTED_AT + 1, 2000, DAY),
+                entry(null, STARTED_AT + 2, 4000, DAY)));
+        listeningHistoryDao.append(Collections.singletonList(entry("other", STARTED_AT + 3, 500, DAY + 1)));
+
+        List<DailyListeningEntity> days = value(listeningHistoryDao.getDailyListening(DAY, DAY + 1));
+        assertEquals(2, days.size());
+        assertEquals(7000, days.get(0).getListenedMs());
+        assertEquals(3, days.get(0).getPlays());
+        List<PodcastListeningEntity> mostListened = value(listeningHistoryDao.getMostListenedPodcasts(10));
+        // The episode without a podcast only counts towards its day
+        assertEquals(2, mostListened.size());
+        assertEquals("podcast", mostListened.get(0).getPodcastId());
+        assertEquals(3000, mostListened.get(0).getListenedMs());
+        assertEquals("other", value(listeningHistoryDao.getRecentlyPlayedPodcasts(1)).get(0).getPodcastId());
+        assertEquals(STARTED_AT + 3, value(listeningHistoryDao.getRecentHistory(1)).get(0).getStartedAt());
+    }
+
+    @Test
+    public void continuations_addListeningButNoPlays() {
+        listeningHistoryDao.append(Collections.singletonList(entry("podcast", STARTED_AT, 1000, DAY)));
+        listeningHistoryDao.append(Arrays.asList(
+                entry("podcast", STARTED_AT, 2000, DAY, true),
+                entry("podcast", STARTED_AT, 4000, DAY, true)));
+
+        DailyListeningEntity day = value(listeningHistoryDao.getDailyListening(DAY, DAY)).get(0);
+        assertEquals(7000, day.getListenedMs());
+        assertEquals(1, day.getPlays());
+        PodcastListeningEntity podcast = value(listeningHistoryDao.getMostListenedPodcasts(1)).get(0);
+        assertEquals(7000, podcast.getListenedMs());
+        assertEquals(1, podcast.getPlays());
+    }
+
+    @Test
+    public void recentHistory_foldsContinuationsIntoTheirPlay() {
+        listeningHistoryDao.append(Arrays.asList(
+                entry("podcast", STARTED_AT, 1000, DAY),
+                entry("podcast", STARTED_AT, 2000, DAY, true),
+                entry("podcast", STARTED_AT + 1, 500, DAY)));
+        listeningHistoryDao.append(Collections.singletonList(entry("podcast", STARTED_AT, 4000, DAY, true)));
+
+        List<ListeningHistoryEntity> history = value(listeningHistoryDao.getRecentHistory(10));
+
+        assertEquals(2, history.size());
+        assertEquals(STARTED_AT + 1, history.get(0).getStartedAt());
+        assertEquals(500, history.get(0).getListenedMs());
+        assertEquals(STARTED_AT, history.get(1).getStartedAt());
+        assertEquals(7000, history.get(1).getListenedMs());
+    }
+
+    @Test
+    public void prune_keepsThePodcastTotals() {
+        listeningHistoryDao.append(Arrays.asList(
+                entry("podcast", STARTED_AT, 1000, DAY),
+                entry("podcast", STARTED_AT + TimeUnit.DAYS.toMillis(1), 1000, DAY + 1)));
+
+        listeningHistoryDao.prune(STARTED_AT + 1, DAY + 1);
+
+        assertEquals(1, value(listeningHistoryDao.getRecentHistory(10)).size());
+        assertEquals(1, value(listeningHistoryDao.getDailyListening(DAY, DAY + 1)).size());
+        assertEquals(2000, value(listeningHistoryDao.getMostListenedPodcasts(1)).get(0).getListenedMs());
+    }
+
+    private static ListeningHistoryEntity entry(String podcastId, long startedAt, long listenedMs, long day) {
+        return entry(podcastId, startedAt, listenedMs, day, false);
+    }
+
+    private static ListeningHistoryEntity entry(String podcastId, long startedAt, long listenedMs,
+                                                long day, boolean continuation) {
+        return new ListeningHistoryEntity(0, podcastId, podcastId == null ? null : "episode",
+                "audio", "Episode", "Publisher", "", startedAt, listenedMs, day, continuation);
+    }
+
+    // Room computes LiveData once it is observed
+    private static <T> T value(LiveData<T> liveData) {
+        Object[] value = new Object[1];
+        liveData.observeForever(result -> value[0] = result);
+        @SuppressWarnings("unchecked")
+        T result = (T) value[0];
+        return result;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.vidbregar.bluepodcast.model.database.search;
+
+import android.arch.persistence.db.SupportSQLiteDatabase;
+import android.arch.persistence.room.Room;
+import android.arch.persistence.room.RoomDatabase;
+import android.support.annotation.NonNull;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+
+import com.example.vidbregar.bluepodcast.model.data.SearchResult;
+import com.example.vidbregar.bluepodcast.model.database.BluePodcastDatabase;
+import com.example.vidbregar.bluepodcast.model.database.catalog.CatalogEpisodeEntity;
+import com.example.vidbregar.bluepodcast.model.database.catalog.ChannelEntity;
+import com.example.vidbregar.bluepodcast.model.database.favorites.FavoriteEntity;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class LocalSearchIndexTest {
+
+    private static final int LARGE_CATALOG_SIZE = 100000;
+
+    private BluePodcastDatabase database;
+    private LocalSearchIndex localSearchIndex;
+
+    @Before
+    public void setUp() {
+        database = Room.inMemoryDatabaseBuilder(InstrumentationRegistry.getTargetContext(),
+                BluePodcastDatabase.class)
+                .addCallback(new RoomDatabase.Callback() {
+                    @Override
+                    public void onCreate(@NonNull SupportSQLiteDatabase db) {
+                        LocalSearchIndex.createSchema(db);
+                    }
+                })
+                .build();
+        localSearchIndex = new LocalSearchIndex(database);
+        database.catalogDao().upsertChannels(Collections.singletonList(
+                new ChannelEntity("channel", "", "", "", "Media House", "Founders", "")));
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    @Test
+    public void episodesAndFavorites_areFoundByPrefix() {
+        database.catalogDao().upsertEpisodes(Arrays.asList(
+                episode("1", "Building a startup", "How it started"),
+                episode("2", "Gardening", "Growing tomatoes")));
+        database.favoritesDao().insertFavorite(new FavoriteEntity("channel", "3", "Startup stories", "", "Other", "audio", 1));
+
+        List<SearchResult> results = localSearchIndex.search("start", 10);
+
+        assertEquals(2, results.size());
+    }
+
+    @Test
+    public void titleMatches_rankAboveDescriptionMatches() {
+        database.catalogDao().upsertEpisodes(Arrays.asList(
+                episode("1", "Weekly news", "About rockets"),
+                episode("2", "Rockets", "Weekly news")));
+
+        assertEquals("2", localSearchIndex.search("rockets", 10).get(0).getEpisodeId());
+    }
+
+    @Test
+    public void updatedAndRemovedRows_areReindexed() {
+        database.catalogDao().upsertEpisodes(Collections.singletonList(episode("1", "Old title", "")));
+        database.catalogDao().upsertEpisodes(Collections.singletonList(episode("1", "New title", "")));
+        database.favoritesDao().insertFavorite(new FavoriteEntity("channel", "4", "Old favorite", "", "", "audio", 1));
+        database.favoritesDao().removeFavorite("channel", "4");
+
+        assertTrue(localSearchIndex.search("old", 10).isEmpty());
+        assertEquals(1, localSearchIndex.search("new", 10).size());
+    }
+
+    @Test
+    public void channelPublisherChanges_areReindexed() {
+        database.catalogDao().upsertEpisodes(Collections.singletonList(episode("1", "Pilot", "")));
+        database.catalogDao().upsertChannels(Collections.singletonList(
+                new ChannelEntity("channel", "", "", "", "Studio Ninety", "Founders", "")));
+
+        assertTrue(localSearchIndex.search("media", 10).isEmpty());
+        assertEquals(1, localSearchIndex.search("ninety", 10).size());
+    }
+
+    // The numbers go to logcat
+    @Test
+    public void benchmark_largeCatalog() {
+        List<CatalogEpisodeEntity> episodes = new ArrayList<>();
+        for (int i = 0; i < LARGE_CATALOG_SIZE; i++) {
+            episodes.add(episode(String.valueOf(i), "Episode " + i + (i % 100 == 0 ? " interview" : ""),
+                    "Talk number " + i + " about technology and science"));
+            if (episodes.size() == 1000) {
+                database.catalogDao().upsertEpisodes(episodes);
+                episodes.clear();
+            }
+        }
+        for (String query : new String[]{"interview", "tech", "te", "episode 4"}) {
+            long start = System.nanoTime();
+            List<SearchResult> results = localSearchIndex.search(query, 20);
+            Log.i("LocalSearchBenchmark", "\"" + query + "\": " + results.size() + " results in "
+                    + (System.nanoTime() - start) / 1000 + "us");
+        }
+    }
+
+    private static CatalogEpisodeEntity episode(String id, String title, String description) {
+        return new CatalogEpisodeEntity(id, "channel", title, 0, description, 0, "https://a/" + id + ".mp3");
+    }
+}
@@ -2,19 +2,34 @@ package com.example.vidbregar.bluepodcast;
 
 import android.app.Activity;
 import android.app.Application;
+import android.app.Service;
 
 import com.example.vidbregar.bluepodcast.dagger.component.DaggerAppComponent;
+import com.example.vidbregar.bluepodcast.model.favorites.FavoritesIndex;
+import com.example.vidbregar.bluepodcast.model.network.prewarm.ConnectionPrewarmer;
+import com.example.vidbregar.bluepodcast.refresh.CatalogRefreshScheduler;
 
 import javax.inject.Inject;
 
 import dagger.android.DispatchingAndroidInjector;
 import dagger.android.HasActivityInjector;
+import dagger.android.HasServiceInjector;
 
-public class BluePodcastApplication extends Application implements HasActivityInjector {
+public class BluePodcastApplication extends Application implements HasActivityInjector,
+        HasServiceInjector {
 
     @Inject
     DispatchingAndroidInjector<Activity> activityDispatchingAndroidInjector;
 
+    @Inject
+    DispatchingAndroidInjector<Service> serviceDispatchingAndroidInjector;
+
+    @Inject
+    ConnectionPrewarmer connectionPrewarmer;
+
+    @Inject
+    FavoritesIndex favoritesIndex;
+
     @Override
     public void onCreate() {
         super.onCreate();
@@ -22,10 +37,21 @@ public class BluePodcastApplication extends Application implements HasActivityIn
                 .application(this)
                 .build()
                 .inject(this);
+        // Connect to the API while the first activity is being created
+        connectionPrewarmer.prewarm();
+        // Ready before the player or a podcast is opened, so neither waits for a query
+        favoritesIndex.load();
+        // Keeps the home feed on disk, so the next launch does not wait for the network
+        CatalogRefreshScheduler.schedule(this);
     }
 
     @Override
     public DispatchingAndroidInjector<Activity> activityInjector() {
         return activityDispatchingAndroidInjector;
     }
+
+    @Override
+    public DispatchingAndroidInjector<Service> serviceInjector() {
+        return serviceDispatchingAndroidInjector;
+    }
 }
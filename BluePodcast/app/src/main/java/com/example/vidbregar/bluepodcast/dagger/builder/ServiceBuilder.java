@@ -0,0 +1,18 @@
+package com.example.vidbregar.bluepodcast.dagger.builder;
+
+import com.example.vidbregar.bluepodcast.refresh.CatalogRefreshJobService;
+import com.example.vidbregar.bluepodcast.ui.player.PlayerService;
+
+import dagger.Module;
+import dagger.android.ContributesAndroidInjector;
+
+@Module
+public abstract class ServiceBuilder {
+
+    @ContributesAndroidInjector()
+    abstract CatalogRefreshJobService bindCatalogRefreshJobService();
+
+    @ContributesAndroidInjector()
+    abstract PlayerService bindPlayerService();
+
+}
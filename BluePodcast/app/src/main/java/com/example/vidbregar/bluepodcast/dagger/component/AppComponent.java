@@ -4,7 +4,9 @@ import android.app.Application;
 
 import com.example.vidbregar.bluepodcast.BluePodcastApplication;
 import com.example.vidbregar.bluepodcast.dagger.builder.ActivityBuilder;
+import com.example.vidbregar.bluepodcast.dagger.builder.ServiceBuilder;
 import com.example.vidbregar.bluepodcast.dagger.module.AppModule;
+import com.example.vidbregar.bluepodcast.dagger.module.NetworkModule;
 
 import javax.inject.Singleton;
 
@@ -16,7 +18,8 @@ import dagger.android.support.AndroidSupportInjectionModule;
 @Component(modules = {
         AndroidSupportInjectionModule.class,
         AppModule.class,
-        ActivityBuilder.class})
+        ActivityBuilder.class,
+        ServiceBuilder.class})
 public interface AppComponent {
 
     @Component.Builder
@@ -24,6 +27,9 @@ public interface AppComponent {
         @BindsInstance
         Builder application(Application application);
 
+        // Optional, the default module talks to BuildConfig.LISTEN_NOTES_BASE_URL
+        Builder networkModule(NetworkModule networkModule);
+
         AppComponent build();
     }
 
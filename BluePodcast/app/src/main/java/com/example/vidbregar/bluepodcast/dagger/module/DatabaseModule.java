@@ -6,8 +6,16 @@ import android.arch.persistence.room.Room;
 import android.arch.persistence.room.RoomDatabase;
 import android.support.annotation.NonNull;
 
-import com.example.vidbregar.bluepodcast.model.database.episode.EpisodeDatabase;
-import com.example.vidbregar.bluepodcast.model.database.favorites.FavoritesDatabase;
+import com.example.vidbregar.bluepodcast.executor.AppExecutors;
+import com.example.vidbregar.bluepodcast.model.catalog.CatalogRepository;
+import com.example.vidbregar.bluepodcast.model.database.BluePodcastDatabase;
+import com.example.vidbregar.bluepodcast.model.database.DatabaseMigrations;
+import com.example.vidbregar.bluepodcast.model.database.LegacyDatabaseImporter;
+import com.example.vidbregar.bluepodcast.model.database.search.LocalSearchIndex;
+import com.example.vidbregar.bluepodcast.model.favorites.FavoritesIndex;
+import com.example.vidbregar.bluepodcast.model.history.ListeningHistoryRecorder;
+import com.example.vidbregar.bluepodcast.model.playback.PlaybackPositionJournal;
+import com.example.vidbregar.bluepodcast.model.playback.RoomPlaybackPositionStore;
 import com.example.vidbregar.bluepodcast.util.SharedPreferencesUtil;
 
 import javax.inject.Singleton;
@@ -20,31 +28,66 @@ public class DatabaseModule {
 
     @Singleton
     @Provides
-    FavoritesDatabase provideFavoritesDatabase(Application applicationContext) {
+    BluePodcastDatabase provideBluePodcastDatabase(Application applicationContext) {
         return Room.databaseBuilder(applicationContext,
-                FavoritesDatabase.class,
-                "favorites.db")
-                .build();
-    }
-
-    @Singleton
-    @Provides
-    EpisodeDatabase provideEpisodeDatabase(Application applicationContext) {
-        return Room.databaseBuilder(applicationContext,
-                EpisodeDatabase.class,
-                "episode.db")
+                BluePodcastDatabase.class,
+                BluePodcastDatabase.NAME)
+                // Readers get their own connections and do not wait for writers
+                .setJournalMode(RoomDatabase.JournalMode.WRITE_AHEAD_LOGGING)
                 .addCallback(new RoomDatabase.Callback() {
                     @Override
                     public void onCreate(@NonNull SupportSQLiteDatabase db) {
                         super.onCreate(db);
-                        String sql =
-                                "INSERT INTO episode_table (id, thumbnail_url, episode_title, publisher, audio_url) VALUES (1, '', '', '', '')";
-                        new Thread(() -> db.execSQL(sql)).run();
+                        db.execSQL("INSERT INTO episode_table (id, thumbnail_url, episode_title, publisher, audio_url) VALUES (1, '', '', '', '')");
+                        // Not an entity, so Room does not create it
+                        LocalSearchIndex.createSchema(db);
                     }
                 })
+                .addCallback(new LegacyDatabaseImporter(applicationContext))
+                .addMigrations(DatabaseMigrations.ALL)
                 .build();
     }
 
+    @Singleton
+    @Provides
+    CatalogRepository provideCatalogRepository(BluePodcastDatabase database,
+                                               AppExecutors appExecutors) {
+        return new CatalogRepository(database.catalogDao(),
+                appExecutors.diskIo().tagged("catalog/write"));
+    }
+
+    @Singleton
+    @Provides
+    LocalSearchIndex provideLocalSearchIndex(BluePodcastDatabase database) {
+        return new LocalSearchIndex(database);
+    }
+
+    // The serial executors keep the writes in order
+    @Singleton
+    @Provides
+    PlaybackPositionJournal providePlaybackPositionJournal(BluePodcastDatabase database,
+                                                           AppExecutors appExecutors) {
+        return new PlaybackPositionJournal(
+                new RoomPlaybackPositionStore(database.playbackPositionDao()),
+                appExecutors.diskIo().serial("playback/save_positions"));
+    }
+
+    @Singleton
+    @Provides
+    ListeningHistoryRecorder provideListeningHistoryRecorder(BluePodcastDatabase database,
+                                                             AppExecutors appExecutors) {
+        return new ListeningHistoryRecorder(database.listeningHistoryDao(),
+                appExecutors.diskIo().serial("history/append"));
+    }
+
+    // Loaded by the application, on the same serial executor as its writes
+    @Singleton
+    @Provides
+    FavoritesIndex provideFavoritesIndex(BluePodcastDatabase database, AppExecutors appExecutors) {
+        return new FavoritesIndex(database.favoritesDao(),
+                appExecutors.diskIo().serial("favorites/write"));
+    }
+
     @Singleton
     @Provides
     SharedPreferencesUtil provideSharedPreferencesUtil(Application applicationContext) {
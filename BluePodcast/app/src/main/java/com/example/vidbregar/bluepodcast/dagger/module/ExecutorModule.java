@@ -0,0 +1,25 @@
+package com.example.vidbregar.bluepodcast.dagger.module;
+
+import com.example.vidbregar.bluepodcast.executor.AppExecutors;
+import com.example.vidbregar.bluepodcast.executor.ExecutorTelemetry;
+
+import javax.inject.Singleton;
+
+import dagger.Module;
+import dagger.Provides;
+
+@Module
+public class ExecutorModule {
+
+    @Singleton
+    @Provides
+    ExecutorTelemetry provideExecutorTelemetry() {
+        return new ExecutorTelemetry();
+    }
+
+    @Singleton
+    @Provides
+    AppExecutors provideAppExecutors(ExecutorTelemetry executorTelemetry) {
+        return new AppExecutors(executorTelemetry);
+    }
+}
@@ -1,13 +1,41 @@
 package com.example.vidbregar.bluepodcast.dagger.module;
 
+import android.app.Application;
+
+import com.example.vidbregar.bluepodcast.BuildConfig;
+import com.example.vidbregar.bluepodcast.executor.AppExecutors;
+import com.example.vidbregar.bluepodcast.model.network.CachingPodcastService;
+import com.example.vidbregar.bluepodcast.model.network.CoalescingPodcastService;
 import com.example.vidbregar.bluepodcast.model.network.PodcastService;
+import com.example.vidbregar.bluepodcast.model.network.cache.CachePolicyInterceptor;
+import com.example.vidbregar.bluepodcast.model.network.cache.CacheStats;
+import com.example.vidbregar.bluepodcast.model.network.cache.ConditionalResponseInterceptor;
+import com.example.vidbregar.bluepodcast.model.network.cache.ParsedResponseCache;
+import com.example.vidbregar.bluepodcast.model.network.cache.ParsedResponseConverterFactory;
+import com.example.vidbregar.bluepodcast.model.network.cache.SearchCache;
+import com.example.vidbregar.bluepodcast.model.network.cache.SearchCacheStats;
+import com.example.vidbregar.bluepodcast.model.network.cache.StaleWhileRevalidateInterceptor;
+import com.example.vidbregar.bluepodcast.model.network.json.ModelTypeAdapterFactory;
+import com.example.vidbregar.bluepodcast.model.network.prewarm.ConnectionPrewarmer;
+import com.example.vidbregar.bluepodcast.model.network.quota.ApiQuota;
+import com.example.vidbregar.bluepodcast.model.network.quota.QuotaInterceptor;
+import com.example.vidbregar.bluepodcast.model.network.quota.SharedPreferencesQuotaStore;
+import com.example.vidbregar.bluepodcast.model.network.resilience.CircuitBreakerInterceptor;
+import com.example.vidbregar.bluepodcast.model.network.resilience.ResilienceStats;
+import com.example.vidbregar.bluepodcast.model.network.resilience.RetryInterceptor;
+import com.example.vidbregar.bluepodcast.model.network.telemetry.NetworkTelemetry;
+import com.example.vidbregar.bluepodcast.model.refresh.CatalogRefresher;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 
+import java.io.File;
+
 import javax.inject.Singleton;
 
 import dagger.Module;
 import dagger.Provides;
+import okhttp3.Cache;
+import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
 import okhttp3.logging.HttpLoggingInterceptor;
 import retrofit2.Retrofit;
@@ -16,7 +44,22 @@ import retrofit2.converter.gson.GsonConverterFactory;
 @Module
 public class NetworkModule {
 
-    private final String BASE_URL = "https://listennotes.p.mashape.com/";
+    private static final String HTTP_CACHE_DIRECTORY = "http-cache";
+    private static final long HTTP_CACHE_SIZE = 10 * 1024 * 1024;
+    private static final String SEARCH_CACHE_DIRECTORY = "search-cache";
+
+    private final HttpUrl baseUrl;
+
+    public NetworkModule() {
+        this(HttpUrl.parse(BuildConfig.LISTEN_NOTES_BASE_URL));
+    }
+
+    /**
+     * Points the whole client stack at another server, e.g. a local stand-in for ListenNotes.
+     */
+    public NetworkModule(HttpUrl baseUrl) {
+        this.baseUrl = baseUrl;
+    }
 
     @Singleton
     @Provides
@@ -29,31 +72,130 @@ public class NetworkModule {
 
     @Singleton
     @Provides
-    OkHttpClient provideOkHttpClient(HttpLoggingInterceptor httpLoggingInterceptor) {
-        return new OkHttpClient.Builder()
+    Cache provideHttpCache(Application applicationContext) {
+        return new Cache(new File(applicationContext.getCacheDir(), HTTP_CACHE_DIRECTORY),
+                HTTP_CACHE_SIZE);
+    }
+
+    @Singleton
+    @Provides
+    CacheStats provideCacheStats() {
+        return new CacheStats();
+    }
+
+    @Singleton
+    @Provides
+    ParsedResponseCache provideParsedResponseCache(CacheStats cacheStats) {
+        return new ParsedResponseCache(cacheStats);
+    }
+
+    @Singleton
+    @Provides
+    SearchCacheStats provideSearchCacheStats() {
+        return new SearchCacheStats();
+    }
+
+    @Singleton
+    @Provides
+    SearchCache provideSearchCache(Application applicationContext, Gson gson,
+                                   SearchCacheStats searchCacheStats) {
+        return new SearchCache(new File(applicationContext.getCacheDir(), SEARCH_CACHE_DIRECTORY),
+                gson, searchCacheStats);
+    }
+
+    @Singleton
+    @Provides
+    StaleWhileRevalidateInterceptor provideStaleWhileRevalidateInterceptor(CacheStats cacheStats) {
+        return new StaleWhileRevalidateInterceptor(cacheStats);
+    }
+
+    @Singleton
+    @Provides
+    ResilienceStats provideResilienceStats() {
+        return new ResilienceStats();
+    }
+
+    @Singleton
+    @Provides
+    ApiQuota provideApiQuota(Application applicationContext) {
+        return new ApiQuota(new SharedPreferencesQuotaStore(applicationContext));
+    }
+
+    @Singleton
+    @Provides
+    NetworkTelemetry provideNetworkTelemetry() {
+        return new NetworkTelemetry();
+    }
+
+    @Singleton
+    @Provides
+    OkHttpClient provideOkHttpClient(HttpLoggingInterceptor httpLoggingInterceptor,
+                                     Cache cache,
+                                     StaleWhileRevalidateInterceptor staleWhileRevalidateInterceptor,
+                                     NetworkTelemetry networkTelemetry,
+                                     ResilienceStats resilienceStats,
+                                     ApiQuota apiQuota,
+                                     CacheStats cacheStats) {
+        OkHttpClient okHttpClient = new OkHttpClient.Builder()
+                .cache(cache)
+                .eventListenerFactory(networkTelemetry)
+                .addInterceptor(networkTelemetry.getInterceptor())
+                .addInterceptor(new ConditionalResponseInterceptor(cacheStats))
+                .addInterceptor(staleWhileRevalidateInterceptor)
+                .addInterceptor(new RetryInterceptor(resilienceStats))
+                .addInterceptor(new CircuitBreakerInterceptor(resilienceStats))
                 .addInterceptor(httpLoggingInterceptor)
+                // Last, so only requests the cache cannot answer are charged
+                .addInterceptor(new QuotaInterceptor(apiQuota))
+                .addNetworkInterceptor(new CachePolicyInterceptor())
                 .build();
+        staleWhileRevalidateInterceptor.setRevalidationClient(okHttpClient);
+        return okHttpClient;
+    }
+
+    @Singleton
+    @Provides
+    ConnectionPrewarmer provideConnectionPrewarmer(OkHttpClient okHttpClient,
+                                                   AppExecutors appExecutors) {
+        return new ConnectionPrewarmer(okHttpClient, baseUrl,
+                appExecutors.network().tagged("network/prewarm"));
     }
 
     @Singleton
     @Provides
-    Retrofit provideRetrofit(OkHttpClient okHttpClient, Gson gson) {
+    Retrofit provideRetrofit(OkHttpClient okHttpClient, Gson gson,
+                             ParsedResponseCache parsedResponseCache) {
         return new Retrofit.Builder()
-                .baseUrl(BASE_URL)
+                .baseUrl(baseUrl)
                 .client(okHttpClient)
-                .addConverterFactory(GsonConverterFactory.create(gson))
+                .addConverterFactory(new ParsedResponseConverterFactory(
+                        GsonConverterFactory.create(gson), parsedResponseCache))
                 .build();
     }
 
     @Singleton
     @Provides
-    PodcastService providePodcastService(Retrofit retrofit) {
-        return retrofit.create(PodcastService.class);
+    PodcastService providePodcastService(Retrofit retrofit, SearchCache searchCache,
+                                         AppExecutors appExecutors) {
+        return new CachingPodcastService(
+                new CoalescingPodcastService(retrofit.create(PodcastService.class)),
+                searchCache, appExecutors.diskIo().tagged("search/cache"),
+                retrofit.callbackExecutor());
+    }
+
+    // One per job, so canceling a job does not cancel the next one
+    @Provides
+    CatalogRefresher provideCatalogRefresher(PodcastService podcastService,
+                                             OkHttpClient okHttpClient, ApiQuota apiQuota) {
+        return new CatalogRefresher(podcastService, okHttpClient,
+                BuildConfig.LISTEN_NOTES_API_KEY, apiQuota);
     }
 
     @Singleton
     @Provides
     Gson provideGson() {
-        return new GsonBuilder().create();
+        return new GsonBuilder()
+                .registerTypeAdapterFactory(new ModelTypeAdapterFactory())
+                .create();
     }
 }
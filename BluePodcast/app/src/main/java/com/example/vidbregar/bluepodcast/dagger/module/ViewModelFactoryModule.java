@@ -1,7 +1,10 @@
 package com.example.vidbregar.bluepodcast.dagger.module;
 
-import com.example.vidbregar.bluepodcast.model.database.episode.EpisodeDatabase;
-import com.example.vidbregar.bluepodcast.model.database.favorites.FavoritesDatabase;
+import com.example.vidbregar.bluepodcast.executor.AppExecutors;
+import com.example.vidbregar.bluepodcast.model.catalog.CatalogRepository;
+import com.example.vidbregar.bluepodcast.model.database.BluePodcastDatabase;
+import com.example.vidbregar.bluepodcast.model.database.search.LocalSearchIndex;
+import com.example.vidbregar.bluepodcast.model.favorites.FavoritesIndex;
 import com.example.vidbregar.bluepodcast.model.network.PodcastService;
 import com.example.vidbregar.bluepodcast.util.SharedPreferencesUtil;
 import com.example.vidbregar.bluepodcast.viewmodel.FavoritesViewModelFactory;
@@ -17,33 +20,44 @@ import dagger.Provides;
 
 @Module(includes = {DatabaseModule.class,
         NetworkModule.class,
+        ExecutorModule.class,
         FirebaseModule.class})
 public class ViewModelFactoryModule {
 
     @Singleton
     @Provides
-    FavoritesViewModelFactory provideFavoritesViewModelFactory(FavoritesDatabase favoritesDatabase) {
-        return new FavoritesViewModelFactory(favoritesDatabase);
+    FavoritesViewModelFactory provideFavoritesViewModelFactory(BluePodcastDatabase database,
+                                                               AppExecutors appExecutors) {
+        return new FavoritesViewModelFactory(database, appExecutors);
     }
 
     @Singleton
     @Provides
-    PlayerViewModelFactory providePlayerViewModelFactory(EpisodeDatabase episodeDatabase,
-                                                         FavoritesDatabase favoritesDatabase,
+    PlayerViewModelFactory providePlayerViewModelFactory(BluePodcastDatabase database,
+                                                         AppExecutors appExecutors,
+                                                         FavoritesIndex favoritesIndex,
                                                          FirebaseAnalytics firebaseAnalytics) {
-        return new PlayerViewModelFactory(episodeDatabase, favoritesDatabase, firebaseAnalytics);
+        return new PlayerViewModelFactory(database, appExecutors, favoritesIndex,
+                firebaseAnalytics);
     }
 
     @Singleton
     @Provides
     SearchViewModelFactory provideSearchViewModelFactory(PodcastService podcastService,
+                                                         LocalSearchIndex localSearchIndex,
+                                                         AppExecutors appExecutors,
                                                          FirebaseAnalytics firebaseAnalytics) {
-        return new SearchViewModelFactory(podcastService, firebaseAnalytics);
+        return new SearchViewModelFactory(podcastService, localSearchIndex,
+                appExecutors.diskIo().tagged("search/local"), firebaseAnalytics);
     }
 
     @Singleton
     @Provides
-    PodcastViewModelFactory providePodcastViewModelFactory(PodcastService podcastService, SharedPreferencesUtil sharedPreferencesUtil) {
-        return new PodcastViewModelFactory(podcastService, sharedPreferencesUtil);
+    PodcastViewModelFactory providePodcastViewModelFactory(PodcastService podcastService,
+                                                           CatalogRepository catalogRepository,
+                                                           SharedPreferencesUtil sharedPreferencesUtil,
+                                                           AppExecutors appExecutors) {
+        return new PodcastViewModelFactory(podcastService, catalogRepository, sharedPreferencesUtil,
+                appExecutors);
     }
 }
@@ -0,0 +1,61 @@
+package com.example.vidbregar.bluepodcast.executor;
+
+import android.os.Process;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The app's own background threads, so its work does not queue behind AsyncTask work of other
+ * libraries and a slow network call cannot hold up a database query. Disk I/O is for Room and
+ * the file caches, network for blocking calls and parsing their responses, computation for CPU
+ * bound work.
+ */
+public class AppExecutors {
+
+    public static final String POOL_DISK_IO = "disk_io";
+    public static final String POOL_NETWORK = "network";
+    public static final String POOL_COMPUTATION = "computation";
+
+    // SQLite in WAL mode runs one writer next to the readers
+    private static final int DISK_IO_THREADS = 3;
+    private static final int NETWORK_THREADS = 4;
+
+    private final InstrumentedExecutor diskIo;
+    private final InstrumentedExecutor network;
+    private final InstrumentedExecutor computation;
+
+    public AppExecutors(ExecutorTelemetry telemetry) {
+        // Leaves a core to the main thread
+        int computationThreads = Math.max(2,
+                Math.min(Runtime.getRuntime().availableProcessors() - 1, 4));
+        diskIo = new InstrumentedExecutor(POOL_DISK_IO, DISK_IO_THREADS,
+                threadFactory(POOL_DISK_IO, Process.THREAD_PRIORITY_BACKGROUND), telemetry);
+        network = new InstrumentedExecutor(POOL_NETWORK, NETWORK_THREADS,
+                threadFactory(POOL_NETWORK, Process.THREAD_PRIORITY_BACKGROUND), telemetry);
+        computation = new InstrumentedExecutor(POOL_COMPUTATION, computationThreads,
+                threadFactory(POOL_COMPUTATION,
+                        Process.THREAD_PRIORITY_BACKGROUND + Process.THREAD_PRIORITY_MORE_FAVORABLE),
+                telemetry);
+    }
+
+    public InstrumentedExecutor diskIo() {
+        return diskIo;
+    }
+
+    public InstrumentedExecutor network() {
+        return network;
+    }
+
+    public InstrumentedExecutor computation() {
+        return computation;
+    }
+
+    private static ThreadFactory threadFactory(String pool, int priority) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return runnable -> new Thread(() -> {
+            Process.setThreadPriority(priority);
+            runnable.run();
+        }, pool + " #" + threadCount.incrementAndGet());
+    }
+}
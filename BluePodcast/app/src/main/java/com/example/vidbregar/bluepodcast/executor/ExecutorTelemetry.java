@@ -0,0 +1,82 @@
+package com.example.vidbregar.bluepodcast.executor;
+
+import com.example.vidbregar.bluepodcast.model.network.telemetry.Histogram;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Queue wait and run time of every task run on the {@link AppExecutors}, per pool and task tag.
+ * The report can be dumped to a file the same way as the network telemetry.
+ */
+public class ExecutorTelemetry {
+
+    private static final double[] REPORTED_PERCENTILES = {50, 90, 99};
+
+    private final ConcurrentMap<String, TaskTelemetry> tasks = new ConcurrentHashMap<>();
+
+    public TaskTelemetry forTask(String pool, String tag) {
+        String key = pool + "/" + tag;
+        TaskTelemetry telemetry = tasks.get(key);
+        if (telemetry == null) {
+            TaskTelemetry newTelemetry = new TaskTelemetry(pool, tag);
+            telemetry = tasks.putIfAbsent(key, newTelemetry);
+            if (telemetry == null) telemetry = newTelemetry;
+        }
+        return telemetry;
+    }
+
+    /**
+     * Keyed by pool and tag, e.g. {@code disk_io/player/get_episode}.
+     */
+    public Map<String, TaskTelemetry> getTasks() {
+        return new TreeMap<>(tasks);
+    }
+
+    public String report() {
+        StringWriter writer = new StringWriter();
+        try {
+            writeReport(writer);
+        } catch (IOException e) {
+            // StringWriter does not throw
+        }
+        return writer.toString();
+    }
+
+    public void writeReport(Writer writer) throws IOException {
+        for (Map.Entry<String, TaskTelemetry> entry : getTasks().entrySet()) {
+            TaskTelemetry telemetry = entry.getValue();
+            writer.write(String.format(Locale.US, "%s: %d tasks, %d failures%n", entry.getKey(),
+                    telemetry.getRunMicros().getCount(), telemetry.getFailures()));
+            writeTimings(writer, "wait", telemetry.getQueueWaitMicros());
+            writeTimings(writer, "run", telemetry.getRunMicros());
+        }
+    }
+
+    public void dumpTo(File file) throws IOException {
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), Charset.forName("UTF-8"))) {
+            writeReport(writer);
+        }
+    }
+
+    private static void writeTimings(Writer writer, String phase, Histogram histogram) throws IOException {
+        if (histogram.getCount() == 0) return;
+        StringBuilder line = new StringBuilder(String.format(Locale.US, "  %-8s n=%-5d", phase, histogram.getCount()));
+        for (double percentile : REPORTED_PERCENTILES) {
+            line.append(String.format(Locale.US, " p%.0f=%.1fms", percentile,
+                    histogram.getValueAtPercentile(percentile) / 1000.0));
+        }
+        line.append(String.format(Locale.US, " max=%.1fms%n", histogram.getMax() / 1000.0));
+        writer.write(line.toString());
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.vidbregar.bluepodcast.executor;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A fixed number of threads which times every task it runs. Tasks are submitted with a tag
+ * naming what they do, e.g. {@code player/get_favorite}, and the {@link ExecutorTelemetry} keeps
+ * how long each tag waited in the queue and how long it ran. Idle threads exit after a while, so
+ * a pool nobody uses costs nothing.
+ */
+public class InstrumentedExecutor {
+
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private final String name;
+    private final ThreadPoolExecutor threadPool;
+    private final ExecutorTelemetry telemetry;
+
+    public InstrumentedExecutor(String name, int threadCount, ThreadFactory threadFactory,
+                                ExecutorTelemetry telemetry) {
+        this.name = name;
+        this.telemetry = telemetry;
+        // Queued tasks wait for a thread instead of being rejected
+        threadPool = new ThreadPoolExecutor(threadCount, threadCount,
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory);
+        threadPool.allowCoreThreadTimeOut(true);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void execute(String tag, Runnable task) {
+        TaskTelemetry taskTelemetry = telemetry.forTask(name, tag);
+        long queuedAt = System.nanoTime();
+        threadPool.execute(() -> run(taskTelemetry, queuedAt, task));
+    }
+
+    /**
+     * Runs every task with the same tag, for code which takes a plain {@link Executor}.
+     */
+    public Executor tagged(String tag) {
+        return task -> execute(tag, task);
+    }
+
+    /**
+     * Runs the tasks one at a time and in the order they were submitted, on the threads of this
+     * pool. The queue wait includes the time spent behind the earlier tasks.
+     */
+    public Executor serial(String tag) {
+        return new SerialExecutor(telemetry.forTask(name, tag));
+    }
+
+    // For tests, the threads exit on their own otherwise
+    void shutdown() {
+        threadPool.shutdown();
+    }
+
+    boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return threadPool.awaitTermination(timeout, unit);
+    }
+
+    private static void run(TaskTelemetry taskTelemetry, long queuedAt, Runnable task) {
+        long startedAt = System.nanoTime();
+        taskTelemetry.recordQueueWait(TimeUnit.NANOSECONDS.toMicros(startedAt - queuedAt));
+        try {
+            task.run();
+        } catch (RuntimeException | Error e) {
+            taskTelemetry.recordFailure();
+            throw e;
+        } finally {
+            taskTelemetry.recordRun(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startedAt));
+        }
+    }
+
+    private class SerialExecutor implements Executor {
+
+        private final TaskTelemetry taskTelemetry;
+        // Guarded by this
+        private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+        private boolean isRunning;
+
+        SerialExecutor(TaskTelemetry taskTelemetry) {
+            this.taskTelemetry = taskTelemetry;
+        }
+
+        @Override
+        public synchronized void execute(Runnable task) {
+            long queuedAt = System.nanoTime();
+            tasks.offer(() -> {
+                try {
+                    run(taskTelemetry, queuedAt, task);
+                } finally {
+                    scheduleNext();
+                }
+            });
+            if (!isRunning) {
+                scheduleNext();
+            }
+        }
+
+        private synchronized void scheduleNext() {
+            Runnable next = tasks.poll();
+            isRunning = next != null;
+            if (next != null) {
+                threadPool.execute(next);
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.vidbregar.bluepodcast.executor;
+
+import com.example.vidbregar.bluepodcast.model.network.telemetry.Histogram;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Everything recorded for the tasks of one tag on one pool. Timings are in microseconds.
+ */
+public class TaskTelemetry {
+
+    private final String pool;
+    private final String tag;
+    private final Histogram queueWaitMicros = new Histogram();
+    private final Histogram runMicros = new Histogram();
+    private final AtomicLong failures = new AtomicLong();
+
+    TaskTelemetry(String pool, String tag) {
+        this.pool = pool;
+        this.tag = tag;
+    }
+
+    void recordQueueWait(long micros) {
+        queueWaitMicros.record(micros);
+    }
+
+    void recordRun(long micros) {
+        runMicros.record(micros);
+    }
+
+    void recordFailure() {
+        failures.incrementAndGet();
+    }
+
+    public String getPool() {
+        return pool;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    /**
+     * From submitting the task until a thread of the pool starts running it.
+     */
+    public Histogram getQueueWaitMicros() {
+        return queueWaitMicros;
+    }
+
+    public Histogram getRunMicros() {
+        return runMicros;
+    }
+
+    public long getFailures() {
+        return failures.get();
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.vidbregar.bluepodcast.model.catalog;
+
+import android.arch.core.util.Function;
+import android.arch.lifecycle.LiveData;
+import android.arch.lifecycle.MediatorLiveData;
+
+import com.example.vidbregar.bluepodcast.model.data.Channel;
+import com.example.vidbregar.bluepodcast.model.data.Episode;
+import com.example.vidbregar.bluepodcast.model.database.catalog.CatalogDao;
+import com.example.vidbregar.bluepodcast.model.database.catalog.CatalogEpisodeEntity;
+import com.example.vidbregar.bluepodcast.model.database.catalog.ChannelEntity;
+import com.example.vidbregar.bluepodcast.model.database.catalog.GenreMembershipEntity;
+import com.example.vidbregar.bluepodcast.model.feed.FeedSection;
+import com.example.vidbregar.bluepodcast.util.EntityConverterUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Local copy of the channels and episodes the app has fetched, so the home feed and podcast
+ * details survive process death and can be browsed offline. Screens observe the catalog and
+ * responses from the API are upserted into it as they arrive.
+ * <p>
+ * Observed lists are only emitted once they have rows, so a screen keeps its loading state
+ * until either the catalog or the network has something to show.
+ */
+public class CatalogRepository {
+
+    private final CatalogDao catalogDao;
+    private final Executor executor;
+
+    public CatalogRepository(CatalogDao catalogDao, Executor executor) {
+        this.catalogDao = catalogDao;
+        this.executor = executor;
+    }
+
+    public LiveData<List<Channel>> getSection(FeedSection section) {
+        return nonEmpty(catalogDao.getGenreChannels(section.getGenreId()),
+                EntityConverterUtil::channelEntityToChannel);
+    }
+
+    /**
+     * Stores the channels ListenNotes lists for {@code section}, replacing the previous list.
+     */
+    public void saveSection(FeedSection section, List<Channel> channels) {
+        if (channels == null) return;
+        List<ChannelEntity> channelEntities = new ArrayList<>(channels.size());
+        List<GenreMembershipEntity> memberships = new ArrayList<>(channels.size());
+        for (Channel channel : channels) {
+            if (channel == null || channel.getId() == null) continue;
+            channelEntities.add(EntityConverterUtil.channelToChannelEntity(channel));
+            memberships.add(new GenreMembershipEntity(section.getGenreId(), channel.getId(),
+                    memberships.size()));
+        }
+        executor.execute(() -> catalogDao.replaceGenre(section.getGenreId(), channelEntities,
+                memberships));
+    }
+
+    /**
+     * Every stored episode of {@code podcastId}, newest first.
+     */
+    public LiveData<List<Episode>> getEpisodes(String podcastId) {
+        return nonEmpty(catalogDao.getEpisodes(podcastId),
+                EntityConverterUtil::catalogEpisodeEntityToEpisode);
+    }
+
+    /**
+     * Upserts {@code episodes} of {@code podcastId}, skipping placeholders of unloaded pages.
+     */
+    public void saveEpisodes(String podcastId, List<Episode> episodes) {
+        if (episodes == null) return;
+        List<CatalogEpisodeEntity> episodeEntities = new ArrayList<>(episodes.size());
+        for (Episode episode : episodes) {
+            if (episode == null || episode.getId() == null) continue;
+            episodeEntities.add(EntityConverterUtil.episodeToCatalogEpisodeEntity(episode, podcastId));
+        }
+        if (episodeEntities.isEmpty()) return;
+        executor.execute(() -> catalogDao.upsertEpisodes(episodeEntities));
+    }
+
+    private static <E, T> LiveData<List<T>> nonEmpty(LiveData<List<E>> source, Function<E, T> converter) {
+        MediatorLiveData<List<T>> result = new MediatorLiveData<>();
+        result.addSource(source, entities -> {
+            if (entities == null || entities.isEmpty()) return;
+            List<T> converted = new ArrayList<>(entities.size());
+            for (E entity : entities) {
+                converted.add(converter.apply(entity));
+            }
+            result.setValue(converted);
+        });
+        return result;
+    }
+}
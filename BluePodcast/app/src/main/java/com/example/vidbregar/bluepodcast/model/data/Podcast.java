@@ -20,6 +20,8 @@ public class Podcast {
     private String title;
     @SerializedName("description")
     private String description;
+    @SerializedName("next_episode_pub_date")
+    private long nextEpisodePubDate;
 
     public Podcast(String id, String thumbnailUrl, List<Episode> episodes, String website,
                    String publisher, String title, String description) {
@@ -87,4 +89,15 @@ public class Podcast {
     public void setDescription(String description) {
         this.description = description;
     }
+
+    /**
+     * Cursor for the page of episodes published before the ones in this response.
+     */
+    public long getNextEpisodePubDate() {
+        return nextEpisodePubDate;
+    }
+
+    public void setNextEpisodePubDate(long nextEpisodePubDate) {
+        this.nextEpisodePubDate = nextEpisodePubDate;
+    }
 }
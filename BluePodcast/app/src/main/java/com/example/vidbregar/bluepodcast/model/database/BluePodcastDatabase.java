@@ -0,0 +1,43 @@
+package com.example.vidbregar.bluepodcast.model.database;
+
+import android.arch.persistence.room.Database;
+import android.arch.persistence.room.RoomDatabase;
+
+import com.example.vidbregar.bluepodcast.model.database.catalog.CatalogDao;
+import com.example.vidbregar.bluepodcast.model.database.catalog.CatalogEpisodeEntity;
+import com.example.vidbregar.bluepodcast.model.database.catalog.ChannelEntity;
+import com.example.vidbregar.bluepodcast.model.database.catalog.GenreMembershipEntity;
+import com.example.vidbregar.bluepodcast.model.database.episode.EpisodeDao;
+import com.example.vidbregar.bluepodcast.model.database.episode.EpisodeEntity;
+import com.example.vidbregar.bluepodcast.model.database.favorites.FavoriteEntity;
+import com.example.vidbregar.bluepodcast.model.database.favorites.FavoritesDao;
+import com.example.vidbregar.bluepodcast.model.database.history.DailyListeningEntity;
+import com.example.vidbregar.bluepodcast.model.database.history.ListeningHistoryDao;
+import com.example.vidbregar.bluepodcast.model.database.history.ListeningHistoryEntity;
+import com.example.vidbregar.bluepodcast.model.database.history.PodcastListeningEntity;
+import com.example.vidbregar.bluepodcast.model.database.playback.PlaybackPositionDao;
+import com.example.vidbregar.bluepodcast.model.database.playback.PlaybackPositionEntity;
+
+/**
+ * The app's only database. It replaces {@code favorites.db} and {@code episode.db}, whose rows
+ * are carried over by {@link LegacyDatabaseImporter}, so there is one file to open and one
+ * connection pool. Opened through {@code DatabaseModule} only, with {@link DatabaseMigrations}.
+ */
+@Database(entities = {EpisodeEntity.class, FavoriteEntity.class, ChannelEntity.class,
+        CatalogEpisodeEntity.class, GenreMembershipEntity.class, PlaybackPositionEntity.class,
+        ListeningHistoryEntity.class, DailyListeningEntity.class, PodcastListeningEntity.class},
+        version = 8, exportSchema = false)
+public abstract class BluePodcastDatabase extends RoomDatabase {
+
+    public static final String NAME = "blue_podcast.db";
+
+    public abstract EpisodeDao episodeDao();
+
+    public abstract FavoritesDao favoritesDao();
+
+    public abstract CatalogDao catalogDao();
+
+    public abstract PlaybackPositionDao playbackPositionDao();
+
+    public abstract ListeningHistoryDao listeningHistoryDao();
+}
@@ -0,0 +1,97 @@
+package com.example.vidbregar.bluepodcast.model.database;
+
+import android.arch.persistence.db.SupportSQLiteDatabase;
+import android.arch.persistence.room.migration.Migration;
+import android.support.annotation.NonNull;
+
+import com.example.vidbregar.bluepodcast.model.database.search.LocalSearchIndex;
+
+/**
+ * Migrations of {@link BluePodcastDatabase}, one per version. The statements match the schema
+ * Room generates for the entities, or Room rejects the migrated database when it opens.
+ */
+public class DatabaseMigrations {
+
+    // Catalog of channels, their episodes and the genres listing them
+    static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `channel_table` (`id` TEXT NOT NULL, `thumbnail_url` TEXT, `latest_pub_date_ms` TEXT, `website` TEXT, `publisher` TEXT, `title` TEXT, `description` TEXT, PRIMARY KEY(`id`))");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `catalog_episode_table` (`id` TEXT NOT NULL, `channel_id` TEXT NOT NULL, `title` TEXT, `pub_date_ms` INTEGER NOT NULL, `description` TEXT, `audio_length` INTEGER NOT NULL, `audio_url` TEXT, PRIMARY KEY(`id`))");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_catalog_episode_table_channel_id_pub_date_ms` ON `catalog_episode_table` (`channel_id`, `pub_date_ms`)");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `genre_membership_table` (`genre_id` INTEGER NOT NULL, `channel_id` TEXT NOT NULL, `position` INTEGER NOT NULL, PRIMARY KEY(`genre_id`, `channel_id`))");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_genre_membership_table_channel_id` ON `genre_membership_table` (`channel_id`)");
+        }
+    };
+
+    // Full text index over the catalog episodes and the favorites
+    static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            LocalSearchIndex.createSchema(db);
+        }
+    };
+
+    // Favorites keyed by podcast and episode id instead of by title, the played episode keeps its ids
+    static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `episode_table` ADD COLUMN `podcast_id` TEXT");
+            db.execSQL("ALTER TABLE `episode_table` ADD COLUMN `episode_id` TEXT");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `favorites_table_new` (`podcast_id` TEXT NOT NULL, `episode_id` TEXT NOT NULL, `episode_title` TEXT, `thumbnail_url` TEXT, `publisher` TEXT, `audio_url` TEXT, `added_at` INTEGER NOT NULL, PRIMARY KEY(`podcast_id`, `episode_id`))");
+            // The old rows have no ids, they are keyed like FavoriteEntity.fallbackEpisodeId. Nor
+            // do they have a time, their rowids keep them in order and older than any new favorite.
+            db.execSQL("INSERT OR IGNORE INTO `favorites_table_new` (`podcast_id`, `episode_id`, `episode_title`, `thumbnail_url`, `publisher`, `audio_url`, `added_at`) "
+                    + "SELECT '', COALESCE(`audio_url`, `episode_title`), `episode_title`, `thumbnail_url`, `publisher`, `audio_url`, rowid "
+                    + "FROM `favorites_table`");
+            db.execSQL("DROP TABLE `favorites_table`");
+            db.execSQL("ALTER TABLE `favorites_table_new` RENAME TO `favorites_table`");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_favorites_table_added_at` ON `favorites_table` (`added_at`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_favorites_table_publisher_episode_title` ON `favorites_table` (`publisher`, `episode_title`)");
+            LocalSearchIndex.reindexFavorites(db);
+        }
+    };
+
+    // Playback positions written behind by PlaybackPositionJournal
+    static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `playback_position_table` (`audio_url` TEXT NOT NULL, `position_ms` INTEGER NOT NULL, `duration_ms` INTEGER NOT NULL, `updated_at` INTEGER NOT NULL, PRIMARY KEY(`audio_url`))");
+        }
+    };
+
+    // Listening history with its daily and per podcast aggregates
+    static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `listening_history_table` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `podcast_id` TEXT, `episode_id` TEXT, `audio_url` TEXT, `episode_title` TEXT, `publisher` TEXT, `thumbnail_url` TEXT, `started_at` INTEGER NOT NULL, `listened_ms` INTEGER NOT NULL, `day` INTEGER NOT NULL)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_listening_history_table_started_at` ON `listening_history_table` (`started_at`)");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `daily_listening_table` (`day` INTEGER NOT NULL, `listened_ms` INTEGER NOT NULL, `plays` INTEGER NOT NULL, PRIMARY KEY(`day`))");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `podcast_listening_table` (`podcast_id` TEXT NOT NULL, `publisher` TEXT, `thumbnail_url` TEXT, `listened_ms` INTEGER NOT NULL, `plays` INTEGER NOT NULL, `last_played_at` INTEGER NOT NULL, PRIMARY KEY(`podcast_id`))");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_podcast_listening_table_listened_ms` ON `podcast_listening_table` (`listened_ms`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_podcast_listening_table_last_played_at` ON `podcast_listening_table` (`last_played_at`)");
+        }
+    };
+
+    // Search index follows the publishers of the channels
+    static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            LocalSearchIndex.reindexPublishers(db);
+        }
+    };
+
+    // Listening saved early is continued without counting another play
+    static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `listening_history_table` ADD COLUMN `continuation` INTEGER NOT NULL DEFAULT 0");
+        }
+    };
+
+    public static final Migration[] ALL = {MIGRATION_1_2, MIGRATION_2_3, MIGRATION_3_4, MIGRATION_4_5,
+            MIGRATION_5_6, MIGRATION_6_7, MIGRATION_7_8};
+
+    private DatabaseMigrations() {
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.vidbregar.bluepodcast.model.database;
+
+import android.arch.persistence.db.SupportSQLiteDatabase;
+import android.arch.persistence.room.RoomDatabase;
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteException;
+import android.support.annotation.NonNull;
+import android.util.Log;
+
+import com.example.vidbregar.bluepodcast.model.database.favorites.FavoriteEntity;
+
+import java.io.File;
+
+/**
+ * Moves the rows of the databases used before {@link BluePodcastDatabase}, {@code favorites.db}
+ * and {@code episode.db}, into it the first time it is opened, then deletes them. A file which
+ * cannot be read is kept, so the import is tried again on the next open.
+ */
+public class LegacyDatabaseImporter extends RoomDatabase.Callback {
+
+    static final String LEGACY_FAVORITES_DATABASE = "favorites.db";
+    static final String LEGACY_EPISODE_DATABASE = "episode.db";
+
+    private static final String FAVORITES_TABLE = "favorites_table";
+    private static final String EPISODE_TABLE = "episode_table";
+    private static final String COLUMN_PODCAST_ID = "podcast_id";
+    private static final String COLUMN_EPISODE_ID = "episode_id";
+    private static final String COLUMN_EPISODE_TITLE = "episode_title";
+    private static final String COLUMN_AUDIO_URL = "audio_url";
+    private static final String COLUMN_ADDED_AT = "added_at";
+
+    private final Context context;
+    private final String favoritesDatabaseName;
+    private final String episodeDatabaseName;
+
+    public LegacyDatabaseImporter(Context context) {
+        this(context, LEGACY_FAVORITES_DATABASE, LEGACY_EPISODE_DATABASE);
+    }
+
+    LegacyDatabaseImporter(Context context, String favoritesDatabaseName, String episodeDatabaseName) {
+        this.context = context.getApplicationContext();
+        this.favoritesDatabaseName = favoritesDatabaseName;
+        this.episodeDatabaseName = episodeDatabaseName;
+    }
+
+    // Runs after Room has created or migrated the schema and outside of its transaction
+    @Override
+    public void onOpen(@NonNull SupportSQLiteDatabase db) {
+        super.onOpen(db);
+        importTable(db, favoritesDatabaseName, FAVORITES_TABLE);
+        importTable(db, episodeDatabaseName, EPISODE_TABLE);
+    }
+
+    private void importTable(SupportSQLiteDatabase db, String legacyName, String table) {
+        File legacyFile = context.getDatabasePath(legacyName);
+        if (!legacyFile.exists()) return;
+        // The legacy files hold a handful of rows, copying them is cheaper than attaching
+        try (SQLiteDatabase legacyDb = SQLiteDatabase.openDatabase(legacyFile.getPath(), null,
+                SQLiteDatabase.OPEN_READONLY)) {
+            if (hasTable(legacyDb, table)) {
+                copyRows(legacyDb, db, table);
+            }
+        } catch (SQLiteException e) {
+            Log.e("ERROR", "Failed to import " + legacyName + ": " + e.getMessage());
+            return;
+        }
+        context.deleteDatabase(legacyName);
+    }
+
+    private static boolean hasTable(SQLiteDatabase db, String table) {
+        try (Cursor cursor = db.rawQuery("SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = ?",
+                new String[]{table})) {
+            return cursor.moveToFirst();
+        }
+    }
+
+    // The columns added since the legacy files are nullable, except for the favorite keys. A row
+    // already stored is kept: REPLACE would delete it without firing the delete triggers, which
+    // leaves its entry in the search index behind
+    private static void copyRows(SQLiteDatabase from, SupportSQLiteDatabase to, String table) {
+        to.beginTransaction();
+        try (Cursor cursor = from.query(table, null, null, null, null, null, "rowid")) {
+            ContentValues values = new ContentValues();
+            while (cursor.moveToNext()) {
+                values.clear();
+                DatabaseUtils.cursorRowToContentValues(cursor, values);
+                if (FAVORITES_TABLE.equals(table)) {
+                    addFavoriteKeys(values, cursor.getPosition());
+                }
+                to.insert(table, SQLiteDatabase.CONFLICT_IGNORE, values);
+            }
+            to.setTransactionSuccessful();
+        } finally {
+            to.endTransaction();
+        }
+    }
+
+    // Keyed like the favorites migrated by DatabaseMigrations, in the order they were added
+    private static void addFavoriteKeys(ContentValues values, int position) {
+        values.put(COLUMN_PODCAST_ID, FavoriteEntity.UNKNOWN_PODCAST_ID);
+        values.put(COLUMN_EPISODE_ID, FavoriteEntity.fallbackEpisodeId(
+                values.getAsString(COLUMN_AUDIO_URL), values.getAsString(COLUMN_EPISODE_TITLE)));
+        values.put(COLUMN_ADDED_AT, position + 1);
+    }
+}
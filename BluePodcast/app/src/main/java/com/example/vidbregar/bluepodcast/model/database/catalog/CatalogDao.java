@@ -0,0 +1,60 @@
+package com.example.vidbregar.bluepodcast.model.database.catalog;
+
+import android.arch.lifecycle.LiveData;
+import android.arch.persistence.room.Dao;
+import android.arch.persistence.room.Insert;
+import android.arch.persistence.room.OnConflictStrategy;
+import android.arch.persistence.room.Query;
+import android.arch.persistence.room.Transaction;
+import android.arch.persistence.room.Update;
+
+import java.util.List;
+
+@Dao
+public abstract class CatalogDao {
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    public abstract void upsertChannels(List<ChannelEntity> channels);
+
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    abstract void insertNewEpisodes(List<CatalogEpisodeEntity> episodes);
+
+    @Update
+    abstract void updateEpisodes(List<CatalogEpisodeEntity> episodes);
+
+    /**
+     * Updates the stored episodes in place and inserts the others. Unlike a REPLACE, this keeps
+     * their rowids and fires the update triggers which keep the search index in sync.
+     */
+    @Transaction
+    public void upsertEpisodes(List<CatalogEpisodeEntity> episodes) {
+        updateEpisodes(episodes);
+        insertNewEpisodes(episodes);
+    }
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    abstract void insertGenreMemberships(List<GenreMembershipEntity> memberships);
+
+    @Query("DELETE FROM genre_membership_table WHERE genre_id = :genreId")
+    abstract void deleteGenreMemberships(int genreId);
+
+    /**
+     * Upserts the channels of a genre list and makes them the genre's only members, in order.
+     */
+    @Transaction
+    public void replaceGenre(int genreId, List<ChannelEntity> channels,
+                             List<GenreMembershipEntity> memberships) {
+        upsertChannels(channels);
+        deleteGenreMemberships(genreId);
+        insertGenreMemberships(memberships);
+    }
+
+    @Query("SELECT channel_table.* FROM channel_table "
+            + "INNER JOIN genre_membership_table ON genre_membership_table.channel_id = channel_table.id "
+            + "WHERE genre_membership_table.genre_id = :genreId "
+            + "ORDER BY genre_membership_table.position")
+    public abstract LiveData<List<ChannelEntity>> getGenreChannels(int genreId);
+
+    @Query("SELECT * FROM catalog_episode_table WHERE channel_id = :channelId ORDER BY pub_date_ms DESC")
+    public abstract LiveData<List<CatalogEpisodeEntity>> getEpisodes(String channelId);
+}
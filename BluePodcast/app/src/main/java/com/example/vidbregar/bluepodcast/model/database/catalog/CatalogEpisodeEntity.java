@@ -0,0 +1,110 @@
+package com.example.vidbregar.bluepodcast.model.database.catalog;
+
+import android.arch.persistence.room.ColumnInfo;
+import android.arch.persistence.room.Entity;
+import android.arch.persistence.room.Index;
+import android.arch.persistence.room.PrimaryKey;
+import android.support.annotation.NonNull;
+
+/**
+ * An episode of a podcast in the catalog, unlike {@code EpisodeEntity} which is the one playing.
+ */
+@Entity(tableName = "catalog_episode_table",
+        indices = @Index({"channel_id", "pub_date_ms"}))
+public class CatalogEpisodeEntity {
+
+    @PrimaryKey
+    @NonNull
+    @ColumnInfo(name = "id")
+    private String id;
+
+    @NonNull
+    @ColumnInfo(name = "channel_id")
+    private String channelId;
+
+    @ColumnInfo(name = "title")
+    private String title;
+
+    // Stored as a number so that episodes sort by it
+    @ColumnInfo(name = "pub_date_ms")
+    private long pubDateMs;
+
+    @ColumnInfo(name = "description")
+    private String description;
+
+    @ColumnInfo(name = "audio_length")
+    private int audioLength;
+
+    @ColumnInfo(name = "audio_url")
+    private String audioUrl;
+
+    public CatalogEpisodeEntity(@NonNull String id, @NonNull String channelId, String title,
+                                long pubDateMs, String description, int audioLength,
+                                String audioUrl) {
+        this.id = id;
+        this.channelId = channelId;
+        this.title = title;
+        this.pubDateMs = pubDateMs;
+        this.description = description;
+        this.audioLength = audioLength;
+        this.audioUrl = audioUrl;
+    }
+
+    @NonNull
+    public String getId() {
+        return id;
+    }
+
+    public void setId(@NonNull String id) {
+        this.id = id;
+    }
+
+    @NonNull
+    public String getChannelId() {
+        return channelId;
+    }
+
+    public void setChannelId(@NonNull String channelId) {
+        this.channelId = channelId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public long getPubDateMs() {
+        return pubDateMs;
+    }
+
+    public void setPubDateMs(long pubDateMs) {
+        this.pubDateMs = pubDateMs;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public int getAudioLength() {
+        return audioLength;
+    }
+
+    public void setAudioLength(int audioLength) {
+        this.audioLength = audioLength;
+    }
+
+    public String getAudioUrl() {
+        return audioUrl;
+    }
+
+    public void setAudioUrl(String audioUrl) {
+        this.audioUrl = audioUrl;
+    }
+}
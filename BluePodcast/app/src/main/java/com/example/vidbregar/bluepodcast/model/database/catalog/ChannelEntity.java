@@ -0,0 +1,101 @@
+package com.example.vidbregar.bluepodcast.model.database.catalog;
+
+import android.arch.persistence.room.ColumnInfo;
+import android.arch.persistence.room.Entity;
+import android.arch.persistence.room.PrimaryKey;
+import android.support.annotation.NonNull;
+
+@Entity(tableName = "channel_table")
+public class ChannelEntity {
+
+    @PrimaryKey
+    @NonNull
+    @ColumnInfo(name = "id")
+    private String id;
+
+    @ColumnInfo(name = "thumbnail_url")
+    private String thumbnailUrl;
+
+    @ColumnInfo(name = "latest_pub_date_ms")
+    private String latestPubDateMs;
+
+    @ColumnInfo(name = "website")
+    private String website;
+
+    @ColumnInfo(name = "publisher")
+    private String publisher;
+
+    @ColumnInfo(name = "title")
+    private String title;
+
+    @ColumnInfo(name = "description")
+    private String description;
+
+    public ChannelEntity(@NonNull String id, String thumbnailUrl, String latestPubDateMs,
+                         String website, String publisher, String title, String description) {
+        this.id = id;
+        this.thumbnailUrl = thumbnailUrl;
+        this.latestPubDateMs = latestPubDateMs;
+        this.website = website;
+        this.publisher = publisher;
+        this.title = title;
+        this.description = description;
+    }
+
+    @NonNull
+    public String getId() {
+        return id;
+    }
+
+    public void setId(@NonNull String id) {
+        this.id = id;
+    }
+
+    public String getThumbnailUrl() {
+        return thumbnailUrl;
+    }
+
+    public void setThumbnailUrl(String thumbnailUrl) {
+        this.thumbnailUrl = thumbnailUrl;
+    }
+
+    public String getLatestPubDateMs() {
+        return latestPubDateMs;
+    }
+
+    public void setLatestPubDateMs(String latestPubDateMs) {
+        this.latestPubDateMs = latestPubDateMs;
+    }
+
+    public String getWebsite() {
+        return website;
+    }
+
+    public void setWebsite(String website) {
+        this.website = website;
+    }
+
+    public String getPublisher() {
+        return publisher;
+    }
+
+    public void setPublisher(String publisher) {
+        this.publisher = publisher;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.vidbregar.bluepodcast.model.database.catalog;
+
+import android.arch.persistence.room.ColumnInfo;
+import android.arch.persistence.room.Entity;
+import android.arch.persistence.room.Index;
+import android.support.annotation.NonNull;
+
+/**
+ * A channel listed in a genre, at the position ListenNotes ranks it.
+ */
+@Entity(tableName = "genre_membership_table",
+        primaryKeys = {"genre_id", "channel_id"},
+        indices = @Index("channel_id"))
+public class GenreMembershipEntity {
+
+    @ColumnInfo(name = "genre_id")
+    private int genreId;
+
+    @NonNull
+    @ColumnInfo(name = "channel_id")
+    private String channelId;
+
+    @ColumnInfo(name = "position")
+    private int position;
+
+    public GenreMembershipEntity(int genreId, @NonNull String channelId, int position) {
+        this.genreId = genreId;
+        this.channelId = channelId;
+        this.position = position;
+    }
+
+    public int getGenreId() {
+        return genreId;
+    }
+
+    public void setGenreId(int genreId) {
+        this.genreId = genreId;
+    }
+
+    @NonNull
+    public String getChannelId() {
+        return channelId;
+    }
+
+    public void setChannelId(@NonNull String channelId) {
+        this.channelId = channelId;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    public void setPosition(int position) {
+        this.position = position;
+    }
+}
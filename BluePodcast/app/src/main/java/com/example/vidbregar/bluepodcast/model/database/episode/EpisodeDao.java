@@ -15,10 +15,12 @@ public interface EpisodeDao {
     @Query("SELECT * FROM episode_table")
     EpisodeEntity getEpisode();
 
-    @Query("UPDATE episode_table SET thumbnail_url = :thumbnailUrl, episode_title = :episodeTitle, publisher = :publisher, audio_url = :audioUrl WHERE id = 1")
+    @Query("UPDATE episode_table SET thumbnail_url = :thumbnailUrl, episode_title = :episodeTitle, publisher = :publisher, audio_url = :audioUrl, podcast_id = :podcastId, episode_id = :episodeId WHERE id = 1")
     void updateEpisode(String thumbnailUrl,
                        String episodeTitle,
                        String publisher,
-                       String audioUrl);
+                       String audioUrl,
+                       String podcastId,
+                       String episodeId);
 
 }
@@ -22,12 +22,21 @@ public class EpisodeEntity {
     @ColumnInfo(name = "audio_url")
     private String audioUrl;
 
-    public EpisodeEntity(int id, String thumbnailUrl, String episodeTitle, String publisher, String audioUrl) {
+    @ColumnInfo(name = "podcast_id")
+    private String podcastId;
+
+    @ColumnInfo(name = "episode_id")
+    private String episodeId;
+
+    public EpisodeEntity(int id, String thumbnailUrl, String episodeTitle, String publisher, String audioUrl,
+                         String podcastId, String episodeId) {
         this.id = id;
         this.thumbnailUrl = thumbnailUrl;
         this.episodeTitle = episodeTitle;
         this.publisher = publisher;
         this.audioUrl = audioUrl;
+        this.podcastId = podcastId;
+        this.episodeId = episodeId;
     }
 
     public int getId() {
@@ -69,4 +78,20 @@ public class EpisodeEntity {
     public void setAudioUrl(String audioUrl) {
         this.audioUrl = audioUrl;
     }
+
+    public String getPodcastId() {
+        return podcastId;
+    }
+
+    public void setPodcastId(String podcastId) {
+        this.podcastId = podcastId;
+    }
+
+    public String getEpisodeId() {
+        return episodeId;
+    }
+
+    public void setEpisodeId(String episodeId) {
+        this.episodeId = episodeId;
+    }
 }
@@ -2,14 +2,30 @@ package com.example.vidbregar.bluepodcast.model.database.favorites;
 
 import android.arch.persistence.room.ColumnInfo;
 import android.arch.persistence.room.Entity;
-import android.arch.persistence.room.PrimaryKey;
+import android.arch.persistence.room.Index;
 import android.support.annotation.NonNull;
 
-@Entity(tableName = "favorites_table")
+/**
+ * An episode the user marked as a favorite, keyed by the podcast and episode ids from
+ * ListenNotes. Favorites saved before the ids were stored have no podcast, see
+ * {@link #UNKNOWN_PODCAST_ID} and {@link #fallbackEpisodeId(String, String)}.
+ */
+@Entity(tableName = "favorites_table",
+        primaryKeys = {"podcast_id", "episode_id"},
+        indices = {@Index("added_at"), @Index({"publisher", "episode_title"})})
 public class FavoriteEntity {
 
-    @PrimaryKey
+    // Podcast id of the favorites which were saved by title only
+    public static final String UNKNOWN_PODCAST_ID = "";
+
+    @NonNull
+    @ColumnInfo(name = "podcast_id")
+    private String podcastId;
+
     @NonNull
+    @ColumnInfo(name = "episode_id")
+    private String episodeId;
+
     @ColumnInfo(name = "episode_title")
     private String episodeTitle;
 
@@ -22,19 +38,53 @@ public class FavoriteEntity {
     @ColumnInfo(name = "audio_url")
     private String audioUrl;
 
-    public FavoriteEntity(@NonNull String episodeTitle, String thumbnailUrl, String publisher, String audioUrl) {
+    @ColumnInfo(name = "added_at")
+    private long addedAt;
+
+    public FavoriteEntity(@NonNull String podcastId, @NonNull String episodeId, String episodeTitle,
+                          String thumbnailUrl, String publisher, String audioUrl, long addedAt) {
+        this.podcastId = podcastId;
+        this.episodeId = episodeId;
         this.episodeTitle = episodeTitle;
         this.thumbnailUrl = thumbnailUrl;
         this.publisher = publisher;
         this.audioUrl = audioUrl;
+        this.addedAt = addedAt;
     }
 
+    /**
+     * Stands in for the episode id of an episode played without one, the audio URL being the
+     * closest thing to an id it has. {@code DatabaseMigrations} keys the old favorites the same way.
+     */
     @NonNull
+    public static String fallbackEpisodeId(String audioUrl, String episodeTitle) {
+        if (audioUrl != null) return audioUrl;
+        return episodeTitle != null ? episodeTitle : "";
+    }
+
+    @NonNull
+    public String getPodcastId() {
+        return podcastId;
+    }
+
+    public void setPodcastId(@NonNull String podcastId) {
+        this.podcastId = podcastId;
+    }
+
+    @NonNull
+    public String getEpisodeId() {
+        return episodeId;
+    }
+
+    public void setEpisodeId(@NonNull String episodeId) {
+        this.episodeId = episodeId;
+    }
+
     public String getEpisodeTitle() {
         return episodeTitle;
     }
 
-    public void setEpisodeTitle(@NonNull String episodeTitle) {
+    public void setEpisodeTitle(String episodeTitle) {
         this.episodeTitle = episodeTitle;
     }
 
@@ -61,4 +111,12 @@ public class FavoriteEntity {
     public void setAudioUrl(String audioUrl) {
         this.audioUrl = audioUrl;
     }
+
+    public long getAddedAt() {
+        return addedAt;
+    }
+
+    public void setAddedAt(long addedAt) {
+        this.addedAt = addedAt;
+    }
 }
@@ -0,0 +1,33 @@
+package com.example.vidbregar.bluepodcast.model.database.favorites;
+
+import android.arch.persistence.room.ColumnInfo;
+import android.support.annotation.NonNull;
+
+/**
+ * Primary key of a {@link FavoriteEntity}, all the favorites index keeps in memory.
+ */
+public class FavoriteKey {
+
+    @NonNull
+    @ColumnInfo(name = "podcast_id")
+    private final String podcastId;
+
+    @NonNull
+    @ColumnInfo(name = "episode_id")
+    private final String episodeId;
+
+    public FavoriteKey(@NonNull String podcastId, @NonNull String episodeId) {
+        this.podcastId = podcastId;
+        this.episodeId = episodeId;
+    }
+
+    @NonNull
+    public String getPodcastId() {
+        return podcastId;
+    }
+
+    @NonNull
+    public String getEpisodeId() {
+        return episodeId;
+    }
+}
@@ -1,8 +1,9 @@
 package com.example.vidbregar.bluepodcast.model.database.favorites;
 
-import android.arch.lifecycle.LiveData;
+import android.arch.paging.DataSource;
 import android.arch.persistence.room.Dao;
 import android.arch.persistence.room.Insert;
+import android.arch.persistence.room.OnConflictStrategy;
 import android.arch.persistence.room.Query;
 
 import java.util.List;
@@ -10,16 +11,28 @@ import java.util.List;
 @Dao
 public interface FavoritesDao {
 
-    @Insert
+    // Adding a favorite again keeps the time it was first added
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
     void insertFavorite(FavoriteEntity favoriteEntity);
 
-    @Query("SELECT * FROM favorites_table")
-    LiveData<List<FavoriteEntity>> getAllFavorites();
+    // Newest first, read a page at a time along index_favorites_table_added_at
+    @Query("SELECT * FROM favorites_table ORDER BY added_at DESC")
+    DataSource.Factory<Integer, FavoriteEntity> getFavoritesByAddedAt();
 
-    @Query("SELECT * FROM favorites_table WHERE episode_title = :title")
-    FavoriteEntity getFavorite(String title);
+    @Query("SELECT * FROM favorites_table ORDER BY publisher, episode_title")
+    DataSource.Factory<Integer, FavoriteEntity> getFavoritesByPublisher();
 
-    @Query("DELETE FROM favorites_table WHERE episode_title = :title")
-    void removeFavorite(String title);
+    @Query("SELECT * FROM favorites_table WHERE podcast_id = :podcastId AND episode_id = :episodeId")
+    FavoriteEntity getFavorite(String podcastId, String episodeId);
+
+    // Read straight from the primary key index
+    @Query("SELECT podcast_id, episode_id FROM favorites_table")
+    List<FavoriteKey> getFavoriteKeys();
+
+    @Query("SELECT DISTINCT podcast_id FROM favorites_table WHERE podcast_id != ''")
+    List<String> getFavoritePodcastIds();
+
+    @Query("DELETE FROM favorites_table WHERE podcast_id = :podcastId AND episode_id = :episodeId")
+    void removeFavorite(String podcastId, String episodeId);
 
 }
@@ -0,0 +1,52 @@
+package com.example.vidbregar.bluepodcast.model.database.history;
+
+import android.arch.persistence.room.ColumnInfo;
+import android.arch.persistence.room.Entity;
+import android.arch.persistence.room.PrimaryKey;
+
+/**
+ * Listening summed up per local day, kept up to date as history is appended.
+ */
+@Entity(tableName = "daily_listening_table")
+public class DailyListeningEntity {
+
+    @PrimaryKey
+    @ColumnInfo(name = "day")
+    private long day;
+
+    @ColumnInfo(name = "listened_ms")
+    private long listenedMs;
+
+    @ColumnInfo(name = "plays")
+    private int plays;
+
+    public DailyListeningEntity(long day, long listenedMs, int plays) {
+        this.day = day;
+        this.listenedMs = listenedMs;
+        this.plays = plays;
+    }
+
+    public long getDay() {
+        return day;
+    }
+
+    public void setDay(long day) {
+        this.day = day;
+    }
+
+    public long getListenedMs() {
+        return listenedMs;
+    }
+
+    public void setListenedMs(long listenedMs) {
+        this.listenedMs = listenedMs;
+    }
+
+    public int getPlays() {
+        return plays;
+    }
+
+    public void setPlays(int plays) {
+        this.plays = plays;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.vidbregar.bluepodcast.model.database.history;
+
+import android.arch.lifecycle.LiveData;
+import android.arch.persistence.room.Dao;
+import android.arch.persistence.room.Insert;
+import android.arch.persistence.room.OnConflictStrategy;
+import android.arch.persistence.room.Query;
+import android.arch.persistence.room.Transaction;
+
+import java.util.List;
+
+@Dao
+public abstract class ListeningHistoryDao {
+
+    @Insert
+    abstract void insertHistory(List<ListeningHistoryEntity> entries);
+
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    abstract void insertDayIfAbsent(DailyListeningEntity day);
+
+    @Query("UPDATE daily_listening_table SET listened_ms = listened_ms + :listenedMs, plays = plays + :plays "
+            + "WHERE day = :day")
+    abstract void addToDay(long day, long listenedMs, int plays);
+
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    abstract void insertPodcastIfAbsent(PodcastListeningEntity podcast);
+
+    @Query("UPDATE podcast_listening_table SET listened_ms = listened_ms + :listenedMs, plays = plays + :plays, "
+            + "last_played_at = MAX(last_played_at, :playedAt), publisher = :publisher, thumbnail_url = :thumbnailUrl "
+            + "WHERE podcast_id = :podcastId")
+    abstract void addToPodcast(String podcastId, String publisher, String thumbnailUrl,
+                               long listenedMs, int plays, long playedAt);
+
+    /**
+     * Appends {@code entries} and adds each to the aggregates of its day and podcast, so the
+     * aggregates never need the history to be read back. Continuation entries add their
+     * listening but no play.
+     */
+    @Transaction
+    public void append(List<ListeningHistoryEntity> entries) {
+        insertHistory(entries);
+        for (ListeningHistoryEntity entry : entries) {
+            int plays = entry.isContinuation() ? 0 : 1;
+            insertDayIfAbsent(new DailyListeningEntity(entry.getDay(), 0, 0));
+            addToDay(entry.getDay(), entry.getListenedMs(), plays);
+            if (entry.getPodcastId() != null) {
+                insertPodcastIfAbsent(new PodcastListeningEntity(entry.getPodcastId(),
+                        entry.getPublisher(), entry.getThumbnailUrl(), 0, 0, 0));
+                addToPodcast(entry.getPodcastId(), entry.getPublisher(), entry.getThumbnailUrl(),
+                        entry.getListenedMs(), plays, entry.getStartedAt());
+            }
+        }
+    }
+
+    @Query("DELETE FROM listening_history_table WHERE started_at < :startedBefore")
+    abstract void deleteHistoryBefore(long startedBefore);
+
+    @Query("DELETE FROM daily_listening_table WHERE day < :day")
+    abstract void deleteDaysBefore(long day);
+
+    /**
+     * Removes the history started before {@code startedBefore} and the days before
+     * {@code dayBefore}. The podcast totals are for all time and stay.
+     */
+    @Transaction
+    public void prune(long startedBefore, long dayBefore) {
+        deleteHistoryBefore(startedBefore);
+        deleteDaysBefore(dayBefore);
+    }
+
+    /**
+     * The latest plays, each with the listening of its continuations added to it.
+     */
+    @Query("SELECT id, podcast_id, episode_id, audio_url, episode_title, publisher, thumbnail_url, "
+            + "started_at, day, continuation, "
+            + "(SELECT SUM(session.listened_ms) FROM listening_history_table AS session "
+            + "WHERE session.started_at = listening_history_table.started_at "
+            + "AND session.audio_url IS listening_history_table.audio_url) AS listened_ms "
+            + "FROM listening_history_table WHERE continuation = 0 "
+            + "ORDER BY started_at DESC LIMIT :limit")
+    public abstract LiveData<List<ListeningHistoryEntity>> getRecentHistory(int limit);
+
+    @Query("SELECT * FROM podcast_listening_table ORDER BY last_played_at DESC LIMIT :limit")
+    public abstract LiveData<List<PodcastListeningEntity>> getRecentlyPlayedPodcasts(int limit);
+
+    @Query("SELECT * FROM podcast_listening_table ORDER BY listened_ms DESC LIMIT :limit")
+    public abstract LiveData<List<PodcastListeningEntity>> getMostListenedPodcasts(int limit);
+
+    @Query("SELECT * FROM daily_listening_table WHERE day BETWEEN :fromDay AND :toDay ORDER BY day")
+    public abstract LiveData<List<DailyListeningEntity>> getDailyListening(long fromDay, long toDay);
+}
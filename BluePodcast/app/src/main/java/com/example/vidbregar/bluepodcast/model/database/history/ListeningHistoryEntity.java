@@ -0,0 +1,157 @@
+package com.example.vidbregar.bluepodcast.model.database.history;
+
+import android.arch.persistence.room.ColumnInfo;
+import android.arch.persistence.room.Entity;
+import android.arch.persistence.room.Index;
+import android.arch.persistence.room.PrimaryKey;
+
+/**
+ * One stretch of listening to an episode, from when it started playing until it was stopped or
+ * another episode was played. A stretch saved early, because the process might be killed, is
+ * finished by continuation entries with the same start. Rows are only ever appended, and removed once they are older than
+ * the retention of {@code ListeningHistoryRecorder}.
+ */
+@Entity(tableName = "listening_history_table",
+        indices = {@Index("started_at")})
+public class ListeningHistoryEntity {
+
+    @PrimaryKey(autoGenerate = true)
+    private long id;
+
+    // Null for an episode played without ids
+    @ColumnInfo(name = "podcast_id")
+    private String podcastId;
+
+    @ColumnInfo(name = "episode_id")
+    private String episodeId;
+
+    @ColumnInfo(name = "audio_url")
+    private String audioUrl;
+
+    @ColumnInfo(name = "episode_title")
+    private String episodeTitle;
+
+    @ColumnInfo(name = "publisher")
+    private String publisher;
+
+    @ColumnInfo(name = "thumbnail_url")
+    private String thumbnailUrl;
+
+    @ColumnInfo(name = "started_at")
+    private long startedAt;
+
+    @ColumnInfo(name = "listened_ms")
+    private long listenedMs;
+
+    // Local day the listening started, counted from the epoch
+    @ColumnInfo(name = "day")
+    private long day;
+
+    // Adds to the listening of an earlier entry instead of being a play of its own
+    @ColumnInfo(name = "continuation")
+    private boolean continuation;
+
+    public ListeningHistoryEntity(long id, String podcastId, String episodeId, String audioUrl,
+                                  String episodeTitle, String publisher, String thumbnailUrl,
+                                  long startedAt, long listenedMs, long day, boolean continuation) {
+        this.id = id;
+        this.podcastId = podcastId;
+        this.episodeId = episodeId;
+        this.audioUrl = audioUrl;
+        this.episodeTitle = episodeTitle;
+        this.publisher = publisher;
+        this.thumbnailUrl = thumbnailUrl;
+        this.startedAt = startedAt;
+        this.listenedMs = listenedMs;
+        this.day = day;
+        this.continuation = continuation;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getPodcastId() {
+        return podcastId;
+    }
+
+    public void setPodcastId(String podcastId) {
+        this.podcastId = podcastId;
+    }
+
+    public String getEpisodeId() {
+        return episodeId;
+    }
+
+    public void setEpisodeId(String episodeId) {
+        this.episodeId = episodeId;
+    }
+
+    public String getAudioUrl() {
+        return audioUrl;
+    }
+
+    public void setAudioUrl(String audioUrl) {
+        this.audioUrl = audioUrl;
+    }
+
+    public String getEpisodeTitle() {
+        return episodeTitle;
+    }
+
+    public void setEpisodeTitle(String episodeTitle) {
+        this.episodeTitle = episodeTitle;
+    }
+
+    public String getPublisher() {
+        return publisher;
+    }
+
+    public void setPublisher(String publisher) {
+        this.publisher = publisher;
+    }
+
+    public String getThumbnailUrl() {
+        return thumbnailUrl;
+    }
+
+    public void setThumbnailUrl(String thumbnailUrl) {
+        this.thumbnailUrl = thumbnailUrl;
+    }
+
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(long startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public long getListenedMs() {
+        return listenedMs;
+    }
+
+    public void setListenedMs(long listenedMs) {
+        this.listenedMs = listenedMs;
+    }
+
+    public long getDay() {
+        return day;
+    }
+
+    public void setDay(long day) {
+        this.day = day;
+    }
+
+    public boolean isContinuation() {
+        return continuation;
+    }
+
+    public void setContinuation(boolean continuation) {
+        this.continuation = continuation;
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.vidbregar.bluepodcast.model.database.history;
+
+import android.arch.persistence.room.ColumnInfo;
+import android.arch.persistence.room.Entity;
+import android.arch.persistence.room.Index;
+import android.arch.persistence.room.PrimaryKey;
+import android.support.annotation.NonNull;
+
+/**
+ * Listening summed up per podcast over all time, kept up to date as history is appended. The
+ * indexes let the most listened and recently played podcasts be read without sorting.
+ */
+@Entity(tableName = "podcast_listening_table",
+        indices = {@Index("listened_ms"), @Index("last_played_at")})
+public class PodcastListeningEntity {
+
+    @PrimaryKey
+    @NonNull
+    @ColumnInfo(name = "podcast_id")
+    private String podcastId;
+
+    @ColumnInfo(name = "publisher")
+    private String publisher;
+
+    @ColumnInfo(name = "thumbnail_url")
+    private String thumbnailUrl;
+
+    @ColumnInfo(name = "listened_ms")
+    private long listenedMs;
+
+    @ColumnInfo(name = "plays")
+    private int plays;
+
+    @ColumnInfo(name = "last_played_at")
+    private long lastPlayedAt;
+
+    public PodcastListeningEntity(@NonNull String podcastId, String publisher, String thumbnailUrl,
+                                  long listenedMs, int plays, long lastPlayedAt) {
+        this.podcastId = podcastId;
+        this.publisher = publisher;
+        this.thumbnailUrl = thumbnailUrl;
+        this.listenedMs = listenedMs;
+        this.plays = plays;
+        this.lastPlayedAt = lastPlayedAt;
+    }
+
+    @NonNull
+    public String getPodcastId() {
+        return podcastId;
+    }
+
+    public void setPodcastId(@NonNull String podcastId) {
+        this.podcastId = podcastId;
+    }
+
+    public String getPublisher() {
+        return publisher;
+    }
+
+    public void setPublisher(String publisher) {
+        this.publisher = publisher;
+    }
+
+    public String getThumbnailUrl() {
+        return thumbnailUrl;
+    }
+
+    public void setThumbnailUrl(String thumbnailUrl) {
+        this.thumbnailUrl = thumbnailUrl;
+    }
+
+    public long getListenedMs() {
+        return listenedMs;
+    }
+
+    public void setListenedMs(long listenedMs) {
+        this.listenedMs = listenedMs;
+    }
+
+    public int getPlays() {
+        return plays;
+    }
+
+    public void setPlays(int plays) {
+        this.plays = plays;
+    }
+
+    public long getLastPlayedAt() {
+        return lastPlayedAt;
+    }
+
+    public void setLastPlayedAt(long lastPlayedAt) {
+        this.lastPlayedAt = lastPlayedAt;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.vidbregar.bluepodcast.model.database.playback;
+
+import android.arch.persistence.room.Dao;
+import android.arch.persistence.room.Insert;
+import android.arch.persistence.room.OnConflictStrategy;
+import android.arch.persistence.room.Query;
+
+import java.util.List;
+
+@Dao
+public interface PlaybackPositionDao {
+
+    // Room writes the whole list in one transaction
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void upsertPositions(List<PlaybackPositionEntity> positions);
+
+    @Query("SELECT * FROM playback_position_table WHERE audio_url = :audioUrl")
+    PlaybackPositionEntity getPosition(String audioUrl);
+
+}
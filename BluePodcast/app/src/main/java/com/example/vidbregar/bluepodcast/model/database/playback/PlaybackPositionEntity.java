@@ -0,0 +1,68 @@
+package com.example.vidbregar.bluepodcast.model.database.playback;
+
+import android.arch.persistence.room.ColumnInfo;
+import android.arch.persistence.room.Entity;
+import android.arch.persistence.room.PrimaryKey;
+import android.support.annotation.NonNull;
+
+/**
+ * Where playback of an episode was left, keyed by the audio URL the player streams.
+ */
+@Entity(tableName = "playback_position_table")
+public class PlaybackPositionEntity {
+
+    @PrimaryKey
+    @NonNull
+    @ColumnInfo(name = "audio_url")
+    private String audioUrl;
+
+    @ColumnInfo(name = "position_ms")
+    private long positionMs;
+
+    @ColumnInfo(name = "duration_ms")
+    private long durationMs;
+
+    @ColumnInfo(name = "updated_at")
+    private long updatedAt;
+
+    public PlaybackPositionEntity(@NonNull String audioUrl, long positionMs, long durationMs,
+                                  long updatedAt) {
+        this.audioUrl = audioUrl;
+        this.positionMs = positionMs;
+        this.durationMs = durationMs;
+        this.updatedAt = updatedAt;
+    }
+
+    @NonNull
+    public String getAudioUrl() {
+        return audioUrl;
+    }
+
+    public void setAudioUrl(@NonNull String audioUrl) {
+        this.audioUrl = audioUrl;
+    }
+
+    public long getPositionMs() {
+        return positionMs;
+    }
+
+    public void setPositionMs(long positionMs) {
+        this.positionMs = positionMs;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public void setDurationMs(long durationMs) {
+        this.durationMs = durationMs;
+    }
+
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(long updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
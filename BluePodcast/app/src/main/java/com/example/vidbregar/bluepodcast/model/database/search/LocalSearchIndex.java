@@ -0,0 +1,231 @@
+package com.example.vidbregar.bluepodcast.model.database.search;
+
+import android.arch.persistence.db.SupportSQLiteDatabase;
+import android.database.Cursor;
+import android.support.annotation.WorkerThread;
+
+import com.example.vidbregar.bluepodcast.model.data.SearchResult;
+import com.example.vidbregar.bluepodcast.model.database.BluePodcastDatabase;
+import com.example.vidbregar.bluepodcast.model.database.favorites.FavoriteEntity;
+import com.example.vidbregar.bluepodcast.model.search.LocalSearchRanker;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Full text index over the titles, publishers and descriptions of the episodes in the catalog
+ * and of the favorites, so search has results without the network. Room has no FTS support in
+ * this version, so the FTS4 table and the triggers keeping it in sync are created here, from
+ * the database callback on a fresh install and from the migration otherwise.
+ * <p>
+ * Both kinds share the table: an episode is indexed under twice its rowid and a favorite
+ * under twice its rowid plus one. Their tables are keyed by text, so these rowids only last
+ * while the rows are never replaced, which deletes without firing the delete triggers, and the
+ * database is never vacuumed. Terms of two and three characters have a prefix index, so
+ * the prefix queries typed while searching do not have to scan the whole term list.
+ */
+public class LocalSearchIndex {
+
+    static final String TABLE = "search_fts";
+
+    // Matches beyond these are not ranked, which keeps very common prefixes fast
+    private static final int MAX_CANDIDATES = 2000;
+    private static final double FAVORITE_BOOST = 1.5;
+
+    // Episodes are indexed with the publisher of their channel, which can change after they were stored
+    private static final String CHANNEL_PUBLISHER_UPDATE = "UPDATE `search_fts` SET `publisher` = NEW.`publisher` "
+            + "WHERE docid IN (SELECT rowid * 2 FROM `catalog_episode_table` WHERE `channel_id` = NEW.`id`) "
+            + "AND `publisher` IS NOT NEW.`publisher`;";
+
+    private static final String[] SCHEMA = {
+            "CREATE VIRTUAL TABLE IF NOT EXISTS `search_fts` USING fts4(`title`, `publisher`, `description`, prefix=\"2,3\")",
+            "CREATE TRIGGER IF NOT EXISTS `catalog_episode_search_insert` AFTER INSERT ON `catalog_episode_table` BEGIN "
+                    + "INSERT INTO `search_fts` (docid, `title`, `publisher`, `description`) VALUES (NEW.rowid * 2, NEW.`title`, "
+                    + "(SELECT `publisher` FROM `channel_table` WHERE `id` = NEW.`channel_id`), NEW.`description`); END",
+            "CREATE TRIGGER IF NOT EXISTS `catalog_episode_search_update` AFTER UPDATE ON `catalog_episode_table` BEGIN "
+                    + "UPDATE `search_fts` SET `title` = NEW.`title`, "
+                    + "`publisher` = (SELECT `publisher` FROM `channel_table` WHERE `id` = NEW.`channel_id`), "
+                    + "`description` = NEW.`description` WHERE docid = OLD.rowid * 2; END",
+            "CREATE TRIGGER IF NOT EXISTS `catalog_episode_search_delete` AFTER DELETE ON `catalog_episode_table` BEGIN "
+                    + "DELETE FROM `search_fts` WHERE docid = OLD.rowid * 2; END",
+            // Channels are upserted with REPLACE, which inserts them again
+            "CREATE TRIGGER IF NOT EXISTS `channel_search_insert` AFTER INSERT ON `channel_table` BEGIN "
+                    + CHANNEL_PUBLISHER_UPDATE + " END",
+            "CREATE TRIGGER IF NOT EXISTS `channel_search_update` AFTER UPDATE OF `publisher` ON `channel_table` BEGIN "
+                    + CHANNEL_PUBLISHER_UPDATE + " END"
+    };
+
+    // Dropped with favorites_table, so they are kept apart for when it is rebuilt
+    private static final String[] FAVORITE_TRIGGERS = {
+            "CREATE TRIGGER IF NOT EXISTS `favorite_search_insert` AFTER INSERT ON `favorites_table` BEGIN "
+                    + "INSERT INTO `search_fts` (docid, `title`, `publisher`) VALUES (NEW.rowid * 2 + 1, NEW.`episode_title`, NEW.`publisher`); END",
+            "CREATE TRIGGER IF NOT EXISTS `favorite_search_delete` AFTER DELETE ON `favorites_table` BEGIN "
+                    + "DELETE FROM `search_fts` WHERE docid = OLD.rowid * 2 + 1; END"
+    };
+
+    private final BluePodcastDatabase database;
+
+    public LocalSearchIndex(BluePodcastDatabase database) {
+        this.database = database;
+    }
+
+    /**
+     * Creates the index and its triggers and indexes the rows already stored.
+     */
+    public static void createSchema(SupportSQLiteDatabase db) {
+        for (String statement : SCHEMA) {
+            db.execSQL(statement);
+        }
+        db.execSQL("INSERT INTO `search_fts` (docid, `title`, `publisher`, `description`) "
+                + "SELECT `catalog_episode_table`.rowid * 2, `catalog_episode_table`.`title`, `channel_table`.`publisher`, `catalog_episode_table`.`description` "
+                + "FROM `catalog_episode_table` LEFT JOIN `channel_table` ON `channel_table`.`id` = `catalog_episode_table`.`channel_id`");
+        indexFavorites(db);
+    }
+
+    /**
+     * Replaces the episode triggers of an index created before they followed the publishers of
+     * the channels, and indexes the current publishers.
+     */
+    public static void reindexPublishers(SupportSQLiteDatabase db) {
+        db.execSQL("DROP TRIGGER IF EXISTS `catalog_episode_search_update`");
+        for (String statement : SCHEMA) {
+            db.execSQL(statement);
+        }
+        db.execSQL("UPDATE `search_fts` SET `publisher` = (SELECT `channel_table`.`publisher` "
+                + "FROM `catalog_episode_table` INNER JOIN `channel_table` ON `channel_table`.`id` = `catalog_episode_table`.`channel_id` "
+                + "WHERE `catalog_episode_table`.rowid * 2 = `search_fts`.docid) WHERE docid % 2 = 0");
+    }
+
+    /**
+     * Indexes the favorites again after {@code favorites_table} was rebuilt, which gives its
+     * rows new rowids and drops the triggers on it.
+     */
+    public static void reindexFavorites(SupportSQLiteDatabase db) {
+        db.execSQL("DELETE FROM `search_fts` WHERE docid % 2 = 1");
+        indexFavorites(db);
+    }
+
+    private static void indexFavorites(SupportSQLiteDatabase db) {
+        for (String statement : FAVORITE_TRIGGERS) {
+            db.execSQL(statement);
+        }
+        db.execSQL("INSERT INTO `search_fts` (docid, `title`, `publisher`) "
+                + "SELECT rowid * 2 + 1, `episode_title`, `publisher` FROM `favorites_table`");
+    }
+
+    /**
+     * The best {@code limit} episodes and favorites matching {@code query}, best first.
+     */
+    @WorkerThread
+    public List<SearchResult> search(String query, int limit) {
+        String matchExpression = LocalSearchRanker.toMatchExpression(query);
+        if (matchExpression == null) return Collections.emptyList();
+        SupportSQLiteDatabase db = database.getOpenHelper().getReadableDatabase();
+
+        List<Long> docIds = new ArrayList<>();
+        Map<Long, Double> scores = new HashMap<>();
+        try (Cursor cursor = db.query("SELECT docid, matchinfo(`search_fts`, 'pcnx') FROM `search_fts` "
+                + "WHERE `search_fts` MATCH ? LIMIT " + MAX_CANDIDATES, new Object[]{matchExpression})) {
+            while (cursor.moveToNext()) {
+                long docId = cursor.getLong(0);
+                double score = LocalSearchRanker.score(toInts(cursor.getBlob(1)),
+                        LocalSearchRanker.COLUMN_WEIGHTS);
+                docIds.add(docId);
+                scores.put(docId, isFavorite(docId) ? score * FAVORITE_BOOST : score);
+            }
+        }
+        Collections.sort(docIds, (first, second) -> Double.compare(scores.get(second), scores.get(first)));
+        List<Long> topDocIds = docIds.subList(0, Math.min(limit, docIds.size()));
+
+        List<Long> episodeRowIds = new ArrayList<>();
+        List<Long> favoriteRowIds = new ArrayList<>();
+        for (long docId : topDocIds) {
+            (isFavorite(docId) ? favoriteRowIds : episodeRowIds).add(docId / 2);
+        }
+        Map<Long, SearchResult> results = new HashMap<>();
+        loadEpisodes(db, episodeRowIds, results);
+        loadFavorites(db, favoriteRowIds, results);
+
+        List<SearchResult> ranked = new ArrayList<>(topDocIds.size());
+        for (long docId : topDocIds) {
+            SearchResult result = results.get(docId);
+            if (result != null) ranked.add(result);
+        }
+        return ranked;
+    }
+
+    private static boolean isFavorite(long docId) {
+        return docId % 2 == 1;
+    }
+
+    // matchinfo is an array of unsigned 32 bit integers in the byte order of the device
+    private static int[] toInts(byte[] blob) {
+        ByteBuffer buffer = ByteBuffer.wrap(blob).order(ByteOrder.nativeOrder());
+        int[] ints = new int[blob.length / 4];
+        for (int i = 0; i < ints.length; i++) {
+            ints[i] = buffer.getInt();
+        }
+        return ints;
+    }
+
+    private static void loadEpisodes(SupportSQLiteDatabase db, List<Long> rowIds,
+                                     Map<Long, SearchResult> results) {
+        if (rowIds.isEmpty()) return;
+        try (Cursor cursor = db.query("SELECT `catalog_episode_table`.rowid, `catalog_episode_table`.`id`, "
+                + "`catalog_episode_table`.`channel_id`, `catalog_episode_table`.`title`, `pub_date_ms`, "
+                + "`catalog_episode_table`.`description`, `audio_length`, `audio_url`, "
+                + "`channel_table`.`title`, `channel_table`.`publisher`, `channel_table`.`thumbnail_url` "
+                + "FROM `catalog_episode_table` LEFT JOIN `channel_table` ON `channel_table`.`id` = `catalog_episode_table`.`channel_id` "
+                + "WHERE `catalog_episode_table`.rowid IN (" + placeholders(rowIds.size()) + ")", rowIds.toArray())) {
+            while (cursor.moveToNext()) {
+                SearchResult result = new SearchResult();
+                result.setEpisodeId(cursor.getString(1));
+                result.setPodcastId(cursor.getString(2));
+                result.setEpisodeTitle(cursor.getString(3));
+                result.setPublicationDateMilliseconds(cursor.getLong(4));
+                result.setDescription(cursor.getString(5));
+                result.setAudioLength(String.valueOf(cursor.getInt(6)));
+                result.setAudioUrl(cursor.getString(7));
+                result.setPodcastTitle(cursor.getString(8));
+                result.setPublisher(cursor.getString(9));
+                result.setThumbnailUrl(cursor.getString(10));
+                results.put(cursor.getLong(0) * 2, result);
+            }
+        }
+    }
+
+    private static void loadFavorites(SupportSQLiteDatabase db, List<Long> rowIds,
+                                      Map<Long, SearchResult> results) {
+        if (rowIds.isEmpty()) return;
+        try (Cursor cursor = db.query("SELECT rowid, `episode_title`, `thumbnail_url`, `publisher`, `audio_url`, "
+                + "`podcast_id`, `episode_id` "
+                + "FROM `favorites_table` WHERE rowid IN (" + placeholders(rowIds.size()) + ")", rowIds.toArray())) {
+            while (cursor.moveToNext()) {
+                SearchResult result = new SearchResult();
+                result.setEpisodeTitle(cursor.getString(1));
+                result.setThumbnailUrl(cursor.getString(2));
+                result.setPublisher(cursor.getString(3));
+                result.setAudioUrl(cursor.getString(4));
+                String podcastId = cursor.getString(5);
+                if (!FavoriteEntity.UNKNOWN_PODCAST_ID.equals(podcastId)) {
+                    result.setPodcastId(podcastId);
+                    result.setEpisodeId(cursor.getString(6));
+                }
+                results.put(cursor.getLong(0) * 2 + 1, result);
+            }
+        }
+    }
+
+    private static String placeholders(int count) {
+        StringBuilder placeholders = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            placeholders.append(i == 0 ? "?" : ", ?");
+        }
+        return placeholders.toString();
+    }
+}
@@ -0,0 +1,267 @@
+package com.example.vidbregar.bluepodcast.model.episode;
+
+import com.example.vidbregar.bluepodcast.model.data.Episode;
+import com.example.vidbregar.bluepodcast.model.data.Podcast;
+import com.example.vidbregar.bluepodcast.model.network.PodcastService;
+import com.example.vidbregar.bluepodcast.model.network.PodcastStreamParser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Response;
+
+/**
+ * Pages through the episodes of a podcast by the {@code next_episode_pub_date} cursor, newest
+ * first. The next page is requested as soon as the user scrolls within {@code prefetchDistance}
+ * episodes of the last known one. Only {@code maxLoadedPages} pages are kept in memory: the
+ * pages furthest from the visible episodes are dropped and handed out as null placeholders, and
+ * are loaded again by their cursor when the user scrolls back to them.
+ * <p>
+ * Pages are fetched one at a time on {@code executor} and the listener is called on it.
+ */
+public class EpisodePagingSource {
+
+    public interface Listener {
+
+        /**
+         * Called with every known episode, null where its page is not loaded, each time a page
+         * arrives.
+         */
+        void onEpisodes(List<Episode> episodes, boolean hasMore);
+
+        void onPageFailed(int page, Throwable t);
+
+    }
+
+    public static final int DEFAULT_PREFETCH_DISTANCE = 5;
+    public static final int DEFAULT_MAX_LOADED_PAGES = 10;
+
+    private final PodcastService podcastService;
+    private final String apiKey;
+    private final String podcastId;
+    private final int prefetchDistance;
+    private final int maxLoadedPages;
+    private final Executor executor;
+    private final Listener listener;
+    // The pages are saved to the catalog, which would otherwise lose the stored show notes
+    private final PodcastStreamParser parser = new PodcastStreamParser(true);
+    // Guarded by this. The cursor of page i is at index i, the first page has none.
+    private final List<Long> pageCursors = new ArrayList<>(Collections.singletonList((Long) null));
+    private final List<Integer> pageSizes = new ArrayList<>();
+    private final Map<Integer, List<Episode>> loadedPages = new HashMap<>();
+    private boolean hasMore = true;
+    private int firstVisiblePosition;
+    private int lastVisiblePosition;
+    private Call<ResponseBody> pageCall;
+    private boolean canceled;
+
+    public EpisodePagingSource(PodcastService podcastService, String apiKey, String podcastId,
+                               Executor executor, Listener listener) {
+        this(podcastService, apiKey, podcastId, DEFAULT_PREFETCH_DISTANCE, DEFAULT_MAX_LOADED_PAGES,
+                executor, listener);
+    }
+
+    public EpisodePagingSource(PodcastService podcastService, String apiKey, String podcastId,
+                               int prefetchDistance, int maxLoadedPages, Executor executor,
+                               Listener listener) {
+        this.podcastService = podcastService;
+        this.apiKey = apiKey;
+        this.podcastId = podcastId;
+        this.prefetchDistance = prefetchDistance;
+        this.maxLoadedPages = maxLoadedPages;
+        this.executor = executor;
+        this.listener = listener;
+    }
+
+    public String getPodcastId() {
+        return podcastId;
+    }
+
+    /**
+     * Loads the first page.
+     */
+    public void load() {
+        loadNeededPage();
+    }
+
+    /**
+     * Loads the page the visible episodes need next, if any: a dropped page they overlap, or the
+     * next page once the last visible episode is close enough to the end.
+     */
+    public void onScrolled(int firstVisiblePosition, int lastVisiblePosition) {
+        synchronized (this) {
+            this.firstVisiblePosition = firstVisiblePosition;
+            this.lastVisiblePosition = lastVisiblePosition;
+        }
+        loadNeededPage();
+    }
+
+    public synchronized void cancel() {
+        canceled = true;
+        if (pageCall != null) {
+            pageCall.cancel();
+            pageCall = null;
+        }
+    }
+
+    public synchronized boolean hasMore() {
+        return hasMore;
+    }
+
+    public synchronized boolean isLoading() {
+        return pageCall != null;
+    }
+
+    // Visible for tests
+    synchronized int loadedPageCount() {
+        return loadedPages.size();
+    }
+
+    private void loadNeededPage() {
+        int page;
+        Long cursor;
+        Call<ResponseBody> call;
+        synchronized (this) {
+            if (canceled || pageCall != null) return;
+            page = findNeededPage();
+            if (page == -1) return;
+            cursor = pageCursors.get(page);
+            call = podcastService.getPodcastStream(apiKey, podcastId, cursor);
+            pageCall = call;
+        }
+        executor.execute(() -> fetch(page, call));
+    }
+
+    private int findNeededPage() {
+        int firstNeeded = Math.max(0, firstVisiblePosition - prefetchDistance);
+        int lastNeeded = lastVisiblePosition + prefetchDistance;
+        int pageStart = 0;
+        for (int page = 0; page < pageSizes.size(); page++) {
+            int pageEnd = pageStart + pageSizes.get(page) - 1;
+            if (pageEnd >= firstNeeded && pageStart <= lastNeeded && !loadedPages.containsKey(page)) {
+                return page;
+            }
+            pageStart = pageEnd + 1;
+        }
+        if (hasMore && lastNeeded >= pageStart) {
+            return pageSizes.size();
+        }
+        return -1;
+    }
+
+    private void fetch(int page, Call<ResponseBody> call) {
+        Podcast podcast;
+        try {
+            Response<ResponseBody> response = call.execute();
+            if (!response.isSuccessful()) {
+                response.errorBody().close();
+                throw new IOException("HTTP " + response.code());
+            }
+            try (ResponseBody body = response.body()) {
+                // Pages are small, so there is nothing to gain from delivering partial pages
+                podcast = parser.parse(body.charStream());
+            }
+        } catch (IOException | RuntimeException e) {
+            synchronized (this) {
+                if (pageCall != call) return;
+                // Scrolling again retries the same page
+                pageCall = null;
+            }
+            listener.onPageFailed(page, e);
+            return;
+        }
+        List<Episode> snapshot;
+        boolean more;
+        synchronized (this) {
+            // Canceled while the page was read
+            if (pageCall != call) return;
+            pageCall = null;
+            addPage(page, podcast);
+            dropFarthestPages();
+            snapshot = snapshot();
+            more = hasMore;
+        }
+        listener.onEpisodes(snapshot, more);
+        loadNeededPage();
+    }
+
+    private void addPage(int page, Podcast podcast) {
+        List<Episode> episodes = podcast.getEpisodes() == null
+                ? Collections.<Episode>emptyList() : podcast.getEpisodes();
+        loadedPages.put(page, episodes);
+        if (page < pageSizes.size()) {
+            // A dropped page loaded again. Episodes published since would shift every position
+            // after it, so the page keeps its size.
+            if (episodes.size() != pageSizes.get(page)) {
+                loadedPages.put(page, fitToSize(episodes, pageSizes.get(page)));
+            }
+            return;
+        }
+        pageSizes.add(episodes.size());
+        long nextCursor = podcast.getNextEpisodePubDate();
+        Long cursor = pageCursors.get(page);
+        // An empty page or a cursor which does not move back in time would never end
+        if (episodes.isEmpty() || nextCursor <= 0 || (cursor != null && nextCursor >= cursor)) {
+            hasMore = false;
+        } else {
+            pageCursors.add(nextCursor);
+        }
+    }
+
+    private static List<Episode> fitToSize(List<Episode> episodes, int size) {
+        List<Episode> fitted = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            fitted.add(i < episodes.size() ? episodes.get(i) : null);
+        }
+        return fitted;
+    }
+
+    private void dropFarthestPages() {
+        int firstNeededPage = pageOf(Math.max(0, firstVisiblePosition - prefetchDistance));
+        int lastNeededPage = pageOf(lastVisiblePosition + prefetchDistance);
+        while (loadedPages.size() > maxLoadedPages) {
+            int farthestPage = -1;
+            int farthestDistance = 0;
+            for (int page : loadedPages.keySet()) {
+                int distance = Math.max(firstNeededPage - page, page - lastNeededPage);
+                if (distance > farthestDistance) {
+                    farthestPage = page;
+                    farthestDistance = distance;
+                }
+            }
+            // Pages around the visible episodes are kept even if they do not fit, or they
+            // would be loaded again right away
+            if (farthestPage == -1) return;
+            loadedPages.remove(farthestPage);
+        }
+    }
+
+    private int pageOf(int position) {
+        int pageStart = 0;
+        for (int page = 0; page < pageSizes.size(); page++) {
+            pageStart += pageSizes.get(page);
+            if (position < pageStart) return page;
+        }
+        return Math.max(0, pageSizes.size() - 1);
+    }
+
+    private List<Episode> snapshot() {
+        List<Episode> episodes = new ArrayList<>();
+        for (int page = 0; page < pageSizes.size(); page++) {
+            List<Episode> loaded = loadedPages.get(page);
+            if (loaded != null) {
+                episodes.addAll(loaded);
+            } else {
+                episodes.addAll(Collections.<Episode>nCopies(pageSizes.get(page), null));
+            }
+        }
+        return episodes;
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.vidbregar.bluepodcast.model.favorites;
+
+import android.arch.lifecycle.LiveData;
+import android.arch.lifecycle.MutableLiveData;
+import android.util.Log;
+
+import com.example.vidbregar.bluepodcast.model.database.favorites.FavoriteEntity;
+import com.example.vidbregar.bluepodcast.model.database.favorites.FavoriteKey;
+import com.example.vidbregar.bluepodcast.model.database.favorites.FavoritesDao;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Which episodes are favorites, kept in memory so the player and the episode lists can tell
+ * without a query. The set is loaded from the favorites table once, afterwards every favorite
+ * is added and removed through the index, which updates the set right away and writes the
+ * table behind it. Nothing else may write the favorites table while the app runs.
+ */
+public class FavoritesIndex {
+
+    private final FavoritesDao favoritesDao;
+    // Must run the writes one at a time and in order
+    private final Executor writeExecutor;
+    private final MutableLiveData<Integer> changesLiveData = new MutableLiveData<>();
+
+    // Replaced when loaded, readers need no lock
+    private volatile Set<String> keys = newKeySet();
+    private volatile boolean isLoaded;
+    // Guarded by this
+    private boolean isLoading;
+    private final Map<String, Boolean> changedWhileLoading = new HashMap<>();
+    private int version;
+
+    public FavoritesIndex(FavoritesDao favoritesDao, Executor writeExecutor) {
+        this.favoritesDao = favoritesDao;
+        this.writeExecutor = writeExecutor;
+    }
+
+    /**
+     * Reads the favorites table on the write executor. Favorites added or removed before it is
+     * done are answered from what the index was told so far.
+     */
+    public void load() {
+        synchronized (this) {
+            if (isLoaded || isLoading) return;
+            isLoading = true;
+        }
+        writeExecutor.execute(this::readKeys);
+    }
+
+    public boolean isLoaded() {
+        return isLoaded;
+    }
+
+    public boolean isFavorite(String podcastId, String episodeId) {
+        return keys.contains(keyOf(podcastId, episodeId));
+    }
+
+    public void add(FavoriteEntity favoriteEntity) {
+        update(keyOf(favoriteEntity.getPodcastId(), favoriteEntity.getEpisodeId()), true);
+        writeExecutor.execute(() -> favoritesDao.insertFavorite(favoriteEntity));
+    }
+
+    public void remove(String podcastId, String episodeId) {
+        update(keyOf(podcastId, episodeId), false);
+        writeExecutor.execute(() -> favoritesDao.removeFavorite(podcastId, episodeId));
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    /**
+     * Counts the changes to the index, loading it included. Observers only need to know that
+     * the favorites changed and ask {@link #isFavorite(String, String)} again.
+     */
+    public LiveData<Integer> getChangesLiveData() {
+        return changesLiveData;
+    }
+
+    private void readKeys() {
+        List<FavoriteKey> favoriteKeys;
+        try {
+            favoriteKeys = favoritesDao.getFavoriteKeys();
+        } catch (RuntimeException e) {
+            Log.e("ERROR", "Failed to load the favorites: " + e.getMessage());
+            synchronized (this) {
+                // The changes are already in the table for the next try
+                changedWhileLoading.clear();
+                isLoading = false;
+            }
+            return;
+        }
+        Set<String> loadedKeys = newKeySet();
+        for (FavoriteKey favoriteKey : favoriteKeys) {
+            loadedKeys.add(keyOf(favoriteKey.getPodcastId(), favoriteKey.getEpisodeId()));
+        }
+        int changeVersion;
+        synchronized (this) {
+            for (Map.Entry<String, Boolean> change : changedWhileLoading.entrySet()) {
+                if (change.getValue()) {
+                    loadedKeys.add(change.getKey());
+                } else {
+                    loadedKeys.remove(change.getKey());
+                }
+            }
+            changedWhileLoading.clear();
+            keys = loadedKeys;
+            isLoading = false;
+            isLoaded = true;
+            changeVersion = ++version;
+        }
+        changesLiveData.postValue(changeVersion);
+    }
+
+    private void update(String key, boolean isFavorite) {
+        int changeVersion;
+        synchronized (this) {
+            // Recorded even if the set already agrees, the table being read may not
+            if (isLoading) {
+                changedWhileLoading.put(key, isFavorite);
+            }
+            boolean isChanged = isFavorite ? keys.add(key) : keys.remove(key);
+            if (!isChanged) return;
+            changeVersion = ++version;
+        }
+        changesLiveData.postValue(changeVersion);
+    }
+
+    private static Set<String> newKeySet() {
+        return Collections.newSetFromMap(new ConcurrentHashMap<>());
+    }
+
+    // Ids never contain a NUL, so the key cannot be ambiguous
+    private static String keyOf(String podcastId, String episodeId) {
+        return podcastId + '\u0000' + episodeId;
+    }
+}
@@ -0,0 +1,294 @@
+package com.example.vidbregar.bluepodcast.model.feed;
+
+import com.example.vidbregar.bluepodcast.model.data.Channel;
+import com.example.vidbregar.bluepodcast.model.data.PodcastGenre;
+import com.example.vidbregar.bluepodcast.model.network.PodcastService;
+import com.example.vidbregar.bluepodcast.model.network.quota.QuotaExceededException;
+import com.example.vidbregar.bluepodcast.model.network.quota.RequestPriority;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Loads any number of feed sections in parallel, with at most {@code maxConcurrentRequests}
+ * requests in flight. Each section is handed to the listener as soon as it arrives, together
+ * with the time it took.
+ * <p>
+ * Sections are loaded by {@link LoadPriority}: the sections on screen first, then the
+ * {@code prefetchCount} sections below them, in display order. Background sections wait until
+ * nothing more urgent is pending and use a single request at a time; if a section scrolls into
+ * view while every request is taken, a background request is canceled to make room for it and
+ * is loaded again later. A section off screen which the API quota cannot afford is deferred
+ * until it scrolls into view instead of failing, and one which scrolled into view while its
+ * request was in flight is retried as interactive.
+ */
+public class FeedLoader {
+
+    public interface Listener {
+
+        void onSectionLoaded(FeedSection section, List<Channel> podcasts, long elapsedMillis);
+
+        void onSectionFailed(FeedSection section, Throwable t, long elapsedMillis);
+
+    }
+
+    public static final int DEFAULT_PREFETCH_COUNT = 2;
+    private static final int MAX_CONCURRENT_BACKGROUND_REQUESTS = 1;
+
+    private final PodcastService podcastService;
+    private final String apiKey;
+    private final int maxConcurrentRequests;
+    private final int prefetchCount;
+    private final Listener listener;
+    // Guarded by this
+    private final List<FeedSection> sections = new ArrayList<>();
+    private final Map<FeedSection, LoadPriority> priorities = new HashMap<>();
+    private final Set<FeedSection> pendingSections = new HashSet<>();
+    // Pending sections which only start once visible
+    private final Set<FeedSection> deferredSections = new HashSet<>();
+    private final Map<Call<PodcastGenre>, FeedSection> runningCalls = new LinkedHashMap<>();
+    private final Map<FeedSection, Long> latencies = new LinkedHashMap<>();
+
+    public FeedLoader(PodcastService podcastService, String apiKey, int maxConcurrentRequests,
+                      Listener listener) {
+        this(podcastService, apiKey, maxConcurrentRequests, DEFAULT_PREFETCH_COUNT, listener);
+    }
+
+    public FeedLoader(PodcastService podcastService, String apiKey, int maxConcurrentRequests,
+                      int prefetchCount, Listener listener) {
+        this.podcastService = podcastService;
+        this.apiKey = apiKey;
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.prefetchCount = prefetchCount;
+        this.listener = listener;
+    }
+
+    /**
+     * Loads the sections, given in display order, assuming the first one is on screen until
+     * told otherwise by {@link #onSectionsVisible(List)}.
+     */
+    public void load(List<FeedSection> sections) {
+        synchronized (this) {
+            for (FeedSection section : sections) {
+                if (!this.sections.contains(section)) this.sections.add(section);
+                pendingSections.add(section);
+            }
+            if (!sections.isEmpty()) {
+                prioritize(Collections.singletonList(sections.get(0)));
+            }
+        }
+        startPendingSections();
+    }
+
+    /**
+     * Raises the sections on screen to {@link LoadPriority#VISIBLE} and the ones right below
+     * them to {@link LoadPriority#PREFETCH}, every other section is moved to the background.
+     */
+    public void onSectionsVisible(List<FeedSection> visibleSections) {
+        List<Call<PodcastGenre>> preemptedCalls;
+        synchronized (this) {
+            prioritize(visibleSections);
+            preemptedCalls = preemptBackgroundCalls();
+        }
+        for (Call<PodcastGenre> call : preemptedCalls) {
+            call.cancel();
+        }
+        startPendingSections();
+    }
+
+    public synchronized LoadPriority getPriority(FeedSection section) {
+        LoadPriority priority = priorities.get(section);
+        return priority == null ? LoadPriority.BACKGROUND : priority;
+    }
+
+    public void cancel() {
+        List<Call<PodcastGenre>> canceledCalls;
+        synchronized (this) {
+            pendingSections.clear();
+            deferredSections.clear();
+            canceledCalls = new ArrayList<>(runningCalls.keySet());
+            runningCalls.clear();
+        }
+        // Outside the lock, the calls are no longer running so their callbacks are ignored
+        for (Call<PodcastGenre> call : canceledCalls) {
+            call.cancel();
+        }
+    }
+
+    /**
+     * Milliseconds each finished section took, in order of arrival.
+     */
+    public synchronized Map<FeedSection, Long> getLatencies() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(latencies));
+    }
+
+    /**
+     * Sections which took longer than their latency budget.
+     */
+    public synchronized List<FeedSection> getSectionsOverBudget() {
+        List<FeedSection> overBudget = new ArrayList<>();
+        for (Map.Entry<FeedSection, Long> latency : latencies.entrySet()) {
+            if (latency.getValue() > latency.getKey().getLatencyBudgetMillis()) {
+                overBudget.add(latency.getKey());
+            }
+        }
+        return overBudget;
+    }
+
+    private void prioritize(List<FeedSection> visibleSections) {
+        int lastVisibleIndex = -1;
+        for (FeedSection section : visibleSections) {
+            lastVisibleIndex = Math.max(lastVisibleIndex, sections.indexOf(section));
+        }
+        for (int i = 0; i < sections.size(); i++) {
+            FeedSection section = sections.get(i);
+            LoadPriority priority;
+            if (visibleSections.contains(section)) {
+                priority = LoadPriority.VISIBLE;
+            } else if (i > lastVisibleIndex && i <= lastVisibleIndex + prefetchCount) {
+                priority = LoadPriority.PREFETCH;
+            } else {
+                priority = LoadPriority.BACKGROUND;
+            }
+            priorities.put(section, priority);
+        }
+    }
+
+    // Frees a request for every visible section which would otherwise have to wait
+    private List<Call<PodcastGenre>> preemptBackgroundCalls() {
+        int waitingVisibleSections = 0;
+        for (FeedSection section : pendingSections) {
+            if (getPriority(section) == LoadPriority.VISIBLE) waitingVisibleSections++;
+        }
+        int toPreempt = waitingVisibleSections - (maxConcurrentRequests - runningCalls.size());
+        List<Call<PodcastGenre>> preemptedCalls = new ArrayList<>();
+        for (Map.Entry<Call<PodcastGenre>, FeedSection> running : runningCalls.entrySet()) {
+            if (preemptedCalls.size() >= toPreempt) break;
+            if (getPriority(running.getValue()) == LoadPriority.BACKGROUND) {
+                preemptedCalls.add(running.getKey());
+            }
+        }
+        for (Call<PodcastGenre> call : preemptedCalls) {
+            pendingSections.add(runningCalls.remove(call));
+        }
+        return preemptedCalls;
+    }
+
+    private void startPendingSections() {
+        Map<Call<PodcastGenre>, FeedSection> toStart = new LinkedHashMap<>();
+        synchronized (this) {
+            FeedSection section;
+            while ((section = nextSectionToStart()) != null) {
+                pendingSections.remove(section);
+                deferredSections.remove(section);
+                RequestPriority requestPriority = requestPriorityOf(getPriority(section));
+                Call<PodcastGenre> call = section.isBestPodcasts()
+                        ? podcastService.getBestPodcasts(apiKey, requestPriority)
+                        : podcastService.getGenrePodcasts(apiKey, section.getGenreId(),
+                        requestPriority);
+                runningCalls.put(call, section);
+                toStart.put(call, section);
+            }
+        }
+        for (Map.Entry<Call<PodcastGenre>, FeedSection> start : toStart.entrySet()) {
+            start(start.getKey(), start.getValue());
+        }
+    }
+
+    // The most urgent pending section, in display order, if it may start now
+    private FeedSection nextSectionToStart() {
+        if (runningCalls.size() >= maxConcurrentRequests) return null;
+        FeedSection next = null;
+        for (FeedSection section : sections) {
+            if (pendingSections.contains(section) && !isDeferred(section)
+                    && (next == null || getPriority(section).compareTo(getPriority(next)) < 0)) {
+                next = section;
+            }
+        }
+        if (next == null || getPriority(next) != LoadPriority.BACKGROUND) return next;
+        int runningBackgroundCalls = 0;
+        for (FeedSection section : runningCalls.values()) {
+            if (getPriority(section) == LoadPriority.BACKGROUND) runningBackgroundCalls++;
+        }
+        return runningBackgroundCalls < MAX_CONCURRENT_BACKGROUND_REQUESTS ? next : null;
+    }
+
+    private boolean isDeferred(FeedSection section) {
+        return deferredSections.contains(section) && getPriority(section) != LoadPriority.VISIBLE;
+    }
+
+    private static RequestPriority requestPriorityOf(LoadPriority priority) {
+        switch (priority) {
+            case VISIBLE:
+                return RequestPriority.INTERACTIVE;
+            case PREFETCH:
+                return RequestPriority.PREFETCH;
+            default:
+                return RequestPriority.BACKGROUND;
+        }
+    }
+
+    private void start(Call<PodcastGenre> call, FeedSection section) {
+        long startedAt = System.nanoTime();
+        call.enqueue(new Callback<PodcastGenre>() {
+            @Override
+            public void onResponse(Call<PodcastGenre> call, Response<PodcastGenre> response) {
+                Long elapsedMillis = finish(call, section, startedAt);
+                if (elapsedMillis == null) return;
+                if (response.isSuccessful() && response.body() != null) {
+                    listener.onSectionLoaded(section, response.body().getChannels(), elapsedMillis);
+                } else {
+                    listener.onSectionFailed(section,
+                            new IllegalStateException("HTTP " + response.code()), elapsedMillis);
+                }
+                startPendingSections();
+            }
+
+            @Override
+            public void onFailure(Call<PodcastGenre> call, Throwable t) {
+                if (t instanceof QuotaExceededException
+                        && requeue(call, section, ((QuotaExceededException) t).getPriority())) {
+                    startPendingSections();
+                    return;
+                }
+                Long elapsedMillis = finish(call, section, startedAt);
+                if (elapsedMillis == null) return;
+                listener.onSectionFailed(section, t, elapsedMillis);
+                startPendingSections();
+            }
+        });
+    }
+
+    // Defers a section shed off screen, and retries one visible by now as interactive. False if
+    // it was shed as interactive already, so its failure has to be shown
+    private synchronized boolean requeue(Call<PodcastGenre> call, FeedSection section,
+                                         RequestPriority shedPriority) {
+        boolean visible = getPriority(section) == LoadPriority.VISIBLE;
+        if (visible && shedPriority == RequestPriority.INTERACTIVE) return false;
+        // A canceled or preempted call is already taken care of
+        if (runningCalls.remove(call) != null) {
+            pendingSections.add(section);
+            if (!visible) deferredSections.add(section);
+        }
+        return true;
+    }
+
+    // Null if the call was canceled or preempted in the meantime
+    private synchronized Long finish(Call<PodcastGenre> call, FeedSection section, long startedAt) {
+        if (runningCalls.remove(call) == null) return null;
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+        latencies.put(section, elapsedMillis);
+        return elapsedMillis;
+    }
+}
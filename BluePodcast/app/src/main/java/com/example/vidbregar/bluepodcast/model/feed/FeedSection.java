@@ -0,0 +1,48 @@
+package com.example.vidbregar.bluepodcast.model.feed;
+
+/**
+ * One row of the home feed, backed by a ListenNotes genre list.
+ */
+public class FeedSection {
+
+    // best_podcasts without a genre_id returns the overall best podcasts
+    public static final int BEST_PODCASTS_GENRE_ID = 0;
+
+    private final int genreId;
+    private final int labelResId;
+    private final long latencyBudgetMillis;
+
+    public FeedSection(int genreId, int labelResId, long latencyBudgetMillis) {
+        this.genreId = genreId;
+        this.labelResId = labelResId;
+        this.latencyBudgetMillis = latencyBudgetMillis;
+    }
+
+    public int getGenreId() {
+        return genreId;
+    }
+
+    public int getLabelResId() {
+        return labelResId;
+    }
+
+    public long getLatencyBudgetMillis() {
+        return latencyBudgetMillis;
+    }
+
+    public boolean isBestPodcasts() {
+        return genreId == BEST_PODCASTS_GENRE_ID;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return genreId == ((FeedSection) o).genreId;
+    }
+
+    @Override
+    public int hashCode() {
+        return genreId;
+    }
+}
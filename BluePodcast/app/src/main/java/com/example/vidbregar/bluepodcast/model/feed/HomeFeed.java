@@ -0,0 +1,41 @@
+package com.example.vidbregar.bluepodcast.model.feed;
+
+import com.example.vidbregar.bluepodcast.R;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Sections displayed on the home screen, in display order.
+ */
+public class HomeFeed {
+
+    private static final long CAROUSEL_LATENCY_BUDGET_MILLIS = 1500;
+    private static final long GENRE_LATENCY_BUDGET_MILLIS = 3000;
+
+    public static final FeedSection BEST_PODCASTS = new FeedSection(
+            FeedSection.BEST_PODCASTS_GENRE_ID, R.string.best_podcasts_label, CAROUSEL_LATENCY_BUDGET_MILLIS);
+
+    public static final List<FeedSection> GENRE_SECTIONS = Collections.unmodifiableList(Arrays.asList(
+            new FeedSection(133, R.string.comedy_podcasts_label, GENRE_LATENCY_BUDGET_MILLIS),
+            new FeedSection(93, R.string.business_podcasts_label, GENRE_LATENCY_BUDGET_MILLIS),
+            new FeedSection(88, R.string.health_podcasts_label, GENRE_LATENCY_BUDGET_MILLIS),
+            new FeedSection(125, R.string.history_podcasts_label, GENRE_LATENCY_BUDGET_MILLIS),
+            new FeedSection(127, R.string.technology_podcasts_label, GENRE_LATENCY_BUDGET_MILLIS),
+            new FeedSection(107, R.string.science_podcasts_label, GENRE_LATENCY_BUDGET_MILLIS),
+            new FeedSection(122, R.string.society_podcasts_label, GENRE_LATENCY_BUDGET_MILLIS),
+            new FeedSection(99, R.string.news_podcasts_label, GENRE_LATENCY_BUDGET_MILLIS),
+            new FeedSection(77, R.string.sports_podcasts_label, GENRE_LATENCY_BUDGET_MILLIS),
+            new FeedSection(68, R.string.tv_film_podcasts_label, GENRE_LATENCY_BUDGET_MILLIS),
+            new FeedSection(100, R.string.arts_podcasts_label, GENRE_LATENCY_BUDGET_MILLIS),
+            new FeedSection(111, R.string.education_podcasts_label, GENRE_LATENCY_BUDGET_MILLIS)));
+
+    public static List<FeedSection> getAllSections() {
+        List<FeedSection> sections = new ArrayList<>(GENRE_SECTIONS.size() + 1);
+        sections.add(BEST_PODCASTS);
+        sections.addAll(GENRE_SECTIONS);
+        return sections;
+    }
+}
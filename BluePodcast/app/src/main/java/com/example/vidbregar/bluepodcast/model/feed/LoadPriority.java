@@ -0,0 +1,15 @@
+package com.example.vidbregar.bluepodcast.model.feed;
+
+/**
+ * How urgently a feed section is needed, most urgent first.
+ */
+public enum LoadPriority {
+
+    // On screen
+    VISIBLE,
+    // Just below what is on screen, likely to be scrolled to next
+    PREFETCH,
+    // Offscreen, only loaded when nothing more urgent is waiting
+    BACKGROUND
+
+}
@@ -0,0 +1,126 @@
+package com.example.vidbregar.bluepodcast.model.history;
+
+import android.util.Log;
+
+import com.example.vidbregar.bluepodcast.model.database.episode.EpisodeEntity;
+import com.example.vidbregar.bluepodcast.model.database.history.ListeningHistoryDao;
+import com.example.vidbregar.bluepodcast.model.database.history.ListeningHistoryEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buffers what the player played and appends it to the listening history in batches, together
+ * with the daily and per podcast aggregates. Once a day, at the first flush, history older than
+ * {@link #HISTORY_RETENTION_DAYS} and days older than {@link #DAILY_RETENTION_DAYS} are removed.
+ */
+public class ListeningHistoryRecorder {
+
+    interface Clock {
+        long currentTimeMillis();
+    }
+
+    public static final int HISTORY_RETENTION_DAYS = 365;
+    public static final int DAILY_RETENTION_DAYS = 3 * 365;
+
+    // Caps the buffer between the flushes of the player
+    static final int BATCH_SIZE = 20;
+
+    private final ListeningHistoryDao listeningHistoryDao;
+    // Must run the writes one at a time and in order
+    private final Executor writeExecutor;
+    private final Clock clock;
+    // Guarded by this
+    private final List<ListeningHistoryEntity> pending = new ArrayList<>();
+    private long prunedOnDay = -1;
+
+    public ListeningHistoryRecorder(ListeningHistoryDao listeningHistoryDao, Executor writeExecutor) {
+        this(listeningHistoryDao, writeExecutor, System::currentTimeMillis);
+    }
+
+    ListeningHistoryRecorder(ListeningHistoryDao listeningHistoryDao, Executor writeExecutor,
+                             Clock clock) {
+        this.listeningHistoryDao = listeningHistoryDao;
+        this.writeExecutor = writeExecutor;
+        this.clock = clock;
+    }
+
+    /**
+     * Buffers {@code listenedMs} of listening to {@code episode}, which started at {@code startedAt}.
+     * A {@code continuation} adds to listening already recorded with the same start, without
+     * counting another play.
+     */
+    public void record(EpisodeEntity episode, long startedAt, long listenedMs, boolean continuation) {
+        if (episode == null || listenedMs <= 0) return;
+        boolean hasIds = episode.getPodcastId() != null && episode.getEpisodeId() != null;
+        ListeningHistoryEntity entry = new ListeningHistoryEntity(0,
+                hasIds ? episode.getPodcastId() : null,
+                hasIds ? episode.getEpisodeId() : null,
+                episode.getAudioUrl(),
+                episode.getEpisodeTitle(),
+                episode.getPublisher(),
+                episode.getThumbnailUrl(),
+                startedAt,
+                listenedMs,
+                localDayOf(startedAt),
+                continuation);
+        boolean isBatchFull;
+        synchronized (this) {
+            pending.add(entry);
+            isBatchFull = pending.size() >= BATCH_SIZE;
+        }
+        if (isBatchFull) {
+            flush();
+        }
+    }
+
+    /**
+     * Appends the buffered history on the write executor, if there is any.
+     */
+    public void flush() {
+        List<ListeningHistoryEntity> batch;
+        boolean isPruneDue;
+        synchronized (this) {
+            if (pending.isEmpty()) return;
+            batch = new ArrayList<>(pending);
+            pending.clear();
+            long today = localDayOf(clock.currentTimeMillis());
+            isPruneDue = today != prunedOnDay;
+            prunedOnDay = today;
+        }
+        writeExecutor.execute(() -> write(batch, isPruneDue));
+    }
+
+    private void write(List<ListeningHistoryEntity> batch, boolean isPruneDue) {
+        try {
+            listeningHistoryDao.append(batch);
+        } catch (RuntimeException e) {
+            Log.e("ERROR", "Failed to save listening history: " + e.getMessage());
+            // The transaction was rolled back, so the batch is appended with the next flush
+            synchronized (this) {
+                pending.addAll(0, batch);
+            }
+            return;
+        }
+        if (isPruneDue) {
+            try {
+                prune();
+            } catch (RuntimeException e) {
+                Log.e("ERROR", "Failed to prune listening history: " + e.getMessage());
+            }
+        }
+    }
+
+    private void prune() {
+        long now = clock.currentTimeMillis();
+        listeningHistoryDao.prune(now - TimeUnit.DAYS.toMillis(HISTORY_RETENTION_DAYS),
+                localDayOf(now) - DAILY_RETENTION_DAYS);
+    }
+
+    static long localDayOf(long millis) {
+        return (millis + TimeZone.getDefault().getOffset(millis)) / TimeUnit.DAYS.toMillis(1);
+    }
+}
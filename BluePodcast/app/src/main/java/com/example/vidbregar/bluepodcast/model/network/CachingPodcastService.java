@@ -0,0 +1,163 @@
+package com.example.vidbregar.bluepodcast.model.network;
+
+import com.example.vidbregar.bluepodcast.model.data.Podcast;
+import com.example.vidbregar.bluepodcast.model.data.PodcastGenre;
+import com.example.vidbregar.bluepodcast.model.data.Search;
+import com.example.vidbregar.bluepodcast.model.network.cache.SearchCache;
+import com.example.vidbregar.bluepodcast.model.network.quota.RequestPriority;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+
+import okhttp3.Request;
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * {@link PodcastService} which answers searches from a {@link SearchCache} when it can, and
+ * caches every page it has to fetch. The cache is looked up on {@code ioExecutor} and cached
+ * pages are delivered on {@code callbackExecutor}, the same way Retrofit delivers responses.
+ */
+public class CachingPodcastService implements PodcastService {
+
+    private final PodcastService podcastService;
+    private final SearchCache searchCache;
+    private final Executor ioExecutor;
+    private final Executor callbackExecutor;
+
+    public CachingPodcastService(PodcastService podcastService, SearchCache searchCache,
+                                 Executor ioExecutor, Executor callbackExecutor) {
+        this.podcastService = podcastService;
+        this.searchCache = searchCache;
+        this.ioExecutor = ioExecutor;
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    @Override
+    public Call<PodcastGenre> getBestPodcasts(String xMashapeKey, RequestPriority priority) {
+        return podcastService.getBestPodcasts(xMashapeKey, priority);
+    }
+
+    @Override
+    public Call<PodcastGenre> getGenrePodcasts(String xMashapeKey, int genreId,
+                                               RequestPriority priority) {
+        return podcastService.getGenrePodcasts(xMashapeKey, genreId, priority);
+    }
+
+    @Override
+    public Call<Podcast> getPodcast(String xMashapeKey, String podcastId) {
+        return podcastService.getPodcast(xMashapeKey, podcastId);
+    }
+
+    @Override
+    public Call<ResponseBody> getPodcastStream(String xMashapeKey, String podcastId,
+                                               Long nextEpisodePubDate) {
+        return podcastService.getPodcastStream(xMashapeKey, podcastId, nextEpisodePubDate);
+    }
+
+    @Override
+    public Call<Search> search(String xMashapeKey, String query, int offset) {
+        return new CachedSearchCall(query, offset, podcastService.search(xMashapeKey, query, offset));
+    }
+
+    private class CachedSearchCall implements Call<Search> {
+
+        private final String query;
+        private final int offset;
+        private final Call<Search> delegate;
+        private volatile boolean executed;
+        private volatile boolean canceled;
+
+        CachedSearchCall(String query, int offset, Call<Search> delegate) {
+            this.query = query;
+            this.offset = offset;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Response<Search> execute() throws IOException {
+            markExecuted();
+            Search cached = searchCache.get(query, offset);
+            if (cached != null) {
+                return Response.success(cached);
+            }
+            Response<Search> response = delegate.execute();
+            if (response.isSuccessful() && response.body() != null) {
+                searchCache.put(query, offset, response.body());
+            }
+            return response;
+        }
+
+        @Override
+        public void enqueue(Callback<Search> callback) {
+            markExecuted();
+            ioExecutor.execute(() -> {
+                Search cached = canceled ? null : searchCache.get(query, offset);
+                if (cached != null) {
+                    callbackExecutor.execute(() -> {
+                        if (canceled) {
+                            callback.onFailure(this, new IOException("Canceled"));
+                        } else {
+                            callback.onResponse(this, Response.success(cached));
+                        }
+                    });
+                    return;
+                }
+                enqueueDelegate(callback);
+            });
+        }
+
+        private void enqueueDelegate(Callback<Search> callback) {
+            delegate.enqueue(new Callback<Search>() {
+                @Override
+                public void onResponse(Call<Search> call, Response<Search> response) {
+                    Search search = response.body();
+                    if (response.isSuccessful() && search != null) {
+                        ioExecutor.execute(() -> searchCache.put(query, offset, search));
+                    }
+                    callback.onResponse(CachedSearchCall.this, response);
+                }
+
+                @Override
+                public void onFailure(Call<Search> call, Throwable t) {
+                    callback.onFailure(CachedSearchCall.this, t);
+                }
+            });
+        }
+
+        private void markExecuted() {
+            synchronized (this) {
+                if (executed) throw new IllegalStateException("Already executed.");
+                executed = true;
+            }
+        }
+
+        @Override
+        public boolean isExecuted() {
+            return executed;
+        }
+
+        @Override
+        public void cancel() {
+            canceled = true;
+            delegate.cancel();
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return canceled;
+        }
+
+        @Override
+        public Call<Search> clone() {
+            return new CachedSearchCall(query, offset, delegate.clone());
+        }
+
+        @Override
+        public Request request() {
+            return delegate.request();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.vidbregar.bluepodcast.model.network;
+
+import com.example.vidbregar.bluepodcast.model.data.Podcast;
+import com.example.vidbregar.bluepodcast.model.data.PodcastGenre;
+import com.example.vidbregar.bluepodcast.model.data.Search;
+import com.example.vidbregar.bluepodcast.model.network.quota.RequestPriority;
+
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+
+/**
+ * {@link PodcastService} which deduplicates identical in-flight requests, e.g. when a fragment
+ * is recreated while its previous request is still pending.
+ */
+public class CoalescingPodcastService implements PodcastService {
+
+    private final PodcastService podcastService;
+    private final SingleFlight singleFlight;
+
+    public CoalescingPodcastService(PodcastService podcastService) {
+        this(podcastService, new SingleFlight());
+    }
+
+    public CoalescingPodcastService(PodcastService podcastService, SingleFlight singleFlight) {
+        this.podcastService = podcastService;
+        this.singleFlight = singleFlight;
+    }
+
+    // Keyed by priority too, otherwise a visible caller joining a background request would be
+    // shed along with it when the quota runs low
+    @Override
+    public Call<PodcastGenre> getBestPodcasts(String xMashapeKey, RequestPriority priority) {
+        return singleFlight.call("best_podcasts?priority=" + priority,
+                podcastService.getBestPodcasts(xMashapeKey, priority));
+    }
+
+    @Override
+    public Call<PodcastGenre> getGenrePodcasts(String xMashapeKey, int genreId,
+                                               RequestPriority priority) {
+        return singleFlight.call("best_podcasts?genre_id=" + genreId + "&priority=" + priority,
+                podcastService.getGenrePodcasts(xMashapeKey, genreId, priority));
+    }
+
+    @Override
+    public Call<Podcast> getPodcast(String xMashapeKey, String podcastId) {
+        return singleFlight.call("podcasts/" + podcastId,
+                podcastService.getPodcast(xMashapeKey, podcastId));
+    }
+
+    // A streamed body can only be consumed once, so it cannot be shared between callers
+    @Override
+    public Call<ResponseBody> getPodcastStream(String xMashapeKey, String podcastId,
+                                               Long nextEpisodePubDate) {
+        return podcastService.getPodcastStream(xMashapeKey, podcastId, nextEpisodePubDate);
+    }
+
+    @Override
+    public Call<Search> search(String xMashapeKey, String query, int offset) {
+        return singleFlight.call("search?q=" + query + "&offset=" + offset,
+                podcastService.search(xMashapeKey, query, offset));
+    }
+}
@@ -3,29 +3,43 @@ package com.example.vidbregar.bluepodcast.model.network;
 import com.example.vidbregar.bluepodcast.model.data.Podcast;
 import com.example.vidbregar.bluepodcast.model.data.PodcastGenre;
 import com.example.vidbregar.bluepodcast.model.data.Search;
+import com.example.vidbregar.bluepodcast.model.network.quota.RequestPriority;
 
+import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.http.GET;
 import retrofit2.http.Header;
 import retrofit2.http.Path;
 import retrofit2.http.Query;
+import retrofit2.http.Streaming;
 
 public interface PodcastService {
 
+    // The priority decides whether the request may spend API quota, see QuotaInterceptor
     @GET("api/v1/best_podcasts")
-    Call<PodcastGenre> getBestPodcasts(@Header("X-Mashape-Key") String xMashapeKey);
+    Call<PodcastGenre> getBestPodcasts(@Header("X-Mashape-Key") String xMashapeKey,
+                                       @Header(RequestPriority.HEADER) RequestPriority priority);
 
     @GET("api/v1/best_podcasts")
     Call<PodcastGenre> getGenrePodcasts(@Header("X-Mashape-Key") String xMashapeKey,
-                                        @Query("genre_id") int genreId);
+                                        @Query("genre_id") int genreId,
+                                        @Header(RequestPriority.HEADER) RequestPriority priority);
 
     @GET("api/v1/podcasts/{podcastId}")
     Call<Podcast> getPodcast(@Header("X-Mashape-Key") String xMashapeKey,
                              @Path("podcastId") String podcastId);
 
+    // Raw body, parsed incrementally by PodcastStreamParser. Without a cursor the newest
+    // episodes are returned, otherwise the ones published before nextEpisodePubDate.
+    @Streaming
+    @GET("api/v1/podcasts/{podcastId}")
+    Call<ResponseBody> getPodcastStream(@Header("X-Mashape-Key") String xMashapeKey,
+                                        @Path("podcastId") String podcastId,
+                                        @Query("next_episode_pub_date") Long nextEpisodePubDate);
 
     @GET("api/v1/search")
     Call<Search> search(@Header("X-Mashape-Key") String xMashapeKey,
-                        @Query(value = "q", encoded = true) String query);
+                        @Query(value = "q", encoded = true) String query,
+                        @Query("offset") int offset);
 
 }
@@ -0,0 +1,153 @@
+package com.example.vidbregar.bluepodcast.model.network;
+
+import com.example.vidbregar.bluepodcast.model.data.Episode;
+import com.example.vidbregar.bluepodcast.model.data.Podcast;
+import com.example.vidbregar.bluepodcast.model.network.json.EpisodeTypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.example.vidbregar.bluepodcast.model.network.json.JsonReaderUtil.nextLongOrZero;
+import static com.example.vidbregar.bluepodcast.model.network.json.JsonReaderUtil.nextStringOrNull;
+
+/**
+ * Parses a {@code podcasts/{id}} response straight from the network stream and hands out the
+ * episodes in batches while the rest of the payload is still being read. The first batch is
+ * small so the first screenful can be rendered as early as possible. Without a listener the
+ * episodes are read in one pass, without copying a batch at a time.
+ * <p>
+ * Episode descriptions are long HTML strings which are not displayed in the episode list, so by
+ * default they are skipped without being materialized.
+ */
+public class PodcastStreamParser {
+
+    public interface Listener {
+
+        /**
+         * Called with every episode parsed so far, each time a batch is complete.
+         */
+        void onEpisodes(List<Episode> episodes);
+
+    }
+
+    public static final int DEFAULT_FIRST_BATCH_SIZE = 10;
+    public static final int DEFAULT_BATCH_SIZE = 50;
+
+    private final int firstBatchSize;
+    private final int batchSize;
+    private final EpisodeTypeAdapter episodeTypeAdapter;
+
+    public PodcastStreamParser() {
+        this(DEFAULT_FIRST_BATCH_SIZE, DEFAULT_BATCH_SIZE, false);
+    }
+
+    public PodcastStreamParser(boolean retainDescriptions) {
+        this(DEFAULT_FIRST_BATCH_SIZE, DEFAULT_BATCH_SIZE, retainDescriptions);
+    }
+
+    public PodcastStreamParser(int firstBatchSize, int batchSize, boolean retainDescriptions) {
+        this.firstBatchSize = firstBatchSize;
+        this.batchSize = batchSize;
+        this.episodeTypeAdapter = new EpisodeTypeAdapter(retainDescriptions);
+    }
+
+    public Podcast parse(Reader reader) throws IOException {
+        return parse(reader, null);
+    }
+
+    public Podcast parse(Reader reader, Listener listener) throws IOException {
+        JsonReader jsonReader = new JsonReader(reader);
+        String id = null;
+        String thumbnailUrl = null;
+        String website = null;
+        String publisher = null;
+        String title = null;
+        String description = null;
+        List<Episode> episodes = Collections.emptyList();
+        long nextEpisodePubDate = 0;
+
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            switch (jsonReader.nextName()) {
+                case "id":
+                    id = nextStringOrNull(jsonReader);
+                    break;
+                case "thumbnail":
+                    thumbnailUrl = nextStringOrNull(jsonReader);
+                    break;
+                case "website":
+                    website = nextStringOrNull(jsonReader);
+                    break;
+                case "publisher":
+                    publisher = nextStringOrNull(jsonReader);
+                    break;
+                case "title":
+                    title = nextStringOrNull(jsonReader);
+                    break;
+                case "description":
+                    description = nextStringOrNull(jsonReader);
+                    break;
+                case "episodes":
+                    episodes = listener == null
+                            ? readEpisodes(jsonReader)
+                            : readEpisodes(jsonReader, listener);
+                    break;
+                case "next_episode_pub_date":
+                    nextEpisodePubDate = nextLongOrZero(jsonReader);
+                    break;
+                default:
+                    jsonReader.skipValue();
+                    break;
+            }
+        }
+        jsonReader.endObject();
+        Podcast podcast = new Podcast(id, thumbnailUrl, episodes, website, publisher, title, description);
+        podcast.setNextEpisodePubDate(nextEpisodePubDate);
+        return podcast;
+    }
+
+    private List<Episode> readEpisodes(JsonReader jsonReader) throws IOException {
+        List<Episode> episodes = new ArrayList<>();
+        if (jsonReader.peek() == JsonToken.NULL) {
+            jsonReader.nextNull();
+            return episodes;
+        }
+        jsonReader.beginArray();
+        while (jsonReader.hasNext()) {
+            episodes.add(episodeTypeAdapter.read(jsonReader));
+        }
+        jsonReader.endArray();
+        return episodes;
+    }
+
+    private List<Episode> readEpisodes(JsonReader jsonReader, Listener listener) throws IOException {
+        List<Episode> episodes = new ArrayList<>();
+        if (jsonReader.peek() == JsonToken.NULL) {
+            jsonReader.nextNull();
+            listener.onEpisodes(new ArrayList<>(episodes));
+            return episodes;
+        }
+        int nextBatchEnd = firstBatchSize;
+        int deliveredCount = -1;
+        jsonReader.beginArray();
+        while (jsonReader.hasNext()) {
+            episodes.add(episodeTypeAdapter.read(jsonReader));
+            if (episodes.size() == nextBatchEnd) {
+                listener.onEpisodes(new ArrayList<>(episodes));
+                deliveredCount = episodes.size();
+                nextBatchEnd += batchSize;
+            }
+        }
+        jsonReader.endArray();
+        if (deliveredCount != episodes.size()) {
+            // Deliver the last, incomplete batch
+            listener.onEpisodes(new ArrayList<>(episodes));
+        }
+        return episodes;
+    }
+}
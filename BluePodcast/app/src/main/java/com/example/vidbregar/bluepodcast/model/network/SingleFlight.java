@@ -0,0 +1,226 @@
+package com.example.vidbregar.bluepodcast.model.network;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import okhttp3.Request;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Shares one in-flight network call between all callers asking for the same key. Every caller
+ * gets its own {@link Call}, but only the first one to start actually hits the network; the
+ * others wait for its response and receive the same parsed body.
+ * <p>
+ * Like a Retrofit call, a canceled call never calls its callback from within
+ * {@link Call#cancel()}; an enqueued caller which cancels simply hears nothing more.
+ */
+public class SingleFlight {
+
+    // Guarded by this
+    private final Map<String, Flight<?>> flights = new HashMap<>();
+
+    public <T> Call<T> call(String key, Call<T> delegate) {
+        return new CoalescedCall<>(key, delegate);
+    }
+
+    // Visible for tests
+    synchronized int inFlightCount() {
+        return flights.size();
+    }
+
+    // Visible for tests
+    synchronized int waiterCount() {
+        int waiters = 0;
+        for (Flight<?> flight : flights.values()) {
+            waiters += flight.waiters.size();
+        }
+        return waiters;
+    }
+
+    @SuppressWarnings("unchecked")
+    private synchronized <T> Flight<T> join(String key, Call<T> delegate, CoalescedCall<T> waiter,
+                                            Callback<T> callback) {
+        Flight<T> flight = (Flight<T>) flights.get(key);
+        if (flight == null) {
+            flight = new Flight<>(key, delegate);
+            flights.put(key, flight);
+        }
+        flight.waiters.put(waiter, callback);
+        return flight;
+    }
+
+    private synchronized <T> Map<CoalescedCall<T>, Callback<T>> complete(Flight<T> flight) {
+        if (flights.get(flight.key) == flight) {
+            flights.remove(flight.key);
+        }
+        flight.completed = true;
+        Map<CoalescedCall<T>, Callback<T>> waiters = new HashMap<>(flight.waiters);
+        flight.waiters.clear();
+        return waiters;
+    }
+
+    private synchronized <T> boolean leave(Flight<T> flight, CoalescedCall<T> waiter) {
+        if (flight.completed || flight.waiters.remove(waiter) == null) {
+            return false;
+        }
+        if (flight.waiters.isEmpty() && flights.get(flight.key) == flight) {
+            // Nobody is interested in the result any more
+            flights.remove(flight.key);
+            flight.delegate.cancel();
+        }
+        return true;
+    }
+
+    private class Flight<T> implements Callback<T> {
+
+        private final String key;
+        private final Call<T> delegate;
+        // Guarded by SingleFlight.this
+        private final Map<CoalescedCall<T>, Callback<T>> waiters = new HashMap<>();
+        private boolean completed;
+        private boolean started;
+
+        Flight(String key, Call<T> delegate) {
+            this.key = key;
+            this.delegate = delegate;
+        }
+
+        // Returns true if the caller is the one who has to start the delegate call
+        boolean markStarted() {
+            synchronized (SingleFlight.this) {
+                if (started) return false;
+                started = true;
+                return true;
+            }
+        }
+
+        @Override
+        public void onResponse(Call<T> call, Response<T> response) {
+            for (Map.Entry<CoalescedCall<T>, Callback<T>> waiter : complete(this).entrySet()) {
+                waiter.getValue().onResponse(waiter.getKey(), response);
+            }
+        }
+
+        @Override
+        public void onFailure(Call<T> call, Throwable t) {
+            for (Map.Entry<CoalescedCall<T>, Callback<T>> waiter : complete(this).entrySet()) {
+                waiter.getValue().onFailure(waiter.getKey(), t);
+            }
+        }
+    }
+
+    private class CoalescedCall<T> implements Call<T> {
+
+        private final String key;
+        private final Call<T> delegate;
+        private volatile boolean executed;
+        private volatile boolean synchronous;
+        private volatile boolean canceled;
+        private volatile Flight<T> flight;
+        private volatile Callback<T> callback;
+
+        CoalescedCall(String key, Call<T> delegate) {
+            this.key = key;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Response<T> execute() throws IOException {
+            markExecuted();
+            synchronous = true;
+            final List<Response<T>> result = new ArrayList<>(1);
+            final List<Throwable> error = new ArrayList<>(1);
+            final CountDownLatch latch = new CountDownLatch(1);
+            callback = new Callback<T>() {
+                @Override
+                public void onResponse(Call<T> call, Response<T> response) {
+                    result.add(response);
+                    latch.countDown();
+                }
+
+                @Override
+                public void onFailure(Call<T> call, Throwable t) {
+                    error.add(t);
+                    latch.countDown();
+                }
+            };
+            Flight<T> joined = join(key, delegate, this, callback);
+            flight = joined;
+            if (joined.markStarted()) {
+                try {
+                    joined.onResponse(joined.delegate, joined.delegate.execute());
+                } catch (IOException | RuntimeException e) {
+                    joined.onFailure(joined.delegate, e);
+                }
+            }
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+                cancel();
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for a shared call", e);
+            }
+            if (!error.isEmpty()) {
+                Throwable t = error.get(0);
+                if (t instanceof IOException) throw (IOException) t;
+                if (t instanceof RuntimeException) throw (RuntimeException) t;
+                throw new IOException(t);
+            }
+            return result.get(0);
+        }
+
+        @Override
+        public void enqueue(Callback<T> callback) {
+            markExecuted();
+            this.callback = callback;
+            Flight<T> joined = join(key, delegate, this, callback);
+            flight = joined;
+            if (joined.markStarted()) {
+                joined.delegate.enqueue(joined);
+            }
+        }
+
+        private void markExecuted() {
+            synchronized (this) {
+                if (executed) throw new IllegalStateException("Already executed.");
+                executed = true;
+            }
+        }
+
+        @Override
+        public boolean isExecuted() {
+            return executed;
+        }
+
+        @Override
+        public void cancel() {
+            canceled = true;
+            Flight<T> joined = flight;
+            // Only wakes up the thread blocked in execute(), which is not the one canceling
+            if (joined != null && leave(joined, this) && synchronous && callback != null) {
+                callback.onFailure(this, new IOException("Canceled"));
+            }
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return canceled;
+        }
+
+        @Override
+        public Call<T> clone() {
+            return new CoalescedCall<>(key, delegate.clone());
+        }
+
+        @Override
+        public Request request() {
+            return delegate.request();
+        }
+    }
+}
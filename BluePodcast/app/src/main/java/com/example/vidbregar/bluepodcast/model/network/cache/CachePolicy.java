@@ -0,0 +1,61 @@
+package com.example.vidbregar.bluepodcast.model.network.cache;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Freshness rules for a group of ListenNotes endpoints. A cached response younger than
+ * {@code maxAgeSeconds} is served without touching the network, a response that is older but
+ * still inside the {@code staleWhileRevalidateSeconds} window is served immediately and
+ * refreshed in the background.
+ */
+public class CachePolicy {
+
+    private static final List<CachePolicy> POLICIES = Arrays.asList(
+            // Best podcasts and genre lists (same endpoint, different genre_id query)
+            new CachePolicy("/api/v1/best_podcasts",
+                    TimeUnit.HOURS.toSeconds(1),
+                    TimeUnit.DAYS.toSeconds(3)),
+            new CachePolicy("/api/v1/podcasts/",
+                    TimeUnit.MINUTES.toSeconds(30),
+                    TimeUnit.DAYS.toSeconds(7)),
+            new CachePolicy("/api/v1/search",
+                    TimeUnit.MINUTES.toSeconds(10),
+                    TimeUnit.HOURS.toSeconds(1)));
+
+    private final String pathPrefix;
+    private final long maxAgeSeconds;
+    private final long staleWhileRevalidateSeconds;
+
+    public CachePolicy(String pathPrefix, long maxAgeSeconds, long staleWhileRevalidateSeconds) {
+        this.pathPrefix = pathPrefix;
+        this.maxAgeSeconds = maxAgeSeconds;
+        this.staleWhileRevalidateSeconds = staleWhileRevalidateSeconds;
+    }
+
+    /**
+     * Returns the policy for the given encoded URL path or {@code null} if responses from that
+     * endpoint should not be cached.
+     */
+    public static CachePolicy forPath(String encodedPath) {
+        for (CachePolicy policy : POLICIES) {
+            if (encodedPath.startsWith(policy.pathPrefix)) {
+                return policy;
+            }
+        }
+        return null;
+    }
+
+    public String getPathPrefix() {
+        return pathPrefix;
+    }
+
+    public long getMaxAgeSeconds() {
+        return maxAgeSeconds;
+    }
+
+    public long getStaleWhileRevalidateSeconds() {
+        return staleWhileRevalidateSeconds;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.vidbregar.bluepodcast.model.network.cache;
+
+import java.io.IOException;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Network interceptor which replaces the caching headers sent by ListenNotes with the
+ * freshness rules from {@link CachePolicy}, so OkHttp's disk cache is allowed to store them.
+ * A 304 gets the same headers, as OkHttp merges them into the cached response it revalidates.
+ */
+public class CachePolicyInterceptor implements Interceptor {
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        Response response = chain.proceed(request);
+
+        CachePolicy policy = CachePolicy.forPath(request.url().encodedPath());
+        boolean cacheable = response.isSuccessful() || response.code() == 304;
+        if (policy == null || !request.method().equals("GET") || !cacheable) {
+            return response;
+        }
+        return response.newBuilder()
+                .removeHeader("Pragma")
+                .removeHeader("Expires")
+                .header("Cache-Control", "public, max-age=" + policy.getMaxAgeSeconds())
+                .build();
+    }
+}
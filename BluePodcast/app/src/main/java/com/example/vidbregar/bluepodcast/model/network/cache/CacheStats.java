@@ -0,0 +1,122 @@
+package com.example.vidbregar.bluepodcast.model.network.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters describing how the HTTP cache is serving PodcastService requests.
+ */
+public class CacheStats {
+
+    private final AtomicLong freshHits = new AtomicLong();
+    private final AtomicLong staleHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong offlineHits = new AtomicLong();
+    private final AtomicLong revalidations = new AtomicLong();
+    private final AtomicLong revalidationFailures = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+    private final AtomicLong notModifiedBytes = new AtomicLong();
+    private final AtomicLong reusedParses = new AtomicLong();
+    private final AtomicLong reusedParseMicros = new AtomicLong();
+
+    void recordFreshHit() {
+        freshHits.incrementAndGet();
+    }
+
+    void recordStaleHit() {
+        staleHits.incrementAndGet();
+    }
+
+    void recordMiss() {
+        misses.incrementAndGet();
+    }
+
+    void recordOfflineHit() {
+        offlineHits.incrementAndGet();
+    }
+
+    void recordRevalidation() {
+        revalidations.incrementAndGet();
+    }
+
+    void recordRevalidationFailure() {
+        revalidationFailures.incrementAndGet();
+    }
+
+    void recordNotModified(long bytes) {
+        notModified.incrementAndGet();
+        notModifiedBytes.addAndGet(bytes);
+    }
+
+    void recordReusedParse(long parseMicros) {
+        reusedParses.incrementAndGet();
+        reusedParseMicros.addAndGet(parseMicros);
+    }
+
+    public long getFreshHits() {
+        return freshHits.get();
+    }
+
+    public long getStaleHits() {
+        return staleHits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getOfflineHits() {
+        return offlineHits.get();
+    }
+
+    public long getRevalidations() {
+        return revalidations.get();
+    }
+
+    public long getRevalidationFailures() {
+        return revalidationFailures.get();
+    }
+
+    /**
+     * Responses revalidated with a 304 instead of being downloaded again.
+     */
+    public long getNotModified() {
+        return notModified.get();
+    }
+
+    /**
+     * Body bytes the 304 responses did not have to download.
+     */
+    public long getNotModifiedBytes() {
+        return notModifiedBytes.get();
+    }
+
+    /**
+     * Responses whose previously parsed objects were reused instead of parsing the body.
+     */
+    public long getReusedParses() {
+        return reusedParses.get();
+    }
+
+    /**
+     * Parse time saved by reusing parsed objects, as measured when they were first parsed.
+     */
+    public long getReusedParseMicros() {
+        return reusedParseMicros.get();
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{" +
+                "freshHits=" + freshHits +
+                ", staleHits=" + staleHits +
+                ", misses=" + misses +
+                ", offlineHits=" + offlineHits +
+                ", revalidations=" + revalidations +
+                ", revalidationFailures=" + revalidationFailures +
+                ", notModified=" + notModified +
+                ", notModifiedBytes=" + notModifiedBytes +
+                ", reusedParses=" + reusedParses +
+                ", reusedParseMicros=" + reusedParseMicros +
+                '}';
+    }
+}
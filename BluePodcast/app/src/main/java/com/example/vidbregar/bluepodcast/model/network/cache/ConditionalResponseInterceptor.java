@@ -0,0 +1,138 @@
+package com.example.vidbregar.bluepodcast.model.network.cache;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
+
+/**
+ * Application interceptor passing the URL and validator of catalog responses on to
+ * {@link ParsedResponseConverterFactory}, as parameters of the body's content type because a
+ * converter sees nothing but the body. Responses revalidated with a 304 are counted together
+ * with the bytes they did not have to download.
+ * <p>
+ * The conditional requests themselves are made by OkHttp's cache, which keeps the validators
+ * with each cached response.
+ */
+public class ConditionalResponseInterceptor implements Interceptor {
+
+    static final String PARAMETER_URL = "x-parsed-url";
+    static final String PARAMETER_VALIDATOR = "x-parsed-validator";
+
+    private static final String[] CATALOG_PATH_PREFIXES = {"/api/v1/best_podcasts", "/api/v1/podcasts/"};
+    private static final MediaType DEFAULT_CONTENT_TYPE = MediaType.parse("application/json; charset=utf-8");
+
+    private final CacheStats cacheStats;
+
+    public ConditionalResponseInterceptor(CacheStats cacheStats) {
+        this.cacheStats = cacheStats;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        Response response = chain.proceed(request);
+        if (!isCatalog(request) || response.code() != 200 || response.body() == null) {
+            return response;
+        }
+
+        Response networkResponse = response.networkResponse();
+        if (networkResponse != null && networkResponse.code() == 304) {
+            cacheStats.recordNotModified(Math.max(0, response.body().contentLength()));
+        }
+        String validator = validatorOf(response);
+        if (validator == null) {
+            return response;
+        }
+        MediaType contentType = response.body().contentType();
+        MediaType taggedContentType = MediaType.parse(
+                (contentType != null ? contentType : DEFAULT_CONTENT_TYPE).toString()
+                        + "; " + PARAMETER_URL + "=" + encode(request.url().toString())
+                        + "; " + PARAMETER_VALIDATOR + "=" + encode(validator));
+        return response.newBuilder()
+                .body(new TaggedResponseBody(response.body(), taggedContentType))
+                .build();
+    }
+
+    /**
+     * Returns the value of the parameter {@code name} added by this interceptor, or {@code null}.
+     */
+    static String parameterOf(MediaType contentType, String name) {
+        if (contentType == null) return null;
+        for (String parameter : contentType.toString().split(";")) {
+            int equals = parameter.indexOf('=');
+            if (equals != -1 && parameter.substring(0, equals).trim().equals(name)) {
+                return decode(parameter.substring(equals + 1).trim());
+            }
+        }
+        return null;
+    }
+
+    private static boolean isCatalog(Request request) {
+        if (!request.method().equals("GET")) return false;
+        String path = request.url().encodedPath();
+        for (String prefix : CATALOG_PATH_PREFIXES) {
+            if (path.startsWith(prefix)) return true;
+        }
+        return false;
+    }
+
+    // A changed representation always comes with a changed validator, without one nothing is reused
+    private static String validatorOf(Response response) {
+        String eTag = response.header("ETag");
+        if (eTag != null) return "etag:" + eTag;
+        String lastModified = response.header("Last-Modified");
+        if (lastModified != null) return "last-modified:" + lastModified;
+        return null;
+    }
+
+    // URL encoding only leaves characters which are allowed in a media type parameter as they are
+    private static String encode(String value) {
+        try {
+            return URLEncoder.encode(value, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static String decode(String value) {
+        try {
+            return URLDecoder.decode(value, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static class TaggedResponseBody extends ResponseBody {
+
+        private final ResponseBody delegate;
+        private final MediaType contentType;
+
+        TaggedResponseBody(ResponseBody delegate, MediaType contentType) {
+            this.delegate = delegate;
+            this.contentType = contentType;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return contentType;
+        }
+
+        @Override
+        public long contentLength() {
+            return delegate.contentLength();
+        }
+
+        @Override
+        public BufferedSource source() {
+            return delegate.source();
+        }
+    }
+}
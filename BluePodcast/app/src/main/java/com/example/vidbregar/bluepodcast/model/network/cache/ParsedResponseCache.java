@@ -0,0 +1,77 @@
+package com.example.vidbregar.bluepodcast.model.network.cache;
+
+import java.lang.reflect.Type;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Objects parsed from catalog responses, by URL, together with the validator (ETag or
+ * Last-Modified) of the response they were parsed from. As long as the validator does not change,
+ * e.g. while the cached response is fresh or revalidated with a 304, the same objects are handed
+ * out again instead of parsing the cached body once more.
+ */
+public class ParsedResponseCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 32;
+
+    private final int maxEntries;
+    private final CacheStats cacheStats;
+    // Guarded by this
+    private final Map<String, ParsedResponse> responses;
+
+    public ParsedResponseCache(CacheStats cacheStats) {
+        this(DEFAULT_MAX_ENTRIES, cacheStats);
+    }
+
+    ParsedResponseCache(int maxEntries, CacheStats cacheStats) {
+        this.maxEntries = maxEntries;
+        this.cacheStats = cacheStats;
+        this.responses = new LinkedHashMap<String, ParsedResponse>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ParsedResponse> eldest) {
+                return size() > ParsedResponseCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the object of {@code type} parsed from the response to {@code url} with
+     * {@code validator}, or {@code null} if it has not been parsed.
+     */
+    Object get(String url, String validator, Type type) {
+        ParsedResponse response;
+        synchronized (this) {
+            response = responses.get(url);
+        }
+        if (response == null || !response.validator.equals(validator) || !response.type.equals(type)) {
+            return null;
+        }
+        cacheStats.recordReusedParse(response.parseMicros);
+        return response.value;
+    }
+
+    void put(String url, String validator, Type type, Object value, long parseMicros) {
+        synchronized (this) {
+            responses.put(url, new ParsedResponse(validator, type, value, parseMicros));
+        }
+    }
+
+    public synchronized void clear() {
+        responses.clear();
+    }
+
+    private static class ParsedResponse {
+
+        final String validator;
+        final Type type;
+        final Object value;
+        final long parseMicros;
+
+        ParsedResponse(String validator, Type type, Object value, long parseMicros) {
+            this.validator = validator;
+            this.type = type;
+            this.value = value;
+            this.parseMicros = parseMicros;
+        }
+    }
+}
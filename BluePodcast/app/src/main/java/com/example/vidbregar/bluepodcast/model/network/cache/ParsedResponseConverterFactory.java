@@ -0,0 +1,70 @@
+package com.example.vidbregar.bluepodcast.model.network.cache;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+
+/**
+ * Converter factory in front of the Gson converter. Bodies tagged by
+ * {@link ConditionalResponseInterceptor} are looked up in the {@link ParsedResponseCache} first,
+ * so an unchanged catalog response is not read nor parsed again.
+ */
+public class ParsedResponseConverterFactory extends Converter.Factory {
+
+    private final Converter.Factory delegate;
+    private final ParsedResponseCache parsedResponseCache;
+
+    public ParsedResponseConverterFactory(Converter.Factory delegate,
+                                          ParsedResponseCache parsedResponseCache) {
+        this.delegate = delegate;
+        this.parsedResponseCache = parsedResponseCache;
+    }
+
+    @Override
+    public Converter<ResponseBody, ?> responseBodyConverter(Type type, Annotation[] annotations,
+                                                            Retrofit retrofit) {
+        Converter<ResponseBody, ?> converter =
+                delegate.responseBodyConverter(type, annotations, retrofit);
+        if (converter == null) return null;
+        return body -> {
+            String url = ConditionalResponseInterceptor.parameterOf(body.contentType(),
+                    ConditionalResponseInterceptor.PARAMETER_URL);
+            String validator = ConditionalResponseInterceptor.parameterOf(body.contentType(),
+                    ConditionalResponseInterceptor.PARAMETER_VALIDATOR);
+            if (url == null || validator == null) {
+                return converter.convert(body);
+            }
+            Object parsed = parsedResponseCache.get(url, validator, type);
+            if (parsed != null) {
+                body.close();
+                return parsed;
+            }
+            long startNanos = System.nanoTime();
+            parsed = converter.convert(body);
+            if (parsed != null) {
+                parsedResponseCache.put(url, validator, type, parsed,
+                        TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos));
+            }
+            return parsed;
+        };
+    }
+
+    @Override
+    public Converter<?, RequestBody> requestBodyConverter(Type type,
+                                                          Annotation[] parameterAnnotations,
+                                                          Annotation[] methodAnnotations,
+                                                          Retrofit retrofit) {
+        return delegate.requestBodyConverter(type, parameterAnnotations, methodAnnotations, retrofit);
+    }
+
+    @Override
+    public Converter<?, String> stringConverter(Type type, Annotation[] annotations,
+                                                Retrofit retrofit) {
+        return delegate.stringConverter(type, annotations, retrofit);
+    }
+}
@@ -0,0 +1,235 @@
+package com.example.vidbregar.bluepodcast.model.network.cache;
+
+import com.example.vidbregar.bluepodcast.model.data.Search;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import okio.ByteString;
+
+/**
+ * Keeps search result pages in memory and on disk, so that queries the user types again are
+ * answered without spending API quota. Queries which only differ in case, whitespace or Unicode
+ * representation share an entry. Both tiers evict the least recently used pages once they are
+ * full and pages older than the TTL are never served.
+ * <p>
+ * Lookups may read from disk, so they should not be made on the main thread.
+ */
+public class SearchCache {
+
+    interface Clock {
+
+        long millis();
+
+    }
+
+    public static final int DEFAULT_MAX_MEMORY_ENTRIES = 50;
+    public static final int DEFAULT_MAX_DISK_ENTRIES = 200;
+    public static final long DEFAULT_TTL_MILLIS = TimeUnit.HOURS.toMillis(6);
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final String ENTRY_SUFFIX = ".json";
+
+    private final File directory;
+    private final Gson gson;
+    private final int maxDiskEntries;
+    private final long ttlMillis;
+    private final Clock clock;
+    private final SearchCacheStats stats;
+    // Guarded by this
+    private final Map<String, CachedPage> memory;
+
+    public SearchCache(File directory, Gson gson, SearchCacheStats stats) {
+        this(directory, gson, DEFAULT_MAX_MEMORY_ENTRIES, DEFAULT_MAX_DISK_ENTRIES,
+                DEFAULT_TTL_MILLIS, stats);
+    }
+
+    public SearchCache(File directory, Gson gson, int maxMemoryEntries, int maxDiskEntries,
+                       long ttlMillis, SearchCacheStats stats) {
+        this(directory, gson, maxMemoryEntries, maxDiskEntries, ttlMillis,
+                System::currentTimeMillis, stats);
+    }
+
+    SearchCache(File directory, Gson gson, int maxMemoryEntries, int maxDiskEntries,
+                long ttlMillis, Clock clock, SearchCacheStats stats) {
+        this.directory = directory;
+        this.gson = gson;
+        this.maxDiskEntries = maxDiskEntries;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+        this.stats = stats;
+        this.memory = new LinkedHashMap<String, CachedPage>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedPage> eldest) {
+                // Evicted pages are still on disk
+                return size() > maxMemoryEntries;
+            }
+        };
+    }
+
+    /**
+     * Lower case, NFKC normalized query with surrounding whitespace removed and inner whitespace
+     * collapsed to single spaces.
+     */
+    public static String normalizeQuery(String query) {
+        return Normalizer.normalize(query, Normalizer.Form.NFKC)
+                .trim()
+                .replaceAll("\\s+", " ")
+                .toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * The cached page of results for the query at the offset, or null if there is no fresh one.
+     */
+    public Search get(String query, int offset) {
+        String key = key(query, offset);
+        long now = clock.millis();
+        CachedPage page;
+        synchronized (this) {
+            page = memory.get(key);
+        }
+        boolean fromDisk = false;
+        if (page == null) {
+            page = read(key);
+            fromDisk = true;
+        }
+        if (page == null) {
+            stats.recordMiss();
+            return null;
+        }
+        if (now - page.storedAtMillis >= ttlMillis) {
+            remove(key);
+            stats.recordExpiration();
+            stats.recordMiss();
+            return null;
+        }
+        if (fromDisk) {
+            synchronized (this) {
+                memory.put(key, page);
+            }
+            // The disk tier evicts by modification time
+            file(key).setLastModified(now);
+            stats.recordDiskHit();
+        } else {
+            stats.recordMemoryHit();
+        }
+        return page.search;
+    }
+
+    public void put(String query, int offset, Search search) {
+        String key = key(query, offset);
+        CachedPage page = new CachedPage(key, clock.millis(), search);
+        synchronized (this) {
+            memory.put(key, page);
+        }
+        write(page);
+        trimDisk();
+    }
+
+    public synchronized void clear() {
+        memory.clear();
+        File[] files = directory.listFiles();
+        if (files == null) return;
+        for (File file : files) {
+            file.delete();
+        }
+    }
+
+    private static String key(String query, int offset) {
+        return normalizeQuery(query) + "&offset=" + offset;
+    }
+
+    private File file(String key) {
+        return new File(directory, ByteString.encodeUtf8(key).md5().hex() + ENTRY_SUFFIX);
+    }
+
+    private synchronized void remove(String key) {
+        memory.remove(key);
+        file(key).delete();
+    }
+
+    // Page file: the key, the time it was stored and the page as JSON, one per line
+    private CachedPage read(String key) {
+        File file = file(key);
+        if (!file.exists()) return null;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), UTF_8))) {
+            // Two queries whose keys collide overwrite each other's entry
+            if (!key.equals(reader.readLine())) return null;
+            long storedAtMillis = Long.parseLong(reader.readLine());
+            Search search = gson.fromJson((Reader) reader, Search.class);
+            return search == null ? null : new CachedPage(key, storedAtMillis, search);
+        } catch (IOException | JsonParseException | NumberFormatException e) {
+            file.delete();
+            return null;
+        }
+    }
+
+    private void write(CachedPage page) {
+        if (!directory.isDirectory() && !directory.mkdirs()) return;
+        File file = file(page.key);
+        File tmpFile = new File(directory, file.getName() + ".tmp");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(tmpFile), UTF_8)) {
+            writer.write(page.key);
+            writer.write('\n');
+            writer.write(Long.toString(page.storedAtMillis));
+            writer.write('\n');
+            gson.toJson(page.search, Search.class, writer);
+        } catch (IOException e) {
+            tmpFile.delete();
+            return;
+        }
+        // Readers never see a half written entry
+        if (tmpFile.renameTo(file)) {
+            file.setLastModified(page.storedAtMillis);
+        } else {
+            tmpFile.delete();
+        }
+    }
+
+    private synchronized void trimDisk() {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(ENTRY_SUFFIX));
+        if (files == null || files.length <= maxDiskEntries) return;
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File a, File b) {
+                return Long.compare(a.lastModified(), b.lastModified());
+            }
+        });
+        for (int i = 0; i < files.length - maxDiskEntries; i++) {
+            if (files[i].delete()) {
+                stats.recordEviction();
+            }
+        }
+    }
+
+    private static class CachedPage {
+
+        final String key;
+        final long storedAtMillis;
+        final Search search;
+
+        CachedPage(String key, long storedAtMillis, Search search) {
+            this.key = key;
+            this.storedAtMillis = storedAtMillis;
+            this.search = search;
+        }
+    }
+}
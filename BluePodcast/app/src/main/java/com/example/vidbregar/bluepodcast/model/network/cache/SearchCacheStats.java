@@ -0,0 +1,78 @@
+package com.example.vidbregar.bluepodcast.model.network.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters describing how the search result cache is serving search requests.
+ */
+public class SearchCacheStats {
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    void recordMemoryHit() {
+        memoryHits.incrementAndGet();
+    }
+
+    void recordDiskHit() {
+        diskHits.incrementAndGet();
+    }
+
+    void recordMiss() {
+        misses.incrementAndGet();
+    }
+
+    void recordExpiration() {
+        expirations.incrementAndGet();
+    }
+
+    void recordEviction() {
+        evictions.incrementAndGet();
+    }
+
+    public long getMemoryHits() {
+        return memoryHits.get();
+    }
+
+    public long getDiskHits() {
+        return diskHits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getExpirations() {
+        return expirations.get();
+    }
+
+    /**
+     * Pages dropped from disk to make room, pages which only left memory are not counted.
+     */
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * Share of lookups served from memory or disk, between 0 and 1.
+     */
+    public double getHitRate() {
+        long hits = memoryHits.get() + diskHits.get();
+        long lookups = hits + misses.get();
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchCacheStats{" +
+                "memoryHits=" + memoryHits +
+                ", diskHits=" + diskHits +
+                ", misses=" + misses +
+                ", expirations=" + expirations +
+                ", evictions=" + evictions +
+                '}';
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.vidbregar.bluepodcast.model.network.cache;
+
+import com.example.vidbregar.bluepodcast.model.network.quota.RequestPriority;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.CacheControl;
+import okhttp3.Callback;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Okio;
+
+/**
+ * Application interceptor which lets cached responses be served while they are inside their
+ * stale-while-revalidate window and refreshes them with a background request. When the network
+ * is not reachable any cached copy is served regardless of its age. The refresh is a conditional
+ * request, so an unchanged response costs a 304 instead of the whole body.
+ */
+public class StaleWhileRevalidateInterceptor implements Interceptor {
+
+    // OkHttp adds this warning to cached responses which are served past their max-age
+    private static final String STALE_WARNING_CODE = "110";
+
+    private final CacheStats cacheStats;
+    private final Set<String> pendingRevalidations =
+            Collections.newSetFromMap(new ConcurrentHashMap<>());
+    private volatile Call.Factory revalidationClient;
+
+    public StaleWhileRevalidateInterceptor(CacheStats cacheStats) {
+        this.cacheStats = cacheStats;
+    }
+
+    // The client is built with this interceptor, so it can only be set afterwards
+    public void setRevalidationClient(Call.Factory revalidationClient) {
+        this.revalidationClient = revalidationClient;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        CachePolicy policy = CachePolicy.forPath(request.url().encodedPath());
+        if (policy == null || !request.method().equals("GET") || request.cacheControl().noCache()
+                || request.cacheControl().maxAgeSeconds() == 0) {
+            return chain.proceed(request);
+        }
+
+        Request staleAllowedRequest = request.newBuilder()
+                .cacheControl(new CacheControl.Builder()
+                        .maxStale((int) policy.getStaleWhileRevalidateSeconds(), TimeUnit.SECONDS)
+                        .build())
+                .build();
+
+        Response response;
+        try {
+            response = chain.proceed(staleAllowedRequest);
+        } catch (IOException e) {
+            Response cachedResponse = proceedFromCache(chain, request);
+            if (cachedResponse == null) throw e;
+            cacheStats.recordOfflineHit();
+            return cachedResponse;
+        }
+
+        if (response.networkResponse() == null && response.cacheResponse() != null) {
+            if (isStale(response)) {
+                cacheStats.recordStaleHit();
+                revalidate(request);
+            } else {
+                cacheStats.recordFreshHit();
+            }
+        } else {
+            cacheStats.recordMiss();
+        }
+        return response;
+    }
+
+    private Response proceedFromCache(Chain chain, Request request) throws IOException {
+        Response response = chain.proceed(request.newBuilder()
+                .cacheControl(CacheControl.FORCE_CACHE)
+                .build());
+        if (response.isSuccessful()) {
+            return response;
+        }
+        // FORCE_CACHE answers with 504 when nothing is cached
+        response.close();
+        return null;
+    }
+
+    private boolean isStale(Response response) {
+        String warning = response.header("Warning");
+        return warning != null && warning.startsWith(STALE_WARNING_CODE);
+    }
+
+    private void revalidate(Request request) {
+        Call.Factory client = revalidationClient;
+        String key = request.url().toString();
+        if (client == null || !pendingRevalidations.add(key)) {
+            return;
+        }
+        cacheStats.recordRevalidation();
+        // Unlike FORCE_NETWORK, a max-age of 0 lets OkHttp revalidate the cached response with
+        // If-None-Match or If-Modified-Since. Nobody is waiting for it, so it is the first to go
+        // when the API quota runs low.
+        Request networkRequest = request.newBuilder()
+                .cacheControl(new CacheControl.Builder().maxAge(0, TimeUnit.SECONDS).build())
+                .header(RequestPriority.HEADER, RequestPriority.BACKGROUND.name())
+                .build();
+        client.newCall(networkRequest).enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                pendingRevalidations.remove(key);
+                cacheStats.recordRevalidationFailure();
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) throws IOException {
+                // The body has to be read completely for OkHttp to commit it to the cache
+                try (ResponseBody body = response.body()) {
+                    if (body != null) {
+                        body.source().readAll(Okio.blackhole());
+                    }
+                } finally {
+                    pendingRevalidations.remove(key);
+                }
+            }
+        });
+    }
+}
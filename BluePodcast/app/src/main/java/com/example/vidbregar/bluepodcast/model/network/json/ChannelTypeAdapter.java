@@ -0,0 +1,69 @@
+package com.example.vidbregar.bluepodcast.model.network.json;
+
+import com.example.vidbregar.bluepodcast.model.data.Channel;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+import static com.example.vidbregar.bluepodcast.model.network.json.JsonReaderUtil.nextStringOrNull;
+
+public class ChannelTypeAdapter extends TypeAdapter<Channel> {
+
+    @Override
+    public void write(JsonWriter out, Channel channel) throws IOException {
+        out.beginObject();
+        out.name("id").value(channel.getId());
+        out.name("thumbnail").value(channel.getThumbnailUrl());
+        out.name("lastest_pub_date_ms").value(channel.getLatestPubDateMs());
+        out.name("website").value(channel.getWebsite());
+        out.name("publisher").value(channel.getPublisher());
+        out.name("title").value(channel.getTitle());
+        out.name("description").value(channel.getDescription());
+        out.endObject();
+    }
+
+    @Override
+    public Channel read(JsonReader in) throws IOException {
+        String id = null;
+        String thumbnailUrl = null;
+        String latestPubDateMs = null;
+        String website = null;
+        String publisher = null;
+        String title = null;
+        String description = null;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id":
+                    id = nextStringOrNull(in);
+                    break;
+                case "thumbnail":
+                    thumbnailUrl = nextStringOrNull(in);
+                    break;
+                case "lastest_pub_date_ms":
+                    latestPubDateMs = nextStringOrNull(in);
+                    break;
+                case "website":
+                    website = nextStringOrNull(in);
+                    break;
+                case "publisher":
+                    publisher = nextStringOrNull(in);
+                    break;
+                case "title":
+                    title = nextStringOrNull(in);
+                    break;
+                case "description":
+                    description = nextStringOrNull(in);
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        return new Channel(id, thumbnailUrl, latestPubDateMs, website, publisher, title, description);
+    }
+}
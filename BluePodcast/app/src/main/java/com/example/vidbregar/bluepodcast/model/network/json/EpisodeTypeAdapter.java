@@ -0,0 +1,80 @@
+package com.example.vidbregar.bluepodcast.model.network.json;
+
+import com.example.vidbregar.bluepodcast.model.data.Episode;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+import static com.example.vidbregar.bluepodcast.model.network.json.JsonReaderUtil.nextIntOrZero;
+import static com.example.vidbregar.bluepodcast.model.network.json.JsonReaderUtil.nextStringOrNull;
+
+public class EpisodeTypeAdapter extends TypeAdapter<Episode> {
+
+    private final boolean retainDescriptions;
+
+    public EpisodeTypeAdapter() {
+        this(true);
+    }
+
+    // Descriptions are long HTML strings, skipping them avoids materializing them at all
+    public EpisodeTypeAdapter(boolean retainDescriptions) {
+        this.retainDescriptions = retainDescriptions;
+    }
+
+    @Override
+    public void write(JsonWriter out, Episode episode) throws IOException {
+        out.beginObject();
+        out.name("title").value(episode.getTitle());
+        out.name("pub_date_ms").value(episode.getPublicationDateMilliseconds());
+        out.name("description").value(episode.getDescription());
+        out.name("audio_length").value(episode.getAudioLength());
+        out.name("id").value(episode.getId());
+        out.name("audio").value(episode.getAudioUrl());
+        out.endObject();
+    }
+
+    @Override
+    public Episode read(JsonReader in) throws IOException {
+        String title = null;
+        String publicationDateMilliseconds = null;
+        String description = null;
+        int audioLength = 0;
+        String id = null;
+        String audioUrl = null;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "title":
+                    title = nextStringOrNull(in);
+                    break;
+                case "pub_date_ms":
+                    publicationDateMilliseconds = nextStringOrNull(in);
+                    break;
+                case "description":
+                    if (retainDescriptions) {
+                        description = nextStringOrNull(in);
+                    } else {
+                        in.skipValue();
+                    }
+                    break;
+                case "audio_length":
+                    audioLength = nextIntOrZero(in);
+                    break;
+                case "id":
+                    id = nextStringOrNull(in);
+                    break;
+                case "audio":
+                    audioUrl = nextStringOrNull(in);
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        return new Episode(title, publicationDateMilliseconds, description, audioLength, id, audioUrl);
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.vidbregar.bluepodcast.model.network.json;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+
+/**
+ * Lenient reads matching what Gson's reflective adapters accept, e.g. numbers for String fields.
+ */
+public class JsonReaderUtil {
+
+    public static String nextStringOrNull(JsonReader jsonReader) throws IOException {
+        if (jsonReader.peek() == JsonToken.NULL) {
+            jsonReader.nextNull();
+            return null;
+        }
+        return jsonReader.nextString();
+    }
+
+    public static int nextIntOrZero(JsonReader jsonReader) throws IOException {
+        if (jsonReader.peek() == JsonToken.NULL) {
+            jsonReader.nextNull();
+            return 0;
+        }
+        return jsonReader.nextInt();
+    }
+
+    public static long nextLongOrZero(JsonReader jsonReader) throws IOException {
+        if (jsonReader.peek() == JsonToken.NULL) {
+            jsonReader.nextNull();
+            return 0;
+        }
+        return jsonReader.nextLong();
+    }
+
+    /**
+     * Returns false and consumes the value if the next token is null.
+     */
+    public static boolean beginArrayOrNull(JsonReader jsonReader) throws IOException {
+        if (jsonReader.peek() == JsonToken.NULL) {
+            jsonReader.nextNull();
+            return false;
+        }
+        jsonReader.beginArray();
+        return true;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.vidbregar.bluepodcast.model.network.json;
+
+import com.example.vidbregar.bluepodcast.model.data.Channel;
+import com.example.vidbregar.bluepodcast.model.data.Episode;
+import com.example.vidbregar.bluepodcast.model.data.Podcast;
+import com.example.vidbregar.bluepodcast.model.data.PodcastGenre;
+import com.example.vidbregar.bluepodcast.model.data.Search;
+import com.example.vidbregar.bluepodcast.model.data.SearchResult;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+
+/**
+ * Hand-written adapters for every model class, so Gson does not have to deserialize them
+ * through reflection. Field names have to be kept in sync with the {@code @SerializedName}
+ * annotations on the model classes.
+ */
+public class ModelTypeAdapterFactory implements TypeAdapterFactory {
+
+    private final ChannelTypeAdapter channelTypeAdapter = new ChannelTypeAdapter();
+    private final EpisodeTypeAdapter episodeTypeAdapter = new EpisodeTypeAdapter();
+    private final PodcastTypeAdapter podcastTypeAdapter = new PodcastTypeAdapter(episodeTypeAdapter);
+    private final PodcastGenreTypeAdapter podcastGenreTypeAdapter = new PodcastGenreTypeAdapter(channelTypeAdapter);
+    private final SearchResultTypeAdapter searchResultTypeAdapter = new SearchResultTypeAdapter();
+    private final SearchTypeAdapter searchTypeAdapter = new SearchTypeAdapter(searchResultTypeAdapter);
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> rawType = type.getRawType();
+        TypeAdapter<?> typeAdapter;
+        if (rawType == Channel.class) {
+            typeAdapter = channelTypeAdapter;
+        } else if (rawType == Episode.class) {
+            typeAdapter = episodeTypeAdapter;
+        } else if (rawType == Podcast.class) {
+            typeAdapter = podcastTypeAdapter;
+        } else if (rawType == PodcastGenre.class) {
+            typeAdapter = podcastGenreTypeAdapter;
+        } else if (rawType == SearchResult.class) {
+            typeAdapter = searchResultTypeAdapter;
+        } else if (rawType == Search.class) {
+            typeAdapter = searchTypeAdapter;
+        } else {
+            return null;
+        }
+        return (TypeAdapter<T>) typeAdapter.nullSafe();
+    }
+}
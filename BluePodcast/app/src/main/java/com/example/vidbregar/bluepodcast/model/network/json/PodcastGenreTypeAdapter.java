@@ -0,0 +1,79 @@
+package com.example.vidbregar.bluepodcast.model.network.json;
+
+import com.example.vidbregar.bluepodcast.model.data.Channel;
+import com.example.vidbregar.bluepodcast.model.data.PodcastGenre;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.vidbregar.bluepodcast.model.network.json.JsonReaderUtil.beginArrayOrNull;
+import static com.example.vidbregar.bluepodcast.model.network.json.JsonReaderUtil.nextIntOrZero;
+import static com.example.vidbregar.bluepodcast.model.network.json.JsonReaderUtil.nextStringOrNull;
+
+public class PodcastGenreTypeAdapter extends TypeAdapter<PodcastGenre> {
+
+    private final ChannelTypeAdapter channelTypeAdapter;
+
+    public PodcastGenreTypeAdapter(ChannelTypeAdapter channelTypeAdapter) {
+        this.channelTypeAdapter = channelTypeAdapter;
+    }
+
+    @Override
+    public void write(JsonWriter out, PodcastGenre podcastGenre) throws IOException {
+        out.beginObject();
+        out.name("name").value(podcastGenre.getName());
+        out.name("channels");
+        if (podcastGenre.getChannels() == null) {
+            out.nullValue();
+        } else {
+            out.beginArray();
+            for (Channel channel : podcastGenre.getChannels()) {
+                channelTypeAdapter.write(out, channel);
+            }
+            out.endArray();
+        }
+        out.name("id").value(podcastGenre.getId());
+        out.endObject();
+    }
+
+    @Override
+    public PodcastGenre read(JsonReader in) throws IOException {
+        String name = null;
+        List<Channel> channels = null;
+        int id = 0;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "name":
+                    name = nextStringOrNull(in);
+                    break;
+                case "channels":
+                    channels = readChannels(in);
+                    break;
+                case "id":
+                    id = nextIntOrZero(in);
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        return new PodcastGenre(name, channels, id);
+    }
+
+    private List<Channel> readChannels(JsonReader in) throws IOException {
+        if (!beginArrayOrNull(in)) return null;
+        List<Channel> channels = new ArrayList<>();
+        while (in.hasNext()) {
+            channels.add(channelTypeAdapter.read(in));
+        }
+        in.endArray();
+        return channels;
+    }
+}
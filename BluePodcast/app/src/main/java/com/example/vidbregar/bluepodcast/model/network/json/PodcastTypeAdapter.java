@@ -0,0 +1,106 @@
+package com.example.vidbregar.bluepodcast.model.network.json;
+
+import com.example.vidbregar.bluepodcast.model.data.Episode;
+import com.example.vidbregar.bluepodcast.model.data.Podcast;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.vidbregar.bluepodcast.model.network.json.JsonReaderUtil.beginArrayOrNull;
+import static com.example.vidbregar.bluepodcast.model.network.json.JsonReaderUtil.nextLongOrZero;
+import static com.example.vidbregar.bluepodcast.model.network.json.JsonReaderUtil.nextStringOrNull;
+
+public class PodcastTypeAdapter extends TypeAdapter<Podcast> {
+
+    private final EpisodeTypeAdapter episodeTypeAdapter;
+
+    public PodcastTypeAdapter(EpisodeTypeAdapter episodeTypeAdapter) {
+        this.episodeTypeAdapter = episodeTypeAdapter;
+    }
+
+    @Override
+    public void write(JsonWriter out, Podcast podcast) throws IOException {
+        out.beginObject();
+        out.name("id").value(podcast.getId());
+        out.name("thumbnail").value(podcast.getThumbnailUrl());
+        out.name("episodes");
+        if (podcast.getEpisodes() == null) {
+            out.nullValue();
+        } else {
+            out.beginArray();
+            for (Episode episode : podcast.getEpisodes()) {
+                episodeTypeAdapter.write(out, episode);
+            }
+            out.endArray();
+        }
+        out.name("website").value(podcast.getWebsite());
+        out.name("publisher").value(podcast.getPublisher());
+        out.name("title").value(podcast.getTitle());
+        out.name("description").value(podcast.getDescription());
+        out.name("next_episode_pub_date").value(podcast.getNextEpisodePubDate());
+        out.endObject();
+    }
+
+    @Override
+    public Podcast read(JsonReader in) throws IOException {
+        String id = null;
+        String thumbnailUrl = null;
+        List<Episode> episodes = null;
+        String website = null;
+        String publisher = null;
+        String title = null;
+        String description = null;
+        long nextEpisodePubDate = 0;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id":
+                    id = nextStringOrNull(in);
+                    break;
+                case "thumbnail":
+                    thumbnailUrl = nextStringOrNull(in);
+                    break;
+                case "episodes":
+                    episodes = readEpisodes(in);
+                    break;
+                case "website":
+                    website = nextStringOrNull(in);
+                    break;
+                case "publisher":
+                    publisher = nextStringOrNull(in);
+                    break;
+                case "title":
+                    title = nextStringOrNull(in);
+                    break;
+                case "description":
+                    description = nextStringOrNull(in);
+                    break;
+                case "next_episode_pub_date":
+                    nextEpisodePubDate = nextLongOrZero(in);
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        Podcast podcast = new Podcast(id, thumbnailUrl, episodes, website, publisher, title, description);
+        podcast.setNextEpisodePubDate(nextEpisodePubDate);
+        return podcast;
+    }
+
+    private List<Episode> readEpisodes(JsonReader in) throws IOException {
+        if (!beginArrayOrNull(in)) return null;
+        List<Episode> episodes = new ArrayList<>();
+        while (in.hasNext()) {
+            episodes.add(episodeTypeAdapter.read(in));
+        }
+        in.endArray();
+        return episodes;
+    }
+}
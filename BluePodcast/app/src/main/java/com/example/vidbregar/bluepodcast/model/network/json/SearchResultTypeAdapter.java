@@ -0,0 +1,75 @@
+package com.example.vidbregar.bluepodcast.model.network.json;
+
+import com.example.vidbregar.bluepodcast.model.data.SearchResult;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+import static com.example.vidbregar.bluepodcast.model.network.json.JsonReaderUtil.nextLongOrZero;
+import static com.example.vidbregar.bluepodcast.model.network.json.JsonReaderUtil.nextStringOrNull;
+
+public class SearchResultTypeAdapter extends TypeAdapter<SearchResult> {
+
+    @Override
+    public void write(JsonWriter out, SearchResult searchResult) throws IOException {
+        out.beginObject();
+        out.name("description_original").value(searchResult.getDescription());
+        out.name("thumbnailUrl").value(searchResult.getThumbnailUrl());
+        out.name("pub_date_ms").value(searchResult.getPublicationDateMilliseconds());
+        out.name("audio_length").value(searchResult.getAudioLength());
+        out.name("audio").value(searchResult.getAudioUrl());
+        out.name("publisher_original").value(searchResult.getPublisher());
+        out.name("title_original").value(searchResult.getEpisodeTitle());
+        out.name("podcast_id").value(searchResult.getPodcastId());
+        out.name("podcast_title_original").value(searchResult.getPodcastTitle());
+        out.name("id").value(searchResult.getEpisodeId());
+        out.endObject();
+    }
+
+    @Override
+    public SearchResult read(JsonReader in) throws IOException {
+        SearchResult searchResult = new SearchResult();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "description_original":
+                    searchResult.setDescription(nextStringOrNull(in));
+                    break;
+                case "thumbnailUrl":
+                    searchResult.setThumbnailUrl(nextStringOrNull(in));
+                    break;
+                case "pub_date_ms":
+                    searchResult.setPublicationDateMilliseconds(nextLongOrZero(in));
+                    break;
+                case "audio_length":
+                    searchResult.setAudioLength(nextStringOrNull(in));
+                    break;
+                case "audio":
+                    searchResult.setAudioUrl(nextStringOrNull(in));
+                    break;
+                case "publisher_original":
+                    searchResult.setPublisher(nextStringOrNull(in));
+                    break;
+                case "title_original":
+                    searchResult.setEpisodeTitle(nextStringOrNull(in));
+                    break;
+                case "podcast_id":
+                    searchResult.setPodcastId(nextStringOrNull(in));
+                    break;
+                case "podcast_title_original":
+                    searchResult.setPodcastTitle(nextStringOrNull(in));
+                    break;
+                case "id":
+                    searchResult.setEpisodeId(nextStringOrNull(in));
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        return searchResult;
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.vidbregar.bluepodcast.model.network.json;
+
+import com.example.vidbregar.bluepodcast.model.data.Search;
+import com.example.vidbregar.bluepodcast.model.data.SearchResult;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.vidbregar.bluepodcast.model.network.json.JsonReaderUtil.beginArrayOrNull;
+import static com.example.vidbregar.bluepodcast.model.network.json.JsonReaderUtil.nextIntOrZero;
+
+public class SearchTypeAdapter extends TypeAdapter<Search> {
+
+    private final SearchResultTypeAdapter searchResultTypeAdapter;
+
+    public SearchTypeAdapter(SearchResultTypeAdapter searchResultTypeAdapter) {
+        this.searchResultTypeAdapter = searchResultTypeAdapter;
+    }
+
+    @Override
+    public void write(JsonWriter out, Search search) throws IOException {
+        out.beginObject();
+        out.name("count").value(search.getCount());
+        out.name("total").value(search.getTotal());
+        out.name("next_offset").value(search.getNextOffset());
+        out.name("results");
+        if (search.getResults() == null) {
+            out.nullValue();
+        } else {
+            out.beginArray();
+            for (SearchResult searchResult : search.getResults()) {
+                searchResultTypeAdapter.write(out, searchResult);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    @Override
+    public Search read(JsonReader in) throws IOException {
+        Search search = new Search();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "count":
+                    search.setCount(nextIntOrZero(in));
+                    break;
+                case "total":
+                    search.setTotal(nextIntOrZero(in));
+                    break;
+                case "next_offset":
+                    search.setNextOffset(nextIntOrZero(in));
+                    break;
+                case "results":
+                    search.setResults(readResults(in));
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        return search;
+    }
+
+    private List<SearchResult> readResults(JsonReader in) throws IOException {
+        if (!beginArrayOrNull(in)) return null;
+        List<SearchResult> results = new ArrayList<>();
+        while (in.hasNext()) {
+            results.add(searchResultTypeAdapter.read(in));
+        }
+        in.endArray();
+        return results;
+    }
+}
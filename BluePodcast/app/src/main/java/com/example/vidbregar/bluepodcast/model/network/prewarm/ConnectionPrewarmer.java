@@ -0,0 +1,73 @@
+package com.example.vidbregar.bluepodcast.model.network.prewarm;
+
+import java.io.IOException;
+import java.net.UnknownHostException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+
+/**
+ * Pays the DNS, TCP and TLS cost of the first request ahead of time. The API host gets a pooled
+ * connection, which OkHttp keeps alive for five minutes, so the first real request can reuse it.
+ * Audio hosts are only resolved, since ExoPlayer connects through its own HTTP stack, but the
+ * resolved address is cached by the system for its lookup.
+ */
+public class ConnectionPrewarmer {
+
+    // About a screenful of episodes, the ones further down are unlikely to be played first
+    public static final int VISIBLE_EPISODE_COUNT = 10;
+
+    private final OkHttpClient prewarmClient;
+    private final HttpUrl apiUrl;
+    private final Executor executor;
+    private final Set<String> resolvedHosts = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+    public ConnectionPrewarmer(OkHttpClient okHttpClient, HttpUrl apiUrl, Executor executor) {
+        // Shares the connection pool and DNS, but leaves out the cache and the interceptors so
+        // the warm-up request is not mistaken for a real one
+        OkHttpClient.Builder builder = okHttpClient.newBuilder().cache(null);
+        builder.interceptors().clear();
+        builder.networkInterceptors().clear();
+        this.prewarmClient = builder.build();
+        this.apiUrl = apiUrl;
+        this.executor = executor;
+    }
+
+    public void prewarm() {
+        executor.execute(() -> {
+            Request request = new Request.Builder().url(apiUrl).head().build();
+            try {
+                // Only the pooled connection matters, not the response
+                prewarmClient.newCall(request).execute().close();
+            } catch (IOException e) {
+                // Probably offline, the first real request will connect on its own
+            }
+        });
+    }
+
+    /**
+     * Resolves the hosts of the given urls in the background, each host only once.
+     */
+    public void prefetchDns(Collection<String> urls) {
+        for (String url : urls) {
+            HttpUrl httpUrl = url == null ? null : HttpUrl.parse(url);
+            if (httpUrl == null) continue;
+            String host = httpUrl.host();
+            if (!resolvedHosts.add(host)) continue;
+            executor.execute(() -> {
+                try {
+                    prewarmClient.dns().lookup(host);
+                } catch (UnknownHostException e) {
+                    // Allow another attempt once the network is back
+                    resolvedHosts.remove(host);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.example.vidbregar.bluepodcast.model.network.quota;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client side share of the ListenNotes API quota. A token bucket smooths out bursts and a daily
+ * budget caps the requests made per local day. Lower priorities have to leave part of both to
+ * interactive requests, so prefetching and background refreshes are given up first when the
+ * quota runs low. Spending is counted per endpoint and priority and kept in a {@link QuotaStore}
+ * together with the bucket, so restarting the app does not reset the quota.
+ */
+public class ApiQuota {
+
+    interface Clock {
+        long currentTimeMillis();
+    }
+
+    public static final int DEFAULT_BURST = 10;
+    public static final long DEFAULT_REFILL_MILLIS = 2 * 1000;
+    public static final int DEFAULT_DAILY_BUDGET = 500;
+
+    // Part of the daily budget each priority may spend
+    private static final double[] BUDGET_SHARES = {1.0, 0.9, 0.7};
+    // Part of the bucket each priority has to leave for more important requests
+    private static final double[] BUCKET_RESERVES = {0.0, 0.2, 0.5};
+
+    private static final String KEY_DAY = "day";
+    private static final String KEY_TOKENS = "tokens_milli";
+    private static final String KEY_REFILLED_AT = "refilled_at";
+    private static final String PREFIX_SPENT_PRIORITY = "spent.priority.";
+    private static final String PREFIX_SPENT_ENDPOINT = "spent.endpoint.";
+    private static final String PREFIX_SHED = "shed.";
+
+    private final int burst;
+    private final long refillMillis;
+    private final int dailyBudget;
+    private final QuotaStore store;
+    private final Clock clock;
+    // Guarded by this
+    private long day;
+    private double tokens;
+    private long refilledAt;
+    private final Map<RequestPriority, Long> spentByPriority = new HashMap<>();
+    private final Map<String, Long> spentByEndpoint = new HashMap<>();
+    private final Map<RequestPriority, Long> shedByPriority = new HashMap<>();
+
+    public ApiQuota(QuotaStore store) {
+        this(DEFAULT_BURST, DEFAULT_REFILL_MILLIS, DEFAULT_DAILY_BUDGET, store,
+                System::currentTimeMillis);
+    }
+
+    ApiQuota(int burst, long refillMillis, int dailyBudget, QuotaStore store, Clock clock) {
+        this.burst = burst;
+        this.refillMillis = refillMillis;
+        this.dailyBudget = dailyBudget;
+        this.store = store;
+        this.clock = clock;
+        restore(store.load());
+    }
+
+    /**
+     * Takes a token for a request to {@code endpoint} if {@code priority} may have one.
+     *
+     * @return 0 when the token was taken, the milliseconds until one is available to
+     * {@code priority}, or -1 when the daily budget left to {@code priority} is spent
+     */
+    public synchronized long tryAcquire(RequestPriority priority, String endpoint) {
+        long waitMillis = waitMillis(priority);
+        if (waitMillis != 0) {
+            return waitMillis;
+        }
+        tokens--;
+        increment(spentByPriority, priority);
+        increment(spentByEndpoint, endpoint);
+        persist();
+        return 0;
+    }
+
+    /**
+     * Like {@link #tryAcquire(RequestPriority, String)} without taking the token, so a batch of
+     * requests can pace itself instead of being shed.
+     */
+    public synchronized long waitMillis(RequestPriority priority) {
+        long now = clock.currentTimeMillis();
+        rollOver(now);
+        refill(now);
+        if (getSpentToday() >= dailyBudget * BUDGET_SHARES[priority.ordinal()]) {
+            return -1;
+        }
+        double available = tokens - burst * BUCKET_RESERVES[priority.ordinal()];
+        if (available < 1) {
+            return Math.max(1, (long) Math.ceil((1 - available) * refillMillis));
+        }
+        return 0;
+    }
+
+    /**
+     * Counts a request of {@code priority} which was not made because the quota could not afford it.
+     */
+    public synchronized void recordShed(RequestPriority priority) {
+        increment(shedByPriority, priority);
+        persist();
+    }
+
+    public synchronized long getSpentToday() {
+        rollOver(clock.currentTimeMillis());
+        long spent = 0;
+        for (long count : spentByPriority.values()) {
+            spent += count;
+        }
+        return spent;
+    }
+
+    public int getDailyBudget() {
+        return dailyBudget;
+    }
+
+    public synchronized Map<RequestPriority, Long> getSpentByPriority() {
+        rollOver(clock.currentTimeMillis());
+        return new TreeMap<>(spentByPriority);
+    }
+
+    public synchronized Map<String, Long> getSpentByEndpoint() {
+        rollOver(clock.currentTimeMillis());
+        return new TreeMap<>(spentByEndpoint);
+    }
+
+    public synchronized Map<RequestPriority, Long> getShedByPriority() {
+        rollOver(clock.currentTimeMillis());
+        return new TreeMap<>(shedByPriority);
+    }
+
+    public String report() {
+        StringWriter writer = new StringWriter();
+        try {
+            writeReport(writer);
+        } catch (IOException e) {
+            // StringWriter does not throw
+        }
+        return writer.toString();
+    }
+
+    public void writeReport(Writer writer) throws IOException {
+        writer.write(String.format(Locale.US, "spent %d of %d today%n", getSpentToday(), dailyBudget));
+        writer.write(String.format(Locale.US, "  by priority %s%n", getSpentByPriority()));
+        writer.write(String.format(Locale.US, "  by endpoint %s%n", getSpentByEndpoint()));
+        writer.write(String.format(Locale.US, "  shed %s%n", getShedByPriority()));
+    }
+
+    public void dumpTo(File file) throws IOException {
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), Charset.forName("UTF-8"))) {
+            writeReport(writer);
+        }
+    }
+
+    private void refill(long now) {
+        if (now > refilledAt) {
+            tokens = Math.min(burst, tokens + (now - refilledAt) / (double) refillMillis);
+            refilledAt = now;
+        }
+    }
+
+    private void rollOver(long now) {
+        long today = localDayOf(now);
+        if (today != day) {
+            day = today;
+            spentByPriority.clear();
+            spentByEndpoint.clear();
+            shedByPriority.clear();
+        }
+    }
+
+    private static long localDayOf(long millis) {
+        return (millis + TimeZone.getDefault().getOffset(millis)) / TimeUnit.DAYS.toMillis(1);
+    }
+
+    private static <K> void increment(Map<K, Long> counts, K key) {
+        Long count = counts.get(key);
+        counts.put(key, count == null ? 1 : count + 1);
+    }
+
+    private void restore(Map<String, Long> values) {
+        long now = clock.currentTimeMillis();
+        Long storedDay = values.get(KEY_DAY);
+        Long storedTokens = values.get(KEY_TOKENS);
+        Long storedRefilledAt = values.get(KEY_REFILLED_AT);
+        if (storedDay == null || storedTokens == null || storedRefilledAt == null) {
+            day = localDayOf(now);
+            tokens = burst;
+            refilledAt = now;
+            return;
+        }
+        day = storedDay;
+        tokens = Math.min(burst, storedTokens / 1000.0);
+        // A clock set back must not stop the refill until it catches up
+        refilledAt = Math.min(storedRefilledAt, now);
+        for (Map.Entry<String, Long> value : values.entrySet()) {
+            String key = value.getKey();
+            if (key.startsWith(PREFIX_SPENT_ENDPOINT)) {
+                spentByEndpoint.put(key.substring(PREFIX_SPENT_ENDPOINT.length()), value.getValue());
+            } else if (key.startsWith(PREFIX_SPENT_PRIORITY)) {
+                RequestPriority priority = priorityOf(key.substring(PREFIX_SPENT_PRIORITY.length()));
+                if (priority != null) spentByPriority.put(priority, value.getValue());
+            } else if (key.startsWith(PREFIX_SHED)) {
+                RequestPriority priority = priorityOf(key.substring(PREFIX_SHED.length()));
+                if (priority != null) shedByPriority.put(priority, value.getValue());
+            }
+        }
+    }
+
+    private static RequestPriority priorityOf(String name) {
+        for (RequestPriority priority : RequestPriority.values()) {
+            if (priority.name().equals(name)) return priority;
+        }
+        return null;
+    }
+
+    private void persist() {
+        Map<String, Long> values = new HashMap<>();
+        values.put(KEY_DAY, day);
+        values.put(KEY_TOKENS, (long) (tokens * 1000));
+        values.put(KEY_REFILLED_AT, refilledAt);
+        for (Map.Entry<RequestPriority, Long> spent : spentByPriority.entrySet()) {
+            values.put(PREFIX_SPENT_PRIORITY + spent.getKey().name(), spent.getValue());
+        }
+        for (Map.Entry<String, Long> spent : spentByEndpoint.entrySet()) {
+            values.put(PREFIX_SPENT_ENDPOINT + spent.getKey(), spent.getValue());
+        }
+        for (Map.Entry<RequestPriority, Long> shed : shedByPriority.entrySet()) {
+            values.put(PREFIX_SHED + shed.getKey().name(), shed.getValue());
+        }
+        store.save(values);
+    }
+}
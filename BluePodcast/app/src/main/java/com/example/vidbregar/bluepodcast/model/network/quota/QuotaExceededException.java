@@ -0,0 +1,22 @@
+package com.example.vidbregar.bluepodcast.model.network.quota;
+
+import java.io.IOException;
+
+/**
+ * Thrown instead of making a request the API quota cannot afford at its priority.
+ */
+public class QuotaExceededException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final RequestPriority priority;
+
+    public QuotaExceededException(RequestPriority priority, String reason) {
+        super("Quota exceeded for " + priority + " request: " + reason);
+        this.priority = priority;
+    }
+
+    public RequestPriority getPriority() {
+        return priority;
+    }
+}
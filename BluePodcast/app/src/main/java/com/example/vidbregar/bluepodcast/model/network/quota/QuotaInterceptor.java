@@ -0,0 +1,104 @@
+package com.example.vidbregar.bluepodcast.model.network.quota;
+
+import com.example.vidbregar.bluepodcast.model.network.telemetry.NetworkTelemetry;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Last application interceptor, charging every request which needs the network to the
+ * {@link ApiQuota}. The HTTP cache is asked first with {@code only-if-cached}, so responses it
+ * can serve cost nothing. Reads and strips the {@link RequestPriority#HEADER} header. Background
+ * requests are shed as soon as they would have to wait for a token, prefetches and interactive
+ * requests wait for up to {@code maxPrefetchWaitMillis} and {@code maxInteractiveWaitMillis}. A
+ * shed request fails with a {@link QuotaExceededException}.
+ * <p>
+ * This is not a network interceptor because by then the call holds a pooled connection: OkHttp
+ * takes an exception thrown there for a broken route, closes the connection and runs the call
+ * again. Nor can a network interceptor answer without calling {@code proceed()}.
+ */
+public class QuotaInterceptor implements Interceptor {
+
+    public static final long DEFAULT_MAX_PREFETCH_WAIT_MILLIS = 2 * 1000;
+    public static final long DEFAULT_MAX_INTERACTIVE_WAIT_MILLIS = 5 * 1000;
+
+    private final ApiQuota apiQuota;
+    private final long maxPrefetchWaitMillis;
+    private final long maxInteractiveWaitMillis;
+
+    public QuotaInterceptor(ApiQuota apiQuota) {
+        this(apiQuota, DEFAULT_MAX_PREFETCH_WAIT_MILLIS, DEFAULT_MAX_INTERACTIVE_WAIT_MILLIS);
+    }
+
+    QuotaInterceptor(ApiQuota apiQuota, long maxPrefetchWaitMillis, long maxInteractiveWaitMillis) {
+        this.apiQuota = apiQuota;
+        this.maxPrefetchWaitMillis = maxPrefetchWaitMillis;
+        this.maxInteractiveWaitMillis = maxInteractiveWaitMillis;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        RequestPriority priority = RequestPriority.fromHeader(request.header(RequestPriority.HEADER));
+        Request networkRequest = request.newBuilder()
+                .removeHeader(RequestPriority.HEADER)
+                .build();
+        if (request.cacheControl().onlyIfCached()) {
+            return chain.proceed(networkRequest);
+        }
+        if (!request.cacheControl().noCache()) {
+            // Keeps the caller's directives, e.g. the max-stale of stale-while-revalidate
+            Response cachedResponse = chain.proceed(networkRequest.newBuilder()
+                    .addHeader("Cache-Control", "only-if-cached")
+                    .build());
+            if (cachedResponse.code() != HttpURLConnection.HTTP_GATEWAY_TIMEOUT) {
+                return cachedResponse;
+            }
+            // The cache answers with 504 when the network is needed
+            cachedResponse.close();
+        }
+        String endpoint = NetworkTelemetry.endpointOf(request.url());
+        long maxWaitMillis = maxWaitMillis(priority);
+
+        long waitedMillis = 0;
+        while (true) {
+            long waitMillis = apiQuota.tryAcquire(priority, endpoint);
+            if (waitMillis == 0) break;
+            if (waitMillis < 0) {
+                throw shed(priority, "daily budget spent");
+            }
+            if (waitedMillis + waitMillis > maxWaitMillis) {
+                throw shed(priority, "rate limited");
+            }
+            try {
+                Thread.sleep(waitMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for quota");
+            }
+            waitedMillis += waitMillis;
+        }
+        return chain.proceed(networkRequest);
+    }
+
+    private long maxWaitMillis(RequestPriority priority) {
+        switch (priority) {
+            case BACKGROUND:
+                return 0;
+            case PREFETCH:
+                return maxPrefetchWaitMillis;
+            default:
+                return maxInteractiveWaitMillis;
+        }
+    }
+
+    private QuotaExceededException shed(RequestPriority priority, String reason) {
+        apiQuota.recordShed(priority);
+        return new QuotaExceededException(priority, reason);
+    }
+}
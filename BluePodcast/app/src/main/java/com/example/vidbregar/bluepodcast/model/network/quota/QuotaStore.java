@@ -0,0 +1,14 @@
+package com.example.vidbregar.bluepodcast.model.network.quota;
+
+import java.util.Map;
+
+/**
+ * Keeps the state of an {@link ApiQuota} across process restarts.
+ */
+public interface QuotaStore {
+
+    Map<String, Long> load();
+
+    void save(Map<String, Long> values);
+
+}
@@ -0,0 +1,27 @@
+package com.example.vidbregar.bluepodcast.model.network.quota;
+
+/**
+ * How much a request matters to the user, which decides what is given up first when the API
+ * quota runs low. Sent in the {@link #HEADER} request header, requests without it are
+ * {@link #INTERACTIVE}.
+ */
+public enum RequestPriority {
+
+    // The user is waiting for it
+    INTERACTIVE,
+    // Likely needed soon, e.g. the feed section below the visible ones
+    PREFETCH,
+    // Nobody is waiting for it, e.g. refreshing a cached response
+    BACKGROUND;
+
+    public static final String HEADER = "X-Request-Priority";
+
+    static RequestPriority fromHeader(String value) {
+        if (value == null) return INTERACTIVE;
+        try {
+            return valueOf(value);
+        } catch (IllegalArgumentException e) {
+            return INTERACTIVE;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.vidbregar.bluepodcast.model.network.quota;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class SharedPreferencesQuotaStore implements QuotaStore {
+
+    private static final String PREFERENCES_NAME = "api-quota";
+
+    private final SharedPreferences sharedPreferences;
+
+    public SharedPreferencesQuotaStore(Context applicationContext) {
+        this.sharedPreferences = applicationContext.getSharedPreferences(PREFERENCES_NAME,
+                Context.MODE_PRIVATE);
+    }
+
+    @Override
+    public Map<String, Long> load() {
+        Map<String, Long> values = new HashMap<>();
+        for (Map.Entry<String, ?> value : sharedPreferences.getAll().entrySet()) {
+            if (value.getValue() instanceof Long) {
+                values.put(value.getKey(), (Long) value.getValue());
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public void save(Map<String, Long> values) {
+        SharedPreferences.Editor editor = sharedPreferences.edit().clear();
+        for (Map.Entry<String, Long> value : values.entrySet()) {
+            editor.putLong(value.getKey(), value.getValue());
+        }
+        editor.apply();
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.vidbregar.bluepodcast.model.network.resilience;
+
+/**
+ * Circuit breaker for a single host. After {@code failureThreshold} consecutive failures the
+ * circuit opens and requests are refused for {@code openMillis}. Then a single probe request is
+ * let through, which either closes the circuit again or re-opens it.
+ */
+class CircuitBreaker {
+
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    interface Clock {
+
+        long millis();
+
+    }
+
+    private final int failureThreshold;
+    private final long openMillis;
+    private final Clock clock;
+    private final ResilienceStats resilienceStats;
+    // Guarded by this
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAtMillis;
+
+    CircuitBreaker(int failureThreshold, long openMillis, Clock clock,
+                   ResilienceStats resilienceStats) {
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+        this.clock = clock;
+        this.resilienceStats = resilienceStats;
+    }
+
+    /**
+     * Decides what a new request may do: {@link State#CLOSED} go ahead, {@link State#HALF_OPEN}
+     * go ahead as the probe, whose outcome has to be reported, and {@link State#OPEN} stay off
+     * the network.
+     */
+    synchronized State tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return State.CLOSED;
+            case OPEN:
+                if (clock.millis() - openedAtMillis < openMillis) return State.OPEN;
+                state = State.HALF_OPEN;
+                return State.HALF_OPEN;
+            default:
+                // A probe is already in flight
+                return State.OPEN;
+        }
+    }
+
+    synchronized void recordSuccess() {
+        if (state == State.HALF_OPEN) {
+            resilienceStats.recordRecovery();
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+    }
+
+    synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN
+                || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            state = State.OPEN;
+            openedAtMillis = clock.millis();
+            resilienceStats.recordTrip();
+        }
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+}
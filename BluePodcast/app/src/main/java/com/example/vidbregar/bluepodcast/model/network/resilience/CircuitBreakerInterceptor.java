@@ -0,0 +1,108 @@
+package com.example.vidbregar.bluepodcast.model.network.resilience;
+
+import com.example.vidbregar.bluepodcast.model.network.quota.QuotaExceededException;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import okhttp3.CacheControl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Application interceptor keeping a {@link CircuitBreaker} per host. While a host's circuit is
+ * open its requests are answered from the HTTP cache regardless of age, or fail fast with a
+ * {@link CircuitOpenException} when nothing is cached, instead of adding load to a degraded
+ * upstream.
+ */
+public class CircuitBreakerInterceptor implements Interceptor {
+
+    public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    public static final long DEFAULT_OPEN_MILLIS = 30 * 1000;
+
+    private final int failureThreshold;
+    private final long openMillis;
+    private final CircuitBreaker.Clock clock;
+    private final ResilienceStats resilienceStats;
+    private final ConcurrentMap<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+    public CircuitBreakerInterceptor(ResilienceStats resilienceStats) {
+        this(DEFAULT_FAILURE_THRESHOLD, DEFAULT_OPEN_MILLIS, System::currentTimeMillis,
+                resilienceStats);
+    }
+
+    CircuitBreakerInterceptor(int failureThreshold, long openMillis, CircuitBreaker.Clock clock,
+                              ResilienceStats resilienceStats) {
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+        this.clock = clock;
+        this.resilienceStats = resilienceStats;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        CircuitBreaker circuitBreaker = forHost(request.url().host());
+        CircuitBreaker.State permit = circuitBreaker.tryAcquire();
+        if (permit == CircuitBreaker.State.OPEN) {
+            return proceedFromCache(chain, request);
+        }
+
+        // The probe must not be answered by the cache, it has to tell whether the host recovered
+        Request networkRequest = permit == CircuitBreaker.State.HALF_OPEN
+                ? request.newBuilder().cacheControl(CacheControl.FORCE_NETWORK).build()
+                : request;
+        Response response;
+        try {
+            response = chain.proceed(networkRequest);
+        } catch (IOException e) {
+            // A cancellation or a spent quota says nothing about the host, but a probe has to
+            // give up its turn
+            boolean hostFailed = !chain.call().isCanceled() && !(e instanceof QuotaExceededException);
+            if (hostFailed || permit == CircuitBreaker.State.HALF_OPEN) {
+                circuitBreaker.recordFailure();
+            }
+            throw e;
+        }
+        if (response.networkResponse() == null) {
+            return response;
+        }
+        if (response.code() >= 500) {
+            circuitBreaker.recordFailure();
+        } else {
+            circuitBreaker.recordSuccess();
+        }
+        return response;
+    }
+
+    CircuitBreaker.State getState(String host) {
+        return forHost(host).getState();
+    }
+
+    private Response proceedFromCache(Chain chain, Request request) throws IOException {
+        Response response = chain.proceed(request.newBuilder()
+                .cacheControl(CacheControl.FORCE_CACHE)
+                .build());
+        if (response.isSuccessful()) {
+            resilienceStats.recordCachedFallback();
+            return response;
+        }
+        // FORCE_CACHE answers with 504 when nothing is cached
+        response.close();
+        resilienceStats.recordShortCircuit();
+        throw new CircuitOpenException(request.url().host());
+    }
+
+    private CircuitBreaker forHost(String host) {
+        CircuitBreaker circuitBreaker = circuitBreakers.get(host);
+        if (circuitBreaker == null) {
+            CircuitBreaker newCircuitBreaker = new CircuitBreaker(failureThreshold, openMillis,
+                    clock, resilienceStats);
+            circuitBreaker = circuitBreakers.putIfAbsent(host, newCircuitBreaker);
+            if (circuitBreaker == null) circuitBreaker = newCircuitBreaker;
+        }
+        return circuitBreaker;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.vidbregar.bluepodcast.model.network.resilience;
+
+import java.io.IOException;
+
+/**
+ * Thrown instead of making a request to a host whose circuit is open.
+ */
+public class CircuitOpenException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public CircuitOpenException(String host) {
+        super("Circuit open for " + host);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.vidbregar.bluepodcast.model.network.resilience;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters describing how often PodcastService requests were retried or cut short by a circuit
+ * breaker.
+ */
+public class ResilienceStats {
+
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong retriesExhausted = new AtomicLong();
+    private final AtomicLong trips = new AtomicLong();
+    private final AtomicLong recoveries = new AtomicLong();
+    private final AtomicLong shortCircuits = new AtomicLong();
+    private final AtomicLong cachedFallbacks = new AtomicLong();
+
+    void recordRetry() {
+        retries.incrementAndGet();
+    }
+
+    void recordRetriesExhausted() {
+        retriesExhausted.incrementAndGet();
+    }
+
+    void recordTrip() {
+        trips.incrementAndGet();
+    }
+
+    void recordRecovery() {
+        recoveries.incrementAndGet();
+    }
+
+    void recordShortCircuit() {
+        shortCircuits.incrementAndGet();
+    }
+
+    void recordCachedFallback() {
+        cachedFallbacks.incrementAndGet();
+    }
+
+    public long getRetries() {
+        return retries.get();
+    }
+
+    public long getRetriesExhausted() {
+        return retriesExhausted.get();
+    }
+
+    /**
+     * Times a circuit opened, including re-opening after a failed probe.
+     */
+    public long getTrips() {
+        return trips.get();
+    }
+
+    /**
+     * Times a circuit closed again after a successful probe.
+     */
+    public long getRecoveries() {
+        return recoveries.get();
+    }
+
+    /**
+     * Requests which failed fast because their circuit was open and nothing was cached.
+     */
+    public long getShortCircuits() {
+        return shortCircuits.get();
+    }
+
+    /**
+     * Requests answered from the cache because their circuit was open.
+     */
+    public long getCachedFallbacks() {
+        return cachedFallbacks.get();
+    }
+
+    @Override
+    public String toString() {
+        return "ResilienceStats{" +
+                "retries=" + retries +
+                ", retriesExhausted=" + retriesExhausted +
+                ", trips=" + trips +
+                ", recoveries=" + recoveries +
+                ", shortCircuits=" + shortCircuits +
+                ", cachedFallbacks=" + cachedFallbacks +
+                '}';
+    }
+}
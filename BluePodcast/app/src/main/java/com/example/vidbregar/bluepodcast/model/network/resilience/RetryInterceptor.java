@@ -0,0 +1,117 @@
+package com.example.vidbregar.bluepodcast.model.network.resilience;
+
+import com.example.vidbregar.bluepodcast.model.network.quota.QuotaExceededException;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.UnknownHostException;
+import java.util.Random;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Application interceptor retrying idempotent requests which failed with a transient error: an
+ * I/O failure other than an unknown host, or a 500, 502, 503 or 504 response. Retries wait a
+ * random delay of up to {@code baseDelayMillis * 2^retry}, capped at {@code maxDelayMillis}, so
+ * that clients failing together do not retry together.
+ */
+public class RetryInterceptor implements Interceptor {
+
+    public static final int DEFAULT_MAX_RETRIES = 2;
+    public static final long DEFAULT_BASE_DELAY_MILLIS = 250;
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 2000;
+
+    private final int maxRetries;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final Random random;
+    private final ResilienceStats resilienceStats;
+
+    public RetryInterceptor(ResilienceStats resilienceStats) {
+        this(DEFAULT_MAX_RETRIES, DEFAULT_BASE_DELAY_MILLIS, DEFAULT_MAX_DELAY_MILLIS,
+                new Random(), resilienceStats);
+    }
+
+    RetryInterceptor(int maxRetries, long baseDelayMillis, long maxDelayMillis, Random random,
+                     ResilienceStats resilienceStats) {
+        this.maxRetries = maxRetries;
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.random = random;
+        this.resilienceStats = resilienceStats;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        // Cache-only requests, e.g. offline fallbacks, cannot fail transiently
+        if (!isIdempotent(request) || request.cacheControl().onlyIfCached()) {
+            return chain.proceed(request);
+        }
+
+        for (int retry = 0; ; retry++) {
+            boolean retriesLeft = retry < maxRetries;
+            Response response;
+            try {
+                response = chain.proceed(request);
+            } catch (IOException e) {
+                if (!isRetryable(e) || chain.call().isCanceled()) throw e;
+                if (!retriesLeft) {
+                    resilienceStats.recordRetriesExhausted();
+                    throw e;
+                }
+                backOff(retry);
+                continue;
+            }
+            if (!isRetryable(response)) {
+                return response;
+            }
+            if (!retriesLeft) {
+                resilienceStats.recordRetriesExhausted();
+                return response;
+            }
+            response.close();
+            backOff(retry);
+        }
+    }
+
+    long delayMillis(int retry) {
+        long ceiling = Math.min(maxDelayMillis, baseDelayMillis << Math.min(retry, 20));
+        return (long) (random.nextDouble() * ceiling);
+    }
+
+    private void backOff(int retry) throws IOException {
+        resilienceStats.recordRetry();
+        try {
+            Thread.sleep(delayMillis(retry));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while backing off");
+        }
+    }
+
+    private static boolean isIdempotent(Request request) {
+        return request.method().equals("GET") || request.method().equals("HEAD");
+    }
+
+    private static boolean isRetryable(IOException e) {
+        // Retrying an open circuit or a spent quota defeats its purpose, an unknown host
+        // usually means offline
+        return !(e instanceof CircuitOpenException) && !(e instanceof QuotaExceededException)
+                && !(e instanceof UnknownHostException);
+    }
+
+    private static boolean isRetryable(Response response) {
+        switch (response.code()) {
+            case 500:
+            case 502:
+            case 503:
+            case 504:
+                return true;
+            default:
+                return false;
+        }
+    }
+}
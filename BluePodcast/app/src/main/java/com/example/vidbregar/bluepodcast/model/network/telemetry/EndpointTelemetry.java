@@ -0,0 +1,114 @@
+package com.example.vidbregar.bluepodcast.model.network.telemetry;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Everything recorded for a single PodcastService endpoint. Timings are in microseconds.
+ */
+public class EndpointTelemetry {
+
+    private final String endpoint;
+    private final Histogram dnsMicros = new Histogram();
+    private final Histogram connectMicros = new Histogram();
+    private final Histogram tlsMicros = new Histogram();
+    private final Histogram timeToFirstByteMicros = new Histogram();
+    private final Histogram totalMicros = new Histogram();
+    private final Histogram responseBytes = new Histogram();
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+    private final ConcurrentMap<String, AtomicLong> failures = new ConcurrentHashMap<>();
+
+    EndpointTelemetry(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    void recordCall() {
+        calls.incrementAndGet();
+    }
+
+    void recordCacheHit() {
+        cacheHits.incrementAndGet();
+    }
+
+    void recordNotModified() {
+        notModified.incrementAndGet();
+    }
+
+    void recordFailure(String failureClass) {
+        AtomicLong count = failures.get(failureClass);
+        if (count == null) {
+            AtomicLong newCount = new AtomicLong();
+            count = failures.putIfAbsent(failureClass, newCount);
+            if (count == null) count = newCount;
+        }
+        count.incrementAndGet();
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public Histogram getDnsMicros() {
+        return dnsMicros;
+    }
+
+    /**
+     * TCP connect only, the TLS handshake is recorded separately.
+     */
+    public Histogram getConnectMicros() {
+        return connectMicros;
+    }
+
+    public Histogram getTlsMicros() {
+        return tlsMicros;
+    }
+
+    /**
+     * From sending the request headers until the response headers start arriving.
+     */
+    public Histogram getTimeToFirstByteMicros() {
+        return timeToFirstByteMicros;
+    }
+
+    /**
+     * From the start of the call until the response body is consumed or the call fails.
+     */
+    public Histogram getTotalMicros() {
+        return totalMicros;
+    }
+
+    public Histogram getResponseBytes() {
+        return responseBytes;
+    }
+
+    public long getCalls() {
+        return calls.get();
+    }
+
+    /**
+     * Calls answered from the HTTP cache without touching the network.
+     */
+    public long getCacheHits() {
+        return cacheHits.get();
+    }
+
+    /**
+     * Calls whose cached response was revalidated with a 304.
+     */
+    public long getNotModified() {
+        return notModified.get();
+    }
+
+    public Map<String, Long> getFailures() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        for (Map.Entry<String, AtomicLong> failure : failures.entrySet()) {
+            snapshot.put(failure.getKey(), failure.getValue().get());
+        }
+        return snapshot;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.vidbregar.bluepodcast.model.network.telemetry;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock free histogram of non-negative values in the style of HdrHistogram. Values below 32 are
+ * counted exactly, larger values go into one of 16 linear sub-buckets per power of two, so every
+ * reported percentile is within about 6% of the recorded value while the whole histogram stays a
+ * fixed 960 counters.
+ */
+public class Histogram {
+
+    private static final int SUB_BUCKET_COUNT = 16;
+    private static final int EXACT_VALUES = 2 * SUB_BUCKET_COUNT;
+    private static final int BUCKET_COUNT = EXACT_VALUES + 58 * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long value) {
+        if (value < 0) value = 0;
+        counts.incrementAndGet(indexOf(value));
+        totalCount.incrementAndGet();
+        sum.addAndGet(value);
+        long currentMax;
+        while (value > (currentMax = max.get())) {
+            if (max.compareAndSet(currentMax, value)) break;
+        }
+    }
+
+    public long getCount() {
+        return totalCount.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long count = totalCount.get();
+        return count == 0 ? 0 : (double) sum.get() / count;
+    }
+
+    /**
+     * Highest value equivalent to the recorded value at the given percentile, 0 to 100.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long count = totalCount.get();
+        if (count == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highestEquivalentValue(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    static int indexOf(long value) {
+        if (value < EXACT_VALUES) return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - 4;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKET_COUNT;
+        return EXACT_VALUES + (shift - 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    static long highestEquivalentValue(int index) {
+        if (index < EXACT_VALUES) return index;
+        int shift = (index - EXACT_VALUES) / SUB_BUCKET_COUNT + 1;
+        long subBucket = (index - EXACT_VALUES) % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.vidbregar.bluepodcast.model.network.telemetry;
+
+import com.example.vidbregar.bluepodcast.model.network.quota.QuotaExceededException;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.net.ssl.SSLException;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+
+/**
+ * Per endpoint timings, sizes, cache hits and failures of every call made through the
+ * OkHttpClient. Network phases are fed by {@link TelemetryEventListener}, outcomes by the
+ * {@link #getInterceptor() interceptor}. The report can be dumped to a file or shown on a debug
+ * screen.
+ */
+public class NetworkTelemetry implements EventListener.Factory {
+
+    static final String ENDPOINT_BEST_PODCASTS = "best_podcasts";
+    static final String ENDPOINT_PODCAST = "podcasts/{id}";
+    static final String ENDPOINT_SEARCH = "search";
+    static final String ENDPOINT_OTHER = "other";
+
+    static final String FAILURE_TIMEOUT = "timeout";
+    static final String FAILURE_DNS = "dns";
+    static final String FAILURE_CONNECT = "connect";
+    static final String FAILURE_TLS = "tls";
+    static final String FAILURE_CANCELED = "canceled";
+    static final String FAILURE_QUOTA = "quota";
+    static final String FAILURE_IO = "io";
+    static final String FAILURE_HTTP_4XX = "http_4xx";
+    static final String FAILURE_HTTP_5XX = "http_5xx";
+
+    private static final double[] REPORTED_PERCENTILES = {50, 90, 99};
+
+    private final ConcurrentMap<String, EndpointTelemetry> endpoints = new ConcurrentHashMap<>();
+    private final Interceptor interceptor = new TelemetryInterceptor(this);
+
+    @Override
+    public EventListener create(Call call) {
+        return new TelemetryEventListener(forEndpoint(endpointOf(call.request().url())));
+    }
+
+    /**
+     * Application interceptor which has to be added before any other interceptor.
+     */
+    public Interceptor getInterceptor() {
+        return interceptor;
+    }
+
+    public EndpointTelemetry forEndpoint(String endpoint) {
+        EndpointTelemetry telemetry = endpoints.get(endpoint);
+        if (telemetry == null) {
+            EndpointTelemetry newTelemetry = new EndpointTelemetry(endpoint);
+            telemetry = endpoints.putIfAbsent(endpoint, newTelemetry);
+            if (telemetry == null) telemetry = newTelemetry;
+        }
+        return telemetry;
+    }
+
+    public Map<String, EndpointTelemetry> getEndpoints() {
+        return new TreeMap<>(endpoints);
+    }
+
+    /**
+     * Groups requests by PodcastService method, so podcast ids do not create an endpoint each.
+     */
+    public static String endpointOf(HttpUrl url) {
+        List<String> segments = url.pathSegments();
+        // api/v1/...
+        if (segments.size() < 3) return ENDPOINT_OTHER;
+        switch (segments.get(2)) {
+            case "best_podcasts":
+                return ENDPOINT_BEST_PODCASTS;
+            case "podcasts":
+                return ENDPOINT_PODCAST;
+            case "search":
+                return ENDPOINT_SEARCH;
+            default:
+                return ENDPOINT_OTHER;
+        }
+    }
+
+    static String failureClassOf(IOException e) {
+        if (e instanceof SocketTimeoutException) return FAILURE_TIMEOUT;
+        if (e instanceof UnknownHostException) return FAILURE_DNS;
+        if (e instanceof ConnectException) return FAILURE_CONNECT;
+        if (e instanceof SSLException) return FAILURE_TLS;
+        if (e instanceof QuotaExceededException) return FAILURE_QUOTA;
+        if ("Canceled".equals(e.getMessage())) return FAILURE_CANCELED;
+        return FAILURE_IO;
+    }
+
+    public String report() {
+        StringWriter writer = new StringWriter();
+        try {
+            writeReport(writer);
+        } catch (IOException e) {
+            // StringWriter does not throw
+        }
+        return writer.toString();
+    }
+
+    public void writeReport(Writer writer) throws IOException {
+        for (EndpointTelemetry telemetry : getEndpoints().values()) {
+            writer.write(String.format(Locale.US, "%s: %d calls, %d cache hits, %d not modified, failures %s%n",
+                    telemetry.getEndpoint(), telemetry.getCalls(), telemetry.getCacheHits(),
+                    telemetry.getNotModified(), telemetry.getFailures()));
+            writeTimings(writer, "dns", telemetry.getDnsMicros());
+            writeTimings(writer, "connect", telemetry.getConnectMicros());
+            writeTimings(writer, "tls", telemetry.getTlsMicros());
+            writeTimings(writer, "ttfb", telemetry.getTimeToFirstByteMicros());
+            writeTimings(writer, "total", telemetry.getTotalMicros());
+            writeSizes(writer, telemetry.getResponseBytes());
+        }
+    }
+
+    public void dumpTo(File file) throws IOException {
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), Charset.forName("UTF-8"))) {
+            writeReport(writer);
+        }
+    }
+
+    private static void writeTimings(Writer writer, String phase, Histogram histogram) throws IOException {
+        if (histogram.getCount() == 0) return;
+        StringBuilder line = new StringBuilder(String.format(Locale.US, "  %-8s n=%-5d", phase, histogram.getCount()));
+        for (double percentile : REPORTED_PERCENTILES) {
+            line.append(String.format(Locale.US, " p%.0f=%.1fms", percentile,
+                    histogram.getValueAtPercentile(percentile) / 1000.0));
+        }
+        line.append(String.format(Locale.US, " max=%.1fms%n", histogram.getMax() / 1000.0));
+        writer.write(line.toString());
+    }
+
+    private static void writeSizes(Writer writer, Histogram histogram) throws IOException {
+        if (histogram.getCount() == 0) return;
+        writer.write(String.format(Locale.US, "  %-8s n=%-5d p50=%dB p90=%dB max=%dB%n", "bytes",
+                histogram.getCount(), histogram.getValueAtPercentile(50),
+                histogram.getValueAtPercentile(90), histogram.getMax()));
+    }
+}
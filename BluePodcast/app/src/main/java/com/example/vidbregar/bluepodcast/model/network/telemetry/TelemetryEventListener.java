@@ -0,0 +1,86 @@
+package com.example.vidbregar.bluepodcast.model.network.telemetry;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+
+/**
+ * Times the network phases of a single call. The outcome is recorded by
+ * {@link TelemetryInterceptor} instead, because OkHttp 3.10 does not report cache hits to
+ * listeners. OkHttp creates one listener per call and invokes it from one thread at a time, so
+ * the fields need no synchronization.
+ */
+class TelemetryEventListener extends EventListener {
+
+    private final EndpointTelemetry telemetry;
+    private long dnsStartNanos;
+    private long connectStartNanos;
+    private long secureConnectStartNanos;
+    private long requestHeadersStartNanos;
+
+    TelemetryEventListener(EndpointTelemetry telemetry) {
+        this.telemetry = telemetry;
+    }
+
+    @Override
+    public void dnsStart(Call call, String domainName) {
+        dnsStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+        telemetry.getDnsMicros().record(microsSince(dnsStartNanos));
+    }
+
+    @Override
+    public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+        connectStartNanos = System.nanoTime();
+        secureConnectStartNanos = 0;
+    }
+
+    @Override
+    public void secureConnectStart(Call call) {
+        secureConnectStartNanos = System.nanoTime();
+        telemetry.getConnectMicros().record(
+                TimeUnit.NANOSECONDS.toMicros(secureConnectStartNanos - connectStartNanos));
+    }
+
+    @Override
+    public void secureConnectEnd(Call call, Handshake handshake) {
+        telemetry.getTlsMicros().record(microsSince(secureConnectStartNanos));
+    }
+
+    @Override
+    public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy,
+                           Protocol protocol) {
+        if (secureConnectStartNanos == 0) {
+            telemetry.getConnectMicros().record(microsSince(connectStartNanos));
+        }
+    }
+
+    @Override
+    public void requestHeadersStart(Call call) {
+        requestHeadersStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void responseHeadersStart(Call call) {
+        telemetry.getTimeToFirstByteMicros().record(microsSince(requestHeadersStartNanos));
+    }
+
+    @Override
+    public void responseBodyEnd(Call call, long byteCount) {
+        telemetry.getResponseBytes().record(byteCount);
+    }
+
+    private static long microsSince(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+    }
+}
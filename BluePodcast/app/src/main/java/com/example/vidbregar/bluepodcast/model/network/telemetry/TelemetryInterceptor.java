@@ -0,0 +1,115 @@
+package com.example.vidbregar.bluepodcast.model.network.telemetry;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+
+/**
+ * Application interceptor recording how each call ended: from the cache, revalidated, with an
+ * HTTP error or an I/O failure. The total time runs until the caller has read or closed the body.
+ * Has to be the first interceptor so that responses served by the other interceptors are seen.
+ */
+class TelemetryInterceptor implements Interceptor {
+
+    private final NetworkTelemetry networkTelemetry;
+
+    TelemetryInterceptor(NetworkTelemetry networkTelemetry) {
+        this.networkTelemetry = networkTelemetry;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        EndpointTelemetry telemetry = networkTelemetry.forEndpoint(
+                NetworkTelemetry.endpointOf(chain.request().url()));
+        telemetry.recordCall();
+        long startNanos = System.nanoTime();
+        Response response;
+        try {
+            response = chain.proceed(chain.request());
+        } catch (IOException e) {
+            telemetry.getTotalMicros().record(microsSince(startNanos));
+            telemetry.recordFailure(NetworkTelemetry.failureClassOf(e));
+            throw e;
+        }
+
+        if (response.networkResponse() == null) {
+            telemetry.recordCacheHit();
+        } else if (response.networkResponse().code() == 304) {
+            telemetry.recordNotModified();
+        }
+        if (response.code() >= 500) {
+            telemetry.recordFailure(NetworkTelemetry.FAILURE_HTTP_5XX);
+        } else if (response.code() >= 400) {
+            telemetry.recordFailure(NetworkTelemetry.FAILURE_HTTP_4XX);
+        }
+
+        if (response.body() == null) {
+            telemetry.getTotalMicros().record(microsSince(startNanos));
+            return response;
+        }
+        return response.newBuilder()
+                .body(new TimedResponseBody(response.body(), telemetry, startNanos))
+                .build();
+    }
+
+    private static long microsSince(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Records the total time once the body is exhausted or closed, whichever comes first.
+     */
+    private static class TimedResponseBody extends ResponseBody {
+
+        private final ResponseBody delegate;
+        private final BufferedSource source;
+        private boolean recorded;
+
+        TimedResponseBody(ResponseBody delegate, EndpointTelemetry telemetry, long startNanos) {
+            this.delegate = delegate;
+            this.source = Okio.buffer(new ForwardingSource(delegate.source()) {
+                @Override
+                public long read(Buffer sink, long byteCount) throws IOException {
+                    long read = super.read(sink, byteCount);
+                    if (read == -1) record();
+                    return read;
+                }
+
+                @Override
+                public void close() throws IOException {
+                    record();
+                    super.close();
+                }
+
+                private void record() {
+                    if (recorded) return;
+                    recorded = true;
+                    telemetry.getTotalMicros().record(microsSince(startNanos));
+                }
+            });
+        }
+
+        @Override
+        public MediaType contentType() {
+            return delegate.contentType();
+        }
+
+        @Override
+        public long contentLength() {
+            return delegate.contentLength();
+        }
+
+        @Override
+        public BufferedSource source() {
+            return source;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.vidbregar.bluepodcast.model.playback;
+
+import android.support.annotation.WorkerThread;
+import android.util.Log;
+
+import com.example.vidbregar.bluepodcast.model.database.playback.PlaybackPositionEntity;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind journal of the playback positions. The player records its position as often as
+ * it likes, the journal keeps only the latest one per episode in memory and writes them to the
+ * {@link PlaybackPositionStore} in one transaction once the oldest has waited for the flush
+ * interval, or when {@link #flush()} is called on pause and when memory runs low. A minute of
+ * playback costs a couple of transactions instead of one per update, and a process death loses
+ * at most one interval.
+ */
+public class PlaybackPositionJournal {
+
+    interface Clock {
+        long currentTimeMillis();
+    }
+
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 30 * 1000;
+
+    // Stopping this close to the end counts as having finished the episode
+    static final long FINISHED_MARGIN_MILLIS = 10 * 1000;
+
+    private final PlaybackPositionStore store;
+    // Must run the writes one at a time and in order
+    private final Executor writeExecutor;
+    private final long flushIntervalMillis;
+    private final Clock clock;
+    // Guarded by this
+    private final Map<String, PlaybackPositionEntity> pending = new LinkedHashMap<>();
+    private final Map<String, PlaybackPositionEntity> unwritten = new HashMap<>();
+    private long oldestPendingAt;
+
+    private final AtomicLong recordedCount = new AtomicLong();
+    private final AtomicLong transactionCount = new AtomicLong();
+    private final AtomicLong writtenCount = new AtomicLong();
+
+    public PlaybackPositionJournal(PlaybackPositionStore store, Executor writeExecutor) {
+        this(store, writeExecutor, DEFAULT_FLUSH_INTERVAL_MILLIS, System::currentTimeMillis);
+    }
+
+    PlaybackPositionJournal(PlaybackPositionStore store, Executor writeExecutor,
+                            long flushIntervalMillis, Clock clock) {
+        this.store = store;
+        this.writeExecutor = writeExecutor;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Replaces the position buffered for {@code audioUrl} and flushes if the interval is over.
+     */
+    public void record(String audioUrl, long positionMs, long durationMs) {
+        if (audioUrl == null) return;
+        boolean isFlushDue;
+        synchronized (this) {
+            long now = clock.currentTimeMillis();
+            if (pending.isEmpty()) {
+                oldestPendingAt = now;
+            }
+            PlaybackPositionEntity position = new PlaybackPositionEntity(audioUrl,
+                    Math.max(0, positionMs), Math.max(0, durationMs), now);
+            pending.put(audioUrl, position);
+            unwritten.put(audioUrl, position);
+            isFlushDue = now - oldestPendingAt >= flushIntervalMillis;
+        }
+        recordedCount.incrementAndGet();
+        if (isFlushDue) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes the buffered positions on the write executor, if there are any.
+     */
+    public void flush() {
+        List<PlaybackPositionEntity> batch;
+        synchronized (this) {
+            if (pending.isEmpty()) return;
+            batch = new ArrayList<>(pending.values());
+            pending.clear();
+        }
+        writeExecutor.execute(() -> write(batch));
+    }
+
+    /**
+     * Where playback of {@code audioUrl} should resume, 0 for an episode which was never played
+     * or was played to the end.
+     */
+    @WorkerThread
+    public long getResumePositionMs(String audioUrl) {
+        PlaybackPositionEntity position;
+        synchronized (this) {
+            position = unwritten.get(audioUrl);
+        }
+        if (position == null) {
+            position = store.load(audioUrl);
+        }
+        if (position == null) return 0;
+        boolean isFinished = position.getDurationMs() > 0
+                && position.getPositionMs() >= position.getDurationMs() - FINISHED_MARGIN_MILLIS;
+        return isFinished ? 0 : position.getPositionMs();
+    }
+
+    public long getRecordedCount() {
+        return recordedCount.get();
+    }
+
+    public long getTransactionCount() {
+        return transactionCount.get();
+    }
+
+    public long getWrittenCount() {
+        return writtenCount.get();
+    }
+
+    private void write(List<PlaybackPositionEntity> batch) {
+        try {
+            store.save(batch);
+        } catch (RuntimeException e) {
+            Log.e("ERROR", "Failed to save playback positions: " + e.getMessage());
+            requeue(batch);
+            return;
+        }
+        transactionCount.incrementAndGet();
+        writtenCount.addAndGet(batch.size());
+        synchronized (this) {
+            for (PlaybackPositionEntity position : batch) {
+                // A newer position recorded meanwhile is still to be written
+                if (unwritten.get(position.getAudioUrl()) == position) {
+                    unwritten.remove(position.getAudioUrl());
+                }
+            }
+        }
+    }
+
+    // Tried again with the next flush, unless a newer position replaced them
+    private synchronized void requeue(List<PlaybackPositionEntity> batch) {
+        for (PlaybackPositionEntity position : batch) {
+            if (!pending.containsKey(position.getAudioUrl())) {
+                if (pending.isEmpty()) {
+                    oldestPendingAt = clock.currentTimeMillis();
+                }
+                pending.put(position.getAudioUrl(), position);
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.vidbregar.bluepodcast.model.playback;
+
+import com.example.vidbregar.bluepodcast.model.database.playback.PlaybackPositionEntity;
+
+import java.util.List;
+
+/**
+ * Where a {@link PlaybackPositionJournal} writes the positions it buffered.
+ */
+public interface PlaybackPositionStore {
+
+    PlaybackPositionEntity load(String audioUrl);
+
+    // One transaction per call
+    void save(List<PlaybackPositionEntity> positions);
+
+}
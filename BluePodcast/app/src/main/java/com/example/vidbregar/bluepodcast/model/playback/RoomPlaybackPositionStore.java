@@ -0,0 +1,25 @@
+package com.example.vidbregar.bluepodcast.model.playback;
+
+import com.example.vidbregar.bluepodcast.model.database.playback.PlaybackPositionDao;
+import com.example.vidbregar.bluepodcast.model.database.playback.PlaybackPositionEntity;
+
+import java.util.List;
+
+public class RoomPlaybackPositionStore implements PlaybackPositionStore {
+
+    private final PlaybackPositionDao playbackPositionDao;
+
+    public RoomPlaybackPositionStore(PlaybackPositionDao playbackPositionDao) {
+        this.playbackPositionDao = playbackPositionDao;
+    }
+
+    @Override
+    public PlaybackPositionEntity load(String audioUrl) {
+        return playbackPositionDao.getPosition(audioUrl);
+    }
+
+    @Override
+    public void save(List<PlaybackPositionEntity> positions) {
+        playbackPositionDao.upsertPositions(positions);
+    }
+}
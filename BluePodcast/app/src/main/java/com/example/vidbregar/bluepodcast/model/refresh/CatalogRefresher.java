@@ -0,0 +1,170 @@
+package com.example.vidbregar.bluepodcast.model.refresh;
+
+import com.example.vidbregar.bluepodcast.model.feed.FeedSection;
+import com.example.vidbregar.bluepodcast.model.network.PodcastService;
+import com.example.vidbregar.bluepodcast.model.network.quota.ApiQuota;
+import com.example.vidbregar.bluepodcast.model.network.quota.QuotaExceededException;
+import com.example.vidbregar.bluepodcast.model.network.quota.RequestPriority;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.CacheControl;
+import okhttp3.Call;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Okio;
+
+/**
+ * Refreshes the home feed sections and podcasts in the HTTP disk cache, one after another in a
+ * single batch, so the next launch can render them from disk while any revalidation happens off
+ * the critical path. Requests are conditional and sent with {@link RequestPriority#BACKGROUND}.
+ * Instead of being shed by the quota the batch waits for its share of the token bucket, and stops
+ * once the background share of the daily budget is spent.
+ */
+public class CatalogRefresher {
+
+    public static class Result {
+
+        private int refreshed;
+        private int notModified;
+        private int failed;
+        private int skipped;
+
+        public int getRefreshed() {
+            return refreshed;
+        }
+
+        public int getNotModified() {
+            return notModified;
+        }
+
+        public int getFailed() {
+            return failed;
+        }
+
+        public int getSkipped() {
+            return skipped;
+        }
+
+        /**
+         * Whether every request was made and answered, otherwise the refresh should be retried.
+         */
+        public boolean isComplete() {
+            return failed == 0 && skipped == 0;
+        }
+
+        @Override
+        public String toString() {
+            return "Result{" +
+                    "refreshed=" + refreshed +
+                    ", notModified=" + notModified +
+                    ", failed=" + failed +
+                    ", skipped=" + skipped +
+                    '}';
+        }
+    }
+
+    private static final CacheControl REVALIDATE =
+            new CacheControl.Builder().maxAge(0, TimeUnit.SECONDS).build();
+
+    private final PodcastService podcastService;
+    private final Call.Factory callFactory;
+    private final String apiKey;
+    private final ApiQuota apiQuota;
+    private volatile boolean canceled;
+    private volatile Call currentCall;
+
+    public CatalogRefresher(PodcastService podcastService, Call.Factory callFactory, String apiKey,
+                            ApiQuota apiQuota) {
+        this.podcastService = podcastService;
+        this.callFactory = callFactory;
+        this.apiKey = apiKey;
+        this.apiQuota = apiQuota;
+    }
+
+    /**
+     * Blocks until every section and podcast was refreshed, the quota ran out or
+     * {@link #cancel()} was called.
+     */
+    public Result refresh(List<FeedSection> sections, Collection<String> podcastIds) {
+        // Requests are built by PodcastService, so they are cached under the same URLs
+        List<Request> requests = new ArrayList<>();
+        for (FeedSection section : sections) {
+            requests.add(section.isBestPodcasts()
+                    ? podcastService.getBestPodcasts(apiKey, RequestPriority.BACKGROUND).request()
+                    : podcastService.getGenrePodcasts(apiKey, section.getGenreId(),
+                    RequestPriority.BACKGROUND).request());
+        }
+        for (String podcastId : podcastIds) {
+            requests.add(podcastService.getPodcast(apiKey, podcastId).request());
+        }
+
+        Result result = new Result();
+        for (int i = 0; i < requests.size(); i++) {
+            if (canceled || !awaitQuota()) {
+                result.skipped = requests.size() - i;
+                break;
+            }
+            refresh(requests.get(i), result);
+        }
+        return result;
+    }
+
+    public void cancel() {
+        canceled = true;
+        Call call = currentCall;
+        if (call != null) call.cancel();
+    }
+
+    private void refresh(Request request, Result result) {
+        Call call = callFactory.newCall(request.newBuilder()
+                .cacheControl(REVALIDATE)
+                .header(RequestPriority.HEADER, RequestPriority.BACKGROUND.name())
+                .build());
+        currentCall = call;
+        try (Response response = call.execute()) {
+            if (!response.isSuccessful()) {
+                result.failed++;
+                return;
+            }
+            // The body has to be read completely for OkHttp to commit it to the cache
+            ResponseBody body = response.body();
+            if (body != null) {
+                body.source().readAll(Okio.blackhole());
+            }
+            Response networkResponse = response.networkResponse();
+            if (networkResponse != null && networkResponse.code() == 304) {
+                result.notModified++;
+            } else {
+                result.refreshed++;
+            }
+        } catch (QuotaExceededException e) {
+            // Other requests took the tokens the batch waited for
+            result.skipped++;
+        } catch (IOException e) {
+            result.failed++;
+        } finally {
+            currentCall = null;
+        }
+    }
+
+    // False once the daily budget left to background requests is spent
+    private boolean awaitQuota() {
+        long waitMillis;
+        while ((waitMillis = apiQuota.waitMillis(RequestPriority.BACKGROUND)) > 0) {
+            if (canceled) return false;
+            try {
+                Thread.sleep(waitMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return waitMillis == 0;
+    }
+}
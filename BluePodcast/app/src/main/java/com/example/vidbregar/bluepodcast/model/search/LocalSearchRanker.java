@@ -0,0 +1,64 @@
+package com.example.vidbregar.bluepodcast.model.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Turns what the user typed into an FTS {@code MATCH} expression and ranks the matches from
+ * their {@code matchinfo(..., 'pcnx')}. SQLite on older Android versions has no built in
+ * ranking, so the score is computed here: a saturated term frequency weighted by how rare the
+ * term is, with matches in the title counting more than in the publisher or description.
+ */
+public class LocalSearchRanker {
+
+    // Weights of the indexed columns, in the order of the FTS table
+    public static final double[] COLUMN_WEIGHTS = {3.0, 2.0, 1.0};
+
+    // How quickly repeated hits in one column stop adding to the score
+    private static final double SATURATION = 1.2;
+
+    /**
+     * Every word of {@code query} as a prefix term, so results show up while a word is still
+     * being typed, or null if the query has no words.
+     */
+    public static String toMatchExpression(String query) {
+        List<String> terms = new ArrayList<>();
+        for (String word : query.toLowerCase(Locale.US).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) terms.add("\"" + word + "*\"");
+        }
+        if (terms.isEmpty()) return null;
+        StringBuilder expression = new StringBuilder();
+        for (String term : terms) {
+            if (expression.length() > 0) expression.append(' ');
+            expression.append(term);
+        }
+        return expression.toString();
+    }
+
+    /**
+     * Score of one match, higher is better.
+     *
+     * @param matchinfo the values of {@code matchinfo(..., 'pcnx')}: phrase count, column
+     *                  count, row count, then for every phrase and column the hits in this
+     *                  row, the hits in all rows and the rows with a hit
+     */
+    public static double score(int[] matchinfo, double[] columnWeights) {
+        int phraseCount = matchinfo[0];
+        int columnCount = matchinfo[1];
+        int rowCount = matchinfo[2];
+        double score = 0;
+        for (int phrase = 0; phrase < phraseCount; phrase++) {
+            for (int column = 0; column < columnCount; column++) {
+                int offset = 3 + 3 * (phrase * columnCount + column);
+                int hitsInRow = matchinfo[offset];
+                int rowsWithHits = matchinfo[offset + 2];
+                if (hitsInRow == 0) continue;
+                double inverseFrequency = Math.log(1 + rowCount / (double) Math.max(1, rowsWithHits));
+                double weight = column < columnWeights.length ? columnWeights[column] : 1;
+                score += weight * inverseFrequency * hitsInRow / (hitsInRow + SATURATION);
+            }
+        }
+        return score;
+    }
+}
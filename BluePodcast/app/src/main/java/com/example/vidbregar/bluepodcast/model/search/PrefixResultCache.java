@@ -0,0 +1,84 @@
+package com.example.vidbregar.bluepodcast.model.search;
+
+import com.example.vidbregar.bluepodcast.model.data.SearchResult;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static com.example.vidbregar.bluepodcast.model.network.cache.SearchCache.normalizeQuery;
+
+/**
+ * Remembers the results of the last few queries, so that while a query is being typed the
+ * results of a shorter query it extends can be shown at once, narrowed down locally to the
+ * results which contain every word typed so far.
+ */
+public class PrefixResultCache {
+
+    public static final int DEFAULT_MAX_QUERIES = 20;
+
+    private final Map<String, List<SearchResult>> results;
+
+    public PrefixResultCache() {
+        this(DEFAULT_MAX_QUERIES);
+    }
+
+    public PrefixResultCache(int maxQueries) {
+        results = new LinkedHashMap<String, List<SearchResult>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<SearchResult>> eldest) {
+                return size() > maxQueries;
+            }
+        };
+    }
+
+    public synchronized void put(String query, List<SearchResult> queryResults) {
+        results.put(normalizeQuery(query), new ArrayList<>(queryResults));
+    }
+
+    /**
+     * Results of the query itself if it is cached, otherwise the results of the longest cached
+     * query it starts with which also match the rest of it, or null if no such query is cached.
+     */
+    public synchronized List<SearchResult> getForPrefix(String query) {
+        String normalizedQuery = normalizeQuery(query);
+        List<SearchResult> exactResults = results.get(normalizedQuery);
+        if (exactResults != null) {
+            return new ArrayList<>(exactResults);
+        }
+        for (int end = normalizedQuery.length() - 1; end > 0; end--) {
+            List<SearchResult> prefixResults = results.get(normalizedQuery.substring(0, end).trim());
+            if (prefixResults != null) {
+                return filter(prefixResults, normalizedQuery.split(" "));
+            }
+        }
+        return null;
+    }
+
+    private static List<SearchResult> filter(List<SearchResult> prefixResults, String[] words) {
+        List<SearchResult> matching = new ArrayList<>();
+        for (SearchResult result : prefixResults) {
+            String text = searchableText(result);
+            boolean matches = true;
+            for (String word : words) {
+                if (!text.contains(word)) {
+                    matches = false;
+                    break;
+                }
+            }
+            if (matches) matching.add(result);
+        }
+        return matching;
+    }
+
+    private static String searchableText(SearchResult result) {
+        StringBuilder text = new StringBuilder();
+        for (String field : new String[]{result.getEpisodeTitle(), result.getPodcastTitle(),
+                result.getPublisher(), result.getDescription()}) {
+            if (field != null) text.append(field).append(' ');
+        }
+        return text.toString().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.vidbregar.bluepodcast.model.search;
+
+import com.example.vidbregar.bluepodcast.model.data.Search;
+import com.example.vidbregar.bluepodcast.model.data.SearchResult;
+import com.example.vidbregar.bluepodcast.model.network.PodcastService;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Pages through the results of a search by {@code next_offset}. The next page is requested as
+ * soon as the user scrolls within {@code prefetchDistance} results of the end, so it is usually
+ * there before the end is reached. Only one page is in flight at a time, results which appear on
+ * more than one page are only kept once. The results are capped rather than windowed: paging
+ * stops for good once {@code maxResults} results are kept, and none are ever dropped.
+ */
+public class SearchPager {
+
+    public interface Listener {
+
+        /**
+         * Called with all the results so far every time a page arrives.
+         */
+        void onResults(List<SearchResult> results, boolean hasMore);
+
+        void onPageFailed(int offset, Throwable t);
+
+    }
+
+    public static final int DEFAULT_PREFETCH_DISTANCE = 5;
+    public static final int DEFAULT_MAX_RESULTS = 200;
+
+    private final PodcastService podcastService;
+    private final String apiKey;
+    private final int prefetchDistance;
+    private final int maxResults;
+    private final Listener listener;
+    // Guarded by this
+    private final Map<String, SearchResult> results = new LinkedHashMap<>();
+    private String query;
+    private int nextOffset;
+    private boolean hasMore;
+    private Call<Search> pageCall;
+
+    public SearchPager(PodcastService podcastService, String apiKey, Listener listener) {
+        this(podcastService, apiKey, DEFAULT_PREFETCH_DISTANCE, DEFAULT_MAX_RESULTS, listener);
+    }
+
+    public SearchPager(PodcastService podcastService, String apiKey, int prefetchDistance,
+                       int maxResults, Listener listener) {
+        this.podcastService = podcastService;
+        this.apiKey = apiKey;
+        this.prefetchDistance = prefetchDistance;
+        this.maxResults = maxResults;
+        this.listener = listener;
+    }
+
+    /**
+     * Drops the results of the previous query and loads the first page of the new one.
+     */
+    public void search(String query) {
+        synchronized (this) {
+            cancelPageCall();
+            results.clear();
+            this.query = query;
+            nextOffset = 0;
+            hasMore = true;
+        }
+        loadNextPage();
+    }
+
+    /**
+     * Loads the next page if the last visible result is close enough to the end.
+     */
+    public void onScrolled(int lastVisiblePosition) {
+        synchronized (this) {
+            if (lastVisiblePosition < results.size() - prefetchDistance) return;
+        }
+        loadNextPage();
+    }
+
+    public void loadNextPage() {
+        Call<Search> call;
+        int offset;
+        synchronized (this) {
+            if (query == null || !hasMore || pageCall != null) return;
+            offset = nextOffset;
+            call = podcastService.search(apiKey, query, offset);
+            pageCall = call;
+        }
+        call.enqueue(new Callback<Search>() {
+            @Override
+            public void onResponse(Call<Search> call, Response<Search> response) {
+                if (!response.isSuccessful() || response.body() == null) {
+                    onFailure(call, new IllegalStateException("HTTP " + response.code()));
+                    return;
+                }
+                List<SearchResult> snapshot;
+                boolean more;
+                int added;
+                synchronized (SearchPager.this) {
+                    // A newer search replaced this one
+                    if (pageCall != call) return;
+                    pageCall = null;
+                    added = addPage(response.body());
+                    snapshot = new ArrayList<>(results.values());
+                    more = hasMore;
+                }
+                listener.onResults(snapshot, more);
+                if (added == 0 && more) {
+                    // Nothing new to scroll to, so scrolling would never ask for the next page
+                    loadNextPage();
+                }
+            }
+
+            @Override
+            public void onFailure(Call<Search> call, Throwable t) {
+                synchronized (SearchPager.this) {
+                    if (pageCall != call) return;
+                    // Scrolling again retries the same offset
+                    pageCall = null;
+                }
+                listener.onPageFailed(offset, t);
+            }
+        });
+    }
+
+    public synchronized void cancel() {
+        cancelPageCall();
+        query = null;
+    }
+
+    public synchronized boolean hasMore() {
+        return hasMore;
+    }
+
+    public synchronized boolean isLoading() {
+        return pageCall != null;
+    }
+
+    private int addPage(Search page) {
+        List<SearchResult> pageResults = page.getResults();
+        int added = 0;
+        if (pageResults != null) {
+            for (SearchResult result : pageResults) {
+                if (results.size() >= maxResults) break;
+                String key = result.getEpisodeId() != null ? result.getEpisodeId() : result.getAudioUrl();
+                if (!results.containsKey(key)) {
+                    results.put(key, result);
+                    added++;
+                }
+            }
+        }
+        // An offset which does not move forward would request the same page over and over
+        hasMore = results.size() < maxResults
+                && page.getNextOffset() > nextOffset
+                && page.getNextOffset() < page.getTotal();
+        nextOffset = page.getNextOffset();
+        return added;
+    }
+
+    private void cancelPageCall() {
+        if (pageCall != null) {
+            pageCall.cancel();
+            pageCall = null;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.vidbregar.bluepodcast.model.search;
+
+import com.example.vidbregar.bluepodcast.model.data.SearchResult;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Puts local search hits, which are episodes the user has already come across, in front of the
+ * remote results, leaving out the remote results the local hits already cover.
+ */
+public class SearchResultMerger {
+
+    public static List<SearchResult> merge(List<SearchResult> localResults,
+                                           List<SearchResult> remoteResults) {
+        List<SearchResult> merged = new ArrayList<>(localResults.size() + remoteResults.size());
+        Set<String> keys = new HashSet<>();
+        for (SearchResult result : localResults) {
+            String key = keyOf(result);
+            if (key == null || keys.add(key)) merged.add(result);
+        }
+        for (SearchResult result : remoteResults) {
+            String key = keyOf(result);
+            if (key == null || keys.add(key)) merged.add(result);
+        }
+        return merged;
+    }
+
+    // Favorites have no episode id, but the same episode has the same audio
+    private static String keyOf(SearchResult result) {
+        return result.getAudioUrl() != null ? result.getAudioUrl() : result.getEpisodeId();
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.vidbregar.bluepodcast.refresh;
+
+import android.annotation.TargetApi;
+import android.app.job.JobParameters;
+import android.app.job.JobService;
+import android.os.Build;
+import android.util.Log;
+
+import com.example.vidbregar.bluepodcast.executor.AppExecutors;
+import com.example.vidbregar.bluepodcast.model.database.BluePodcastDatabase;
+import com.example.vidbregar.bluepodcast.model.feed.HomeFeed;
+import com.example.vidbregar.bluepodcast.model.refresh.CatalogRefresher;
+
+import javax.inject.Inject;
+
+import dagger.android.AndroidInjection;
+
+/**
+ * Runs the {@link CatalogRefresher} scheduled by {@link CatalogRefreshScheduler}.
+ */
+@TargetApi(Build.VERSION_CODES.LOLLIPOP)
+public class CatalogRefreshJobService extends JobService {
+
+    @Inject
+    CatalogRefresher catalogRefresher;
+    @Inject
+    BluePodcastDatabase database;
+    @Inject
+    AppExecutors appExecutors;
+
+    private volatile boolean stopped;
+
+    @Override
+    public void onCreate() {
+        AndroidInjection.inject(this);
+        super.onCreate();
+    }
+
+    @Override
+    public boolean onStartJob(JobParameters params) {
+        stopped = false;
+        appExecutors.network().execute("catalog/refresh", () -> {
+            // Favorites saved before they were keyed by podcast have no podcast to refresh
+            CatalogRefresher.Result result = catalogRefresher.refresh(HomeFeed.getAllSections(),
+                    database.favoritesDao().getFavoritePodcastIds());
+            if (!result.isComplete()) {
+                Log.e("ERROR", "Catalog refresh incomplete: " + result);
+            }
+            // A stopped job is rescheduled by onStopJob
+            if (!stopped) {
+                jobFinished(params, !result.isComplete());
+            }
+        });
+        return true;
+    }
+
+    @Override
+    public boolean onStopJob(JobParameters params) {
+        stopped = true;
+        catalogRefresher.cancel();
+        return true;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.vidbregar.bluepodcast.refresh;
+
+import android.app.job.JobInfo;
+import android.app.job.JobScheduler;
+import android.content.ComponentName;
+import android.content.Context;
+import android.os.Build;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schedules the periodic catalog refresh. It waits for an unmetered network and a charger, so
+ * the batch rides along with a radio wake-up that costs the user nothing. JobScheduler is only
+ * available from Lollipop, older devices keep loading the catalog at launch.
+ */
+public class CatalogRefreshScheduler {
+
+    private static final int JOB_ID = 1001;
+    private static final long REFRESH_INTERVAL_MILLIS = TimeUnit.HOURS.toMillis(12);
+
+    private CatalogRefreshScheduler() {
+    }
+
+    public static void schedule(Context context) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP) {
+            return;
+        }
+        JobScheduler jobScheduler =
+                (JobScheduler) context.getSystemService(Context.JOB_SCHEDULER_SERVICE);
+        if (jobScheduler == null) {
+            return;
+        }
+        // Scheduling it again would restart the interval on every launch
+        for (JobInfo pendingJob : jobScheduler.getAllPendingJobs()) {
+            if (pendingJob.getId() == JOB_ID) {
+                return;
+            }
+        }
+        jobScheduler.schedule(new JobInfo.Builder(JOB_ID,
+                new ComponentName(context, CatalogRefreshJobService.class))
+                .setRequiredNetworkType(JobInfo.NETWORK_TYPE_UNMETERED)
+                .setRequiresCharging(true)
+                .setPeriodic(REFRESH_INTERVAL_MILLIS)
+                .setPersisted(true)
+                .build());
+    }
+}
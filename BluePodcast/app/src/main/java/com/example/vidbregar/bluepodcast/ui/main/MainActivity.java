@@ -5,12 +5,21 @@ import android.support.v4.app.Fragment;
 import android.support.v4.view.ViewPager;
 import android.support.v7.app.AppCompatActivity;
 import android.os.Bundle;
+import android.util.Log;
 import android.view.MenuItem;
 
 import com.crashlytics.android.Crashlytics;
+import com.example.vidbregar.bluepodcast.BuildConfig;
 import com.example.vidbregar.bluepodcast.R;
+import com.example.vidbregar.bluepodcast.executor.AppExecutors;
+import com.example.vidbregar.bluepodcast.executor.ExecutorTelemetry;
+import com.example.vidbregar.bluepodcast.model.network.quota.ApiQuota;
+import com.example.vidbregar.bluepodcast.model.network.telemetry.NetworkTelemetry;
 import com.example.vidbregar.bluepodcast.util.SharedPreferencesUtil;
 
+import java.io.File;
+import java.io.IOException;
+
 import javax.inject.Inject;
 
 import butterknife.BindView;
@@ -23,6 +32,10 @@ import io.fabric.sdk.android.Fabric;
 
 public class MainActivity extends AppCompatActivity implements HasSupportFragmentInjector {
 
+    private static final String NETWORK_TELEMETRY_FILE = "network-telemetry.txt";
+    private static final String API_QUOTA_FILE = "api-quota.txt";
+    private static final String EXECUTOR_TELEMETRY_FILE = "executor-telemetry.txt";
+
     private ScreenSlidePagerAdapter screenSlidePagerAdapter;
     private MenuItem prevMenuItem;
     private OnBackPressedListener onBackPressedListener;
@@ -30,6 +43,18 @@ public class MainActivity extends AppCompatActivity implements HasSupportFragmen
     @Inject
     SharedPreferencesUtil sharedPreferencesUtil;
 
+    @Inject
+    NetworkTelemetry networkTelemetry;
+
+    @Inject
+    ApiQuota apiQuota;
+
+    @Inject
+    ExecutorTelemetry executorTelemetry;
+
+    @Inject
+    AppExecutors appExecutors;
+
     @Inject
     DispatchingAndroidInjector<Fragment> fragmentDispatchingAndroidInjector;
 
@@ -125,6 +150,50 @@ public class MainActivity extends AppCompatActivity implements HasSupportFragmen
         this.onBackPressedListener = onBackPressedListener;
     }
 
+    @Override
+    protected void onStop() {
+        super.onStop();
+        if (BuildConfig.DEBUG) {
+            dumpNetworkTelemetry();
+            dumpApiQuota();
+            dumpExecutorTelemetry();
+        }
+    }
+
+    // Debug builds keep the latest report in the app's files directory, pull it with adb
+    private void dumpNetworkTelemetry() {
+        File file = new File(getFilesDir(), NETWORK_TELEMETRY_FILE);
+        appExecutors.diskIo().execute("debug/dump", () -> {
+            try {
+                networkTelemetry.dumpTo(file);
+            } catch (IOException e) {
+                Log.e("ERROR", "Failed to dump network telemetry: " + e.getMessage());
+            }
+        });
+    }
+
+    private void dumpApiQuota() {
+        File file = new File(getFilesDir(), API_QUOTA_FILE);
+        appExecutors.diskIo().execute("debug/dump", () -> {
+            try {
+                apiQuota.dumpTo(file);
+            } catch (IOException e) {
+                Log.e("ERROR", "Failed to dump API quota: " + e.getMessage());
+            }
+        });
+    }
+
+    private void dumpExecutorTelemetry() {
+        File file = new File(getFilesDir(), EXECUTOR_TELEMETRY_FILE);
+        appExecutors.diskIo().execute("debug/dump", () -> {
+            try {
+                executorTelemetry.dumpTo(file);
+            } catch (IOException e) {
+                Log.e("ERROR", "Failed to dump executor telemetry: " + e.getMessage());
+            }
+        });
+    }
+
     @Override
     protected void onDestroy() {
         super.onDestroy();
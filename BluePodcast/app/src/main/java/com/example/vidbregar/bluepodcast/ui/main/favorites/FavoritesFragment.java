@@ -68,18 +68,17 @@ public class FavoritesFragment extends Fragment implements FavoriteClickListener
     private void loadFavorites() {
         LinearLayoutManager linearLayoutManager =
                 new LinearLayoutManager(context);
-        favoritesRecyclerView.setNestedScrollingEnabled(false);
         favoritesRecyclerView.setLayoutManager(linearLayoutManager);
         favoritesAdapter = new FavoritesAdapter(this);
         favoritesRecyclerView.setAdapter(favoritesAdapter);
-        favoritesViewModel.getFavorites().observe(this,
-                favorites -> favoritesAdapter.swapFavorites(favorites));
+        favoritesViewModel.getFavorites().observe(this, favoritesAdapter::submitList);
     }
 
     @Override
     public void onFavoriteClickListener(FavoriteEntity favorite) {
         Intent playerActivityIntent = new Intent(getActivity(), PlayerActivity.class);
-        Channel podcast = new Channel(null,
+        boolean hasIds = !FavoriteEntity.UNKNOWN_PODCAST_ID.equals(favorite.getPodcastId());
+        Channel podcast = new Channel(hasIds ? favorite.getPodcastId() : null,
                 favorite.getThumbnailUrl(),
                 null,
                 null,
@@ -90,7 +89,7 @@ public class FavoritesFragment extends Fragment implements FavoriteClickListener
                 null,
                 null,
                 0,
-                null,
+                hasIds ? favorite.getEpisodeId() : null,
                 favorite.getAudioUrl());
         playerActivityIntent.putExtra(PlayerActivity.INTENT_EXTRA_PODCAST, podcast);
         playerActivityIntent.putExtra(PlayerActivity.INTENT_EXTRA_EPISODE, episode);
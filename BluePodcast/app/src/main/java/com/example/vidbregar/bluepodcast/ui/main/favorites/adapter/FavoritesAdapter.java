@@ -1,7 +1,10 @@
 package com.example.vidbregar.bluepodcast.ui.main.favorites.adapter;
 
+import android.arch.paging.PagedListAdapter;
 import android.support.annotation.NonNull;
+import android.support.v7.util.DiffUtil;
 import android.support.v7.widget.RecyclerView;
+import android.text.TextUtils;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -11,17 +14,33 @@ import com.example.vidbregar.bluepodcast.R;
 import com.example.vidbregar.bluepodcast.model.database.favorites.FavoriteEntity;
 import com.example.vidbregar.bluepodcast.ui.main.favorites.listener.FavoriteClickListener;
 
-import java.util.List;
-
 import butterknife.BindView;
 import butterknife.ButterKnife;
 
-public class FavoritesAdapter extends RecyclerView.Adapter<FavoritesAdapter.ViewHolder> {
+public class FavoritesAdapter extends PagedListAdapter<FavoriteEntity, FavoritesAdapter.ViewHolder> {
+
+    // Only rows whose key or text changed are rebound
+    private static final DiffUtil.ItemCallback<FavoriteEntity> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<FavoriteEntity>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull FavoriteEntity oldItem,
+                                               @NonNull FavoriteEntity newItem) {
+                    return oldItem.getPodcastId().equals(newItem.getPodcastId())
+                            && oldItem.getEpisodeId().equals(newItem.getEpisodeId());
+                }
+
+                @Override
+                public boolean areContentsTheSame(@NonNull FavoriteEntity oldItem,
+                                                  @NonNull FavoriteEntity newItem) {
+                    return TextUtils.equals(oldItem.getEpisodeTitle(), newItem.getEpisodeTitle())
+                            && TextUtils.equals(oldItem.getPublisher(), newItem.getPublisher());
+                }
+            };
 
-    private List<FavoriteEntity> favorites;
     private FavoriteClickListener favoriteClickListener;
 
     public FavoritesAdapter(FavoriteClickListener favoriteClickListener) {
+        super(DIFF_CALLBACK);
         this.favoriteClickListener = favoriteClickListener;
     }
 
@@ -35,15 +54,10 @@ public class FavoritesAdapter extends RecyclerView.Adapter<FavoritesAdapter.View
 
     @Override
     public void onBindViewHolder(@NonNull ViewHolder viewHolder, int position) {
-        FavoriteEntity favorite = favorites.get(position);
-        viewHolder.favoriteTitleTextView.setText(favorite.getEpisodeTitle());
-        viewHolder.favoritePublisherTextView.setText(favorite.getPublisher());
-    }
-
-    @Override
-    public int getItemCount() {
-        if (favorites == null) return 0;
-        else return favorites.size();
+        FavoriteEntity favorite = getItem(position);
+        // Null is a placeholder for a row whose page is still loading
+        viewHolder.favoriteTitleTextView.setText(favorite != null ? favorite.getEpisodeTitle() : null);
+        viewHolder.favoritePublisherTextView.setText(favorite != null ? favorite.getPublisher() : null);
     }
 
     class ViewHolder extends RecyclerView.ViewHolder implements View.OnClickListener {
@@ -61,12 +75,12 @@ public class FavoritesAdapter extends RecyclerView.Adapter<FavoritesAdapter.View
 
         @Override
         public void onClick(View view) {
-            favoriteClickListener.onFavoriteClickListener(favorites.get(getAdapterPosition()));
+            int position = getAdapterPosition();
+            if (position == RecyclerView.NO_POSITION) return;
+            FavoriteEntity favorite = getItem(position);
+            if (favorite != null) {
+                favoriteClickListener.onFavoriteClickListener(favorite);
+            }
         }
     }
-
-    public void swapFavorites(List<FavoriteEntity> favorites) {
-        this.favorites = favorites;
-        notifyDataSetChanged();
-    }
 }
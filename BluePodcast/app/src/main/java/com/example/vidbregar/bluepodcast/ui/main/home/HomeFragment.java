@@ -7,7 +7,9 @@ import android.net.Uri;
 import android.os.Bundle;
 import android.support.annotation.Nullable;
 import android.support.constraint.ConstraintLayout;
+import android.support.design.widget.CoordinatorLayout;
 import android.support.v4.app.Fragment;
+import android.support.v4.widget.NestedScrollView;
 import android.support.v7.app.AppCompatActivity;
 import android.support.v7.widget.LinearLayoutManager;
 import android.support.v7.widget.RecyclerView;
@@ -25,10 +27,14 @@ import com.example.vidbregar.bluepodcast.BuildConfig;
 import com.example.vidbregar.bluepodcast.R;
 import com.example.vidbregar.bluepodcast.model.data.Channel;
 import com.example.vidbregar.bluepodcast.model.data.Episode;
+import com.example.vidbregar.bluepodcast.model.favorites.FavoritesIndex;
+import com.example.vidbregar.bluepodcast.model.feed.FeedSection;
+import com.example.vidbregar.bluepodcast.model.feed.HomeFeed;
+import com.example.vidbregar.bluepodcast.model.network.prewarm.ConnectionPrewarmer;
 import com.example.vidbregar.bluepodcast.ui.main.MainActivity;
 import com.example.vidbregar.bluepodcast.ui.main.home.adapter.BestPodcastsAdapter;
 import com.example.vidbregar.bluepodcast.ui.main.home.adapter.EpisodesAdapter;
-import com.example.vidbregar.bluepodcast.ui.main.home.adapter.GenrePodcastsAdapter;
+import com.example.vidbregar.bluepodcast.ui.main.home.adapter.GenreSectionsAdapter;
 import com.example.vidbregar.bluepodcast.ui.main.home.listener.EpisodeClickListener;
 import com.example.vidbregar.bluepodcast.ui.main.home.listener.PodcastClickListener;
 import com.example.vidbregar.bluepodcast.ui.player.PlayerActivity;
@@ -38,6 +44,9 @@ import com.squareup.picasso.Picasso;
 
 import org.jsoup.Jsoup;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import javax.inject.Inject;
 
 import butterknife.BindView;
@@ -53,7 +62,13 @@ public class HomeFragment extends Fragment implements PodcastClickListener,
 
     @Inject
     PodcastViewModelFactory podcastViewModelFactory;
+    @Inject
+    ConnectionPrewarmer connectionPrewarmer;
+    @Inject
+    FavoritesIndex favoritesIndex;
 
+    @BindView(R.id.home_scrollview)
+    NestedScrollView homeScrollView;
     // Podcasts container
     @BindView(R.id.podcasts_container)
     ConstraintLayout podcastsContainer;
@@ -61,24 +76,16 @@ public class HomeFragment extends Fragment implements PodcastClickListener,
     @BindView(R.id.best_podcasts_rv)
     RecyclerView bestPodcastsRecyclerView;
     private BestPodcastsAdapter bestPodcastsAdapter;
-    // Comedy podcasts
-    @BindView(R.id.comedy_podcasts_rv)
-    RecyclerView comedyPodcastsRecyclerView;
-    private GenrePodcastsAdapter comedyPodcastsAdapter;
-    // Business podcasts
-    @BindView(R.id.business_podcasts_rv)
-    RecyclerView businessPodcastsRecyclerView;
-    private GenrePodcastsAdapter businessPodcastsAdapter;
-    // Health podcasts
-    @BindView(R.id.health_podcasts_rv)
-    RecyclerView healthPodcastsRecyclerView;
-    private GenrePodcastsAdapter healthPodcastsAdapter;
+    // Genre podcasts
+    @BindView(R.id.genre_sections_rv)
+    RecyclerView genreSectionsRecyclerView;
+    private GenreSectionsAdapter genreSectionsAdapter;
     // Loading indicator
     @BindView(R.id.loading_container)
     ConstraintLayout loadingIndicatorContainer;
     // Podcast detail
     @BindView(R.id.podcast_detail_container)
-    ConstraintLayout podcastDetailContainer;
+    CoordinatorLayout podcastDetailContainer;
     @BindView(R.id.podcast_thumbnail)
     ImageView podcastThumbnailImageView;
     @BindView(R.id.podcast_title)
@@ -91,6 +98,7 @@ public class HomeFragment extends Fragment implements PodcastClickListener,
     TextView podcastDescriptionTextView;
     @BindView(R.id.podcast_episodes_rv)
     RecyclerView podcastEpisodeRecyclerView;
+    private LinearLayoutManager episodesLayoutManager;
     private EpisodesAdapter episodesAdapter;
 
     @Override
@@ -112,6 +120,7 @@ public class HomeFragment extends Fragment implements PodcastClickListener,
         displayAds(root);
         loadHomePodcasts();
         observeEpisodes();
+        trackScrolling();
         restoreCorrectLayout();
         return root;
     }
@@ -139,9 +148,7 @@ public class HomeFragment extends Fragment implements PodcastClickListener,
 
     private void loadHomePodcasts() {
         loadBestPodcasts();
-        loadComedyPodcasts();
-        loadBusinessPodcasts();
-        loadHealthPodcasts();
+        loadGenrePodcasts();
     }
 
     private void restoreCorrectLayout() {
@@ -175,6 +182,7 @@ public class HomeFragment extends Fragment implements PodcastClickListener,
     }
 
     private void loadPodcastData(Channel podcast) {
+        episodesAdapter.setPodcastId(podcast.getId());
         Picasso.get().load(podcast.getThumbnailUrl()).into(podcastThumbnailImageView);
         podcastTitleTextView.setText(podcast.getTitle());
         podcastPublisherTextView.setText(podcast.getPublisher());
@@ -212,14 +220,77 @@ public class HomeFragment extends Fragment implements PodcastClickListener,
     }
 
     private void observeEpisodes() {
-        LinearLayoutManager linearLayoutManager =
-                new LinearLayoutManager(context);
-        podcastEpisodeRecyclerView.setNestedScrollingEnabled(false);
-        podcastEpisodeRecyclerView.setLayoutManager(linearLayoutManager);
-        episodesAdapter = new EpisodesAdapter(this);
+        episodesLayoutManager = new LinearLayoutManager(context);
+        podcastEpisodeRecyclerView.setLayoutManager(episodesLayoutManager);
+        episodesAdapter = new EpisodesAdapter(this, favoritesIndex);
         podcastEpisodeRecyclerView.setAdapter(episodesAdapter);
-        podcastViewModel.getEpisodesLiveData().observe(this,
-                episodes -> episodesAdapter.swapEpisodes(episodes));
+        podcastEpisodeRecyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+                onEpisodesScrolled();
+            }
+        });
+        podcastViewModel.getEpisodesLiveData().observe(this, episodes -> {
+            episodesAdapter.swapEpisodes(episodes);
+            prefetchAudioHosts(episodes);
+            // A short first page may not fill the screen and can then not be scrolled
+            podcastEpisodeRecyclerView.post(this::onEpisodesScrolled);
+        });
+        // The badges are read from memory, a change just rebinds the rows
+        favoritesIndex.getChangesLiveData().observe(this,
+                version -> episodesAdapter.notifyDataSetChanged());
+    }
+
+    // The genre sections are laid out in full inside the scroll view, so load priorities follow
+    // its position
+    private void trackScrolling() {
+        homeScrollView.setOnScrollChangeListener(
+                (NestedScrollView.OnScrollChangeListener) (scrollView, scrollX, scrollY, oldScrollX, oldScrollY) ->
+                        onFeedScrolled(scrollY));
+    }
+
+    private void onFeedScrolled(int scrollY) {
+        if (podcastsContainer.getVisibility() != View.VISIBLE) return;
+        int visibleTop = scrollY - podcastsContainer.getTop();
+        int visibleBottom = visibleTop + homeScrollView.getHeight();
+        List<FeedSection> visibleSections = new ArrayList<>();
+        if (bestPodcastsRecyclerView.getBottom() >= visibleTop) {
+            visibleSections.add(HomeFeed.BEST_PODCASTS);
+        }
+        int sectionsTop = genreSectionsRecyclerView.getTop();
+        for (int i = 0; i < genreSectionsRecyclerView.getChildCount(); i++) {
+            View sectionView = genreSectionsRecyclerView.getChildAt(i);
+            if (sectionsTop + sectionView.getBottom() < visibleTop) continue;
+            if (sectionsTop + sectionView.getTop() > visibleBottom) break;
+            int position = genreSectionsRecyclerView.getChildAdapterPosition(sectionView);
+            if (position == RecyclerView.NO_POSITION) continue;
+            visibleSections.add(HomeFeed.GENRE_SECTIONS.get(position));
+            // Sections which have not arrived take no space and are all stacked at the same
+            // place, only the first of them would really be on screen
+            if (sectionView.getVisibility() != View.VISIBLE) break;
+        }
+        podcastViewModel.onFeedSectionsVisible(visibleSections);
+    }
+
+    private void onEpisodesScrolled() {
+        if (podcastDetailContainer.getVisibility() != View.VISIBLE) return;
+        int firstVisiblePosition = episodesLayoutManager.findFirstVisibleItemPosition();
+        int lastVisiblePosition = episodesLayoutManager.findLastVisibleItemPosition();
+        if (firstVisiblePosition == RecyclerView.NO_POSITION) {
+            // Nothing laid out yet
+            firstVisiblePosition = 0;
+            lastVisiblePosition = Math.max(0, episodesAdapter.getItemCount() - 1);
+        }
+        podcastViewModel.onEpisodesScrolled(firstVisiblePosition, lastVisiblePosition);
+    }
+
+    private void prefetchAudioHosts(List<Episode> episodes) {
+        if (episodes == null) return;
+        List<String> audioUrls = new ArrayList<>();
+        for (int i = 0; i < episodes.size() && i < ConnectionPrewarmer.VISIBLE_EPISODE_COUNT; i++) {
+            if (episodes.get(i) != null) audioUrls.add(episodes.get(i).getAudioUrl());
+        }
+        connectionPrewarmer.prefetchDns(audioUrls);
     }
 
     private void loadBestPodcasts() {
@@ -228,7 +299,7 @@ public class HomeFragment extends Fragment implements PodcastClickListener,
         bestPodcastsRecyclerView.setLayoutManager(linearLayoutManager);
         bestPodcastsAdapter = new BestPodcastsAdapter(this);
         bestPodcastsRecyclerView.setAdapter(bestPodcastsAdapter);
-        podcastViewModel.getBestPodcastsLiveData().observe(this,
+        podcastViewModel.getFeedSectionLiveData(HomeFeed.BEST_PODCASTS).observe(this,
                 podcasts -> {
                     bestPodcastsAdapter.swapPodcasts(podcasts);
                     loadingIndicatorContainer.setVisibility(View.GONE);
@@ -238,36 +309,20 @@ public class HomeFragment extends Fragment implements PodcastClickListener,
                 });
     }
 
-    private void loadComedyPodcasts() {
-        LinearLayoutManager linearLayoutManager =
-                new LinearLayoutManager(context);
-        comedyPodcastsRecyclerView.setNestedScrollingEnabled(false);
-        comedyPodcastsRecyclerView.setLayoutManager(linearLayoutManager);
-        comedyPodcastsAdapter = new GenrePodcastsAdapter(this);
-        comedyPodcastsRecyclerView.setAdapter(comedyPodcastsAdapter);
-        podcastViewModel.getComedyPodcastsLiveData().observe(this,
-                podcasts -> comedyPodcastsAdapter.swapPodcasts(podcasts));
-    }
-
-    private void loadBusinessPodcasts() {
+    private void loadGenrePodcasts() {
         LinearLayoutManager linearLayoutManager =
                 new LinearLayoutManager(context);
-        businessPodcastsRecyclerView.setNestedScrollingEnabled(false);
-        businessPodcastsRecyclerView.setLayoutManager(linearLayoutManager);
-        businessPodcastsAdapter = new GenrePodcastsAdapter(this);
-        businessPodcastsRecyclerView.setAdapter(businessPodcastsAdapter);
-        podcastViewModel.getBusinessPodcastsLiveData().observe(this,
-                podcasts -> businessPodcastsAdapter.swapPodcasts(podcasts));
-    }
-
-    private void loadHealthPodcasts() {
-        LinearLayoutManager linearLayoutManager =
-                new LinearLayoutManager(context);
-        healthPodcastsRecyclerView.setNestedScrollingEnabled(false);
-        healthPodcastsRecyclerView.setLayoutManager(linearLayoutManager);
-        healthPodcastsAdapter = new GenrePodcastsAdapter(this);
-        healthPodcastsRecyclerView.setAdapter(healthPodcastsAdapter);
-        podcastViewModel.getHealthPodcastsLiveData().observe(this,
-                podcasts -> healthPodcastsAdapter.swapPodcasts(podcasts));
+        genreSectionsRecyclerView.setNestedScrollingEnabled(false);
+        genreSectionsRecyclerView.setLayoutManager(linearLayoutManager);
+        genreSectionsAdapter = new GenreSectionsAdapter(HomeFeed.GENRE_SECTIONS, this);
+        genreSectionsRecyclerView.setAdapter(genreSectionsAdapter);
+        for (FeedSection section : HomeFeed.GENRE_SECTIONS) {
+            podcastViewModel.getFeedSectionLiveData(section).observe(this,
+                    podcasts -> {
+                        genreSectionsAdapter.swapSectionPodcasts(section, podcasts);
+                        // The new section pushes the ones after it down, maybe off screen
+                        homeScrollView.post(() -> onFeedScrolled(homeScrollView.getScrollY()));
+                    });
+        }
     }
 }
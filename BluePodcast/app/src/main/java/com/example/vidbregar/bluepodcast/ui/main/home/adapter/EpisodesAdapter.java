@@ -5,10 +5,13 @@ import android.support.v7.widget.RecyclerView;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.ImageView;
 import android.widget.TextView;
 
 import com.example.vidbregar.bluepodcast.R;
 import com.example.vidbregar.bluepodcast.model.data.Episode;
+import com.example.vidbregar.bluepodcast.model.database.favorites.FavoriteEntity;
+import com.example.vidbregar.bluepodcast.model.favorites.FavoritesIndex;
 import com.example.vidbregar.bluepodcast.ui.main.home.listener.EpisodeClickListener;
 
 import java.util.List;
@@ -18,11 +21,15 @@ import butterknife.ButterKnife;
 
 public class EpisodesAdapter extends RecyclerView.Adapter<EpisodesAdapter.ViewHolder> {
 
+    private String podcastId;
     private List<Episode> episodes;
     private EpisodeClickListener episodeClickListener;
+    private FavoritesIndex favoritesIndex;
 
-    public EpisodesAdapter(EpisodeClickListener episodeClickListener) {
+    public EpisodesAdapter(EpisodeClickListener episodeClickListener,
+                           FavoritesIndex favoritesIndex) {
         this.episodeClickListener = episodeClickListener;
+        this.favoritesIndex = favoritesIndex;
     }
 
     @NonNull
@@ -36,8 +43,24 @@ public class EpisodesAdapter extends RecyclerView.Adapter<EpisodesAdapter.ViewHo
     @Override
     public void onBindViewHolder(@NonNull ViewHolder viewHolder, int position) {
         Episode episode = episodes.get(position);
+        // Placeholder for an episode whose page is not loaded
+        if (episode == null) {
+            viewHolder.episodeTitleTextView.setText(null);
+            viewHolder.episodeDurationTextView.setText(null);
+            viewHolder.favoriteImageView.setVisibility(View.GONE);
+            return;
+        }
         viewHolder.episodeTitleTextView.setText(episode.getTitle());
         viewHolder.episodeDurationTextView.setText(secondsToMinutes(episode.getAudioLength()));
+        viewHolder.favoriteImageView.setVisibility(isFavorite(episode) ? View.VISIBLE : View.GONE);
+    }
+
+    // Favorites saved before they were keyed by podcast are found by their audio URL
+    private boolean isFavorite(Episode episode) {
+        return (podcastId != null && episode.getId() != null
+                && favoritesIndex.isFavorite(podcastId, episode.getId()))
+                || favoritesIndex.isFavorite(FavoriteEntity.UNKNOWN_PODCAST_ID,
+                FavoriteEntity.fallbackEpisodeId(episode.getAudioUrl(), episode.getTitle()));
     }
 
     private String secondsToMinutes(int seconds) {
@@ -57,6 +80,8 @@ public class EpisodesAdapter extends RecyclerView.Adapter<EpisodesAdapter.ViewHo
         TextView episodeTitleTextView;
         @BindView(R.id.podcast_episode_duration)
         TextView episodeDurationTextView;
+        @BindView(R.id.podcast_episode_favorite)
+        ImageView favoriteImageView;
 
         ViewHolder(@NonNull View itemView) {
             super(itemView);
@@ -66,7 +91,10 @@ public class EpisodesAdapter extends RecyclerView.Adapter<EpisodesAdapter.ViewHo
 
         @Override
         public void onClick(View view) {
-            episodeClickListener.onEpisodeClickListener(episodes.get(getAdapterPosition()));
+            Episode episode = episodes.get(getAdapterPosition());
+            if (episode != null) {
+                episodeClickListener.onEpisodeClickListener(episode);
+            }
         }
     }
 
@@ -74,4 +102,10 @@ public class EpisodesAdapter extends RecyclerView.Adapter<EpisodesAdapter.ViewHo
         this.episodes = episodes;
         notifyDataSetChanged();
     }
+
+    // Podcast of the episodes, which favorites are keyed by
+    public void setPodcastId(String podcastId) {
+        this.podcastId = podcastId;
+        notifyDataSetChanged();
+    }
 }
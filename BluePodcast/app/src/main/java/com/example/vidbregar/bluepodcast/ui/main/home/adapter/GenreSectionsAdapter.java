@@ -0,0 +1,81 @@
+package com.example.vidbregar.bluepodcast.ui.main.home.adapter;
+
+import android.support.annotation.NonNull;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import com.example.vidbregar.bluepodcast.R;
+import com.example.vidbregar.bluepodcast.model.data.Channel;
+import com.example.vidbregar.bluepodcast.model.feed.FeedSection;
+import com.example.vidbregar.bluepodcast.ui.main.home.listener.PodcastClickListener;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import butterknife.BindView;
+import butterknife.ButterKnife;
+
+public class GenreSectionsAdapter extends RecyclerView.Adapter<GenreSectionsAdapter.ViewHolder> {
+
+    private final List<FeedSection> sections;
+    private final Map<FeedSection, List<Channel>> sectionPodcasts = new HashMap<>();
+    private PodcastClickListener podcastClickListener;
+
+    public GenreSectionsAdapter(List<FeedSection> sections, PodcastClickListener podcastClickListener) {
+        this.sections = sections;
+        this.podcastClickListener = podcastClickListener;
+    }
+
+    @NonNull
+    @Override
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View itemView = LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.genre_section_list_item, parent, false);
+        return new ViewHolder(itemView);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder viewHolder, int position) {
+        FeedSection section = sections.get(position);
+        List<Channel> podcasts = sectionPodcasts.get(section);
+        // Sections which have not arrived yet take no space
+        viewHolder.itemView.setVisibility(podcasts == null || podcasts.isEmpty() ? View.GONE : View.VISIBLE);
+        viewHolder.sectionLabelTextView.setText(section.getLabelResId());
+        viewHolder.genrePodcastsAdapter.swapPodcasts(podcasts);
+    }
+
+    @Override
+    public int getItemCount() {
+        return sections.size();
+    }
+
+    class ViewHolder extends RecyclerView.ViewHolder {
+
+        @BindView(R.id.genre_section_label)
+        TextView sectionLabelTextView;
+        @BindView(R.id.genre_section_podcasts_rv)
+        RecyclerView sectionPodcastsRecyclerView;
+        GenrePodcastsAdapter genrePodcastsAdapter;
+
+        ViewHolder(@NonNull View itemView) {
+            super(itemView);
+            ButterKnife.bind(this, itemView);
+            sectionPodcastsRecyclerView.setNestedScrollingEnabled(false);
+            sectionPodcastsRecyclerView.setLayoutManager(new LinearLayoutManager(itemView.getContext()));
+            genrePodcastsAdapter = new GenrePodcastsAdapter(podcastClickListener);
+            sectionPodcastsRecyclerView.setAdapter(genrePodcastsAdapter);
+        }
+    }
+
+    public void swapSectionPodcasts(FeedSection section, List<Channel> podcasts) {
+        int position = sections.indexOf(section);
+        if (position == -1) return;
+        sectionPodcasts.put(section, podcasts);
+        notifyItemChanged(position);
+    }
+}
@@ -8,6 +8,7 @@ import android.os.Bundle;
 import android.support.annotation.Nullable;
 import android.support.constraint.ConstraintLayout;
 import android.support.v4.app.Fragment;
+import android.support.v4.widget.NestedScrollView;
 import android.support.v7.app.AppCompatActivity;
 import android.support.v7.widget.LinearLayoutManager;
 import android.support.v7.widget.RecyclerView;
@@ -26,12 +27,16 @@ import com.example.vidbregar.bluepodcast.R;
 import com.example.vidbregar.bluepodcast.model.data.Channel;
 import com.example.vidbregar.bluepodcast.model.data.Episode;
 import com.example.vidbregar.bluepodcast.model.data.SearchResult;
+import com.example.vidbregar.bluepodcast.model.network.prewarm.ConnectionPrewarmer;
 import com.example.vidbregar.bluepodcast.ui.main.search.adapter.SearchResultsAdapter;
 import com.example.vidbregar.bluepodcast.ui.main.search.listener.SearchResultClickListener;
 import com.example.vidbregar.bluepodcast.ui.player.PlayerActivity;
 import com.example.vidbregar.bluepodcast.viewmodel.SearchViewModel;
 import com.example.vidbregar.bluepodcast.viewmodel.SearchViewModelFactory;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import javax.inject.Inject;
 
 import butterknife.BindView;
@@ -45,7 +50,11 @@ public class SearchFragment extends Fragment implements SearchResultClickListene
 
     @Inject
     SearchViewModelFactory searchViewModelFactory;
+    @Inject
+    ConnectionPrewarmer connectionPrewarmer;
 
+    @BindView(R.id.search_scroll_view)
+    NestedScrollView searchScrollView;
     @BindView(R.id.dismiss_search_btn)
     ImageButton dismissSearchButton;
     @BindView(R.id.search_view)
@@ -107,8 +116,8 @@ public class SearchFragment extends Fragment implements SearchResultClickListene
         searchResultsRecyclerView.setLayoutManager(linearLayoutManager);
         searchResultsAdapter = new SearchResultsAdapter(this);
         searchResultsRecyclerView.setAdapter(searchResultsAdapter);
-        searchViewModel.getSearchResults().observe(this, search -> {
-            if (search.getResults() == null || search.getResults().size() == 0) {
+        searchViewModel.getSearchResults().observe(this, searchResults -> {
+            if (searchResults == null || searchResults.size() == 0) {
                 noResultsFoundContainer.setVisibility(View.VISIBLE);
                 searchLoadingContainer.setVisibility(View.GONE);
                 searchResultsContainer.setVisibility(View.GONE);
@@ -116,15 +125,41 @@ public class SearchFragment extends Fragment implements SearchResultClickListene
                 noResultsFoundContainer.setVisibility(View.GONE);
                 searchLoadingContainer.setVisibility(View.GONE);
                 searchResultsContainer.setVisibility(View.VISIBLE);
-                searchResultsAdapter.swapSearchResults(search.getResults());
+                prefetchAudioHosts(searchResults);
+                searchResultsAdapter.swapSearchResults(searchResults);
+                // A short first page may not fill the screen and can then not be scrolled
+                searchScrollView.post(() -> searchViewModel.onSearchResultsScrolled(
+                        findLastVisibleSearchResult(searchScrollView.getScrollY())));
             }
         });
+        // The results are laid out in full inside the scroll view, so paging follows its position
+        searchScrollView.setOnScrollChangeListener(
+                (NestedScrollView.OnScrollChangeListener) (scrollView, scrollX, scrollY, oldScrollX, oldScrollY) ->
+                        searchViewModel.onSearchResultsScrolled(findLastVisibleSearchResult(scrollY)));
+    }
+
+    private int findLastVisibleSearchResult(int scrollY) {
+        int visibleBottom = scrollY + searchScrollView.getHeight()
+                - searchResultsContainer.getTop() - searchResultsRecyclerView.getTop();
+        View lastVisibleView = searchResultsRecyclerView.findChildViewUnder(0, visibleBottom);
+        if (lastVisibleView == null) {
+            return visibleBottom > 0 ? searchResultsAdapter.getItemCount() - 1 : 0;
+        }
+        return searchResultsRecyclerView.getChildAdapterPosition(lastVisibleView);
+    }
+
+    private void prefetchAudioHosts(List<SearchResult> searchResults) {
+        List<String> audioUrls = new ArrayList<>();
+        for (int i = 0; i < searchResults.size() && i < ConnectionPrewarmer.VISIBLE_EPISODE_COUNT; i++) {
+            audioUrls.add(searchResults.get(i).getAudioUrl());
+        }
+        connectionPrewarmer.prefetchDns(audioUrls);
     }
 
     @Override
     public void onSearchResultClick(SearchResult searchResult) {
         Intent playerActivityIntent = new Intent(getActivity(), PlayerActivity.class);
-        Channel podcast = new Channel(null,
+        Channel podcast = new Channel(searchResult.getPodcastId(),
                 searchResult.getThumbnailUrl(),
                 null,
                 null,
@@ -135,7 +170,7 @@ public class SearchFragment extends Fragment implements SearchResultClickListene
                 null,
                 null,
                 0,
-                null,
+                searchResult.getEpisodeId(),
                 searchResult.getAudioUrl());
         playerActivityIntent.putExtra(PlayerActivity.INTENT_EXTRA_PODCAST, podcast);
         playerActivityIntent.putExtra(PlayerActivity.INTENT_EXTRA_EPISODE, episode);
@@ -168,8 +203,8 @@ public class SearchFragment extends Fragment implements SearchResultClickListene
             }
 
             @Override
-            public void afterTextChanged(Editable s) {
-
+            public void afterTextChanged(Editable editable) {
+                searchViewModel.onQueryChanged(editable.toString().trim());
             }
         });
 
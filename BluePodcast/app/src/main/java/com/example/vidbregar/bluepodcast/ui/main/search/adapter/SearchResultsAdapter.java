@@ -66,7 +66,21 @@ public class SearchResultsAdapter extends RecyclerView.Adapter<SearchResultsAdap
     }
 
     public void swapSearchResults(List<SearchResult> searchResults) {
+        List<SearchResult> previousResults = this.searchResults;
         this.searchResults = searchResults;
-        notifyDataSetChanged();
+        if (isNextPage(previousResults, searchResults)) {
+            // Only bind the new page, the results already shown stay as they are
+            notifyItemRangeInserted(previousResults.size(),
+                    searchResults.size() - previousResults.size());
+        } else {
+            notifyDataSetChanged();
+        }
+    }
+
+    private static boolean isNextPage(List<SearchResult> previousResults,
+                                      List<SearchResult> searchResults) {
+        return previousResults != null && !previousResults.isEmpty() && searchResults != null
+                && searchResults.size() > previousResults.size()
+                && searchResults.get(0) == previousResults.get(0);
     }
 }
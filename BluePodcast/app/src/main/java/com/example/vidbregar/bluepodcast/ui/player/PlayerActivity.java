@@ -5,7 +5,6 @@ import android.content.ComponentName;
 import android.content.Context;
 import android.content.Intent;
 import android.content.ServiceConnection;
-import android.os.AsyncTask;
 import android.os.IBinder;
 import android.support.v7.app.AppCompatActivity;
 import android.os.Bundle;
@@ -63,6 +62,10 @@ public class PlayerActivity extends AppCompatActivity {
         playerViewModel = ViewModelProviders.of(this, playerViewModelFactory).get(PlayerViewModel.class);
         sharedPreferencesUtil.setIsApplicationAlive(true);
         loadData();
+        // Catches the favorites loading after the player opened
+        playerViewModel.getFavoritesChangesLiveData().observe(this, version -> {
+            if (episodeEntity != null) setUpAddToFavorites();
+        });
     }
 
     public void loadData() {
@@ -91,6 +94,8 @@ public class PlayerActivity extends AppCompatActivity {
     }
 
     private void setUpAddToFavorites() {
+        // Restoring the state is not the user adding a favorite
+        addToFavorites.setOnCheckedChangeListener(null);
         restoreFavoritesState();
         addToFavorites.setOnCheckedChangeListener((compoundButton, isChecked) -> {
             if (isChecked) {
@@ -105,11 +110,7 @@ public class PlayerActivity extends AppCompatActivity {
     }
 
     private void restoreFavoritesState() {
-        AsyncTask.execute(() -> {
-            if (playerViewModel.getFavorite(episodeEntity.getEpisodeTitle()) != null) {
-                PlayerActivity.this.runOnUiThread(() -> addToFavorites.setChecked(true));
-            }
-        });
+        addToFavorites.setChecked(playerViewModel.isFavorite(episodeEntity));
     }
 
     private void preparePlayer() {
@@ -8,13 +8,18 @@ import android.content.Intent;
 import android.media.AudioManager;
 import android.net.Uri;
 import android.os.Binder;
+import android.os.Handler;
 import android.os.IBinder;
+import android.os.SystemClock;
 import android.support.annotation.Nullable;
 import android.support.v4.media.session.MediaControllerCompat;
 import android.support.v4.media.session.MediaSessionCompat;
 import android.text.TextUtils;
 
+import com.example.vidbregar.bluepodcast.executor.AppExecutors;
 import com.example.vidbregar.bluepodcast.model.database.episode.EpisodeEntity;
+import com.example.vidbregar.bluepodcast.model.history.ListeningHistoryRecorder;
+import com.example.vidbregar.bluepodcast.model.playback.PlaybackPositionJournal;
 import com.example.vidbregar.bluepodcast.util.NotificationUtil;
 import com.example.vidbregar.bluepodcast.util.SharedPreferencesUtil;
 import com.example.vidbregar.bluepodcast.widget.BluePodcastWidget;
@@ -37,10 +42,24 @@ import com.google.android.exoplayer2.upstream.DefaultBandwidthMeter;
 import com.google.android.exoplayer2.upstream.DefaultHttpDataSourceFactory;
 import com.google.android.exoplayer2.util.Util;
 
+import javax.inject.Inject;
+
+import dagger.android.AndroidInjection;
+
 import static com.example.vidbregar.bluepodcast.ui.player.PlayerConstants.*;
 
 public class PlayerService extends Service implements AudioManager.OnAudioFocusChangeListener, Player.EventListener {
 
+    // Positions go to the journal this often, it decides when they reach the database
+    private static final long POSITION_UPDATE_INTERVAL_MILLIS = 1000;
+
+    @Inject
+    PlaybackPositionJournal playbackPositionJournal;
+    @Inject
+    ListeningHistoryRecorder listeningHistoryRecorder;
+    @Inject
+    AppExecutors appExecutors;
+
     public SimpleExoPlayer simpleExoPlayer;
     private String audioUrl;
     private EpisodeEntity episode;
@@ -51,6 +70,26 @@ public class PlayerService extends Service implements AudioManager.OnAudioFocusC
     private MediaControllerCompat.TransportControls transportControls;
     private SharedPreferencesUtil sharedPreferencesUtil;
     private final IBinder playerBinder = new PlayerBinder();
+    private final Handler handler = new Handler();
+    // Set while the saved position of a new episode is looked up, the player is still at 0
+    private boolean isResuming;
+    // Listening to one episode, until another one is played or playback stops
+    private EpisodeEntity sessionEpisode;
+    private long sessionStartedAt;
+    private long sessionListenedMs;
+    // Part of the session was already handed to the history
+    private boolean isSessionRecorded;
+    // Elapsed realtime listening was last counted at while playing, 0 otherwise
+    private long listeningCountedAt;
+
+    private final Runnable positionUpdate = new Runnable() {
+        @Override
+        public void run() {
+            countListening();
+            recordPosition();
+            handler.postDelayed(this, POSITION_UPDATE_INTERVAL_MILLIS);
+        }
+    };
 
     public class PlayerBinder extends Binder {
         public PlayerService getService() {
@@ -81,6 +120,7 @@ public class PlayerService extends Service implements AudioManager.OnAudioFocusC
 
     @Override
     public void onCreate() {
+        AndroidInjection.inject(this);
         super.onCreate();
         audioManager = (AudioManager) getSystemService(Context.AUDIO_SERVICE);
         notificationUtil = new NotificationUtil(this);
@@ -118,11 +158,80 @@ public class PlayerService extends Service implements AudioManager.OnAudioFocusC
     }
 
     public void initializePlayer(String audioUrl) {
+        // Keeps where the previous episode was left
+        stopPositionUpdates();
+        endSession();
         this.audioUrl = audioUrl;
+        isResuming = true;
 
         MediaSource mediaSource = buildMediaSource(Uri.parse(audioUrl));
         simpleExoPlayer.prepare(mediaSource);
-        simpleExoPlayer.setPlayWhenReady(true);
+        appExecutors.diskIo().execute("playback/resume_position", () -> {
+            long resumePositionMs = playbackPositionJournal.getResumePositionMs(audioUrl);
+            handler.post(() -> {
+                if (!audioUrl.equals(this.audioUrl)) return;
+                isResuming = false;
+                if (resumePositionMs > 0) {
+                    simpleExoPlayer.seekTo(resumePositionMs);
+                }
+                simpleExoPlayer.setPlayWhenReady(true);
+            });
+        });
+    }
+
+    private void recordPosition() {
+        if (audioUrl == null || isResuming
+                || simpleExoPlayer.getPlaybackState() == Player.STATE_IDLE) return;
+        playbackPositionJournal.record(audioUrl, simpleExoPlayer.getCurrentPosition(),
+                simpleExoPlayer.getDuration());
+    }
+
+    private void startPositionUpdates() {
+        if (sessionEpisode == null) {
+            sessionEpisode = episode;
+            sessionStartedAt = System.currentTimeMillis();
+        }
+        countListening();
+        listeningCountedAt = SystemClock.elapsedRealtime();
+        handler.removeCallbacks(positionUpdate);
+        handler.postDelayed(positionUpdate, POSITION_UPDATE_INTERVAL_MILLIS);
+    }
+
+    // A paused or finished episode is written right away
+    private void stopPositionUpdates() {
+        handler.removeCallbacks(positionUpdate);
+        countListening();
+        listeningCountedAt = 0;
+        savePosition();
+    }
+
+    private void countListening() {
+        if (listeningCountedAt == 0) return;
+        long now = SystemClock.elapsedRealtime();
+        sessionListenedMs += now - listeningCountedAt;
+        listeningCountedAt = now;
+    }
+
+    // Hands the session to the history, which writes it with the next batch
+    private void endSession() {
+        recordSession();
+        sessionEpisode = null;
+        isSessionRecorded = false;
+    }
+
+    // Hands what was listened so far to the history, the rest is recorded as its continuation
+    private void recordSession() {
+        countListening();
+        if (sessionEpisode == null || sessionListenedMs <= 0) return;
+        listeningHistoryRecorder.record(sessionEpisode, sessionStartedAt, sessionListenedMs,
+                isSessionRecorded);
+        sessionListenedMs = 0;
+        isSessionRecorded = true;
+    }
+
+    private void savePosition() {
+        recordPosition();
+        playbackPositionJournal.flush();
     }
 
     private MediaSource buildMediaSource(Uri audioUrl) {
@@ -238,6 +347,15 @@ public class PlayerService extends Service implements AudioManager.OnAudioFocusC
                 break;
         }
 
+        if (playerStatus.equals(PLAYING)) {
+            startPositionUpdates();
+        } else if (!playerStatus.equals(LOADING)) {
+            stopPositionUpdates();
+        }
+        if (playerStatus.equals(STOPPED)) {
+            endSession();
+        }
+
         if (!playerStatus.equals(IDLE))
             notificationUtil.startNotification(playerStatus, episode);
     }
@@ -261,6 +379,10 @@ public class PlayerService extends Service implements AudioManager.OnAudioFocusC
     }
 
     public void stop() {
+        // Stopping resets the player to idle, where there is no position left to record
+        stopPositionUpdates();
+        endSession();
+        listeningHistoryRecorder.flush();
         simpleExoPlayer.stop();
         audioManager.abandonAudioFocus(this);
     }
@@ -299,8 +421,21 @@ public class PlayerService extends Service implements AudioManager.OnAudioFocusC
         sendBroadcast(intent);
     }
 
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        // The process may be killed next, but playback may also go on in the same session
+        savePosition();
+        recordSession();
+        listeningHistoryRecorder.flush();
+    }
+
     @Override
     public void onDestroy() {
+        handler.removeCallbacksAndMessages(null);
+        stopPositionUpdates();
+        endSession();
+        listeningHistoryRecorder.flush();
         pause();
         simpleExoPlayer.release();
         simpleExoPlayer.removeListener(this);
@@ -342,7 +477,13 @@ public class PlayerService extends Service implements AudioManager.OnAudioFocusC
     @Override
     public void onPlaybackParametersChanged(PlaybackParameters playbackParameters) { }
 
-    @Override
-    public void onSeekProcessed() { }
     // @formatter:on
+
+    @Override
+    public void onSeekProcessed() {
+        recordPosition();
+        if (!isPlaying()) {
+            playbackPositionJournal.flush();
+        }
+    }
 }
\ No newline at end of file
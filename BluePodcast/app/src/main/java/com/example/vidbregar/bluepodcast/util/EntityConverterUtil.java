@@ -1,14 +1,101 @@
 package com.example.vidbregar.bluepodcast.util;
 
+import com.example.vidbregar.bluepodcast.model.data.Channel;
+import com.example.vidbregar.bluepodcast.model.data.Episode;
+import com.example.vidbregar.bluepodcast.model.database.catalog.CatalogEpisodeEntity;
+import com.example.vidbregar.bluepodcast.model.database.catalog.ChannelEntity;
 import com.example.vidbregar.bluepodcast.model.database.episode.EpisodeEntity;
 import com.example.vidbregar.bluepodcast.model.database.favorites.FavoriteEntity;
 
 public class EntityConverterUtil {
 
-    public static FavoriteEntity episodeEntityToFavoriteEntity(EpisodeEntity episodeEntity) {
-        return new FavoriteEntity(episodeEntity.getEpisodeTitle(),
+    public static FavoriteEntity episodeEntityToFavoriteEntity(EpisodeEntity episodeEntity,
+                                                               long addedAt) {
+        return new FavoriteEntity(favoritePodcastIdOf(episodeEntity),
+                favoriteEpisodeIdOf(episodeEntity),
+                episodeEntity.getEpisodeTitle(),
                 episodeEntity.getThumbnailUrl(),
                 episodeEntity.getPublisher(),
+                episodeEntity.getAudioUrl(),
+                addedAt);
+    }
+
+    // Episodes opened from a search hit or an old favorite may come without ids
+    public static String favoritePodcastIdOf(EpisodeEntity episodeEntity) {
+        return episodeEntity.getPodcastId() != null && episodeEntity.getEpisodeId() != null
+                ? episodeEntity.getPodcastId()
+                : FavoriteEntity.UNKNOWN_PODCAST_ID;
+    }
+
+    public static String favoriteEpisodeIdOf(EpisodeEntity episodeEntity) {
+        return episodeEntity.getPodcastId() != null && episodeEntity.getEpisodeId() != null
+                ? episodeEntity.getEpisodeId()
+                : FavoriteEntity.fallbackEpisodeId(episodeEntity.getAudioUrl(),
+                episodeEntity.getEpisodeTitle());
+    }
+
+    public static ChannelEntity channelToChannelEntity(Channel channel) {
+        return new ChannelEntity(channel.getId(),
+                channel.getThumbnailUrl(),
+                channel.getLatestPubDateMs(),
+                channel.getWebsite(),
+                channel.getPublisher(),
+                channel.getTitle(),
+                channel.getDescription());
+    }
+
+    public static Channel channelEntityToChannel(ChannelEntity channelEntity) {
+        return new Channel(channelEntity.getId(),
+                channelEntity.getThumbnailUrl(),
+                channelEntity.getLatestPubDateMs(),
+                channelEntity.getWebsite(),
+                channelEntity.getPublisher(),
+                channelEntity.getTitle(),
+                channelEntity.getDescription());
+    }
+
+    public static CatalogEpisodeEntity episodeToCatalogEpisodeEntity(Episode episode, String channelId) {
+        return new CatalogEpisodeEntity(episode.getId(),
+                channelId,
+                episode.getTitle(),
+                parsePubDate(episode.getPublicationDateMilliseconds()),
+                toPlainText(episode.getDescription()),
+                episode.getAudioLength(),
+                episode.getAudioUrl());
+    }
+
+    public static Episode catalogEpisodeEntityToEpisode(CatalogEpisodeEntity episodeEntity) {
+        return new Episode(episodeEntity.getTitle(),
+                String.valueOf(episodeEntity.getPubDateMs()),
+                episodeEntity.getDescription(),
+                episodeEntity.getAudioLength(),
+                episodeEntity.getId(),
                 episodeEntity.getAudioUrl());
     }
+
+    /**
+     * Strips the markup ListenNotes descriptions come with, the catalog keeps them as text to be
+     * searched.
+     */
+    public static String toPlainText(String html) {
+        if (html == null) return null;
+        return html.replaceAll("<[^>]*>", " ")
+                .replace("&nbsp;", " ")
+                .replace("&lt;", "<")
+                .replace("&gt;", ">")
+                .replace("&quot;", "\"")
+                .replace("&#39;", "'")
+                .replace("&amp;", "&")
+                .replaceAll("\\s+", " ")
+                .trim();
+    }
+
+    private static long parsePubDate(String pubDateMs) {
+        if (pubDateMs == null) return 0;
+        try {
+            return Long.parseLong(pubDateMs);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
 }
@@ -2,21 +2,38 @@ package com.example.vidbregar.bluepodcast.viewmodel;
 
 import android.arch.lifecycle.LiveData;
 import android.arch.lifecycle.ViewModel;
+import android.arch.paging.LivePagedListBuilder;
+import android.arch.paging.PagedList;
 
+import com.example.vidbregar.bluepodcast.executor.AppExecutors;
+import com.example.vidbregar.bluepodcast.model.database.BluePodcastDatabase;
 import com.example.vidbregar.bluepodcast.model.database.favorites.FavoriteEntity;
-import com.example.vidbregar.bluepodcast.model.database.favorites.FavoritesDatabase;
-
-import java.util.List;
 
 public class FavoritesViewModel extends ViewModel {
 
-    private FavoritesDatabase favoritesDatabase;
+    // A screen and a half of rows, the first page is all the first frame waits for
+    private static final PagedList.Config PAGED_LIST_CONFIG = new PagedList.Config.Builder()
+            .setPageSize(20)
+            .setPrefetchDistance(10)
+            .setEnablePlaceholders(true)
+            .build();
+
+    private BluePodcastDatabase database;
+    private AppExecutors appExecutors;
+    private LiveData<PagedList<FavoriteEntity>> favorites;
 
-    public FavoritesViewModel(FavoritesDatabase favoritesDatabase) {
-        this.favoritesDatabase = favoritesDatabase;
+    public FavoritesViewModel(BluePodcastDatabase database, AppExecutors appExecutors) {
+        this.database = database;
+        this.appExecutors = appExecutors;
     }
 
-    public LiveData<List<FavoriteEntity>> getFavorites() {
-        return favoritesDatabase.favoritesDao().getAllFavorites();
+    public LiveData<PagedList<FavoriteEntity>> getFavorites() {
+        if (favorites == null) {
+            favorites = new LivePagedListBuilder<>(database.favoritesDao().getFavoritesByAddedAt(),
+                    PAGED_LIST_CONFIG)
+                    .setFetchExecutor(appExecutors.diskIo().tagged("favorites/load_page"))
+                    .build();
+        }
+        return favorites;
     }
 }
@@ -2,19 +2,22 @@ package com.example.vidbregar.bluepodcast.viewmodel;
 
 import android.arch.lifecycle.ViewModelProvider;
 
-import com.example.vidbregar.bluepodcast.model.database.favorites.FavoritesDatabase;
+import com.example.vidbregar.bluepodcast.executor.AppExecutors;
+import com.example.vidbregar.bluepodcast.model.database.BluePodcastDatabase;
 
 public class FavoritesViewModelFactory implements ViewModelProvider.Factory {
 
-    private final FavoritesDatabase favoritesDatabase;
+    private final BluePodcastDatabase database;
+    private final AppExecutors appExecutors;
 
-    public FavoritesViewModelFactory(FavoritesDatabase favoritesDatabase) {
-        this.favoritesDatabase = favoritesDatabase;
+    public FavoritesViewModelFactory(BluePodcastDatabase database, AppExecutors appExecutors) {
+        this.database = database;
+        this.appExecutors = appExecutors;
     }
 
     @Override
     public FavoritesViewModel create(Class modelClass) {
-        return new FavoritesViewModel(favoritesDatabase);
+        return new FavoritesViewModel(database, appExecutors);
     }
 
 }
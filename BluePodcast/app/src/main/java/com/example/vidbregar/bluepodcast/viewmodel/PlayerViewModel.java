@@ -3,15 +3,15 @@ package com.example.vidbregar.bluepodcast.viewmodel;
 import android.arch.lifecycle.LiveData;
 import android.arch.lifecycle.MutableLiveData;
 import android.arch.lifecycle.ViewModel;
-import android.os.AsyncTask;
 import android.os.Bundle;
 
+import com.example.vidbregar.bluepodcast.executor.AppExecutors;
+import com.example.vidbregar.bluepodcast.executor.InstrumentedExecutor;
 import com.example.vidbregar.bluepodcast.model.data.Channel;
 import com.example.vidbregar.bluepodcast.model.data.Episode;
-import com.example.vidbregar.bluepodcast.model.database.episode.EpisodeDatabase;
+import com.example.vidbregar.bluepodcast.model.database.BluePodcastDatabase;
 import com.example.vidbregar.bluepodcast.model.database.episode.EpisodeEntity;
-import com.example.vidbregar.bluepodcast.model.database.favorites.FavoriteEntity;
-import com.example.vidbregar.bluepodcast.model.database.favorites.FavoritesDatabase;
+import com.example.vidbregar.bluepodcast.model.favorites.FavoritesIndex;
 import com.example.vidbregar.bluepodcast.util.EntityConverterUtil;
 import com.google.firebase.analytics.FirebaseAnalytics;
 
@@ -20,29 +20,35 @@ public class PlayerViewModel extends ViewModel {
     private static final String EPISODE_TITLE_FIREBASE_PARAM = "episode_title";
     private static final String ADD_TO_FAVORITES_FIREBASE_EVENT = "add_to_favorites";
 
-    private EpisodeDatabase episodeDatabase;
-    private FavoritesDatabase favoritesDatabase;
+    private BluePodcastDatabase database;
+    // Tagged per query, so the latency of the player screen shows up in the executor telemetry
+    private InstrumentedExecutor diskIo;
+    private FavoritesIndex favoritesIndex;
     private FirebaseAnalytics firebaseAnalytics;
     private MutableLiveData<EpisodeEntity> episodeEntityLiveData;
     private boolean isBound;
     private boolean isAddedToFavorites;
 
-    public PlayerViewModel(EpisodeDatabase episodeDatabase,
-                           FavoritesDatabase favoritesDatabase,
+    public PlayerViewModel(BluePodcastDatabase database,
+                           AppExecutors appExecutors,
+                           FavoritesIndex favoritesIndex,
                            FirebaseAnalytics firebaseAnalytics) {
-        this.episodeDatabase = episodeDatabase;
-        this.favoritesDatabase = favoritesDatabase;
+        this.database = database;
+        this.diskIo = appExecutors.diskIo();
+        this.favoritesIndex = favoritesIndex;
         this.firebaseAnalytics = firebaseAnalytics;
         this.episodeEntityLiveData = new MutableLiveData<>();
     }
 
     public void putEpisode(Channel podcast, Episode episode) {
-        AsyncTask.execute(() -> {
-            episodeDatabase.episodeDao().updateEpisode(podcast.getThumbnailUrl(),
+        diskIo.execute("player/put_episode", () -> {
+            database.episodeDao().updateEpisode(podcast.getThumbnailUrl(),
                     episode.getTitle(),
                     podcast.getPublisher(),
-                    episode.getAudioUrl());
-            EpisodeEntity episodeEntity = episodeDatabase.episodeDao().getEpisode();
+                    episode.getAudioUrl(),
+                    podcast.getId(),
+                    episode.getId());
+            EpisodeEntity episodeEntity = database.episodeDao().getEpisode();
             episodeEntityLiveData.postValue(episodeEntity);
         });
     }
@@ -52,30 +58,28 @@ public class PlayerViewModel extends ViewModel {
     }
 
     public void notifyEpisodeLiveData() {
-        AsyncTask.execute(() -> episodeEntityLiveData.postValue(episodeDatabase.episodeDao().getEpisode()));
+        diskIo.execute("player/get_episode",
+                () -> episodeEntityLiveData.postValue(database.episodeDao().getEpisode()));
     }
 
     public void addFavorite(EpisodeEntity episodeEntity) {
-        AsyncTask.execute(() -> {
-            if (getFavorite(episodeEntity.getEpisodeTitle()) == null) {
-                favoritesDatabase.favoritesDao()
-                        .insertFavorite(EntityConverterUtil.episodeEntityToFavoriteEntity(episodeEntity));
-            }
-        });
+        favoritesIndex.add(EntityConverterUtil.episodeEntityToFavoriteEntity(episodeEntity,
+                System.currentTimeMillis()));
+    }
+
+    // Answered from memory, safe to call on the main thread
+    public boolean isFavorite(EpisodeEntity episodeEntity) {
+        return favoritesIndex.isFavorite(EntityConverterUtil.favoritePodcastIdOf(episodeEntity),
+                EntityConverterUtil.favoriteEpisodeIdOf(episodeEntity));
     }
 
-    public FavoriteEntity getFavorite(String episodeTitle) {
-        return favoritesDatabase.favoritesDao().getFavorite(episodeTitle);
+    public LiveData<Integer> getFavoritesChangesLiveData() {
+        return favoritesIndex.getChangesLiveData();
     }
 
     public void removeFavorite(EpisodeEntity episodeEntity) {
-        AsyncTask.execute(() -> {
-            if (getFavorite(episodeEntity.getEpisodeTitle()) != null) {
-                favoritesDatabase.favoritesDao()
-                        .removeFavorite(EntityConverterUtil.episodeEntityToFavoriteEntity(episodeEntity)
-                                .getEpisodeTitle());
-            }
-        });
+        favoritesIndex.remove(EntityConverterUtil.favoritePodcastIdOf(episodeEntity),
+                EntityConverterUtil.favoriteEpisodeIdOf(episodeEntity));
     }
 
     public boolean isBound() {
@@ -2,27 +2,31 @@ package com.example.vidbregar.bluepodcast.viewmodel;
 
 import android.arch.lifecycle.ViewModelProvider;
 
-import com.example.vidbregar.bluepodcast.model.database.episode.EpisodeDatabase;
-import com.example.vidbregar.bluepodcast.model.database.favorites.FavoritesDatabase;
+import com.example.vidbregar.bluepodcast.executor.AppExecutors;
+import com.example.vidbregar.bluepodcast.model.database.BluePodcastDatabase;
+import com.example.vidbregar.bluepodcast.model.favorites.FavoritesIndex;
 import com.google.firebase.analytics.FirebaseAnalytics;
 
 
 public class PlayerViewModelFactory implements ViewModelProvider.Factory {
 
-    private final EpisodeDatabase episodeDatabase;
-    private final FavoritesDatabase favoritesDatabase;
+    private final BluePodcastDatabase database;
+    private final AppExecutors appExecutors;
+    private final FavoritesIndex favoritesIndex;
     private final FirebaseAnalytics firebaseAnalytics;
 
-    public PlayerViewModelFactory(EpisodeDatabase episodeDatabase,
-                                  FavoritesDatabase favoritesDatabase,
+    public PlayerViewModelFactory(BluePodcastDatabase database,
+                                  AppExecutors appExecutors,
+                                  FavoritesIndex favoritesIndex,
                                   FirebaseAnalytics firebaseAnalytics) {
-        this.episodeDatabase = episodeDatabase;
-        this.favoritesDatabase = favoritesDatabase;
+        this.database = database;
+        this.appExecutors = appExecutors;
+        this.favoritesIndex = favoritesIndex;
         this.firebaseAnalytics = firebaseAnalytics;
     }
 
     @Override
     public PlayerViewModel create(Class modelClass) {
-        return new PlayerViewModel(episodeDatabase, favoritesDatabase, firebaseAnalytics);
+        return new PlayerViewModel(database, appExecutors, favoritesIndex, firebaseAnalytics);
     }
 }
\ No newline at end of file
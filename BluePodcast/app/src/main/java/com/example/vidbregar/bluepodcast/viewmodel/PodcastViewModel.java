@@ -1,175 +1,165 @@
 package com.example.vidbregar.bluepodcast.viewmodel;
 
+import android.arch.lifecycle.LiveData;
+import android.arch.lifecycle.MediatorLiveData;
 import android.arch.lifecycle.MutableLiveData;
 import android.arch.lifecycle.ViewModel;
 import android.util.Log;
 
 import com.example.vidbregar.bluepodcast.BuildConfig;
+import com.example.vidbregar.bluepodcast.executor.AppExecutors;
+import com.example.vidbregar.bluepodcast.model.catalog.CatalogRepository;
 import com.example.vidbregar.bluepodcast.model.data.Channel;
 import com.example.vidbregar.bluepodcast.model.data.Episode;
-import com.example.vidbregar.bluepodcast.model.data.Podcast;
-import com.example.vidbregar.bluepodcast.model.data.PodcastGenre;
+import com.example.vidbregar.bluepodcast.model.episode.EpisodePagingSource;
+import com.example.vidbregar.bluepodcast.model.feed.FeedLoader;
+import com.example.vidbregar.bluepodcast.model.feed.FeedSection;
+import com.example.vidbregar.bluepodcast.model.feed.HomeFeed;
 import com.example.vidbregar.bluepodcast.model.network.PodcastService;
 import com.example.vidbregar.bluepodcast.util.SharedPreferencesUtil;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
+import java.util.Map;
 
 public class PodcastViewModel extends ViewModel {
 
-    private static final int COMEDY_GENRE_ID = 133;
-    private static final int BUSINESS_GENRE_ID = 93;
-    private static final int HEALTH_GENRE_ID = 88;
+    private static final String TAG = PodcastViewModel.class.getSimpleName();
+    // Sections past this limit are queued so the carousel does not compete with every genre
+    private static final int MAX_CONCURRENT_FEED_REQUESTS = 4;
     private static final String LISTEN_NOTES_API_KEY = BuildConfig.LISTEN_NOTES_API_KEY;
 
     private PodcastService podcastService;
+    private CatalogRepository catalogRepository;
     // Podcasts
-    private MutableLiveData<List<Channel>> bestPodcastsLiveData;
-    private MutableLiveData<List<Channel>> comedyPodcastsLiveData;
-    private MutableLiveData<List<Channel>> businessPodcastsLiveData;
-    private MutableLiveData<List<Channel>> healthPodcastsLiveData;
+    private FeedLoader feedLoader;
+    private Map<FeedSection, LiveData<List<Channel>>> feedSectionsLiveData;
     private Channel selectedPodcast;
     // Episodes
-    private MutableLiveData<List<Episode>> episodesLiveData;
+    private MediatorLiveData<List<Episode>> episodesLiveData;
+    private LiveData<List<Episode>> catalogEpisodesLiveData;
+    // Set once the paging source delivers, from then on the catalog only stores its pages
+    private volatile boolean isShowingPagedEpisodes;
+    private EpisodePagingSource episodePagingSource;
     // Layout
     private boolean isOnPodcastDetailLayout;
     private SharedPreferencesUtil sharedPreferencesUtil;
+    private AppExecutors appExecutors;
 
-    public PodcastViewModel(PodcastService podcastService, SharedPreferencesUtil sharedPreferencesUtil) {
+    public PodcastViewModel(PodcastService podcastService, CatalogRepository catalogRepository,
+                            SharedPreferencesUtil sharedPreferencesUtil, AppExecutors appExecutors) {
         this.podcastService = podcastService;
+        this.catalogRepository = catalogRepository;
         this.sharedPreferencesUtil = sharedPreferencesUtil;
+        this.appExecutors = appExecutors;
     }
 
-    public MutableLiveData<List<Channel>> getBestPodcastsLiveData() {
-        if (bestPodcastsLiveData == null) {
-            bestPodcastsLiveData = new MutableLiveData<>();
-            getBestPodcasts();
+    /**
+     * Podcasts of the section from the catalog, which the home feed request updates.
+     */
+    public LiveData<List<Channel>> getFeedSectionLiveData(FeedSection section) {
+        if (feedSectionsLiveData == null) {
+            loadHomeFeed();
         }
-        return bestPodcastsLiveData;
+        return feedSectionsLiveData.get(section);
     }
 
-    public MutableLiveData<List<Channel>> getComedyPodcastsLiveData() {
-        if (comedyPodcastsLiveData == null) {
-            comedyPodcastsLiveData = new MutableLiveData<>();
-            getComedyPodcasts();
+    private void loadHomeFeed() {
+        List<FeedSection> sections = HomeFeed.getAllSections();
+        feedSectionsLiveData = new HashMap<>();
+        for (FeedSection section : sections) {
+            feedSectionsLiveData.put(section, catalogRepository.getSection(section));
         }
-        return comedyPodcastsLiveData;
+        feedLoader = new FeedLoader(podcastService, LISTEN_NOTES_API_KEY, MAX_CONCURRENT_FEED_REQUESTS,
+                new FeedLoader.Listener() {
+                    @Override
+                    public void onSectionLoaded(FeedSection section, List<Channel> podcasts, long elapsedMillis) {
+                        if (elapsedMillis > section.getLatencyBudgetMillis()) {
+                            Log.w(TAG, "Genre " + section.getGenreId() + " took " + elapsedMillis
+                                    + "ms, budget is " + section.getLatencyBudgetMillis() + "ms");
+                        }
+                        catalogRepository.saveSection(section, podcasts);
+                    }
+
+                    @Override
+                    public void onSectionFailed(FeedSection section, Throwable t, long elapsedMillis) {
+                        Log.e("ERROR", "Genre " + section.getGenreId() + ": " + t.getMessage());
+                    }
+                });
+        feedLoader.load(sections);
     }
 
-    public MutableLiveData<List<Channel>> getBusinessPodcastsLiveData() {
-        if (businessPodcastsLiveData == null) {
-            businessPodcastsLiveData = new MutableLiveData<>();
-            getBusinessPodcasts();
+    /**
+     * Loads the sections on screen before everything else, see {@link FeedLoader}.
+     */
+    public void onFeedSectionsVisible(List<FeedSection> visibleSections) {
+        if (feedLoader != null) {
+            feedLoader.onSectionsVisible(visibleSections);
         }
-        return businessPodcastsLiveData;
     }
 
-    public MutableLiveData<List<Channel>> getHealthPodcastsLiveData() {
-        if (healthPodcastsLiveData == null) {
-            healthPodcastsLiveData = new MutableLiveData<>();
-            getHealthPodcasts();
-        }
-        return healthPodcastsLiveData;
+    public Map<FeedSection, Long> getFeedLatencies() {
+        if (feedLoader == null) return Collections.emptyMap();
+        return feedLoader.getLatencies();
     }
 
     public MutableLiveData<List<Episode>> getEpisodesLiveData() {
         if (episodesLiveData == null) {
-            episodesLiveData = new MutableLiveData<>();
+            episodesLiveData = new MediatorLiveData<>();
         }
         return episodesLiveData;
     }
 
+    /**
+     * Shows the episodes of the podcast stored in the catalog, offline too, until the paging
+     * source delivers its first page. Paged episodes keep their placeholders for dropped pages,
+     * so they are shown as they come and stored in the catalog along the way.
+     */
     public void getEpisodesFromApi(String podcastId) {
-        Call<Podcast> podcastCall = podcastService.getPodcast(LISTEN_NOTES_API_KEY, podcastId);
-        podcastCall.enqueue(new Callback<Podcast>() {
-            @Override
-            public void onResponse(Call<Podcast> call, Response<Podcast> response) {
-                if (response.isSuccessful()) {
-                    Log.e("SUCCESS", response.body().getTitle());
-                    episodesLiveData.setValue(response.body().getEpisodes());
-                }
-            }
-
-            @Override
-            public void onFailure(Call<Podcast> call, Throwable t) {
-                Log.e("ERROR", t.getMessage());
-            }
-        });
-    }
-
-    private void getBestPodcasts() {
-        Call<PodcastGenre> bestPodcastsCall = podcastService.getBestPodcasts(LISTEN_NOTES_API_KEY);
-        bestPodcastsCall.enqueue(new Callback<PodcastGenre>() {
-            @Override
-            public void onResponse(Call<PodcastGenre> call, Response<PodcastGenre> response) {
-                if (response.isSuccessful()) {
-                    Log.e("SUCCESS", response.body().getName());
-                    bestPodcastsLiveData.setValue(response.body().getChannels());
-                }
-            }
-
-            @Override
-            public void onFailure(Call<PodcastGenre> call, Throwable t) {
-                Log.e("ERROR", t.getMessage());
-            }
-        });
-    }
-
-    private void getComedyPodcasts() {
-        Call<PodcastGenre> comedyPodcastsCall = podcastService.getGenrePodcasts(LISTEN_NOTES_API_KEY, COMEDY_GENRE_ID);
-        comedyPodcastsCall.enqueue(new Callback<PodcastGenre>() {
-            @Override
-            public void onResponse(Call<PodcastGenre> call, Response<PodcastGenre> response) {
-                if (response.isSuccessful()) {
-                    Log.e("SUCCESS", response.body().getName());
-                    comedyPodcastsLiveData.setValue(response.body().getChannels());
-                }
-            }
-
-            @Override
-            public void onFailure(Call<PodcastGenre> call, Throwable t) {
-                Log.e("ERROR", t.getMessage());
-            }
-        });
-    }
-
-    private void getBusinessPodcasts() {
-        Call<PodcastGenre> comedyPodcastsCall = podcastService.getGenrePodcasts(LISTEN_NOTES_API_KEY, BUSINESS_GENRE_ID);
-        comedyPodcastsCall.enqueue(new Callback<PodcastGenre>() {
-            @Override
-            public void onResponse(Call<PodcastGenre> call, Response<PodcastGenre> response) {
-                if (response.isSuccessful()) {
-                    Log.e("SUCCESS", response.body().getName());
-                    businessPodcastsLiveData.setValue(response.body().getChannels());
-                }
-            }
-
-            @Override
-            public void onFailure(Call<PodcastGenre> call, Throwable t) {
-                Log.e("ERROR", t.getMessage());
-            }
+        // Same podcast is already paging, e.g. after the fragment was recreated
+        if (episodePagingSource != null && podcastId.equals(episodePagingSource.getPodcastId())) {
+            return;
+        }
+        if (episodePagingSource != null) {
+            episodePagingSource.cancel();
+        }
+        getEpisodesLiveData();
+        if (catalogEpisodesLiveData != null) {
+            episodesLiveData.removeSource(catalogEpisodesLiveData);
+        }
+        isShowingPagedEpisodes = false;
+        catalogEpisodesLiveData = catalogRepository.getEpisodes(podcastId);
+        episodesLiveData.addSource(catalogEpisodesLiveData, episodes -> {
+            if (!isShowingPagedEpisodes) episodesLiveData.setValue(episodes);
         });
+        EpisodePagingSource pagingSource = new EpisodePagingSource(podcastService,
+                LISTEN_NOTES_API_KEY, podcastId, appExecutors.network().tagged("podcast/episode_page"),
+                new EpisodePagingSource.Listener() {
+                    @Override
+                    public void onEpisodes(List<Episode> episodes, boolean hasMore) {
+                        isShowingPagedEpisodes = true;
+                        catalogRepository.saveEpisodes(podcastId, episodes);
+                        episodesLiveData.postValue(episodes);
+                    }
+
+                    @Override
+                    public void onPageFailed(int page, Throwable t) {
+                        Log.e("ERROR", "Episode page " + page + " of " + podcastId + ": " + t.getMessage());
+                    }
+                });
+        episodePagingSource = pagingSource;
+        pagingSource.load();
     }
 
-    private void getHealthPodcasts() {
-        Call<PodcastGenre> comedyPodcastsCall = podcastService.getGenrePodcasts(LISTEN_NOTES_API_KEY, HEALTH_GENRE_ID);
-        comedyPodcastsCall.enqueue(new Callback<PodcastGenre>() {
-            @Override
-            public void onResponse(Call<PodcastGenre> call, Response<PodcastGenre> response) {
-                if (response.isSuccessful()) {
-                    Log.e("SUCCESS", response.body().getName());
-                    healthPodcastsLiveData.setValue(response.body().getChannels());
-                }
-            }
-
-            @Override
-            public void onFailure(Call<PodcastGenre> call, Throwable t) {
-                Log.e("ERROR", t.getMessage());
-            }
-        });
+    /**
+     * Lets the paging source prefetch the next page, or load a dropped one again, for the
+     * episodes on screen.
+     */
+    public void onEpisodesScrolled(int firstVisiblePosition, int lastVisiblePosition) {
+        if (episodePagingSource != null) {
+            episodePagingSource.onScrolled(firstVisiblePosition, lastVisiblePosition);
+        }
     }
 
     public Channel getSelectedPodcast() {
@@ -188,4 +178,15 @@ public class PodcastViewModel extends ViewModel {
         sharedPreferencesUtil.setIsOnPodcastDetailLayout(isOnPodcastDetailLayout);
         this.isOnPodcastDetailLayout = isOnPodcastDetailLayout;
     }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        if (feedLoader != null) {
+            feedLoader.cancel();
+        }
+        if (episodePagingSource != null) {
+            episodePagingSource.cancel();
+        }
+    }
 }
@@ -2,21 +2,30 @@ package com.example.vidbregar.bluepodcast.viewmodel;
 
 import android.arch.lifecycle.ViewModelProvider;
 
+import com.example.vidbregar.bluepodcast.executor.AppExecutors;
+import com.example.vidbregar.bluepodcast.model.catalog.CatalogRepository;
 import com.example.vidbregar.bluepodcast.model.network.PodcastService;
 import com.example.vidbregar.bluepodcast.util.SharedPreferencesUtil;
 
 public class PodcastViewModelFactory implements ViewModelProvider.Factory {
 
     private final PodcastService podcastService;
+    private final CatalogRepository catalogRepository;
     private final SharedPreferencesUtil sharedPreferencesUtil;
+    private final AppExecutors appExecutors;
 
-    public PodcastViewModelFactory(PodcastService podcastService, SharedPreferencesUtil sharedPreferencesUtil) {
+    public PodcastViewModelFactory(PodcastService podcastService, CatalogRepository catalogRepository,
+                                   SharedPreferencesUtil sharedPreferencesUtil,
+                                   AppExecutors appExecutors) {
         this.podcastService = podcastService;
+        this.catalogRepository = catalogRepository;
         this.sharedPreferencesUtil = sharedPreferencesUtil;
+        this.appExecutors = appExecutors;
     }
 
     @Override
     public PodcastViewModel create(Class modelClass) {
-        return new PodcastViewModel(podcastService, sharedPreferencesUtil);
+        return new PodcastViewModel(podcastService, catalogRepository, sharedPreferencesUtil,
+                appExecutors);
     }
 }
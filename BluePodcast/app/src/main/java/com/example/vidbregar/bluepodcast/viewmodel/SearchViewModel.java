@@ -4,50 +4,152 @@ import android.arch.lifecycle.LiveData;
 import android.arch.lifecycle.MutableLiveData;
 import android.arch.lifecycle.ViewModel;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
 
 import com.example.vidbregar.bluepodcast.BuildConfig;
-import com.example.vidbregar.bluepodcast.model.data.Search;
+import com.example.vidbregar.bluepodcast.model.data.SearchResult;
+import com.example.vidbregar.bluepodcast.model.database.search.LocalSearchIndex;
 import com.example.vidbregar.bluepodcast.model.network.PodcastService;
+import com.example.vidbregar.bluepodcast.model.search.PrefixResultCache;
+import com.example.vidbregar.bluepodcast.model.search.SearchPager;
+import com.example.vidbregar.bluepodcast.model.search.SearchResultMerger;
 import com.google.firebase.analytics.FirebaseAnalytics;
 
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
 
-public class SearchViewModel extends ViewModel {
+public class SearchViewModel extends ViewModel implements SearchPager.Listener {
 
     private static final String API_KEY = BuildConfig.LISTEN_NOTES_API_KEY;
+    private static final long SEARCH_DEBOUNCE_MILLIS = 300;
+    private static final int MIN_QUERY_LENGTH = 2;
+    private static final int MAX_LOCAL_RESULTS = 20;
 
-    private PodcastService podcastService;
     private FirebaseAnalytics firebaseAnalytics;
-    private MutableLiveData<Search> searchLiveData;
+    private MutableLiveData<List<SearchResult>> searchResultsLiveData;
+    private SearchPager searchPager;
+    private LocalSearchIndex localSearchIndex;
+    private Executor localSearchExecutor;
+    private final PrefixResultCache prefixResultCache = new PrefixResultCache();
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private Runnable pendingSearch;
+    // The query in the search view and the query the pager is loading
+    private String typedQuery;
+    private String searchedQuery;
+    // Shown merged, local hits first. Both are for the typed query.
+    private String localQuery;
+    private List<SearchResult> localResults = Collections.emptyList();
+    private List<SearchResult> remoteResults = Collections.emptyList();
 
     public SearchViewModel(PodcastService podcastService,
+                           LocalSearchIndex localSearchIndex,
+                           Executor localSearchExecutor,
                            FirebaseAnalytics firebaseAnalytics) {
-        this.podcastService = podcastService;
+        this.localSearchIndex = localSearchIndex;
+        this.localSearchExecutor = localSearchExecutor;
         this.firebaseAnalytics = firebaseAnalytics;
-        this.searchLiveData = new MutableLiveData<>();
+        this.searchResultsLiveData = new MutableLiveData<>();
+        this.searchPager = new SearchPager(podcastService, API_KEY, this);
+    }
+
+    /**
+     * Searches as the user types. Matches among the episodes and favorites stored on the device,
+     * and results of a shorter query the new one extends, are shown at once, while the remote
+     * search only starts once typing has paused.
+     */
+    public void onQueryChanged(String query) {
+        cancelPendingSearch();
+        typedQuery = query;
+        if (query.length() < MIN_QUERY_LENGTH) {
+            searchPager.cancel();
+            searchedQuery = null;
+            return;
+        }
+        List<SearchResult> prefixResults = prefixResultCache.getForPrefix(query);
+        remoteResults = prefixResults != null ? prefixResults : Collections.emptyList();
+        searchLocally(query);
+        showResults(false);
+        pendingSearch = () -> search(query);
+        handler.postDelayed(pendingSearch, SEARCH_DEBOUNCE_MILLIS);
     }
 
     public void search(String query) {
-        Call<Search> searchCall = podcastService.search(API_KEY, query);
-        searchCall.enqueue(new Callback<Search>() {
-            @Override
-            public void onResponse(Call<Search> call, Response<Search> response) {
-                if (response.isSuccessful()) {
-                    searchLiveData.setValue(response.body());
-                }
-            }
-
-            @Override
-            public void onFailure(Call<Search> call, Throwable t) {
-
-            }
+        cancelPendingSearch();
+        typedQuery = query;
+        searchLocally(query);
+        // Submitting the query typing already started does not restart it
+        if (query.equals(searchedQuery) && searchPager.isLoading()) return;
+        searchedQuery = query;
+        searchPager.search(query);
+    }
+
+    /**
+     * Lets the pager prefetch the next page before the user reaches the end of the results.
+     */
+    public void onSearchResultsScrolled(int lastVisiblePosition) {
+        if (isShowingSearchedQuery()) {
+            // The pager counts its own results only, not the local hits in front of them
+            List<SearchResult> shownResults = searchResultsLiveData.getValue();
+            int localHitCount = shownResults == null ? 0 : shownResults.size() - remoteResults.size();
+            searchPager.onScrolled(Math.max(0, lastVisiblePosition - localHitCount));
+        }
+    }
+
+    @Override
+    public void onResults(List<SearchResult> results, boolean hasMore) {
+        prefixResultCache.put(searchedQuery, results);
+        // The user has typed on since this search started, don't replace what they now see
+        if (isShowingSearchedQuery()) {
+            remoteResults = results;
+            showResults(true);
+        }
+    }
+
+    // Queries the index off the main thread and shows the hits on it
+    private void searchLocally(String query) {
+        if (query.equals(localQuery)) return;
+        localQuery = query;
+        localResults = Collections.emptyList();
+        localSearchExecutor.execute(() -> {
+            List<SearchResult> hits = localSearchIndex.search(query, MAX_LOCAL_RESULTS);
+            handler.post(() -> {
+                if (!query.equals(localQuery)) return;
+                localResults = hits;
+                showResults(false);
+            });
         });
     }
 
-    public LiveData<Search> getSearchResults() {
-        return searchLiveData;
+    // An empty list means no results, so it is only shown once the remote search is done
+    private void showResults(boolean isRemoteSearchDone) {
+        if (!typedQuery.equals(localQuery)) return;
+        List<SearchResult> merged = SearchResultMerger.merge(localResults, remoteResults);
+        if (!merged.isEmpty() || isRemoteSearchDone) {
+            searchResultsLiveData.setValue(merged);
+        }
+    }
+
+    private boolean isShowingSearchedQuery() {
+        return searchedQuery != null && searchedQuery.equals(typedQuery);
+    }
+
+    private void cancelPendingSearch() {
+        if (pendingSearch != null) {
+            handler.removeCallbacks(pendingSearch);
+            pendingSearch = null;
+        }
+    }
+
+    @Override
+    public void onPageFailed(int offset, Throwable t) {
+        Log.e("ERROR", "Search page at offset " + offset + " failed: " + t.getMessage());
+    }
+
+    public LiveData<List<SearchResult>> getSearchResults() {
+        return searchResultsLiveData;
     }
 
     public void logEventToFirebase(String query) {
@@ -55,4 +157,11 @@ public class SearchViewModel extends ViewModel {
         bundle.putString(FirebaseAnalytics.Param.SEARCH_TERM, query);
         firebaseAnalytics.logEvent(FirebaseAnalytics.Event.SEARCH, bundle);
     }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        cancelPendingSearch();
+        searchPager.cancel();
+    }
 }
@@ -2,22 +2,32 @@ package com.example.vidbregar.bluepodcast.viewmodel;
 
 import android.arch.lifecycle.ViewModelProvider;
 
+import com.example.vidbregar.bluepodcast.model.database.search.LocalSearchIndex;
 import com.example.vidbregar.bluepodcast.model.network.PodcastService;
 import com.google.firebase.analytics.FirebaseAnalytics;
 
+import java.util.concurrent.Executor;
+
 public class SearchViewModelFactory implements ViewModelProvider.Factory {
 
     private final PodcastService podcastService;
+    private final LocalSearchIndex localSearchIndex;
+    private final Executor localSearchExecutor;
     private final FirebaseAnalytics firebaseAnalytics;
 
     public SearchViewModelFactory(PodcastService podcastService,
+                                  LocalSearchIndex localSearchIndex,
+                                  Executor localSearchExecutor,
                                   FirebaseAnalytics firebaseAnalytics) {
         this.podcastService = podcastService;
+        this.localSearchIndex = localSearchIndex;
+        this.localSearchExecutor = localSearchExecutor;
         this.firebaseAnalytics = firebaseAnalytics;
     }
 
     @Override
     public SearchViewModel create(Class modelClass) {
-        return new SearchViewModel(podcastService, firebaseAnalytics);
+        return new SearchViewModel(podcastService, localSearchIndex, localSearchExecutor,
+                firebaseAnalytics);
     }
 }
\ No newline at end of file
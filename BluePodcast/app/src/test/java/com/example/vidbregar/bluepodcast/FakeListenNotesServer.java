@@ -0,0 +1,260 @@
+package com.example.vidbregar.bluepodcast;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Headers;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+import okio.Buffer;
+
+/**
+ * Local stand-in for the ListenNotes API, serving {@code best_podcasts}, {@code podcasts/{id}} and
+ * {@code search}. Responses are replayed from fixtures, or recorded from the real API first with
+ * {@link #record(HttpUrl)}. Latency, jitter, bandwidth and failures can be set per test, and
+ * the jitter and random failures come from a seeded {@link Random}, so a run can be repeated.
+ * <p>
+ * Fixtures are looked up by request, e.g. {@code podcast-<id>.json}, in the fixtures directory
+ * first and fall back to the recorded responses from {@link Fixtures}.
+ */
+public class FakeListenNotesServer {
+
+    public enum Fault {
+        HTTP_500,
+        HTTP_503,
+        // Closes the connection before responding
+        DISCONNECT,
+        // Accepts the request and never responds, so the client times out
+        NO_RESPONSE
+    }
+
+    private final MockWebServer server = new MockWebServer();
+    private final File fixturesDirectory;
+    // Guarded by this
+    private Random random = new Random(0);
+    private long latencyMillis;
+    private long jitterMillis;
+    private long bytesPerSecond;
+    private Fault fault;
+    private int faultsLeft;
+    private double faultRate;
+    private HttpUrl upstream;
+    private OkHttpClient upstreamClient;
+
+    public FakeListenNotesServer() {
+        this(null);
+    }
+
+    public FakeListenNotesServer(File fixturesDirectory) {
+        this.fixturesDirectory = fixturesDirectory;
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return respond(request);
+            }
+        });
+    }
+
+    public void start() throws IOException {
+        server.start();
+    }
+
+    public void shutdown() throws IOException {
+        server.shutdown();
+    }
+
+    /**
+     * Base URL to hand to {@code NetworkModule} in place of the ListenNotes one.
+     */
+    public HttpUrl url() {
+        return server.url("/");
+    }
+
+    public int getRequestCount() {
+        return server.getRequestCount();
+    }
+
+    public RecordedRequest takeRequest() throws InterruptedException {
+        return server.takeRequest();
+    }
+
+    /**
+     * Time until the body of every response starts, which is when a client can start parsing.
+     */
+    public synchronized void setLatency(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    /**
+     * Random extra latency of up to {@code jitterMillis}.
+     */
+    public synchronized void setJitter(long jitterMillis) {
+        this.jitterMillis = jitterMillis;
+    }
+
+    /**
+     * Throttles response bodies to {@code bytesPerSecond}, or not at all with 0.
+     */
+    public synchronized void setBandwidth(long bytesPerSecond) {
+        this.bytesPerSecond = bytesPerSecond;
+    }
+
+    /**
+     * Answers the next {@code times} requests with {@code fault}.
+     */
+    public synchronized void failNext(Fault fault, int times) {
+        this.fault = fault;
+        this.faultsLeft = times;
+        this.faultRate = 0;
+    }
+
+    /**
+     * Answers a random share of the requests with {@code fault}.
+     */
+    public synchronized void failRandomly(Fault fault, double rate) {
+        this.fault = fault;
+        this.faultsLeft = 0;
+        this.faultRate = rate;
+    }
+
+    public synchronized void setSeed(long seed) {
+        random = new Random(seed);
+    }
+
+    /**
+     * Forwards requests to {@code upstream}, e.g. the real ListenNotes API, and saves the
+     * responses to the fixtures directory so that they can be replayed later.
+     */
+    public synchronized void record(HttpUrl upstream) {
+        if (fixturesDirectory == null) {
+            throw new IllegalStateException("Recording needs a fixtures directory");
+        }
+        this.upstream = upstream;
+        this.upstreamClient = new OkHttpClient();
+    }
+
+    /**
+     * Name of the fixture answering {@code url}.
+     */
+    static String fixtureNameOf(HttpUrl url) {
+        List<String> segments = url.pathSegments();
+        String endpoint = segments.size() >= 3 ? segments.get(2) : "";
+        switch (endpoint) {
+            case "best_podcasts":
+                String genreId = url.queryParameter("genre_id");
+                return genreId == null ? "best_podcasts.json" : "best_podcasts-" + genreId + ".json";
+            case "podcasts":
+                String nextEpisodePubDate = url.queryParameter("next_episode_pub_date");
+                return "podcast-" + (segments.size() > 3 ? segments.get(3) : "")
+                        + (nextEpisodePubDate == null ? "" : "-" + nextEpisodePubDate) + ".json";
+            case "search":
+                return "search-" + url.queryParameter("q") + "-" + url.queryParameter("offset") + ".json";
+            default:
+                return null;
+        }
+    }
+
+    private synchronized MockResponse respond(RecordedRequest request) {
+        MockResponse response = faultyResponse();
+        if (response == null) {
+            try {
+                response = upstream != null ? recordedResponse(request) : replayedResponse(request);
+            } catch (IOException e) {
+                response = new MockResponse().setResponseCode(500).setBody(String.valueOf(e.getMessage()));
+            }
+        }
+        long delayMillis = latencyMillis + (jitterMillis > 0 ? (long) (random.nextDouble() * jitterMillis) : 0);
+        // MockWebServer does not honor a headers delay
+        response.setBodyDelay(delayMillis, TimeUnit.MILLISECONDS);
+        if (bytesPerSecond > 0) {
+            // Ten slices a second keep the transfer smooth
+            response.throttleBody(Math.max(1, bytesPerSecond / 10), 100, TimeUnit.MILLISECONDS);
+        }
+        return response;
+    }
+
+    private MockResponse faultyResponse() {
+        boolean fail = faultsLeft > 0 || (faultRate > 0 && random.nextDouble() < faultRate);
+        if (fault == null || !fail) return null;
+        if (faultsLeft > 0) faultsLeft--;
+        switch (fault) {
+            case HTTP_500:
+                return new MockResponse().setResponseCode(500);
+            case HTTP_503:
+                return new MockResponse().setResponseCode(503);
+            case DISCONNECT:
+                return new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AT_START);
+            default:
+                return new MockResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE);
+        }
+    }
+
+    private MockResponse replayedResponse(RecordedRequest request) throws IOException {
+        HttpUrl url = request.getRequestUrl();
+        String name = fixtureNameOf(url);
+        if (name == null) {
+            return new MockResponse().setResponseCode(404);
+        }
+        File recorded = fixturesDirectory != null ? new File(fixturesDirectory, name) : null;
+        byte[] body;
+        if (recorded != null && recorded.isFile()) {
+            body = Files.readAllBytes(recorded.toPath());
+        } else {
+            body = Fixtures.read(fallbackFixtureOf(name)).getBytes("UTF-8");
+        }
+        // Replays are validated like the real API, an unchanged fixture gets a 304
+        String eTag = "\"" + Integer.toHexString(Arrays.hashCode(body)) + "\"";
+        if (eTag.equals(request.getHeader("If-None-Match"))) {
+            return new MockResponse().setResponseCode(304).setHeader("ETag", eTag);
+        }
+        return new MockResponse()
+                .setHeader("Content-Type", "application/json; charset=utf-8")
+                .setHeader("ETag", eTag)
+                .setBody(new Buffer().write(body));
+    }
+
+    private static String fallbackFixtureOf(String name) {
+        if (name.startsWith("best_podcasts")) return "best_podcasts.json";
+        if (name.startsWith("podcast-")) return "podcast.json";
+        return "search.json";
+    }
+
+    private MockResponse recordedResponse(RecordedRequest request) throws IOException {
+        HttpUrl requestUrl = request.getRequestUrl();
+        HttpUrl url = upstream.newBuilder()
+                .encodedPath(requestUrl.encodedPath())
+                .encodedQuery(requestUrl.encodedQuery())
+                .build();
+        Headers.Builder headers = request.getHeaders().newBuilder().removeAll("Host");
+        try (Response upstreamResponse = upstreamClient.newCall(new Request.Builder()
+                .url(url)
+                .headers(headers.build())
+                .build()).execute()) {
+            byte[] body = upstreamResponse.body() != null ? upstreamResponse.body().bytes() : new byte[0];
+            String name = fixtureNameOf(requestUrl);
+            if (upstreamResponse.isSuccessful() && name != null) {
+                try (OutputStream outputStream = new FileOutputStream(new File(fixturesDirectory, name))) {
+                    outputStream.write(body);
+                }
+            }
+            return new MockResponse()
+                    .setResponseCode(upstreamResponse.code())
+                    .setHeader("Content-Type", "application/json; charset=utf-8")
+                    .setBody(new Buffer().write(body));
+        }
+    }
+}
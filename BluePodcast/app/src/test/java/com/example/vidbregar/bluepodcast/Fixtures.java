@@ -0,0 +1,83 @@
+package com.example.vidbregar.bluepodcast;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.Charset;
+
+/**
+ * Recorded ListenNotes responses from {@code src/test/resources/fixtures}.
+ */
+public class Fixtures {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    public static String read(String name) throws IOException {
+        try (InputStream inputStream = Fixtures.class.getClassLoader()
+                .getResourceAsStream("fixtures/" + name)) {
+            if (inputStream == null) throw new IOException("Missing fixture " + name);
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, read);
+            }
+            return new String(outputStream.toByteArray(), UTF_8);
+        }
+    }
+
+    /**
+     * Recorded podcast response with its episodes repeated until there are {@code episodeCount}
+     * of them, each with a unique id, to get payloads the size of long running shows.
+     */
+    public static String podcastWithEpisodes(int episodeCount) throws IOException {
+        return repeat("podcast.json", "episodes", "episode-", episodeCount);
+    }
+
+    /**
+     * Recorded best podcasts response with {@code channelCount} channels.
+     */
+    public static String genreWithChannels(int channelCount) throws IOException {
+        return repeat("best_podcasts.json", "channels", "channel-", channelCount);
+    }
+
+    /**
+     * Recorded search response with {@code resultCount} results.
+     */
+    public static String searchWithResults(int resultCount) throws IOException {
+        return repeat("search.json", "results", "result-", resultCount);
+    }
+
+    private static String repeat(String name, String arrayName, String idPrefix, int count)
+            throws IOException {
+        JsonObject response = new JsonParser().parse(read(name)).getAsJsonObject();
+        JsonArray recorded = response.getAsJsonArray(arrayName);
+        JsonArray repeated = new JsonArray();
+        for (int i = 0; i < count; i++) {
+            JsonElement element = recorded.get(i % recorded.size()).deepCopy();
+            element.getAsJsonObject().addProperty("id", idPrefix + i);
+            repeated.add(element);
+        }
+        response.add(arrayName, repeated);
+        return response.toString();
+    }
+
+    /**
+     * Bytes allocated by the current thread so far, or 0 if the JVM cannot tell. Allocated bytes
+     * are a deterministic stand-in for peak heap, which depends on when the collector runs.
+     */
+    public static long allocatedBytes() {
+        java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threadMXBean)
+                    .getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+}
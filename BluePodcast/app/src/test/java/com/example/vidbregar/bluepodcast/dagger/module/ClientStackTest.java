@@ -0,0 +1,197 @@
+package com.example.vidbregar.bluepodcast.dagger.module;
+
+import com.example.vidbregar.bluepodcast.FakeListenNotesServer;
+import com.example.vidbregar.bluepodcast.Fixtures;
+import com.example.vidbregar.bluepodcast.model.data.Podcast;
+import com.example.vidbregar.bluepodcast.model.data.PodcastGenre;
+import com.example.vidbregar.bluepodcast.model.data.Search;
+import com.example.vidbregar.bluepodcast.model.network.CachingPodcastService;
+import com.example.vidbregar.bluepodcast.model.network.CoalescingPodcastService;
+import com.example.vidbregar.bluepodcast.model.network.PodcastService;
+import com.example.vidbregar.bluepodcast.model.network.cache.CacheStats;
+import com.example.vidbregar.bluepodcast.model.network.cache.SearchCache;
+import com.example.vidbregar.bluepodcast.model.network.cache.SearchCacheStats;
+import com.example.vidbregar.bluepodcast.model.network.quota.ApiQuota;
+import com.example.vidbregar.bluepodcast.model.network.quota.QuotaStore;
+import com.example.vidbregar.bluepodcast.model.network.quota.RequestPriority;
+import com.example.vidbregar.bluepodcast.model.network.resilience.ResilienceStats;
+import com.google.gson.Gson;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Cache;
+import okhttp3.OkHttpClient;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the client stack assembled by {@link NetworkModule}, with every interceptor, against a
+ * {@link FakeListenNotesServer}, so its latency and throughput can be measured offline.
+ */
+public class ClientStackTest {
+
+    private static final String API_KEY = "test-key";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private FakeListenNotesServer server;
+    private File fixturesDirectory;
+    private CacheStats cacheStats;
+    private ResilienceStats resilienceStats;
+    private ExecutorService ioExecutor;
+    private PodcastService podcastService;
+
+    @Before
+    public void setUp() throws Exception {
+        fixturesDirectory = temporaryFolder.newFolder("fixtures");
+        server = new FakeListenNotesServer(fixturesDirectory);
+        server.start();
+
+        // Everything but the Android backed cache directory and quota store comes from the module
+        NetworkModule networkModule = new NetworkModule(server.url());
+        Gson gson = networkModule.provideGson();
+        cacheStats = networkModule.provideCacheStats();
+        resilienceStats = networkModule.provideResilienceStats();
+        OkHttpClient okHttpClient = networkModule.provideOkHttpClient(
+                networkModule.provideHttpLoggingInterceptor(),
+                new Cache(temporaryFolder.newFolder("http-cache"), 10 * 1024 * 1024),
+                networkModule.provideStaleWhileRevalidateInterceptor(cacheStats),
+                networkModule.provideNetworkTelemetry(),
+                resilienceStats,
+                new ApiQuota(new InMemoryQuotaStore()),
+                cacheStats);
+        Retrofit retrofit = networkModule.provideRetrofit(okHttpClient, gson,
+                networkModule.provideParsedResponseCache(cacheStats));
+        ioExecutor = Executors.newSingleThreadExecutor();
+        podcastService = new CachingPodcastService(
+                new CoalescingPodcastService(retrofit.create(PodcastService.class)),
+                new SearchCache(temporaryFolder.newFolder("search-cache"), gson,
+                        new SearchCacheStats()),
+                ioExecutor, Runnable::run);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        ioExecutor.shutdownNow();
+        server.shutdown();
+    }
+
+    @Test
+    public void endpoints_areReplayedFromFixtures() throws Exception {
+        PodcastGenre bestPodcasts = podcastService
+                .getBestPodcasts(API_KEY, RequestPriority.INTERACTIVE).execute().body();
+        PodcastGenre genre = podcastService
+                .getGenrePodcasts(API_KEY, 133, RequestPriority.INTERACTIVE).execute().body();
+        Podcast podcast = podcastService.getPodcast(API_KEY, "podcast-1").execute().body();
+        Search search = podcastService.search(API_KEY, "tech", 0).execute().body();
+
+        assertFalse(bestPodcasts.getChannels().isEmpty());
+        assertFalse(genre.getChannels().isEmpty());
+        assertFalse(podcast.getEpisodes().isEmpty());
+        assertFalse(search.getResults().isEmpty());
+        assertEquals("/api/v1/best_podcasts", server.takeRequest().getPath());
+        assertEquals("/api/v1/best_podcasts?genre_id=133", server.takeRequest().getPath());
+        assertEquals("/api/v1/podcasts/podcast-1", server.takeRequest().getPath());
+    }
+
+    @Test
+    public void latency_isOnlyPaidUntilTheResponseIsCached() throws Exception {
+        server.setLatency(200);
+        server.setJitter(50);
+
+        long coldMillis = timeBestPodcasts();
+        long warmMillis = timeBestPodcasts();
+
+        assertTrue(coldMillis >= 200);
+        assertTrue(warmMillis < 200);
+        assertEquals(1, server.getRequestCount());
+        assertEquals(1, cacheStats.getReusedParses());
+    }
+
+    @Test
+    public void bandwidth_limitsThroughput() throws Exception {
+        byte[] body = Fixtures.podcastWithEpisodes(100).getBytes("UTF-8");
+        try (OutputStream outputStream = new FileOutputStream(
+                new File(fixturesDirectory, "podcast-long-running.json"))) {
+            outputStream.write(body);
+        }
+        long bytesPerSecond = 512 * 1024;
+        server.setBandwidth(bytesPerSecond);
+
+        long startNanos = System.nanoTime();
+        Podcast podcast = podcastService.getPodcast(API_KEY, "long-running").execute().body();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+
+        long expectedMillis = body.length * 1000L / bytesPerSecond;
+        assertEquals(100, podcast.getEpisodes().size());
+        // The first slice goes out right away
+        assertTrue(elapsedMillis >= expectedMillis - 100);
+    }
+
+    @Test
+    public void injectedErrors_areRetried() throws Exception {
+        server.failNext(FakeListenNotesServer.Fault.HTTP_503, 2);
+
+        Response<PodcastGenre> response = podcastService
+                .getBestPodcasts(API_KEY, RequestPriority.INTERACTIVE).execute();
+
+        assertTrue(response.isSuccessful());
+        assertEquals(3, server.getRequestCount());
+        assertEquals(0, resilienceStats.getRetriesExhausted());
+    }
+
+    @Test
+    public void recording_savesResponsesForReplay() throws Exception {
+        FakeListenNotesServer upstream = new FakeListenNotesServer();
+        upstream.start();
+        try {
+            server.record(upstream.url());
+            podcastService.getGenrePodcasts(API_KEY, 133, RequestPriority.INTERACTIVE).execute();
+
+            assertEquals(1, upstream.getRequestCount());
+            assertEquals(API_KEY, upstream.takeRequest().getHeader("X-Mashape-Key"));
+            assertTrue(new File(fixturesDirectory, "best_podcasts-133.json").isFile());
+        } finally {
+            upstream.shutdown();
+        }
+    }
+
+    private long timeBestPodcasts() throws Exception {
+        long startNanos = System.nanoTime();
+        podcastService.getBestPodcasts(API_KEY, RequestPriority.INTERACTIVE).execute().body();
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private static class InMemoryQuotaStore implements QuotaStore {
+
+        private Map<String, Long> values = new HashMap<>();
+
+        @Override
+        public Map<String, Long> load() {
+            return new HashMap<>(values);
+        }
+
+        @Override
+        public void save(Map<String, Long> values) {
+            this.values = new HashMap<>(values);
+        }
+    }
+}
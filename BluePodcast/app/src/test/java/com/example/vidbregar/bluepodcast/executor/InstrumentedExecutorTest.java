@@ -0,0 +1,104 @@
+package com.example.vidbregar.bluepodcast.executor;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class InstrumentedExecutorTest {
+
+    private final ExecutorTelemetry telemetry = new ExecutorTelemetry();
+    private final InstrumentedExecutor executor =
+            new InstrumentedExecutor("disk_io", 1, Thread::new, telemetry);
+
+    @After
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void tasks_areTimedPerTag() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(2);
+        executor.execute("player/get_favorite", () -> {
+            await(release);
+            done.countDown();
+        });
+        executor.tagged("player/put_episode").execute(done::countDown);
+
+        // The second task waits behind the first one on the only thread
+        Thread.sleep(50);
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        // The run time is recorded once the task returned
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+        TaskTelemetry getFavorite = telemetry.forTask("disk_io", "player/get_favorite");
+        TaskTelemetry putEpisode = telemetry.forTask("disk_io", "player/put_episode");
+        assertEquals(1, getFavorite.getRunMicros().getCount());
+        assertTrue(getFavorite.getRunMicros().getMax() >= TimeUnit.MILLISECONDS.toMicros(45));
+        assertEquals(1, putEpisode.getQueueWaitMicros().getCount());
+        assertTrue(putEpisode.getQueueWaitMicros().getMax() >= TimeUnit.MILLISECONDS.toMicros(45));
+        assertEquals(2, telemetry.getTasks().size());
+        assertTrue(telemetry.report().contains("disk_io/player/put_episode: 1 tasks, 0 failures"));
+    }
+
+    @Test
+    public void failures_areCounted() throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+        Thread.UncaughtExceptionHandler handler = Thread.getDefaultUncaughtExceptionHandler();
+        Thread.setDefaultUncaughtExceptionHandler((thread, e) -> done.countDown());
+        try {
+            executor.execute("catalog/write", () -> {
+                throw new IllegalStateException("database is closed");
+            });
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+        } finally {
+            Thread.setDefaultUncaughtExceptionHandler(handler);
+        }
+
+        assertEquals(1, telemetry.forTask("disk_io", "catalog/write").getFailures());
+    }
+
+    @Test
+    public void serialExecutor_runsTasksInOrder() throws Exception {
+        InstrumentedExecutor pool = new InstrumentedExecutor("disk_io", 4, Thread::new, telemetry);
+        Executor serial = pool.serial("history/append");
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(100);
+        try {
+            for (int i = 0; i < 100; i++) {
+                int task = i;
+                serial.execute(() -> {
+                    order.add(task);
+                    done.countDown();
+                });
+            }
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdown();
+        }
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, (int) order.get(i));
+        }
+        assertEquals(100, telemetry.forTask("disk_io", "history/append").getQueueWaitMicros().getCount());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.vidbregar.bluepodcast.model.episode;
+
+import com.example.vidbregar.bluepodcast.model.data.Episode;
+import com.example.vidbregar.bluepodcast.model.network.PodcastService;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class EpisodePagingSourceTest {
+
+    private static final String API_KEY = "test-key";
+    private static final String PODCAST_ID = "4d3fe717742d4963a85562e9f84d8c79";
+    private static final int PAGE_SIZE = 10;
+    private static final int PREFETCH_DISTANCE = 5;
+    // Episode i is published a day before episode i - 1
+    private static final long NEWEST_PUB_DATE = 1531440000000L;
+    private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    private MockWebServer server;
+    private PodcastService podcastService;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final BlockingQueue<List<Episode>> pages = new LinkedBlockingQueue<>();
+    private final EpisodePagingSource.Listener listener = new EpisodePagingSource.Listener() {
+        @Override
+        public void onEpisodes(List<Episode> episodes, boolean hasMore) {
+            pages.add(episodes);
+        }
+
+        @Override
+        public void onPageFailed(int page, Throwable t) {
+        }
+    };
+    private final List<EpisodePagingSource> pagingSources = new ArrayList<>();
+    private int episodeCount = 1000;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String cursor = request.getRequestUrl().queryParameter("next_episode_pub_date");
+                return new MockResponse().setBody(page(cursor == null ? null : Long.parseLong(cursor)));
+            }
+        });
+        server.start();
+        podcastService = new Retrofit.Builder()
+                .baseUrl(server.url("/"))
+                .addConverterFactory(GsonConverterFactory.create())
+                .build()
+                .create(PodcastService.class);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        for (EpisodePagingSource pagingSource : pagingSources) {
+            pagingSource.cancel();
+        }
+        executor.shutdownNow();
+        server.shutdown();
+    }
+
+    // The page of episodes published before the cursor, like the ListenNotes podcasts endpoint
+    private String page(Long cursor) {
+        int first = cursor == null ? 0 : (int) ((NEWEST_PUB_DATE - cursor) / DAY_MILLIS) + 1;
+        JsonArray episodes = new JsonArray();
+        for (int i = first; i < first + PAGE_SIZE && i < episodeCount; i++) {
+            JsonObject episode = new JsonObject();
+            episode.addProperty("id", "episode-" + i);
+            episode.addProperty("title", "Episode " + i);
+            episode.addProperty("pub_date_ms", NEWEST_PUB_DATE - i * DAY_MILLIS);
+            episode.addProperty("description", "<p>Show notes</p>");
+            episodes.add(episode);
+        }
+        JsonObject podcast = new JsonObject();
+        podcast.addProperty("id", PODCAST_ID);
+        podcast.add("episodes", episodes);
+        int last = Math.min(first + PAGE_SIZE, episodeCount) - 1;
+        podcast.addProperty("next_episode_pub_date", NEWEST_PUB_DATE - last * DAY_MILLIS);
+        return podcast.toString();
+    }
+
+    private EpisodePagingSource pagingSource(int maxLoadedPages) {
+        EpisodePagingSource pagingSource = new EpisodePagingSource(podcastService, API_KEY,
+                PODCAST_ID, PREFETCH_DISTANCE, maxLoadedPages, executor, listener);
+        pagingSources.add(pagingSource);
+        return pagingSource;
+    }
+
+    private List<Episode> nextPage() throws InterruptedException {
+        List<Episode> episodes = pages.poll(5, TimeUnit.SECONDS);
+        assertNotNull("No page arrived", episodes);
+        return episodes;
+    }
+
+    @Test
+    public void load_requestsOnlyTheFirstPage() throws Exception {
+        EpisodePagingSource pagingSource = pagingSource(EpisodePagingSource.DEFAULT_MAX_LOADED_PAGES);
+        pagingSource.load();
+
+        assertEquals(PAGE_SIZE, nextPage().size());
+        assertNull(pages.poll(200, TimeUnit.MILLISECONDS));
+        assertEquals(1, server.getRequestCount());
+        HttpUrl url = server.takeRequest().getRequestUrl();
+        assertEquals("/api/v1/podcasts/" + PODCAST_ID, url.encodedPath());
+        assertNull(url.queryParameter("next_episode_pub_date"));
+        assertTrue(pagingSource.hasMore());
+    }
+
+    @Test
+    public void load_keepsTheShowNotes() throws Exception {
+        pagingSource(EpisodePagingSource.DEFAULT_MAX_LOADED_PAGES).load();
+
+        for (Episode episode : nextPage()) {
+            assertEquals("<p>Show notes</p>", episode.getDescription());
+        }
+    }
+
+    @Test
+    public void onScrolled_prefetchesNextPageByCursor() throws Exception {
+        EpisodePagingSource pagingSource = pagingSource(EpisodePagingSource.DEFAULT_MAX_LOADED_PAGES);
+        pagingSource.load();
+        nextPage();
+
+        pagingSource.onScrolled(0, PAGE_SIZE - PREFETCH_DISTANCE - 1);
+        assertNull(pages.poll(200, TimeUnit.MILLISECONDS));
+
+        pagingSource.onScrolled(0, PAGE_SIZE - PREFETCH_DISTANCE);
+        List<Episode> episodes = nextPage();
+
+        assertEquals(2 * PAGE_SIZE, episodes.size());
+        for (int i = 0; i < episodes.size(); i++) {
+            assertEquals("episode-" + i, episodes.get(i).getId());
+        }
+        server.takeRequest();
+        assertEquals(String.valueOf(NEWEST_PUB_DATE - 9 * DAY_MILLIS),
+                server.takeRequest().getRequestUrl().queryParameter("next_episode_pub_date"));
+    }
+
+    @Test
+    public void pagesFarFromTheVisibleEpisodes_areDroppedAndLoadedAgain() throws Exception {
+        EpisodePagingSource pagingSource = pagingSource(3);
+        pagingSource.load();
+        List<Episode> episodes = nextPage();
+        // Scroll one screen at a time to the 8th page
+        for (int page = 1; page < 8; page++) {
+            int lastVisible = page * PAGE_SIZE - 1;
+            pagingSource.onScrolled(lastVisible - PAGE_SIZE + 1, lastVisible);
+            episodes = nextPage();
+        }
+
+        assertEquals(8 * PAGE_SIZE, episodes.size());
+        assertEquals(3, pagingSource.loadedPageCount());
+        assertNull(episodes.get(0));
+        assertEquals("episode-79", episodes.get(79).getId());
+
+        pagingSource.onScrolled(0, PAGE_SIZE - 1);
+        episodes = nextPage();
+
+        assertEquals("episode-0", episodes.get(0).getId());
+        assertNull(episodes.get(79));
+        assertEquals(3, pagingSource.loadedPageCount());
+        // The first page again, by its missing cursor
+        assertNull(lastRequestCursor());
+    }
+
+    @Test
+    public void lastPage_stopsPaging() throws Exception {
+        episodeCount = 25;
+        EpisodePagingSource pagingSource = pagingSource(EpisodePagingSource.DEFAULT_MAX_LOADED_PAGES);
+        pagingSource.load();
+        nextPage();
+        pagingSource.onScrolled(0, episodeCount - 1);
+        List<Episode> episodes = nextPage();
+        List<Episode> morePages;
+        while ((morePages = pages.poll(500, TimeUnit.MILLISECONDS)) != null) {
+            episodes = morePages;
+        }
+
+        assertEquals(episodeCount, episodes.size());
+        assertFalse(pagingSource.hasMore());
+        // The last page is not full and the one after it is empty
+        assertEquals(4, server.getRequestCount());
+        pagingSource.onScrolled(0, episodeCount - 1);
+        assertNull(pages.poll(200, TimeUnit.MILLISECONDS));
+        assertEquals(4, server.getRequestCount());
+    }
+
+    private String lastRequestCursor() throws InterruptedException {
+        RecordedRequest last = null;
+        RecordedRequest request;
+        while ((request = server.takeRequest(0, TimeUnit.MILLISECONDS)) != null) {
+            last = request;
+        }
+        return last.getRequestUrl().queryParameter("next_episode_pub_date");
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.vidbregar.bluepodcast.model.favorites;
+
+import android.arch.core.executor.testing.InstantTaskExecutorRule;
+import android.arch.paging.DataSource;
+
+import com.example.vidbregar.bluepodcast.model.database.favorites.FavoriteEntity;
+import com.example.vidbregar.bluepodcast.model.database.favorites.FavoriteKey;
+import com.example.vidbregar.bluepodcast.model.database.favorites.FavoritesDao;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FavoritesIndexTest {
+
+    @Rule
+    public InstantTaskExecutorRule instantTaskExecutorRule = new InstantTaskExecutorRule();
+
+    private final FakeFavoritesDao favoritesDao = new FakeFavoritesDao();
+    private final List<Runnable> queuedWrites = new ArrayList<>();
+
+    @Test
+    public void isFavorite_isAnsweredWithoutQueries() {
+        favoritesDao.insertFavorite(favorite("podcast", "episode"));
+        FavoritesIndex favoritesIndex = new FavoritesIndex(favoritesDao, Runnable::run);
+        favoritesIndex.load();
+
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(favoritesIndex.isFavorite("podcast", "episode"));
+            assertFalse(favoritesIndex.isFavorite("podcast", "other"));
+        }
+
+        assertTrue(favoritesIndex.isLoaded());
+        assertEquals(1, favoritesDao.keyQueries);
+        assertEquals(0, favoritesDao.rowQueries);
+    }
+
+    @Test
+    public void changes_areVisibleBeforeTheyAreWritten() {
+        favoritesDao.insertFavorite(favorite("podcast", "removed"));
+        FavoritesIndex favoritesIndex = new FavoritesIndex(favoritesDao, queuedWrites::add);
+        favoritesIndex.load();
+        runQueuedWrites();
+
+        favoritesIndex.add(favorite("podcast", "added"));
+        favoritesIndex.remove("podcast", "removed");
+
+        assertTrue(favoritesIndex.isFavorite("podcast", "added"));
+        assertFalse(favoritesIndex.isFavorite("podcast", "removed"));
+        assertEquals(1, favoritesDao.favorites.size());
+        runQueuedWrites();
+        assertTrue(favoritesDao.favorites.containsKey("podcast/added"));
+        assertFalse(favoritesDao.favorites.containsKey("podcast/removed"));
+    }
+
+    @Test
+    public void changesWhileLoading_winOverTheLoadedTable() {
+        favoritesDao.insertFavorite(favorite("podcast", "removed"));
+        FavoritesIndex favoritesIndex = new FavoritesIndex(favoritesDao, queuedWrites::add);
+        favoritesIndex.load();
+
+        // Queued behind the load, so the table it reads does not have them yet
+        favoritesIndex.add(favorite("podcast", "added"));
+        favoritesIndex.remove("podcast", "removed");
+        queuedWrites.remove(0).run();
+
+        assertEquals(1, favoritesIndex.size());
+        assertTrue(favoritesIndex.isFavorite("podcast", "added"));
+        assertFalse(favoritesIndex.isFavorite("podcast", "removed"));
+    }
+
+    private void runQueuedWrites() {
+        while (!queuedWrites.isEmpty()) {
+            queuedWrites.remove(0).run();
+        }
+    }
+
+    private static FavoriteEntity favorite(String podcastId, String episodeId) {
+        return new FavoriteEntity(podcastId, episodeId, "Episode", "", "Publisher",
+                "https://example.com/" + episodeId + ".mp3", 0);
+    }
+
+    private static class FakeFavoritesDao implements FavoritesDao {
+
+        private final Map<String, FavoriteEntity> favorites = new LinkedHashMap<>();
+        private int keyQueries;
+        private int rowQueries;
+
+        @Override
+        public void insertFavorite(FavoriteEntity favoriteEntity) {
+            String key = favoriteEntity.getPodcastId() + "/" + favoriteEntity.getEpisodeId();
+            if (!favorites.containsKey(key)) favorites.put(key, favoriteEntity);
+        }
+
+        @Override
+        public DataSource.Factory<Integer, FavoriteEntity> getFavoritesByAddedAt() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public DataSource.Factory<Integer, FavoriteEntity> getFavoritesByPublisher() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public FavoriteEntity getFavorite(String podcastId, String episodeId) {
+            rowQueries++;
+            return favorites.get(podcastId + "/" + episodeId);
+        }
+
+        @Override
+        public List<FavoriteKey> getFavoriteKeys() {
+            keyQueries++;
+            List<FavoriteKey> keys = new ArrayList<>();
+            for (FavoriteEntity favorite : favorites.values()) {
+                keys.add(new FavoriteKey(favorite.getPodcastId(), favorite.getEpisodeId()));
+            }
+            return keys;
+        }
+
+        @Override
+        public List<String> getFavoritePodcastIds() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void removeFavorite(String podcastId, String episodeId) {
+            favorites.remove(podcastId + "/" + episodeId);
+        }
+    }
+}
@@ -0,0 +1,378 @@
+package com.example.vidbregar.bluepodcast.model.feed;
+
+import com.example.vidbregar.bluepodcast.model.data.Channel;
+import com.example.vidbregar.bluepodcast.model.data.Podcast;
+import com.example.vidbregar.bluepodcast.model.data.PodcastGenre;
+import com.example.vidbregar.bluepodcast.model.data.Search;
+import com.example.vidbregar.bluepodcast.model.network.PodcastService;
+import com.example.vidbregar.bluepodcast.model.network.quota.QuotaExceededException;
+import com.example.vidbregar.bluepodcast.model.network.quota.RequestPriority;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.Request;
+import okhttp3.ResponseBody;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class FeedLoaderTest {
+
+    private static final String API_KEY = "test-key";
+    private static final long RESPONSE_DELAY_MILLIS = 100;
+
+    // Display order: the carousel, then six genres
+    private final List<FeedSection> sections = Arrays.asList(
+            new FeedSection(FeedSection.BEST_PODCASTS_GENRE_ID, 0, 1500),
+            new FeedSection(133, 0, 3000),
+            new FeedSection(93, 0, 3000),
+            new FeedSection(88, 0, 3000),
+            new FeedSection(125, 0, 3000),
+            new FeedSection(127, 0, 3000),
+            new FeedSection(107, 0, 3000));
+
+    private MockWebServer server;
+    private PodcastService podcastService;
+    private final Map<Integer, Long> responseDelays = new ConcurrentHashMap<>();
+    private final BlockingQueue<Integer> requestedGenres = new LinkedBlockingQueue<>();
+    // Concurrency of the requests for these genres
+    private final List<Integer> trackedGenres = new ArrayList<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final BlockingQueue<FeedSection> loadedSections = new LinkedBlockingQueue<>();
+    private final List<FeedSection> failedSections = Collections.synchronizedList(new ArrayList<>());
+    private final FeedLoader.Listener listener = new FeedLoader.Listener() {
+        @Override
+        public void onSectionLoaded(FeedSection section, List<Channel> podcasts, long elapsedMillis) {
+            loadedSections.add(section);
+        }
+
+        @Override
+        public void onSectionFailed(FeedSection section, Throwable t, long elapsedMillis) {
+            failedSections.add(section);
+        }
+    };
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                String genreId = request.getRequestUrl().queryParameter("genre_id");
+                int genre = genreId == null ? FeedSection.BEST_PODCASTS_GENRE_ID : Integer.parseInt(genreId);
+                boolean tracked = trackedGenres.contains(genre);
+                if (tracked) maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                requestedGenres.add(genre);
+                Long delay = responseDelays.get(genre);
+                Thread.sleep(delay == null ? RESPONSE_DELAY_MILLIS : delay);
+                if (tracked) inFlight.decrementAndGet();
+                return new MockResponse().setBody("{\"id\": " + genre + ", \"channels\": []}");
+            }
+        });
+        server.start();
+        podcastService = new Retrofit.Builder()
+                .baseUrl(server.url("/"))
+                .addConverterFactory(GsonConverterFactory.create())
+                .build()
+                .create(PodcastService.class);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    private List<Integer> takeRequestedGenres(int count) throws InterruptedException {
+        List<Integer> genres = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Integer genre = requestedGenres.poll(5, TimeUnit.SECONDS);
+            assertNotNull("Only " + genres + " were requested", genre);
+            genres.add(genre);
+        }
+        return genres;
+    }
+
+    private List<FeedSection> takeLoadedSections(int count) throws InterruptedException {
+        List<FeedSection> loaded = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            FeedSection section = loadedSections.poll(5, TimeUnit.SECONDS);
+            assertNotNull("Only " + loaded + " were loaded", section);
+            loaded.add(section);
+        }
+        return loaded;
+    }
+
+    @Test
+    public void load_startsTopSectionsFirstAndTricklesTheBackground() throws Exception {
+        trackedGenres.addAll(Arrays.asList(88, 125, 127, 107));
+        FeedLoader feedLoader = new FeedLoader(podcastService, API_KEY, 3, 2, listener);
+        feedLoader.load(sections);
+
+        assertEquals(LoadPriority.VISIBLE, feedLoader.getPriority(sections.get(0)));
+        assertEquals(LoadPriority.PREFETCH, feedLoader.getPriority(sections.get(2)));
+        assertEquals(LoadPriority.BACKGROUND, feedLoader.getPriority(sections.get(3)));
+        // The carousel and the two sections below it share the requests
+        List<Integer> first = takeRequestedGenres(3);
+        assertTrue(first.containsAll(Arrays.asList(0, 133, 93)));
+        // The background then goes one section at a time
+        assertEquals(Arrays.asList(88, 125, 127, 107), takeRequestedGenres(4));
+        takeLoadedSections(7);
+        assertEquals(1, maxInFlight.get());
+        assertTrue(failedSections.isEmpty());
+    }
+
+    @Test
+    public void onSectionsVisible_promotesSectionScrolledIntoView() throws Exception {
+        FeedLoader feedLoader = new FeedLoader(podcastService, API_KEY, 1, 2, listener);
+        feedLoader.load(sections);
+        assertEquals(Collections.singletonList(0), takeRequestedGenres(1));
+
+        // Scrolled straight to the sixth genre while the carousel is loading
+        feedLoader.onSectionsVisible(Collections.singletonList(sections.get(5)));
+
+        assertEquals(LoadPriority.VISIBLE, feedLoader.getPriority(sections.get(5)));
+        assertEquals(LoadPriority.PREFETCH, feedLoader.getPriority(sections.get(6)));
+        assertEquals(LoadPriority.BACKGROUND, feedLoader.getPriority(sections.get(0)));
+        // The carousel is offscreen now, so it gives way and is loaded again with the background
+        assertEquals(Arrays.asList(127, 107, 0, 133, 93, 88, 125), takeRequestedGenres(7));
+        assertEquals(7, takeLoadedSections(7).size());
+        assertTrue(failedSections.isEmpty());
+    }
+
+    @Test
+    public void visibleSection_preemptsRunningBackgroundRequest() throws Exception {
+        FeedLoader feedLoader = new FeedLoader(podcastService, API_KEY, 1, 0, listener);
+        feedLoader.load(sections.subList(0, 3));
+        takeRequestedGenres(1);
+        takeLoadedSections(1);
+        // The first genre section is offscreen and slow
+        responseDelays.put(133, 2000L);
+        assertEquals(Collections.singletonList(133), takeRequestedGenres(1));
+
+        feedLoader.onSectionsVisible(Collections.singletonList(sections.get(2)));
+
+        assertEquals(Collections.singletonList(93), takeRequestedGenres(1));
+        assertEquals(sections.get(2), takeLoadedSections(1).get(0));
+        // The preempted section is loaded again afterwards and its canceled call is not a failure
+        responseDelays.remove(133);
+        assertEquals(Collections.singletonList(133), takeRequestedGenres(1));
+        assertEquals(sections.get(1), takeLoadedSections(1).get(0));
+        assertTrue(failedSections.isEmpty());
+        Map<FeedSection, Long> latencies = new HashMap<>(feedLoader.getLatencies());
+        assertEquals(3, latencies.size());
+    }
+
+    @Test
+    public void cancel_whileCallsAreInFlight() throws Exception {
+        for (FeedSection section : sections) {
+            responseDelays.put(section.getGenreId(), 2000L);
+        }
+        FeedLoader feedLoader = new FeedLoader(new FailOnCancelPodcastService(podcastService),
+                API_KEY, 4, 2, listener);
+        feedLoader.load(sections.subList(0, 6));
+        takeRequestedGenres(3);
+
+        feedLoader.cancel();
+
+        assertTrue(feedLoader.getLatencies().isEmpty());
+        assertTrue(failedSections.isEmpty());
+        assertTrue(loadedSections.isEmpty());
+    }
+
+    @Test
+    public void sectionPromotedWhileInFlight_isRetriedAsInteractiveWhenShed() throws Exception {
+        FeedLoader feedLoader = new FeedLoader(new ShedPodcastService(podcastService),
+                API_KEY, 1, 0, listener);
+        feedLoader.load(sections.subList(0, 2));
+        takeRequestedGenres(1);
+        takeLoadedSections(1);
+        // The section below the carousel is shed, but only after it scrolled into view
+        responseDelays.put(133, 500L);
+        assertEquals(Collections.singletonList(133), takeRequestedGenres(1));
+
+        feedLoader.onSectionsVisible(Collections.singletonList(sections.get(1)));
+
+        responseDelays.remove(133);
+        assertEquals(Collections.singletonList(133), takeRequestedGenres(1));
+        assertEquals(sections.get(1), takeLoadedSections(1).get(0));
+        assertTrue(failedSections.isEmpty());
+    }
+
+    // Sheds every request below interactive once its response arrives, as if the quota ran out
+    private static class ShedPodcastService extends FailOnCancelPodcastService {
+
+        private final PodcastService podcastService;
+
+        ShedPodcastService(PodcastService podcastService) {
+            super(podcastService);
+            this.podcastService = podcastService;
+        }
+
+        @Override
+        public Call<PodcastGenre> getBestPodcasts(String xMashapeKey, RequestPriority priority) {
+            return new ShedCall<>(podcastService.getBestPodcasts(xMashapeKey, priority), priority);
+        }
+
+        @Override
+        public Call<PodcastGenre> getGenrePodcasts(String xMashapeKey, int genreId,
+                                                   RequestPriority priority) {
+            return new ShedCall<>(podcastService.getGenrePodcasts(xMashapeKey, genreId, priority),
+                    priority);
+        }
+    }
+
+    private static class ShedCall<T> extends FailOnCancelCall<T> {
+
+        private final RequestPriority priority;
+
+        ShedCall(Call<T> delegate, RequestPriority priority) {
+            super(delegate);
+            this.priority = priority;
+        }
+
+        @Override
+        public void enqueue(Callback<T> callback) {
+            super.enqueue(new Callback<T>() {
+                @Override
+                public void onResponse(Call<T> call, Response<T> response) {
+                    if (priority == RequestPriority.INTERACTIVE) {
+                        callback.onResponse(call, response);
+                    } else {
+                        callback.onFailure(call, new QuotaExceededException(priority, "test"));
+                    }
+                }
+
+                @Override
+                public void onFailure(Call<T> call, Throwable t) {
+                    callback.onFailure(call, t);
+                }
+            });
+        }
+
+        @Override
+        public Call<T> clone() {
+            return new ShedCall<>(super.delegate.clone(), priority);
+        }
+    }
+
+    // Reports the cancellation from within cancel(), the harshest a call may treat its caller
+    private static class FailOnCancelPodcastService implements PodcastService {
+
+        private final PodcastService podcastService;
+
+        FailOnCancelPodcastService(PodcastService podcastService) {
+            this.podcastService = podcastService;
+        }
+
+        @Override
+        public Call<PodcastGenre> getBestPodcasts(String xMashapeKey, RequestPriority priority) {
+            return new FailOnCancelCall<>(podcastService.getBestPodcasts(xMashapeKey, priority));
+        }
+
+        @Override
+        public Call<PodcastGenre> getGenrePodcasts(String xMashapeKey, int genreId,
+                                                   RequestPriority priority) {
+            return new FailOnCancelCall<>(podcastService.getGenrePodcasts(xMashapeKey, genreId,
+                    priority));
+        }
+
+        @Override
+        public Call<Podcast> getPodcast(String xMashapeKey, String podcastId) {
+            return podcastService.getPodcast(xMashapeKey, podcastId);
+        }
+
+        @Override
+        public Call<ResponseBody> getPodcastStream(String xMashapeKey, String podcastId,
+                                                   Long nextEpisodePubDate) {
+            return podcastService.getPodcastStream(xMashapeKey, podcastId, nextEpisodePubDate);
+        }
+
+        @Override
+        public Call<Search> search(String xMashapeKey, String query, int offset) {
+            return podcastService.search(xMashapeKey, query, offset);
+        }
+    }
+
+    private static class FailOnCancelCall<T> implements Call<T> {
+
+        private final Call<T> delegate;
+        private volatile Callback<T> callback;
+
+        FailOnCancelCall(Call<T> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Response<T> execute() throws IOException {
+            return delegate.execute();
+        }
+
+        @Override
+        public void enqueue(Callback<T> callback) {
+            this.callback = callback;
+            delegate.enqueue(new Callback<T>() {
+                @Override
+                public void onResponse(Call<T> call, Response<T> response) {
+                    if (!delegate.isCanceled()) callback.onResponse(FailOnCancelCall.this, response);
+                }
+
+                @Override
+                public void onFailure(Call<T> call, Throwable t) {
+                    if (!delegate.isCanceled()) callback.onFailure(FailOnCancelCall.this, t);
+                }
+            });
+        }
+
+        @Override
+        public boolean isExecuted() {
+            return delegate.isExecuted();
+        }
+
+        @Override
+        public void cancel() {
+            delegate.cancel();
+            if (callback != null) callback.onFailure(this, new IOException("Canceled"));
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return delegate.isCanceled();
+        }
+
+        @Override
+        public Call<T> clone() {
+            return new FailOnCancelCall<>(delegate.clone());
+        }
+
+        @Override
+        public Request request() {
+            return delegate.request();
+        }
+    }
+}
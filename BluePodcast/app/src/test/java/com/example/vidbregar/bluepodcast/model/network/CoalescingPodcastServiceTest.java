@@ -0,0 +1,241 @@
+package com.example.vidbregar.bluepodcast.model.network;
+
+import com.example.vidbregar.bluepodcast.model.data.PodcastGenre;
+import com.example.vidbregar.bluepodcast.model.network.quota.RequestPriority;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CoalescingPodcastServiceTest {
+
+    private static final String API_KEY = "test-key";
+    private static final String GENRE_BODY = "{\"id\": 133, \"name\": \"Comedy\", \"channels\": []}";
+    private static final int CALLERS = 10;
+
+    private MockWebServer server;
+    private SingleFlight singleFlight;
+    private PodcastService podcastService;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        Retrofit retrofit = new Retrofit.Builder()
+                .baseUrl(server.url("/"))
+                .addConverterFactory(GsonConverterFactory.create())
+                .build();
+        singleFlight = new SingleFlight();
+        podcastService = new CoalescingPodcastService(retrofit.create(PodcastService.class), singleFlight);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void concurrentIdenticalRequests_shareOneExchange() throws Exception {
+        server.enqueue(new MockResponse()
+                .setBody(GENRE_BODY)
+                // MockWebServer does not honor a headers delay
+                .setBodyDelay(300, TimeUnit.MILLISECONDS));
+
+        List<PodcastGenre> bodies = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch latch = new CountDownLatch(CALLERS);
+        for (int i = 0; i < CALLERS; i++) {
+            podcastService.getGenrePodcasts(API_KEY, 133, RequestPriority.INTERACTIVE).enqueue(new Callback<PodcastGenre>() {
+                @Override
+                public void onResponse(Call<PodcastGenre> call, Response<PodcastGenre> response) {
+                    bodies.add(response.body());
+                    latch.countDown();
+                }
+
+                @Override
+                public void onFailure(Call<PodcastGenre> call, Throwable t) {
+                    latch.countDown();
+                }
+            });
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(1, server.getRequestCount());
+        assertEquals(CALLERS, bodies.size());
+        for (PodcastGenre body : bodies) {
+            assertSame(bodies.get(0), body);
+        }
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    @Test
+    public void concurrentSynchronousRequests_shareOneExchange() throws Exception {
+        // Holds the response back until every caller has joined, however slowly threads start
+        CountDownLatch responseReleased = new CountDownLatch(1);
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                responseReleased.await(5, TimeUnit.SECONDS);
+                return new MockResponse().setBody(GENRE_BODY);
+            }
+        });
+
+        List<PodcastGenre> bodies = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    Call<PodcastGenre> call = podcastService.getGenrePodcasts(API_KEY, 133, RequestPriority.INTERACTIVE);
+                    bodies.add(call.execute().body());
+                } catch (Exception ignored) {
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        awaitWaiters(CALLERS);
+        responseReleased.countDown();
+        for (Thread thread : threads) {
+            thread.join(5000);
+        }
+
+        assertEquals(1, server.getRequestCount());
+        assertEquals(CALLERS, bodies.size());
+    }
+
+    @Test
+    public void canceledCaller_isNotCalledBackWhileCanceling() throws Exception {
+        CountDownLatch responseReleased = new CountDownLatch(1);
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                responseReleased.await(5, TimeUnit.SECONDS);
+                return new MockResponse().setBody(GENRE_BODY);
+            }
+        });
+        List<String> canceledCallbacks = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch otherDone = new CountDownLatch(1);
+        Call<PodcastGenre> canceled = podcastService.getGenrePodcasts(API_KEY, 133, RequestPriority.INTERACTIVE);
+        canceled.enqueue(new Callback<PodcastGenre>() {
+            @Override
+            public void onResponse(Call<PodcastGenre> call, Response<PodcastGenre> response) {
+                canceledCallbacks.add("response");
+            }
+
+            @Override
+            public void onFailure(Call<PodcastGenre> call, Throwable t) {
+                canceledCallbacks.add("failure on " + Thread.currentThread().getName());
+            }
+        });
+        List<PodcastGenre> bodies = Collections.synchronizedList(new ArrayList<>());
+        podcastService.getGenrePodcasts(API_KEY, 133, RequestPriority.INTERACTIVE).enqueue(new Callback<PodcastGenre>() {
+            @Override
+            public void onResponse(Call<PodcastGenre> call, Response<PodcastGenre> response) {
+                bodies.add(response.body());
+                otherDone.countDown();
+            }
+
+            @Override
+            public void onFailure(Call<PodcastGenre> call, Throwable t) {
+                otherDone.countDown();
+            }
+        });
+
+        canceled.cancel();
+        assertTrue(canceledCallbacks.isEmpty());
+        responseReleased.countDown();
+
+        assertTrue(otherDone.await(5, TimeUnit.SECONDS));
+        assertEquals(1, bodies.size());
+        assertTrue(canceled.isCanceled());
+        assertTrue(canceledCallbacks.isEmpty());
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void differentArguments_areNotCoalesced() throws Exception {
+        server.enqueue(new MockResponse().setBody(GENRE_BODY));
+        server.enqueue(new MockResponse().setBody(GENRE_BODY));
+
+        podcastService.getGenrePodcasts(API_KEY, 133, RequestPriority.INTERACTIVE).execute();
+        podcastService.getGenrePodcasts(API_KEY, 93, RequestPriority.INTERACTIVE).execute();
+
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void concurrentRequestsOfDifferentPriorities_areNotCoalesced() throws Exception {
+        // Only answers once both requests are in flight at the same time
+        CountDownLatch bothArrived = new CountDownLatch(2);
+        List<String> priorities = Collections.synchronizedList(new ArrayList<>());
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                priorities.add(request.getHeader(RequestPriority.HEADER));
+                bothArrived.countDown();
+                bothArrived.await(5, TimeUnit.SECONDS);
+                return new MockResponse().setBody(GENRE_BODY);
+            }
+        });
+
+        CountDownLatch latch = new CountDownLatch(2);
+        Callback<PodcastGenre> callback = new Callback<PodcastGenre>() {
+            @Override
+            public void onResponse(Call<PodcastGenre> call, Response<PodcastGenre> response) {
+                latch.countDown();
+            }
+
+            @Override
+            public void onFailure(Call<PodcastGenre> call, Throwable t) {
+                latch.countDown();
+            }
+        };
+        podcastService.getGenrePodcasts(API_KEY, 133, RequestPriority.BACKGROUND).enqueue(callback);
+        podcastService.getGenrePodcasts(API_KEY, 133, RequestPriority.INTERACTIVE).enqueue(callback);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(2, server.getRequestCount());
+        assertTrue(priorities.contains(RequestPriority.INTERACTIVE.name()));
+        assertTrue(priorities.contains(RequestPriority.BACKGROUND.name()));
+    }
+
+    @Test
+    public void sequentialRequests_hitTheNetworkAgain() throws Exception {
+        server.enqueue(new MockResponse().setBody(GENRE_BODY));
+        server.enqueue(new MockResponse().setBody(GENRE_BODY));
+
+        podcastService.getGenrePodcasts(API_KEY, 133, RequestPriority.INTERACTIVE).execute();
+        podcastService.getGenrePodcasts(API_KEY, 133, RequestPriority.INTERACTIVE).execute();
+
+        assertEquals(2, server.getRequestCount());
+    }
+
+    // Waits until the callers have joined the flight, not for some time to pass
+    private void awaitWaiters(int waiters) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (singleFlight.waiterCount() < waiters) {
+            assertTrue("Only " + singleFlight.waiterCount() + " callers joined",
+                    System.nanoTime() < deadline);
+            Thread.yield();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.vidbregar.bluepodcast.model.network;
+
+import com.example.vidbregar.bluepodcast.Fixtures;
+import com.example.vidbregar.bluepodcast.model.data.Episode;
+import com.example.vidbregar.bluepodcast.model.data.Podcast;
+import com.google.gson.Gson;
+
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PodcastStreamParserTest {
+
+    private static final int EPISODE_COUNT = 500;
+    private static final int WARM_UP_ITERATIONS = 20;
+    private static final int MEASURED_ITERATIONS = 20;
+
+    @Test
+    public void parse_matchesGsonWithoutDescriptions() throws Exception {
+        String json = Fixtures.podcastWithEpisodes(EPISODE_COUNT);
+        Podcast expected = new Gson().fromJson(json, Podcast.class);
+
+        Podcast actual = new PodcastStreamParser().parse(new StringReader(json), episodes -> { });
+
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getTitle(), actual.getTitle());
+        assertEquals(expected.getPublisher(), actual.getPublisher());
+        assertEquals(expected.getDescription(), actual.getDescription());
+        assertEquals(EPISODE_COUNT, actual.getEpisodes().size());
+        for (int i = 0; i < EPISODE_COUNT; i++) {
+            Episode expectedEpisode = expected.getEpisodes().get(i);
+            Episode actualEpisode = actual.getEpisodes().get(i);
+            assertEquals(expectedEpisode.getId(), actualEpisode.getId());
+            assertEquals(expectedEpisode.getTitle(), actualEpisode.getTitle());
+            assertEquals(expectedEpisode.getAudioUrl(), actualEpisode.getAudioUrl());
+            assertEquals(expectedEpisode.getAudioLength(), actualEpisode.getAudioLength());
+            assertEquals(expectedEpisode.getPublicationDateMilliseconds(),
+                    actualEpisode.getPublicationDateMilliseconds());
+            assertNull(actualEpisode.getDescription());
+        }
+    }
+
+    @Test
+    public void parse_retainsDescriptionsWhenAsked() throws Exception {
+        String json = Fixtures.podcastWithEpisodes(3);
+
+        Podcast podcast = new PodcastStreamParser(10, 50, true)
+                .parse(new StringReader(json), episodes -> { });
+
+        assertNotNull(podcast.getEpisodes().get(0).getDescription());
+    }
+
+    @Test
+    public void parse_emitsSmallFirstBatchThenFullBatches() throws Exception {
+        String json = Fixtures.podcastWithEpisodes(125);
+        List<Integer> batchSizes = new ArrayList<>();
+
+        new PodcastStreamParser(10, 50, false)
+                .parse(new StringReader(json), episodes -> batchSizes.add(episodes.size()));
+
+        List<Integer> expected = new ArrayList<>();
+        expected.add(10);
+        expected.add(60);
+        expected.add(110);
+        expected.add(125);
+        assertEquals(expected, batchSizes);
+    }
+
+    @Test
+    public void parse_withoutListenerReadsTheSameEpisodes() throws Exception {
+        String json = Fixtures.podcastWithEpisodes(125);
+        PodcastStreamParser parser = new PodcastStreamParser(true);
+
+        Podcast batched = parser.parse(new StringReader(json), episodes -> { });
+        Podcast single = parser.parse(new StringReader(json));
+
+        Gson gson = new Gson();
+        assertEquals(gson.toJsonTree(batched), gson.toJsonTree(single));
+        assertEquals(0, parser.parse(new StringReader(Fixtures.podcastWithEpisodes(0)))
+                .getEpisodes().size());
+    }
+
+    @Test
+    public void parse_emitsEmptyBatchForPodcastWithoutEpisodes() throws Exception {
+        String json = Fixtures.podcastWithEpisodes(0);
+        List<Integer> batchSizes = new ArrayList<>();
+
+        new PodcastStreamParser().parse(new StringReader(json), episodes -> batchSizes.add(episodes.size()));
+
+        assertEquals(1, batchSizes.size());
+        assertEquals(0, (int) batchSizes.get(0));
+    }
+
+    /**
+     * Compares time-to-first-row and allocated bytes of the streaming parser with the reflective
+     * Gson path that was used before.
+     */
+    @Test
+    public void measure_streamingAgainstGson() throws Exception {
+        String json = Fixtures.podcastWithEpisodes(EPISODE_COUNT);
+        Gson gson = new Gson();
+
+        for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+            gson.fromJson(json, Podcast.class);
+            new PodcastStreamParser().parse(new StringReader(json), episodes -> { });
+        }
+
+        long gsonNanos = 0;
+        long gsonBytes = 0;
+        long firstRowNanos = 0;
+        long streamingBytes = 0;
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            long allocatedBefore = Fixtures.allocatedBytes();
+            long startedAt = System.nanoTime();
+            gson.fromJson(json, Podcast.class);
+            gsonNanos += System.nanoTime() - startedAt;
+            gsonBytes += Fixtures.allocatedBytes() - allocatedBefore;
+
+            long[] firstRowAt = {0};
+            allocatedBefore = Fixtures.allocatedBytes();
+            long streamStartedAt = System.nanoTime();
+            new PodcastStreamParser().parse(new StringReader(json), episodes -> {
+                if (firstRowAt[0] == 0) firstRowAt[0] = System.nanoTime();
+            });
+            firstRowNanos += firstRowAt[0] - streamStartedAt;
+            streamingBytes += Fixtures.allocatedBytes() - allocatedBefore;
+        }
+
+        assertTrue(firstRowNanos < gsonNanos);
+        if (streamingBytes > 0) {
+            assertTrue(streamingBytes < gsonBytes);
+        }
+    }
+}
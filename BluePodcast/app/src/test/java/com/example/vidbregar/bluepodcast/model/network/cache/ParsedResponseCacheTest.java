@@ -0,0 +1,116 @@
+package com.example.vidbregar.bluepodcast.model.network.cache;
+
+import com.example.vidbregar.bluepodcast.model.data.PodcastGenre;
+import com.example.vidbregar.bluepodcast.model.data.Search;
+import com.example.vidbregar.bluepodcast.model.network.PodcastService;
+import com.example.vidbregar.bluepodcast.model.network.quota.RequestPriority;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import okhttp3.Cache;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class ParsedResponseCacheTest {
+
+    private static final String API_KEY = "test-key";
+    private static final String BODY = "{\"channels\":[{\"id\":\"1\",\"title\":\"Podcast\"}]}";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private MockWebServer server;
+    private CacheStats cacheStats;
+    private PodcastService podcastService;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        cacheStats = new CacheStats();
+        OkHttpClient client = new OkHttpClient.Builder()
+                .cache(new Cache(temporaryFolder.newFolder(), 1024 * 1024))
+                .addInterceptor(new ConditionalResponseInterceptor(cacheStats))
+                .build();
+        podcastService = new Retrofit.Builder()
+                .baseUrl(server.url("/"))
+                .client(client)
+                .addConverterFactory(new ParsedResponseConverterFactory(
+                        GsonConverterFactory.create(), new ParsedResponseCache(cacheStats)))
+                .build()
+                .create(PodcastService.class);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void notModified_reusesTheParsedResponse() throws Exception {
+        server.enqueue(catalogResponse("\"v1\""));
+        server.enqueue(new MockResponse().setResponseCode(304).setHeader("ETag", "\"v1\""));
+
+        PodcastGenre first = bestPodcasts();
+        PodcastGenre second = bestPodcasts();
+
+        assertSame(first, second);
+        assertNull(server.takeRequest().getHeader("If-None-Match"));
+        assertEquals("\"v1\"", server.takeRequest().getHeader("If-None-Match"));
+        assertEquals(1, cacheStats.getNotModified());
+        assertEquals(BODY.length(), cacheStats.getNotModifiedBytes());
+        assertEquals(1, cacheStats.getReusedParses());
+    }
+
+    @Test
+    public void changedValidator_parsesTheNewResponse() throws Exception {
+        server.enqueue(catalogResponse("\"v1\""));
+        server.enqueue(catalogResponse("\"v2\""));
+
+        PodcastGenre first = bestPodcasts();
+        PodcastGenre second = bestPodcasts();
+
+        assertNotSame(first, second);
+        assertEquals("Podcast", second.getChannels().get(0).getTitle());
+        assertEquals(0, cacheStats.getNotModified());
+        assertEquals(0, cacheStats.getReusedParses());
+    }
+
+    @Test
+    public void otherEndpoints_areAlwaysParsed() throws Exception {
+        server.enqueue(catalogResponse("\"v1\""));
+        server.enqueue(new MockResponse().setResponseCode(304).setHeader("ETag", "\"v1\""));
+
+        Search first = podcastService.search(API_KEY, "tech", 0).execute().body();
+        Search second = podcastService.search(API_KEY, "tech", 0).execute().body();
+
+        assertNotSame(first, second);
+        assertEquals(0, cacheStats.getNotModified());
+        assertEquals(0, cacheStats.getReusedParses());
+    }
+
+    private PodcastGenre bestPodcasts() throws Exception {
+        return podcastService.getBestPodcasts(API_KEY, RequestPriority.INTERACTIVE).execute().body();
+    }
+
+    // Stored by the cache, but revalidated on every request
+    private static MockResponse catalogResponse(String eTag) {
+        return new MockResponse()
+                .setHeader("Content-Type", "application/json; charset=utf-8")
+                .setHeader("Cache-Control", "no-cache")
+                .setHeader("ETag", eTag)
+                .setBody(BODY);
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.vidbregar.bluepodcast.model.network.cache;
+
+import com.example.vidbregar.bluepodcast.Fixtures;
+import com.example.vidbregar.bluepodcast.model.data.Search;
+import com.example.vidbregar.bluepodcast.model.network.CachingPodcastService;
+import com.example.vidbregar.bluepodcast.model.network.PodcastService;
+import com.example.vidbregar.bluepodcast.model.network.json.ModelTypeAdapterFactory;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class SearchCacheTest {
+
+    private static final long TTL_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final Gson gson = new GsonBuilder()
+            .registerTypeAdapterFactory(new ModelTypeAdapterFactory())
+            .create();
+    private long nowMillis = 1_000_000;
+    private File directory;
+    private SearchCacheStats stats;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = temporaryFolder.newFolder("search-cache");
+        stats = new SearchCacheStats();
+    }
+
+    private SearchCache newCache(int maxMemoryEntries, int maxDiskEntries) {
+        return new SearchCache(directory, gson, maxMemoryEntries, maxDiskEntries, TTL_MILLIS,
+                () -> nowMillis, stats);
+    }
+
+    private Search page(int resultCount) throws Exception {
+        return gson.fromJson(Fixtures.searchWithResults(resultCount), Search.class);
+    }
+
+    @Test
+    public void queriesDifferingInCaseWhitespaceOrForm_shareAnEntry() throws Exception {
+        SearchCache cache = newCache(10, 10);
+        Search search = page(3);
+        cache.put("  Caf\u00e9   Society ", 0, search);
+
+        // Decomposed e with a combining accent
+        assertEquals(search, cache.get("cafe\u0301 society", 0));
+        assertEquals(search, cache.get("CAF\u00c9\tSOCIETY", 0));
+        assertNull(cache.get("caf\u00e9 society", 10));
+        assertEquals(2, stats.getMemoryHits());
+        assertEquals(1, stats.getMisses());
+    }
+
+    @Test
+    public void newInstance_servesPagesFromDisk() throws Exception {
+        newCache(10, 10).put("startup", 10, page(5));
+
+        SearchCache recreated = newCache(10, 10);
+        Search search = recreated.get("Startup", 10);
+
+        assertNotNull(search);
+        assertEquals(5, search.getResults().size());
+        assertEquals("result-4", search.getResults().get(4).getEpisodeId());
+        assertEquals(1, stats.getDiskHits());
+        // Promoted to memory
+        recreated.get("startup", 10);
+        assertEquals(1, stats.getMemoryHits());
+    }
+
+    @Test
+    public void pagesOlderThanTtl_areNotServed() throws Exception {
+        SearchCache cache = newCache(10, 10);
+        cache.put("startup", 0, page(1));
+
+        nowMillis += TTL_MILLIS - 1;
+        assertNotNull(cache.get("startup", 0));
+        nowMillis += 1;
+        assertNull(cache.get("startup", 0));
+        assertNull(newCache(10, 10).get("startup", 0));
+
+        assertEquals(1, stats.getExpirations());
+        assertEquals(2, stats.getMisses());
+    }
+
+    @Test
+    public void leastRecentlyUsedPages_areEvicted() throws Exception {
+        SearchCache cache = newCache(1, 2);
+        cache.put("a", 0, page(1));
+        nowMillis += 1000;
+        cache.put("b", 0, page(1));
+        nowMillis += 1000;
+        // Read from disk, which makes "a" the most recently used page there
+        assertNotNull(cache.get("a", 0));
+        nowMillis += 1000;
+        cache.put("c", 0, page(1));
+
+        assertEquals(1, stats.getEvictions());
+        assertEquals(2, directory.listFiles().length);
+        assertNull(cache.get("b", 0));
+        assertNotNull(cache.get("a", 0));
+        assertNotNull(cache.get("c", 0));
+    }
+
+    @Test
+    public void cachingPodcastService_answersRepeatedQueriesWithoutTheNetwork() throws Exception {
+        MockWebServer server = new MockWebServer();
+        server.enqueue(new MockResponse().setBody(Fixtures.searchWithResults(10)));
+        server.start();
+        try {
+            Retrofit retrofit = new Retrofit.Builder()
+                    .baseUrl(server.url("/"))
+                    .addConverterFactory(GsonConverterFactory.create(gson))
+                    .build();
+            Executor directExecutor = Runnable::run;
+            PodcastService podcastService = new CachingPodcastService(
+                    retrofit.create(PodcastService.class), newCache(10, 10),
+                    directExecutor, directExecutor);
+
+            Response<Search> first = podcastService.search("key", "startup", 0).execute();
+            Response<Search> repeated = podcastService.search("key", " StartUp", 0).execute();
+
+            assertEquals(1, server.getRequestCount());
+            assertEquals(10, first.body().getResults().size());
+            assertEquals(first.body(), repeated.body());
+            assertEquals(0.5, stats.getHitRate(), 0);
+        } finally {
+            server.shutdown();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.vidbregar.bluepodcast.model.network.json;
+
+import com.example.vidbregar.bluepodcast.Fixtures;
+import com.example.vidbregar.bluepodcast.model.data.Podcast;
+import com.example.vidbregar.bluepodcast.model.data.PodcastGenre;
+import com.example.vidbregar.bluepodcast.model.data.Search;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ModelTypeAdapterFactoryTest {
+
+    // Real page sizes of the ListenNotes endpoints, and a long running show for podcasts/{id}
+    private static final int CHANNEL_COUNT = 20;
+    private static final int RESULT_COUNT = 10;
+    private static final int EPISODE_COUNT = 500;
+    private static final int WARM_UP_ITERATIONS = 200;
+    private static final int MEASURED_ITERATIONS = 200;
+    // Relative to the module, next to Gradle's test reports
+    private static final File RESULTS_FILE = new File("build/benchmarks/model-type-adapters.txt");
+
+    private final Gson reflectiveGson = new Gson();
+    private final Gson generatedGson = new GsonBuilder()
+            .registerTypeAdapterFactory(new ModelTypeAdapterFactory())
+            .create();
+
+    @Test
+    public void read_genreMatchesReflectiveGson() throws Exception {
+        assertSameAsReflective(Fixtures.genreWithChannels(CHANNEL_COUNT), PodcastGenre.class);
+    }
+
+    @Test
+    public void read_podcastMatchesReflectiveGson() throws Exception {
+        assertSameAsReflective(Fixtures.podcastWithEpisodes(EPISODE_COUNT), Podcast.class);
+    }
+
+    @Test
+    public void read_searchMatchesReflectiveGson() throws Exception {
+        assertSameAsReflective(Fixtures.searchWithResults(RESULT_COUNT), Search.class);
+    }
+
+    @Test
+    public void read_handlesNullsLikeReflectiveGson() {
+        assertNull(generatedGson.fromJson("null", Podcast.class));
+        assertSameAsReflective("{\"name\":null,\"channels\":null,\"id\":null}", PodcastGenre.class);
+        assertSameAsReflective("{\"results\":[{\"pub_date_ms\":null}]}", Search.class);
+    }
+
+    @Test
+    public void write_isReadBackByReflectiveGson() throws Exception {
+        Podcast podcast = generatedGson.fromJson(Fixtures.podcastWithEpisodes(3), Podcast.class);
+
+        String json = generatedGson.toJson(podcast);
+
+        assertEquals(reflectiveGson.toJsonTree(podcast),
+                reflectiveGson.toJsonTree(reflectiveGson.fromJson(json, Podcast.class)));
+    }
+
+    /**
+     * Compares parse time and allocated bytes of the generated adapters with reflective Gson on
+     * each endpoint's payload. The timings are written to {@link #RESULTS_FILE}, only the
+     * allocations are checked.
+     */
+    @Test
+    public void measure_generatedAgainstReflective() throws Exception {
+        StringBuilder results = new StringBuilder();
+        measure("best_podcasts", Fixtures.genreWithChannels(CHANNEL_COUNT), PodcastGenre.class,
+                results);
+        measure("search", Fixtures.searchWithResults(RESULT_COUNT), Search.class, results);
+        measure("podcasts/{id}", Fixtures.podcastWithEpisodes(EPISODE_COUNT), Podcast.class,
+                results);
+        dumpTo(RESULTS_FILE, results.toString());
+    }
+
+    private <T> void assertSameAsReflective(String json, Class<T> type) {
+        T expected = reflectiveGson.fromJson(json, type);
+        T actual = generatedGson.fromJson(json, type);
+        // Serialize both reflectively so every field is compared, including ones without equals()
+        assertEquals(reflectiveGson.toJsonTree(expected), reflectiveGson.toJsonTree(actual));
+    }
+
+    private <T> void measure(String endpoint, String json, Class<T> type, StringBuilder results) {
+        for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+            reflectiveGson.fromJson(json, type);
+            generatedGson.fromJson(json, type);
+        }
+
+        long reflectiveNanos = 0;
+        long reflectiveBytes = 0;
+        long generatedNanos = 0;
+        long generatedBytes = 0;
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            long allocatedBefore = Fixtures.allocatedBytes();
+            long startedAt = System.nanoTime();
+            reflectiveGson.fromJson(json, type);
+            reflectiveNanos += System.nanoTime() - startedAt;
+            reflectiveBytes += Fixtures.allocatedBytes() - allocatedBefore;
+
+            allocatedBefore = Fixtures.allocatedBytes();
+            startedAt = System.nanoTime();
+            generatedGson.fromJson(json, type);
+            generatedNanos += System.nanoTime() - startedAt;
+            generatedBytes += Fixtures.allocatedBytes() - allocatedBefore;
+        }
+
+        results.append(String.format(
+                "%s, %d KB payload: reflective %.0f parses/s / %d KB allocated, generated %.0f parses/s / %d KB allocated%n",
+                endpoint,
+                json.length() / 1024,
+                MEASURED_ITERATIONS / (reflectiveNanos / 1e9),
+                reflectiveBytes / 1024 / MEASURED_ITERATIONS,
+                MEASURED_ITERATIONS / (generatedNanos / 1e9),
+                generatedBytes / 1024 / MEASURED_ITERATIONS));
+        if (generatedBytes > 0) {
+            assertTrue(endpoint + ": generated " + generatedBytes + " bytes, reflective "
+                    + reflectiveBytes, generatedBytes <= reflectiveBytes);
+        }
+    }
+
+    private static void dumpTo(File file, String results) throws IOException {
+        File directory = file.getParentFile();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), Charset.forName("UTF-8"))) {
+            writer.write(results);
+        }
+    }
+}
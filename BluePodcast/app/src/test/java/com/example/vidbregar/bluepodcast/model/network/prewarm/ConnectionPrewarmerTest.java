@@ -0,0 +1,198 @@
+package com.example.vidbregar.bluepodcast.model.network.prewarm;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.ConnectionPool;
+import okhttp3.Dns;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.internal.tls.HeldCertificate;
+import okhttp3.mockwebserver.internal.tls.SslClient;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ConnectionPrewarmerTest {
+
+    // Loopback resolves instantly, a mobile resolver typically takes tens of milliseconds
+    private static final long SIMULATED_DNS_MILLIS = 40;
+    private static final int TRIALS = 15;
+
+    private SslClient sslClient;
+    private MockWebServer server;
+
+    @Before
+    public void setUp() throws Exception {
+        // Signed by a CA of its own, current JDKs do not accept a self-signed leaf as trust anchor
+        HeldCertificate rootCertificate = new HeldCertificate.Builder()
+                .serialNumber("1")
+                .ca(1)
+                .commonName("root")
+                .build();
+        HeldCertificate localhostCertificate = new HeldCertificate.Builder()
+                .serialNumber("2")
+                .issuedBy(rootCertificate)
+                .commonName("localhost")
+                .subjectAlternativeName("localhost")
+                .build();
+        sslClient = new SslClient.Builder()
+                .certificateChain(localhostCertificate, rootCertificate)
+                .addTrustedCertificate(rootCertificate.certificate)
+                .build();
+        server = new MockWebServer();
+        server.useHttps(sslClient.socketFactory, false);
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse().setBody("{}");
+            }
+        });
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void prewarm_leavesConnectionForFirstRequest() throws Exception {
+        OkHttpClient client = client(Dns.SYSTEM).build();
+        new ConnectionPrewarmer(client, server.url("/"), Runnable::run).prewarm();
+
+        execute(client, "/api/v1/best_podcasts");
+
+        RecordedRequest prewarmRequest = server.takeRequest();
+        RecordedRequest firstRequest = server.takeRequest();
+        assertEquals("HEAD", prewarmRequest.getMethod());
+        assertEquals(0, prewarmRequest.getSequenceNumber());
+        // Same connection
+        assertEquals(1, firstRequest.getSequenceNumber());
+    }
+
+    @Test
+    public void prewarm_bypassesInterceptors() throws Exception {
+        AtomicInteger intercepted = new AtomicInteger();
+        OkHttpClient client = client(Dns.SYSTEM)
+                .addInterceptor(chain -> {
+                    intercepted.incrementAndGet();
+                    return chain.proceed(chain.request());
+                })
+                .build();
+
+        new ConnectionPrewarmer(client, server.url("/"), Runnable::run).prewarm();
+
+        assertEquals(1, server.getRequestCount());
+        assertEquals(0, intercepted.get());
+    }
+
+    @Test
+    public void prefetchDns_resolvesEachHostOnceUntilItFails() {
+        List<String> lookups = new ArrayList<>();
+        Dns dns = hostname -> {
+            lookups.add(hostname);
+            if (hostname.equals("offline.example.com")) throw new UnknownHostException(hostname);
+            return Collections.singletonList(InetAddress.getLoopbackAddress());
+        };
+        ConnectionPrewarmer prewarmer = new ConnectionPrewarmer(client(dns).build(),
+                server.url("/"), Runnable::run);
+
+        prewarmer.prefetchDns(Arrays.asList(
+                "https://cdn.example.com/1.mp3",
+                "https://cdn.example.com/2.mp3",
+                "https://www.listennotes.com/e/p/abc/",
+                "https://offline.example.com/3.mp3",
+                "not a url",
+                null));
+        prewarmer.prefetchDns(Arrays.asList(
+                "https://cdn.example.com/4.mp3",
+                "https://offline.example.com/5.mp3"));
+
+        assertEquals(Arrays.asList(
+                "cdn.example.com",
+                "www.listennotes.com",
+                "offline.example.com",
+                "offline.example.com"), lookups);
+    }
+
+    /**
+     * Compares the time to first byte of the first request on a cold client with one that was
+     * pre-warmed, over TLS and with a simulated DNS lookup.
+     */
+    @Test
+    public void measure_timeToFirstByteWithPrewarm() throws Exception {
+        Dns slowDns = hostname -> {
+            try {
+                Thread.sleep(SIMULATED_DNS_MILLIS);
+            } catch (InterruptedException e) {
+                throw new UnknownHostException(hostname);
+            }
+            return Dns.SYSTEM.lookup(hostname);
+        };
+        // Loads the TLS classes so the first trial is not penalized
+        execute(client(Dns.SYSTEM).build(), "/");
+
+        long[] coldMicros = new long[TRIALS];
+        long[] warmMicros = new long[TRIALS];
+        for (int i = 0; i < TRIALS; i++) {
+            coldMicros[i] = timeToFirstByteMicros(client(slowDns).build());
+
+            OkHttpClient warmClient = client(slowDns).build();
+            new ConnectionPrewarmer(warmClient, server.url("/"), Runnable::run).prewarm();
+            warmMicros[i] = timeToFirstByteMicros(warmClient);
+        }
+
+        long coldMedian = median(coldMicros);
+        long warmMedian = median(warmMicros);
+        assertTrue(warmMedian < coldMedian);
+    }
+
+    private OkHttpClient.Builder client(Dns dns) {
+        // A pool of its own, otherwise connections leak from one client into the next
+        return new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool())
+                .dns(dns)
+                .sslSocketFactory(sslClient.socketFactory, sslClient.trustManager);
+    }
+
+    private long timeToFirstByteMicros(OkHttpClient client) throws Exception {
+        long startedAt = System.nanoTime();
+        try (Response response = client.newCall(new Request.Builder()
+                .url(server.url("/api/v1/best_podcasts"))
+                .build()).execute()) {
+            long elapsed = System.nanoTime() - startedAt;
+            response.body().string();
+            return TimeUnit.NANOSECONDS.toMicros(elapsed);
+        }
+    }
+
+    private void execute(OkHttpClient client, String path) throws Exception {
+        try (Response response = client.newCall(new Request.Builder()
+                .url(server.url(path))
+                .build()).execute()) {
+            response.body().string();
+        }
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.vidbregar.bluepodcast.model.network.quota;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ApiQuotaTest {
+
+    private static final int BURST = 10;
+    private static final long REFILL_MILLIS = 1000;
+    private static final int DAILY_BUDGET = 20;
+    private static final String ENDPOINT = "best_podcasts";
+
+    private final InMemoryQuotaStore store = new InMemoryQuotaStore();
+    private long nowMillis = 1_500_000_000_000L;
+    private MockWebServer server;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void tryAcquire_waitsForRefillOnceTheBurstIsSpent() {
+        ApiQuota apiQuota = quota();
+        for (int i = 0; i < BURST; i++) {
+            assertEquals(0, apiQuota.tryAcquire(RequestPriority.INTERACTIVE, ENDPOINT));
+        }
+
+        assertEquals(REFILL_MILLIS, apiQuota.tryAcquire(RequestPriority.INTERACTIVE, ENDPOINT));
+        nowMillis += REFILL_MILLIS;
+        assertEquals(0, apiQuota.tryAcquire(RequestPriority.INTERACTIVE, ENDPOINT));
+    }
+
+    @Test
+    public void tryAcquire_keepsPartOfTheBucketForMoreImportantRequests() {
+        ApiQuota apiQuota = quota();
+        int background = 0;
+        while (apiQuota.tryAcquire(RequestPriority.BACKGROUND, ENDPOINT) == 0) background++;
+        int prefetch = 0;
+        while (apiQuota.tryAcquire(RequestPriority.PREFETCH, ENDPOINT) == 0) prefetch++;
+        int interactive = 0;
+        while (apiQuota.tryAcquire(RequestPriority.INTERACTIVE, ENDPOINT) == 0) interactive++;
+
+        // Half the bucket is kept from background requests, a fifth from prefetches
+        assertEquals(5, background);
+        assertEquals(3, prefetch);
+        assertEquals(2, interactive);
+    }
+
+    @Test
+    public void tryAcquire_shedsLowPrioritiesFirstWhenTheDailyBudgetRunsLow() {
+        ApiQuota apiQuota = quota();
+        spend(apiQuota, RequestPriority.INTERACTIVE, 14);
+
+        assertEquals(-1, apiQuota.tryAcquire(RequestPriority.BACKGROUND, ENDPOINT));
+        assertEquals(0, apiQuota.tryAcquire(RequestPriority.PREFETCH, ENDPOINT));
+        spend(apiQuota, RequestPriority.INTERACTIVE, 3);
+        assertEquals(-1, apiQuota.tryAcquire(RequestPriority.PREFETCH, ENDPOINT));
+        spend(apiQuota, RequestPriority.INTERACTIVE, 2);
+        assertEquals(-1, apiQuota.tryAcquire(RequestPriority.INTERACTIVE, ENDPOINT));
+
+        nowMillis += TimeUnit.DAYS.toMillis(1);
+        assertEquals(0, apiQuota.getSpentToday());
+        assertEquals(0, apiQuota.tryAcquire(RequestPriority.BACKGROUND, ENDPOINT));
+    }
+
+    @Test
+    public void spending_survivesARestart() {
+        ApiQuota apiQuota = quota();
+        spend(apiQuota, RequestPriority.INTERACTIVE, 3);
+        apiQuota.tryAcquire(RequestPriority.PREFETCH, "search");
+        apiQuota.recordShed(RequestPriority.BACKGROUND);
+
+        ApiQuota restored = quota();
+
+        assertEquals(4, restored.getSpentToday());
+        assertEquals(Long.valueOf(3), restored.getSpentByEndpoint().get(ENDPOINT));
+        assertEquals(Long.valueOf(1), restored.getSpentByEndpoint().get("search"));
+        assertEquals(Long.valueOf(1), restored.getShedByPriority().get(RequestPriority.BACKGROUND));
+        // Neither is the bucket refilled by restarting, two tokens were taken since it was full
+        int acquired = 0;
+        while (restored.tryAcquire(RequestPriority.INTERACTIVE, ENDPOINT) == 0) acquired++;
+        assertEquals(BURST - 2, acquired);
+    }
+
+    @Test
+    public void interceptor_shedsBackgroundRequestsAndStripsThePriority() throws Exception {
+        ApiQuota apiQuota = quota();
+        for (int i = 0; i < BURST / 2; i++) {
+            apiQuota.tryAcquire(RequestPriority.INTERACTIVE, ENDPOINT);
+        }
+        OkHttpClient client = new OkHttpClient.Builder()
+                .addInterceptor(new QuotaInterceptor(apiQuota, 0, 0))
+                .build();
+        server.enqueue(new MockResponse().setBody("ok"));
+
+        try {
+            client.newCall(request(RequestPriority.BACKGROUND)).execute();
+            fail();
+        } catch (QuotaExceededException e) {
+            assertEquals(RequestPriority.BACKGROUND, e.getPriority());
+        }
+        try (Response response = client.newCall(request(RequestPriority.PREFETCH)).execute()) {
+            assertEquals("ok", response.body().string());
+        }
+
+        assertEquals(1, server.getRequestCount());
+        assertNull(server.takeRequest().getHeader(RequestPriority.HEADER));
+        assertEquals(Long.valueOf(1), apiQuota.getShedByPriority().get(RequestPriority.BACKGROUND));
+        assertTrue(apiQuota.report().contains("spent 6 of 20 today"));
+    }
+
+    @Test
+    public void interceptor_shedsOnAWarmConnectionOnceAndKeepsIt() throws Exception {
+        ApiQuota apiQuota = quota();
+        OkHttpClient client = new OkHttpClient.Builder()
+                .addInterceptor(new QuotaInterceptor(apiQuota, 0, 0))
+                .build();
+        server.enqueue(new MockResponse().setBody("ok"));
+        server.enqueue(new MockResponse().setBody("ok"));
+        client.newCall(request(RequestPriority.INTERACTIVE)).execute().close();
+        while (apiQuota.tryAcquire(RequestPriority.BACKGROUND, ENDPOINT) == 0) {
+            // Spends what background requests may have
+        }
+
+        try {
+            client.newCall(request(RequestPriority.BACKGROUND)).execute();
+            fail();
+        } catch (QuotaExceededException expected) {
+        }
+        client.newCall(request(RequestPriority.PREFETCH)).execute().close();
+
+        assertEquals(Long.valueOf(1), apiQuota.getShedByPriority().get(RequestPriority.BACKGROUND));
+        assertEquals(2, server.getRequestCount());
+        assertEquals(0, server.takeRequest().getSequenceNumber());
+        // The second exchange on the connection opened by the first
+        assertEquals(1, server.takeRequest().getSequenceNumber());
+        assertEquals(1, client.connectionPool().connectionCount());
+    }
+
+    private ApiQuota quota() {
+        return new ApiQuota(BURST, REFILL_MILLIS, DAILY_BUDGET, store, () -> nowMillis);
+    }
+
+    private void spend(ApiQuota apiQuota, RequestPriority priority, int requests) {
+        for (int i = 0; i < requests; i++) {
+            // Keeps the bucket out of the way of the daily budget
+            nowMillis += BURST * REFILL_MILLIS;
+            assertEquals(0, apiQuota.tryAcquire(priority, ENDPOINT));
+        }
+    }
+
+    private Request request(RequestPriority priority) {
+        return new Request.Builder()
+                .url(server.url("/api/v1/best_podcasts"))
+                .header(RequestPriority.HEADER, priority.name())
+                .build();
+    }
+
+    private static class InMemoryQuotaStore implements QuotaStore {
+
+        private Map<String, Long> values = new HashMap<>();
+
+        @Override
+        public Map<String, Long> load() {
+            return new HashMap<>(values);
+        }
+
+        @Override
+        public void save(Map<String, Long> values) {
+            this.values = new HashMap<>(values);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.vidbregar.bluepodcast.model.network.resilience;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Cache;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.SocketPolicy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ResilienceInterceptorsTest {
+
+    private static final int FAILURE_THRESHOLD = 3;
+    private static final long OPEN_MILLIS = 30 * 1000;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private MockWebServer server;
+    private ResilienceStats resilienceStats;
+    private long nowMillis;
+    private CircuitBreakerInterceptor circuitBreakerInterceptor;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        resilienceStats = new ResilienceStats();
+        circuitBreakerInterceptor = new CircuitBreakerInterceptor(FAILURE_THRESHOLD, OPEN_MILLIS,
+                () -> nowMillis, resilienceStats);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void retry_recoversFromTransientServerErrors() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setResponseCode(502));
+        server.enqueue(new MockResponse().setBody("ok"));
+
+        Response response = execute(retryingClient().build(), get());
+
+        assertEquals(200, response.code());
+        assertEquals("ok", response.body().string());
+        assertEquals(3, server.getRequestCount());
+        assertEquals(2, resilienceStats.getRetries());
+    }
+
+    @Test
+    public void retry_recoversFromTimeout() throws Exception {
+        server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE));
+        server.enqueue(new MockResponse().setBody("ok"));
+
+        Response response = execute(retryingClient()
+                .readTimeout(200, TimeUnit.MILLISECONDS)
+                .build(), get());
+
+        assertEquals("ok", response.body().string());
+        assertEquals(1, resilienceStats.getRetries());
+    }
+
+    @Test
+    public void retry_returnsLastErrorWhenRetriesAreExhausted() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            server.enqueue(new MockResponse().setResponseCode(500));
+        }
+        server.enqueue(new MockResponse().setBody("too late"));
+
+        Response response = execute(retryingClient().build(), get());
+
+        assertEquals(500, response.code());
+        assertEquals(3, server.getRequestCount());
+        assertEquals(1, resilienceStats.getRetriesExhausted());
+    }
+
+    @Test
+    public void retry_leavesNonIdempotentRequestsAndClientErrorsAlone() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setResponseCode(404));
+        OkHttpClient client = retryingClient().build();
+
+        Response postResponse = execute(client, new Request.Builder()
+                .url(server.url("/api/v1/search"))
+                .post(RequestBody.create(MediaType.parse("text/plain"), "q"))
+                .build());
+        Response getResponse = execute(client, get());
+
+        assertEquals(503, postResponse.code());
+        assertEquals(404, getResponse.code());
+        assertEquals(2, server.getRequestCount());
+        assertEquals(0, resilienceStats.getRetries());
+    }
+
+    @Test
+    public void retry_delaysAreJitteredAndCapped() {
+        RetryInterceptor retryInterceptor = new RetryInterceptor(10, 100, 1000, new Random(1),
+                resilienceStats);
+
+        for (int retry = 0; retry < 10; retry++) {
+            long ceiling = Math.min(1000, 100L << retry);
+            for (int i = 0; i < 100; i++) {
+                long delay = retryInterceptor.delayMillis(retry);
+                assertTrue(delay >= 0 && delay < ceiling);
+            }
+        }
+    }
+
+    @Test
+    public void circuitBreaker_opensAfterConsecutiveFailuresAndFailsFast() throws Exception {
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            server.enqueue(new MockResponse().setResponseCode(500));
+        }
+        OkHttpClient client = breakingClient().build();
+
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            execute(client, get()).close();
+        }
+        try {
+            execute(client, get());
+            fail();
+        } catch (CircuitOpenException expected) {
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreakerInterceptor.getState(server.getHostName()));
+        assertEquals(FAILURE_THRESHOLD, server.getRequestCount());
+        assertEquals(1, resilienceStats.getTrips());
+        assertEquals(1, resilienceStats.getShortCircuits());
+    }
+
+    @Test
+    public void circuitBreaker_servesCachedDataWhileOpen() throws Exception {
+        server.enqueue(new MockResponse()
+                .setHeader("Cache-Control", "max-age=0")
+                .setBody("cached"));
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            server.enqueue(new MockResponse().setResponseCode(500));
+        }
+        OkHttpClient client = breakingClient()
+                .cache(new Cache(temporaryFolder.newFolder("http-cache"), 1024 * 1024))
+                .build();
+
+        execute(client, get()).body().string();
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            execute(client, get()).close();
+        }
+        Response response = execute(client, get());
+
+        assertEquals("cached", response.body().string());
+        assertEquals(1 + FAILURE_THRESHOLD, server.getRequestCount());
+        assertEquals(1, resilienceStats.getCachedFallbacks());
+    }
+
+    @Test
+    public void circuitBreaker_probesAfterOpenPeriod() throws Exception {
+        for (int i = 0; i < FAILURE_THRESHOLD + 1; i++) {
+            server.enqueue(new MockResponse().setResponseCode(500));
+        }
+        server.enqueue(new MockResponse().setBody("ok"));
+        OkHttpClient client = breakingClient().build();
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            execute(client, get()).close();
+        }
+
+        // A failed probe opens the circuit for another period
+        nowMillis += OPEN_MILLIS;
+        execute(client, get()).close();
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreakerInterceptor.getState(server.getHostName()));
+        assertEquals(2, resilienceStats.getTrips());
+
+        nowMillis += OPEN_MILLIS;
+        Response response = execute(client, get());
+
+        assertEquals("ok", response.body().string());
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreakerInterceptor.getState(server.getHostName()));
+        assertEquals(1, resilienceStats.getRecoveries());
+    }
+
+    @Test
+    public void retriesStopOnceTheCircuitOpens() throws Exception {
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            server.enqueue(new MockResponse().setResponseCode(503));
+        }
+        OkHttpClient client = new OkHttpClient.Builder()
+                .addInterceptor(new RetryInterceptor(5, 1, 1, new Random(), resilienceStats))
+                .addInterceptor(circuitBreakerInterceptor)
+                .build();
+
+        try {
+            execute(client, get());
+            fail();
+        } catch (CircuitOpenException expected) {
+        }
+
+        assertEquals(FAILURE_THRESHOLD, server.getRequestCount());
+        assertEquals(FAILURE_THRESHOLD, resilienceStats.getRetries());
+    }
+
+    private OkHttpClient.Builder retryingClient() {
+        return new OkHttpClient.Builder()
+                .addInterceptor(new RetryInterceptor(2, 1, 10, new Random(), resilienceStats));
+    }
+
+    private OkHttpClient.Builder breakingClient() {
+        return new OkHttpClient.Builder()
+                .addInterceptor(circuitBreakerInterceptor);
+    }
+
+    private Request get() {
+        return new Request.Builder().url(server.url("/api/v1/best_podcasts")).build();
+    }
+
+    private static Response execute(OkHttpClient client, Request request) throws IOException {
+        return client.newCall(request).execute();
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.vidbregar.bluepodcast.model.network.telemetry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Cache;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.SocketPolicy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class NetworkTelemetryTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private MockWebServer server;
+    private NetworkTelemetry telemetry;
+    private OkHttpClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        telemetry = new NetworkTelemetry();
+        client = new OkHttpClient.Builder()
+                .cache(new Cache(temporaryFolder.newFolder("http-cache"), 1024 * 1024))
+                .readTimeout(200, TimeUnit.MILLISECONDS)
+                .eventListenerFactory(telemetry)
+                .addInterceptor(telemetry.getInterceptor())
+                .build();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void histogram_percentilesStayWithinBucketPrecision() {
+        Histogram histogram = new Histogram();
+        for (int value = 1; value <= 10000; value++) {
+            histogram.record(value);
+        }
+
+        assertEquals(10000, histogram.getCount());
+        assertEquals(10000, histogram.getMax());
+        assertEquals(5000.5, histogram.getMean(), 0.001);
+        for (double percentile : new double[]{50, 90, 99}) {
+            long exact = (long) (percentile * 100);
+            long reported = histogram.getValueAtPercentile(percentile);
+            assertTrue(reported >= exact);
+            assertTrue(reported <= exact * 1.07);
+        }
+    }
+
+    @Test
+    public void histogram_bucketsAreContiguous() {
+        for (int index = 1; index < 500; index++) {
+            long lowest = Histogram.highestEquivalentValue(index - 1) + 1;
+            assertEquals(index, Histogram.indexOf(lowest));
+            assertEquals(index, Histogram.indexOf(Histogram.highestEquivalentValue(index)));
+        }
+    }
+
+    @Test
+    public void call_recordsPhasesUnderItsEndpoint() throws Exception {
+        server.enqueue(new MockResponse().setBody("{\"id\":\"a\"}"));
+        server.enqueue(new MockResponse().setBody("{\"id\":\"b\"}"));
+
+        execute("/api/v1/podcasts/a");
+        execute("/api/v1/podcasts/b");
+
+        EndpointTelemetry podcast = telemetry.getEndpoints().get(NetworkTelemetry.ENDPOINT_PODCAST);
+        assertEquals(1, telemetry.getEndpoints().size());
+        assertEquals(2, podcast.getCalls());
+        assertEquals(2, podcast.getTimeToFirstByteMicros().getCount());
+        assertEquals(2, podcast.getTotalMicros().getCount());
+        // The connection is reused for the second call
+        assertEquals(1, podcast.getConnectMicros().getCount());
+        assertEquals(10, podcast.getResponseBytes().getMax());
+        assertEquals(0, podcast.getCacheHits());
+        assertTrue(podcast.getFailures().isEmpty());
+    }
+
+    @Test
+    public void call_countsCacheHitsAndRevalidations() throws Exception {
+        server.enqueue(new MockResponse()
+                .setHeader("Cache-Control", "max-age=60")
+                .setBody("[]"));
+        server.enqueue(new MockResponse()
+                .setHeader("ETag", "\"v1\"")
+                .setHeader("Cache-Control", "no-cache")
+                .setBody("[]"));
+        server.enqueue(new MockResponse().setResponseCode(304));
+
+        execute("/api/v1/best_podcasts");
+        execute("/api/v1/best_podcasts");
+        execute("/api/v1/search?q=a");
+        execute("/api/v1/search?q=a");
+
+        assertEquals(1, telemetry.forEndpoint(NetworkTelemetry.ENDPOINT_BEST_PODCASTS).getCacheHits());
+        assertEquals(1, telemetry.forEndpoint(NetworkTelemetry.ENDPOINT_SEARCH).getNotModified());
+    }
+
+    @Test
+    public void call_classifiesFailures() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(500));
+        server.enqueue(new MockResponse().setResponseCode(404));
+        server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE));
+
+        execute("/api/v1/search?q=a");
+        execute("/api/v1/search?q=b");
+        try {
+            execute("/api/v1/search?q=c");
+            fail();
+        } catch (IOException expected) {
+        }
+
+        EndpointTelemetry search = telemetry.forEndpoint(NetworkTelemetry.ENDPOINT_SEARCH);
+        assertEquals(Long.valueOf(1), search.getFailures().get(NetworkTelemetry.FAILURE_HTTP_5XX));
+        assertEquals(Long.valueOf(1), search.getFailures().get(NetworkTelemetry.FAILURE_HTTP_4XX));
+        assertEquals(Long.valueOf(1), search.getFailures().get(NetworkTelemetry.FAILURE_TIMEOUT));
+        assertEquals(3, search.getTotalMicros().getCount());
+    }
+
+    @Test
+    public void dumpTo_writesReportForEveryEndpoint() throws Exception {
+        server.enqueue(new MockResponse().setBody("{}"));
+        server.enqueue(new MockResponse().setBody("{}"));
+        execute("/api/v1/best_podcasts?genre_id=133");
+        execute("/api/v1/search?q=a");
+        File file = temporaryFolder.newFile("network-telemetry.txt");
+
+        telemetry.dumpTo(file);
+
+        String report = new String(java.nio.file.Files.readAllBytes(file.toPath()), "UTF-8");
+        assertEquals(telemetry.report(), report);
+        assertTrue(report.contains("best_podcasts: 1 calls"));
+        assertTrue(report.contains("search: 1 calls"));
+        assertTrue(report.contains("ttfb"));
+    }
+
+    private void execute(String path) throws IOException {
+        Request request = new Request.Builder().url(server.url(path)).build();
+        try (Response response = client.newCall(request).execute()) {
+            response.body().string();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.vidbregar.bluepodcast.model.playback;
+
+import com.example.vidbregar.bluepodcast.model.database.playback.PlaybackPositionEntity;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PlaybackPositionJournalTest {
+
+    private static final long FLUSH_INTERVAL_MILLIS = 30 * 1000;
+    private static final long TICK_MILLIS = 1000;
+    private static final String EPISODE = "https://example.com/episode.mp3";
+    private static final String OTHER_EPISODE = "https://example.com/other.mp3";
+
+    private final CountingStore store = new CountingStore();
+    private final List<Runnable> queuedWrites = new ArrayList<>();
+    private long nowMillis = 1_500_000_000_000L;
+
+    @Test
+    public void playback_costsTwoTransactionsPerMinute() {
+        PlaybackPositionJournal journal = journal();
+        int minutes = 10;
+
+        for (long played = 0; played < TimeUnit.MINUTES.toMillis(minutes); played += TICK_MILLIS) {
+            journal.record(EPISODE, played, TimeUnit.HOURS.toMillis(1));
+            nowMillis += TICK_MILLIS;
+        }
+        journal.flush();
+
+        double transactionsPerMinute = store.transactions / (double) minutes;
+        assertTrue(transactionsPerMinute <= 2.1);
+        assertEquals(minutes * 60, journal.getRecordedCount());
+        assertEquals(TimeUnit.MINUTES.toMillis(minutes) - TICK_MILLIS, store.positions.get(EPISODE).getPositionMs());
+    }
+
+    @Test
+    public void updates_areCoalescedPerEpisode() {
+        PlaybackPositionJournal journal = journal();
+        for (int i = 0; i < 5; i++) {
+            journal.record(EPISODE, i * TICK_MILLIS, 0);
+            journal.record(OTHER_EPISODE, i * TICK_MILLIS, 0);
+        }
+
+        journal.flush();
+
+        assertEquals(1, store.transactions);
+        assertEquals(2, journal.getWrittenCount());
+        assertEquals(4 * TICK_MILLIS, store.positions.get(EPISODE).getPositionMs());
+    }
+
+    @Test
+    public void flush_writesNothingWithoutUpdates() {
+        PlaybackPositionJournal journal = journal();
+
+        journal.flush();
+
+        assertEquals(0, store.transactions);
+    }
+
+    @Test
+    public void resumePosition_includesUpdatesNotWrittenYet() {
+        PlaybackPositionJournal journal = new PlaybackPositionJournal(store, queuedWrites::add,
+                FLUSH_INTERVAL_MILLIS, () -> nowMillis);
+        journal.record(EPISODE, 5000, 60000);
+        journal.flush();
+
+        // The write is still queued
+        assertEquals(5000, journal.getResumePositionMs(EPISODE));
+        queuedWrites.get(0).run();
+        assertEquals(5000, journal.getResumePositionMs(EPISODE));
+    }
+
+    @Test
+    public void finishedEpisode_resumesFromTheStart() {
+        PlaybackPositionJournal journal = journal();
+        journal.record(EPISODE, 60000 - PlaybackPositionJournal.FINISHED_MARGIN_MILLIS / 2, 60000);
+        journal.flush();
+
+        assertEquals(0, journal.getResumePositionMs(EPISODE));
+        assertEquals(0, journal.getResumePositionMs(OTHER_EPISODE));
+    }
+
+    private PlaybackPositionJournal journal() {
+        return new PlaybackPositionJournal(store, Runnable::run, FLUSH_INTERVAL_MILLIS, () -> nowMillis);
+    }
+
+    private static class CountingStore implements PlaybackPositionStore {
+
+        private final Map<String, PlaybackPositionEntity> positions = new HashMap<>();
+        private int transactions;
+
+        @Override
+        public PlaybackPositionEntity load(String audioUrl) {
+            return positions.get(audioUrl);
+        }
+
+        @Override
+        public void save(List<PlaybackPositionEntity> batch) {
+            transactions++;
+            for (PlaybackPositionEntity position : batch) {
+                positions.put(position.getAudioUrl(), position);
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.vidbregar.bluepodcast.model.refresh;
+
+import com.example.vidbregar.bluepodcast.model.feed.FeedSection;
+import com.example.vidbregar.bluepodcast.model.network.PodcastService;
+import com.example.vidbregar.bluepodcast.model.network.quota.ApiQuota;
+import com.example.vidbregar.bluepodcast.model.network.quota.QuotaInterceptor;
+import com.example.vidbregar.bluepodcast.model.network.quota.QuotaStore;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import okhttp3.Cache;
+import okhttp3.CacheControl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CatalogRefresherTest {
+
+    private static final String API_KEY = "test-key";
+    private static final List<FeedSection> SECTIONS = Arrays.asList(
+            new FeedSection(FeedSection.BEST_PODCASTS_GENRE_ID, 0, 0),
+            new FeedSection(133, 0, 0));
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private MockWebServer server;
+    private OkHttpClient client;
+    private CatalogRefresher catalogRefresher;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                if ("\"v1\"".equals(request.getHeader("If-None-Match"))) {
+                    return new MockResponse().setResponseCode(304);
+                }
+                return new MockResponse()
+                        .setHeader("Cache-Control", "max-age=3600")
+                        .setHeader("ETag", "\"v1\"")
+                        .setBody("{}");
+            }
+        });
+        server.start();
+        ApiQuota apiQuota = new ApiQuota(new QuotaStore() {
+            private Map<String, Long> values = new HashMap<>();
+
+            @Override
+            public Map<String, Long> load() {
+                return values;
+            }
+
+            @Override
+            public void save(Map<String, Long> values) {
+                this.values = values;
+            }
+        });
+        client = new OkHttpClient.Builder()
+                .cache(new Cache(temporaryFolder.newFolder(), 1024 * 1024))
+                .addInterceptor(new QuotaInterceptor(apiQuota))
+                .build();
+        PodcastService podcastService = new Retrofit.Builder()
+                .baseUrl(server.url("/"))
+                .client(client)
+                .addConverterFactory(GsonConverterFactory.create())
+                .build()
+                .create(PodcastService.class);
+        catalogRefresher = new CatalogRefresher(podcastService, client, API_KEY, apiQuota);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void refresh_storesSectionsAndPodcastsInTheCache() throws Exception {
+        CatalogRefresher.Result result = catalogRefresher.refresh(SECTIONS,
+                Collections.singletonList("podcast-1"));
+
+        assertEquals(3, result.getRefreshed());
+        assertTrue(result.isComplete());
+        assertCached("/api/v1/best_podcasts");
+        assertCached("/api/v1/best_podcasts?genre_id=133");
+        assertCached("/api/v1/podcasts/podcast-1");
+    }
+
+    @Test
+    public void refresh_revalidatesWhatIsAlreadyCached() throws Exception {
+        catalogRefresher.refresh(SECTIONS, Collections.emptyList());
+
+        CatalogRefresher.Result result = catalogRefresher.refresh(SECTIONS, Collections.emptyList());
+
+        assertEquals(2, result.getNotModified());
+        assertEquals(4, server.getRequestCount());
+        server.takeRequest();
+        server.takeRequest();
+        assertEquals("\"v1\"", server.takeRequest().getHeader("If-None-Match"));
+    }
+
+    @Test
+    public void refresh_skipsEverythingOnceCanceled() {
+        catalogRefresher.cancel();
+
+        CatalogRefresher.Result result = catalogRefresher.refresh(SECTIONS, Collections.emptyList());
+
+        assertEquals(2, result.getSkipped());
+        assertEquals(0, server.getRequestCount());
+    }
+
+    private void assertCached(String path) throws Exception {
+        Request request = new Request.Builder()
+                .url(server.url(path))
+                .cacheControl(CacheControl.FORCE_CACHE)
+                .build();
+        try (Response response = client.newCall(request).execute()) {
+            assertEquals(200, response.code());
+            assertNull(response.networkResponse());
+        }
+    }
+}
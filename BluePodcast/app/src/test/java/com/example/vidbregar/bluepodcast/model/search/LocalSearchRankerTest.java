@@ -0,0 +1,60 @@
+package com.example.vidbregar.bluepodcast.model.search;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class LocalSearchRankerTest {
+
+    private static final double[] WEIGHTS = LocalSearchRanker.COLUMN_WEIGHTS;
+
+    // One phrase over the title, publisher and description columns of a 100 row index
+    private static int[] matchinfo(int titleHits, int publisherHits, int descriptionHits,
+                                   int rowsWithHits) {
+        return new int[]{1, 3, 100,
+                titleHits, titleHits, rowsWithHits,
+                publisherHits, publisherHits, rowsWithHits,
+                descriptionHits, descriptionHits, rowsWithHits};
+    }
+
+    @Test
+    public void words_becomePrefixTerms() {
+        assertEquals("\"start*\" \"up*\"", LocalSearchRanker.toMatchExpression("Start-up"));
+        assertEquals("\"tech*\"", LocalSearchRanker.toMatchExpression("  TECH  "));
+    }
+
+    @Test
+    public void operatorsAndQuotes_areNotPassedThrough() {
+        assertEquals("\"cats*\" \"and*\" \"dogs*\"",
+                LocalSearchRanker.toMatchExpression("\"cats\" AND dogs*"));
+        assertNull(LocalSearchRanker.toMatchExpression("\" * -"));
+    }
+
+    @Test
+    public void titleHits_outrankDescriptionHits() {
+        double title = LocalSearchRanker.score(matchinfo(1, 0, 0, 10), WEIGHTS);
+        double description = LocalSearchRanker.score(matchinfo(0, 0, 1, 10), WEIGHTS);
+
+        assertTrue(title > description);
+    }
+
+    @Test
+    public void rareTerms_outrankCommonOnes() {
+        double rare = LocalSearchRanker.score(matchinfo(1, 0, 0, 2), WEIGHTS);
+        double common = LocalSearchRanker.score(matchinfo(1, 0, 0, 90), WEIGHTS);
+
+        assertTrue(rare > common);
+    }
+
+    @Test
+    public void repeatedHits_saturate() {
+        double once = LocalSearchRanker.score(matchinfo(0, 0, 1, 10), WEIGHTS);
+        double often = LocalSearchRanker.score(matchinfo(0, 0, 50, 10), WEIGHTS);
+
+        assertTrue(often > once);
+        // Any number of hits scores less than 1 + saturation times a single hit
+        assertTrue(often < 2.2 * once);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.vidbregar.bluepodcast.model.search;
+
+import com.example.vidbregar.bluepodcast.model.data.SearchResult;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class PrefixResultCacheTest {
+
+    private static SearchResult result(String episodeTitle, String podcastTitle) {
+        SearchResult result = new SearchResult();
+        result.setEpisodeTitle(episodeTitle);
+        result.setPodcastTitle(podcastTitle);
+        return result;
+    }
+
+    private final SearchResult startupInterview = result("Startup interview", "Founders");
+    private final SearchResult startupStories = result("Stories", "Startup Stories");
+    private final SearchResult starTrek = result("Star Trek review", null);
+
+    @Test
+    public void longerQuery_reusesPrefixResultsMatchingIt() {
+        PrefixResultCache cache = new PrefixResultCache();
+        cache.put("star", Arrays.asList(startupInterview, startupStories, starTrek));
+
+        assertEquals(Arrays.asList(startupInterview, startupStories), cache.getForPrefix("startup"));
+        assertEquals(Arrays.asList(startupStories), cache.getForPrefix("Startup  stor"));
+    }
+
+    @Test
+    public void longestCachedPrefix_isPreferred() {
+        PrefixResultCache cache = new PrefixResultCache();
+        cache.put("st", Arrays.asList(startupInterview, startupStories, starTrek));
+        cache.put("startup", Arrays.asList(startupInterview));
+
+        assertEquals(Arrays.asList(startupInterview), cache.getForPrefix("startup s"));
+    }
+
+    @Test
+    public void exactQuery_returnsItsOwnResults() {
+        PrefixResultCache cache = new PrefixResultCache();
+        List<SearchResult> results = Arrays.asList(startupStories, starTrek);
+        cache.put("Star ", results);
+
+        assertEquals(results, cache.getForPrefix(" star"));
+    }
+
+    @Test
+    public void unrelatedQuery_isNotServed() {
+        PrefixResultCache cache = new PrefixResultCache();
+        cache.put("star", Arrays.asList(startupInterview));
+
+        assertNull(cache.getForPrefix("sta"));
+        assertNull(cache.getForPrefix("comedy"));
+    }
+
+    @Test
+    public void leastRecentlyUsedQuery_isEvicted() {
+        PrefixResultCache cache = new PrefixResultCache(2);
+        cache.put("star", Arrays.asList(starTrek));
+        cache.put("startup", Arrays.asList(startupInterview));
+        cache.getForPrefix("star");
+        cache.put("comedy", Arrays.asList(startupStories));
+
+        // Only the results of "star" are left to narrow down
+        assertEquals(Collections.emptyList(), cache.getForPrefix("startup"));
+        assertEquals(Arrays.asList(starTrek), cache.getForPrefix("star"));
+    }
+}
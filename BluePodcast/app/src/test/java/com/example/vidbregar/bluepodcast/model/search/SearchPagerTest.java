@@ -0,0 +1,202 @@
+package com.example.vidbregar.bluepodcast.model.search;
+
+import com.example.vidbregar.bluepodcast.model.data.SearchResult;
+import com.example.vidbregar.bluepodcast.model.network.PodcastService;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SearchPagerTest {
+
+    private static final String API_KEY = "test-key";
+    private static final int PAGE_SIZE = 10;
+    private static final int TOTAL = 100;
+    private static final int PREFETCH_DISTANCE = 5;
+
+    private MockWebServer server;
+    private PodcastService podcastService;
+    private final BlockingQueue<List<SearchResult>> pages = new LinkedBlockingQueue<>();
+    private final SearchPager.Listener listener = new SearchPager.Listener() {
+        @Override
+        public void onResults(List<SearchResult> results, boolean hasMore) {
+            pages.add(results);
+        }
+
+        @Override
+        public void onPageFailed(int offset, Throwable t) {
+        }
+    };
+    // Results at these offsets repeat the result before them, as when the index shifts
+    private int duplicateEvery;
+    private long bodyDelayMillis;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                HttpUrl url = request.getRequestUrl();
+                return new MockResponse()
+                        .setBodyDelay(bodyDelayMillis, TimeUnit.MILLISECONDS)
+                        .setBody(page(url.queryParameter("q"),
+                                Integer.parseInt(url.queryParameter("offset"))));
+            }
+        });
+        server.start();
+        podcastService = new Retrofit.Builder()
+                .baseUrl(server.url("/"))
+                .addConverterFactory(GsonConverterFactory.create())
+                .build()
+                .create(PodcastService.class);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void onScrolled_prefetchesNextPageNearTheEnd() throws Exception {
+        SearchPager searchPager = pager(SearchPager.DEFAULT_MAX_RESULTS);
+        searchPager.search("tech");
+        assertEquals(PAGE_SIZE, nextPage().size());
+
+        searchPager.onScrolled(PAGE_SIZE - PREFETCH_DISTANCE - 1);
+        assertNull(pages.poll(200, TimeUnit.MILLISECONDS));
+
+        searchPager.onScrolled(PAGE_SIZE - PREFETCH_DISTANCE);
+        List<SearchResult> results = nextPage();
+
+        assertEquals(2 * PAGE_SIZE, results.size());
+        assertEquals("tech-19", results.get(19).getEpisodeId());
+        assertEquals(2, server.getRequestCount());
+        server.takeRequest();
+        assertEquals("10", server.takeRequest().getRequestUrl().queryParameter("offset"));
+    }
+
+    @Test
+    public void onScrolled_requestsOnePageAtATime() throws Exception {
+        bodyDelayMillis = 200;
+        SearchPager searchPager = pager(SearchPager.DEFAULT_MAX_RESULTS);
+        searchPager.search("tech");
+        nextPage();
+
+        for (int i = 0; i < 10; i++) {
+            searchPager.onScrolled(PAGE_SIZE - 1);
+        }
+
+        assertTrue(searchPager.isLoading());
+        assertEquals(2 * PAGE_SIZE, nextPage().size());
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void results_areDeduplicatedByEpisodeId() throws Exception {
+        duplicateEvery = 4;
+        SearchPager searchPager = pager(SearchPager.DEFAULT_MAX_RESULTS);
+        searchPager.search("tech");
+        nextPage();
+        searchPager.onScrolled(PAGE_SIZE);
+        List<SearchResult> results = nextPage();
+
+        List<String> ids = new ArrayList<>();
+        for (SearchResult result : results) {
+            assertFalse(ids.contains(result.getEpisodeId()));
+            ids.add(result.getEpisodeId());
+        }
+        // 20 results with offsets 4, 8, 12 and 16 repeating their predecessor
+        assertEquals(16, results.size());
+    }
+
+    @Test
+    public void results_stopAtMaxResults() throws Exception {
+        SearchPager searchPager = pager(25);
+        searchPager.search("tech");
+        nextPage();
+        searchPager.onScrolled(PAGE_SIZE);
+        nextPage();
+        searchPager.onScrolled(2 * PAGE_SIZE);
+
+        assertEquals(25, nextPage().size());
+        assertFalse(searchPager.hasMore());
+        searchPager.onScrolled(25);
+        assertEquals(3, server.getRequestCount());
+    }
+
+    @Test
+    public void results_stopAtTotal() throws Exception {
+        SearchPager searchPager = pager(SearchPager.DEFAULT_MAX_RESULTS);
+        searchPager.search("tech");
+        for (int offset = 0; offset < TOTAL; offset += PAGE_SIZE) {
+            assertEquals(offset + PAGE_SIZE, nextPage().size());
+            searchPager.onScrolled(offset + PAGE_SIZE);
+        }
+
+        assertFalse(searchPager.hasMore());
+        assertEquals(TOTAL / PAGE_SIZE, server.getRequestCount());
+    }
+
+    @Test
+    public void search_dropsPagesOfThePreviousQuery() throws Exception {
+        bodyDelayMillis = 200;
+        SearchPager searchPager = pager(SearchPager.DEFAULT_MAX_RESULTS);
+        searchPager.search("old");
+        searchPager.search("new");
+
+        List<SearchResult> results = nextPage();
+
+        assertEquals("new-0", results.get(0).getEpisodeId());
+        assertNull(pages.poll(400, TimeUnit.MILLISECONDS));
+    }
+
+    private SearchPager pager(int maxResults) {
+        return new SearchPager(podcastService, API_KEY, PREFETCH_DISTANCE, maxResults, listener);
+    }
+
+    private List<SearchResult> nextPage() throws InterruptedException {
+        List<SearchResult> results = pages.poll(5, TimeUnit.SECONDS);
+        assertTrue(results != null);
+        return results;
+    }
+
+    private String page(String query, int offset) {
+        JsonArray results = new JsonArray();
+        for (int i = offset; i < offset + PAGE_SIZE && i < TOTAL; i++) {
+            int id = duplicateEvery > 0 && i > 0 && i % duplicateEvery == 0 ? i - 1 : i;
+            JsonObject result = new JsonObject();
+            result.addProperty("id", query + "-" + id);
+            result.addProperty("title_original", "Episode " + id);
+            result.addProperty("audio", "https://cdn.example.com/" + id + ".mp3");
+            results.add(result);
+        }
+        JsonObject search = new JsonObject();
+        search.addProperty("count", results.size());
+        search.addProperty("total", TOTAL);
+        search.addProperty("next_offset", offset + results.size());
+        search.add("results", results);
+        return search.toString();
+    }
+}
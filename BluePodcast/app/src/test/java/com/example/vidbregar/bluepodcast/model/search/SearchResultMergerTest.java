@@ -0,0 +1,48 @@
+package com.example.vidbregar.bluepodcast.model.search;
+
+import com.example.vidbregar.bluepodcast.model.data.SearchResult;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+public class SearchResultMergerTest {
+
+    private static SearchResult result(String episodeId, String audioUrl) {
+        SearchResult result = new SearchResult();
+        result.setEpisodeId(episodeId);
+        result.setAudioUrl(audioUrl);
+        return result;
+    }
+
+    @Test
+    public void localHits_comeFirst() {
+        SearchResult local = result("1", "https://a/1.mp3");
+        SearchResult remote = result("2", "https://a/2.mp3");
+
+        assertEquals(Arrays.asList(local, remote),
+                SearchResultMerger.merge(Collections.singletonList(local), Collections.singletonList(remote)));
+    }
+
+    @Test
+    public void remoteResultsCoveredByLocalHits_areLeftOut() {
+        SearchResult favorite = result(null, "https://a/1.mp3");
+        SearchResult sameEpisode = result("1", "https://a/1.mp3");
+        SearchResult other = result("2", "https://a/2.mp3");
+
+        assertEquals(Arrays.asList(favorite, other), SearchResultMerger.merge(
+                Collections.singletonList(favorite), Arrays.asList(sameEpisode, other)));
+    }
+
+    @Test
+    public void resultsWithoutKey_areKept() {
+        SearchResult first = result(null, null);
+        SearchResult second = result(null, null);
+
+        assertEquals(Arrays.asList(first, second),
+                SearchResultMerger.merge(Collections.singletonList(first), Collections.singletonList(second)));
+    }
+}